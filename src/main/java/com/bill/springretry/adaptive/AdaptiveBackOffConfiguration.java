@@ -0,0 +1,20 @@
+package com.bill.springretry.adaptive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 自適應退避共用的下游負載追蹤器
+ */
+@Configuration
+public class AdaptiveBackOffConfiguration {
+
+    @Bean(name = "downstreamLoadTracker")
+    public DownstreamLoadTracker downstreamLoadTracker(
+            @Value("${retry.adaptive.ewma-alpha:0.2}") double alpha,
+            @Value("${retry.adaptive.max-operations:1000}") int maxOperations) {
+        return new DownstreamLoadTracker(alpha, maxOperations);
+    }
+}
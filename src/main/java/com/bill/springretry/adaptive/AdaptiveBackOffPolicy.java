@@ -0,0 +1,129 @@
+package com.bill.springretry.adaptive;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依下游實際負載調整間隔的退避策略
+ * 負載係數 = max(1, EWMA 延遲 / 目標延遲, 進行中呼叫數 / 目標並發)，
+ * 第 n 次退避 = min(初始間隔 * 倍數^n * 負載係數, 最大間隔)
+ * 下游變慢或擁塞時拉長間隔，恢復後回到原本的間隔；退避一定發生在失敗之後，因此不會短於原本的間隔，
+ * 下游快速失敗（例如連線被拒）時也不會因為延遲很低而加快重試
+ * 沒有負載資料（回調未經 DownstreamLoadTracker 包裝）時負載係數為 1
+ */
+public class AdaptiveBackOffPolicy implements SleepingBackOffPolicy<AdaptiveBackOffPolicy> {
+
+    private long initialInterval = 500;
+    private long maxInterval = 10000;
+    private double multiplier = 1.0;
+    private long targetLatencyMillis = 200;
+    private int targetConcurrency = 50;
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    /**
+     * 負載正常時的第一次退避間隔（毫秒）
+     */
+    public void setInitialInterval(long initialInterval) {
+        this.initialInterval = Math.max(1, initialInterval);
+    }
+
+    /**
+     * 下游變慢時間隔的上限（毫秒）
+     */
+    public void setMaxInterval(long maxInterval) {
+        this.maxInterval = Math.max(1, maxInterval);
+    }
+
+    /**
+     * 同一次執行中每次退避的成長倍數，預設為 1（不成長，只隨負載變化）
+     */
+    public void setMultiplier(double multiplier) {
+        this.multiplier = Math.max(1.0, multiplier);
+    }
+
+    /**
+     * 下游健康時的預期延遲（毫秒），EWMA 延遲等於此值時負載係數為 1
+     */
+    public void setTargetLatencyMillis(long targetLatencyMillis) {
+        this.targetLatencyMillis = Math.max(1, targetLatencyMillis);
+    }
+
+    /**
+     * 下游健康時的預期並發，進行中呼叫數等於此值時負載係數為 1
+     */
+    public void setTargetConcurrency(int targetConcurrency) {
+        this.targetConcurrency = Math.max(1, targetConcurrency);
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    @Override
+    public AdaptiveBackOffPolicy withSleeper(Sleeper sleeper) {
+        AdaptiveBackOffPolicy copy = new AdaptiveBackOffPolicy();
+        copy.initialInterval = initialInterval;
+        copy.maxInterval = maxInterval;
+        copy.multiplier = multiplier;
+        copy.targetLatencyMillis = targetLatencyMillis;
+        copy.targetConcurrency = targetConcurrency;
+        copy.setSleeper(sleeper);
+        return copy;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new AdaptiveBackOffContext(context, initialInterval);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        AdaptiveBackOffContext context = (AdaptiveBackOffContext) backOffContext;
+        double interval = context.interval * loadFactor(context.retryContext);
+        long sleepTime = Math.min(maxInterval, (long) interval);
+        context.interval = Math.min(maxInterval, context.interval * multiplier);
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    /**
+     * 依上下文中的下游負載計算負載係數，不小於 1
+     */
+    double loadFactor(RetryContext retryContext) {
+        DownstreamLoad load = retryContext != null
+                ? (DownstreamLoad) retryContext.getAttribute(DownstreamLoadTracker.LOAD)
+                : null;
+        if (load == null) {
+            return 1.0;
+        }
+        double latencyMillis = load.getLatencyMillis();
+        double latencyFactor = Double.isNaN(latencyMillis) ? 1.0 : latencyMillis / targetLatencyMillis;
+        double concurrencyFactor = (double) load.getInFlight() / targetConcurrency;
+        return Math.max(1.0, Math.max(latencyFactor, concurrencyFactor));
+    }
+
+    private static class AdaptiveBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private double interval;
+
+        AdaptiveBackOffContext(RetryContext retryContext, long initialInterval) {
+            this.retryContext = retryContext;
+            this.interval = initialInterval;
+        }
+    }
+}
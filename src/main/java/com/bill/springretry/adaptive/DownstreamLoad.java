@@ -0,0 +1,83 @@
+package com.bill.springretry.adaptive;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 單一下游操作的負載狀態：成功呼叫延遲的指數加權移動平均 (EWMA) 與進行中的呼叫數
+ * 全部以 CAS 更新，不需要鎖
+ * 失敗的呼叫不計入延遲：下游故障時常常立即失敗（例如連線被拒），計入會讓 EWMA 看起來比健康時還快
+ */
+public final class DownstreamLoad {
+
+    private final String operationName;
+    private final double alpha;
+
+    // EWMA 延遲（奈秒），以 double 的位元表示存放；尚未有樣本時為 NaN
+    private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong samples = new AtomicLong();
+    private volatile long lastAccess;
+
+    DownstreamLoad(String operationName, double alpha) {
+        this.operationName = operationName;
+        this.alpha = alpha;
+    }
+
+    /**
+     * 一次呼叫開始
+     */
+    void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 一次呼叫結束，只有成功時記錄延遲
+     */
+    void exit(long latencyNanos, boolean succeeded) {
+        inFlight.decrementAndGet();
+        if (succeeded) {
+            recordLatency(latencyNanos);
+        }
+    }
+
+    void recordLatency(long latencyNanos) {
+        samples.incrementAndGet();
+        long current;
+        long updated;
+        do {
+            current = ewmaBits.get();
+            double ewma = Double.longBitsToDouble(current);
+            double next = Double.isNaN(ewma) ? latencyNanos : ewma + alpha * (latencyNanos - ewma);
+            updated = Double.doubleToRawLongBits(next);
+        } while (!ewmaBits.compareAndSet(current, updated));
+    }
+
+    /**
+     * EWMA 延遲（毫秒），尚未有樣本時為 NaN
+     */
+    public double getLatencyMillis() {
+        return Double.longBitsToDouble(ewmaBits.get()) / 1_000_000.0;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getSamples() {
+        return samples.get();
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void setLastAccess(long lastAccess) {
+        this.lastAccess = lastAccess;
+    }
+}
@@ -0,0 +1,127 @@
+package com.bill.springretry.adaptive;
+
+import org.springframework.retry.RetryCallback;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依操作名稱追蹤下游的延遲與並發
+ * 以 instrument 包裝重試回調後，每一次嘗試都會計入該操作的負載，
+ * 並把負載狀態放在重試上下文的 {@link #LOAD} 屬性，讓 AdaptiveBackOffPolicy 不需要再查表
+ *
+ * 操作名稱可能來自呼叫端的參數，因此最多保留 maxOperations 個操作；
+ * 超過時淘汰最久沒有使用且沒有進行中呼叫的操作，進行中的呼叫仍持有自己的負載狀態，不受淘汰影響
+ */
+public class DownstreamLoadTracker {
+
+    public static final String LOAD = "downstreamLoad";
+
+    public static final int DEFAULT_MAX_OPERATIONS = 1000;
+
+    private final double alpha;
+    private final int maxOperations;
+    private final ConcurrentMap<String, DownstreamLoad> loads = new ConcurrentHashMap<>();
+    private final AtomicLong accessOrder = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    /**
+     * @param alpha EWMA 的平滑係數 (0, 1]，越大越快反映最新的延遲
+     */
+    public DownstreamLoadTracker(double alpha) {
+        this(alpha, DEFAULT_MAX_OPERATIONS);
+    }
+
+    /**
+     * @param alpha         EWMA 的平滑係數 (0, 1]，越大越快反映最新的延遲
+     * @param maxOperations 最多追蹤的操作數量
+     */
+    public DownstreamLoadTracker(double alpha, int maxOperations) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("EWMA 平滑係數必須介於 0 與 1 之間：" + alpha);
+        }
+        if (maxOperations < 1) {
+            throw new IllegalArgumentException("追蹤的操作數量必須至少為 1：" + maxOperations);
+        }
+        this.alpha = alpha;
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * 包裝重試回調，記錄每一次嘗試的並發與成功嘗試的延遲
+     * 上下文沒有 operationName 時一併設定，讓監聽器使用相同的名稱
+     */
+    public <T, E extends Throwable> RetryCallback<T, E> instrument(String operationName, RetryCallback<T, E> callback) {
+        DownstreamLoad load = load(operationName);
+        return context -> {
+            context.setAttribute(LOAD, load);
+            if (context.getAttribute("operationName") == null) {
+                context.setAttribute("operationName", operationName);
+            }
+            load.enter();
+            long startTime = System.nanoTime();
+            boolean succeeded = false;
+            try {
+                T result = callback.doWithRetry(context);
+                succeeded = true;
+                return result;
+            } finally {
+                load.exit(System.nanoTime() - startTime, succeeded);
+            }
+        };
+    }
+
+    /**
+     * 取得操作的負載狀態，第一次使用時建立，超過上限時淘汰閒置的操作
+     */
+    public DownstreamLoad load(String operationName) {
+        DownstreamLoad load = loads.get(operationName);
+        if (load == null) {
+            DownstreamLoad created = new DownstreamLoad(operationName, alpha);
+            created.setLastAccess(accessOrder.incrementAndGet());
+            load = loads.putIfAbsent(operationName, created);
+            if (load == null) {
+                evictIdle(created);
+                return created;
+            }
+        }
+        load.setLastAccess(accessOrder.incrementAndGet());
+        return load;
+    }
+
+    /**
+     * 淘汰最久沒有使用且沒有進行中呼叫的操作，直到不超過上限
+     * 只在建立新操作時執行；所有操作都有進行中的呼叫時暫時允許超過上限
+     */
+    private void evictIdle(DownstreamLoad created) {
+        synchronized (evictionLock) {
+            while (loads.size() > maxOperations) {
+                Map.Entry<String, DownstreamLoad> eldest = null;
+                for (Map.Entry<String, DownstreamLoad> candidate : loads.entrySet()) {
+                    DownstreamLoad load = candidate.getValue();
+                    if (load == created || load.getInFlight() > 0) {
+                        continue;
+                    }
+                    if (eldest == null || load.getLastAccess() < eldest.getValue().getLastAccess()) {
+                        eldest = candidate;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                loads.remove(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    public Map<String, DownstreamLoad> getLoads() {
+        return Map.copyOf(loads);
+    }
+
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+}
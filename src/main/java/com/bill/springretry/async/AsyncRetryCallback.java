@@ -0,0 +1,21 @@
+package com.bill.springretry.async;
+
+import org.springframework.retry.RetryContext;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 非同步重試回調 - 每次嘗試回傳一個 CompletionStage，而不是直接回傳結果
+ */
+@FunctionalInterface
+public interface AsyncRetryCallback<T> {
+
+    /**
+     * 執行一次嘗試
+     *
+     * @param context 本次重試的上下文
+     * @return 代表本次嘗試結果的 CompletionStage，以例外完成時視為嘗試失敗
+     */
+    CompletionStage<T> doWithRetry(RetryContext context) throws Exception;
+}
@@ -0,0 +1,48 @@
+package com.bill.springretry.async;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 非同步重試的共用設定
+ */
+@Configuration
+public class AsyncRetryConfiguration {
+
+    /**
+     * 執行到期重試的執行器
+     * 時間輪的工作執行緒只負責觸發，重試本身在這裡執行，較慢的重試不會拖住其他到期的任務
+     * virtual：每個到期任務一條虛擬執行緒
+     * fixed：固定 pool-size 條平台執行緒
+     */
+    @Bean(name = "retryTaskExecutor", destroyMethod = "shutdown")
+    public ExecutorService retryTaskExecutor(
+            @Value("${retry.timer.executor:virtual}") String executorType,
+            @Value("${retry.timer.pool-size:16}") int poolSize) {
+        return switch (executorType) {
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            case "fixed" -> Executors.newFixedThreadPool(poolSize);
+            default -> throw new IllegalArgumentException(
+                    "未知的 retry.timer.executor: " + executorType + "，可用的值為 virtual 或 fixed");
+        };
+    }
+
+    /**
+     * 所有非同步重試與延遲重試共用的時間輪計時器
+     * 退避延遲只會對應到時間輪上的一格，大量等待中的重試不需要睡眠的執行緒
+     */
+    @Bean(name = "retryTimer", destroyMethod = "close")
+    public HashedWheelTimer retryTimer(
+            @Value("${retry.timer.tick-millis:10}") long tickMillis,
+            @Value("${retry.timer.wheel-size:512}") int wheelSize,
+            @Qualifier("retryTaskExecutor") ExecutorService retryTaskExecutor) {
+        return new HashedWheelTimer(tickMillis, TimeUnit.MILLISECONDS, wheelSize, retryTaskExecutor);
+    }
+}
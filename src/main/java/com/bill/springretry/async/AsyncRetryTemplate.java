@@ -0,0 +1,260 @@
+package com.bill.springretry.async;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 非阻塞的重試模板 - RetryTemplate 的非同步版本
+ * 沿用既有的 RetryPolicy 決定是否重試、BackOffPolicy 決定等待多久，
+ * 但等待期間不睡眠，而是把下一次嘗試排程到共用的 RetryScheduler 上，呼叫端立即取得 CompletableFuture
+ */
+public class AsyncRetryTemplate {
+
+    private final RetryPolicy retryPolicy;
+    private final BackOffPolicy backOffPolicy;
+    private final RetryScheduler scheduler;
+    private final List<RetryListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 建立非阻塞重試模板
+     *
+     * @param retryPolicy 重試策略
+     * @param backOffPolicy 退避策略，只用來計算延遲時間，不會實際睡眠
+     * @param scheduler 用來排程下一次嘗試的共用排程器，例如 HashedWheelTimer
+     */
+    public AsyncRetryTemplate(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy, RetryScheduler scheduler) {
+        this.retryPolicy = retryPolicy;
+        this.backOffPolicy = BackOffDelays.nonBlocking(backOffPolicy);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 以 ScheduledExecutorService 作為排程器建立非阻塞重試模板
+     */
+    public AsyncRetryTemplate(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy, ScheduledExecutorService scheduler) {
+        this(retryPolicy, backOffPolicy, RetryScheduler.of(scheduler));
+    }
+
+    /**
+     * 註冊重試監聽器，回調時機與 RetryTemplate 相同
+     */
+    public void registerListener(RetryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 執行非同步重試，所有重試失敗時以最後一個異常完成
+     */
+    public <T> CompletableFuture<T> execute(AsyncRetryCallback<T> callback) {
+        return execute(callback, null);
+    }
+
+    /**
+     * 執行非同步重試，所有重試失敗時以恢復回調的結果完成
+     * 重試策略、退避策略或監聽器拋出的異常都會讓返回的 future 以該異常完成，不會讓呼叫端永遠等待
+     */
+    public <T> CompletableFuture<T> execute(AsyncRetryCallback<T> callback, RecoveryCallback<T> recoveryCallback) {
+        RetryContext context;
+        try {
+            context = retryPolicy.open(null);
+        } catch (Throwable ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        Execution<T> execution = new Execution<>(callback, recoveryCallback, context);
+        execution.start();
+        return execution.result;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * 一次非同步重試的執行狀態
+     * 同時作為傳給監聽器的 RetryCallback，讓既有的監聽器不需修改即可使用
+     * 每個階段都在 try 之內，任何 Throwable 都會透過 finish 完成 result
+     */
+    private final class Execution<T> implements RetryCallback<T, Exception> {
+
+        private final AsyncRetryCallback<T> callback;
+        private final RecoveryCallback<T> recoveryCallback;
+        private final RetryContext context;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private BackOffContext backOffContext;
+
+        Execution(AsyncRetryCallback<T> callback, RecoveryCallback<T> recoveryCallback, RetryContext context) {
+            this.callback = callback;
+            this.recoveryCallback = recoveryCallback;
+            this.context = context;
+        }
+
+        /**
+         * 以阻塞方式執行一次嘗試並等待結果
+         * 只有把它當成一般 RetryCallback 直接呼叫的監聽器會走到這裡，AsyncRetryTemplate 本身不會呼叫
+         */
+        @Override
+        public T doWithRetry(RetryContext context) throws Exception {
+            try {
+                return callback.doWithRetry(context).toCompletableFuture().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw ex;
+            } catch (ExecutionException ex) {
+                Throwable cause = unwrap(ex);
+                if (cause instanceof Exception exception) {
+                    throw exception;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw ex;
+            }
+        }
+
+        void start() {
+            try {
+                for (RetryListener listener : listeners) {
+                    if (!listener.open(context, this)) {
+                        finish(null, new TerminatedRetryException("重試在第一次嘗試前被監聽器終止"));
+                        return;
+                    }
+                }
+                backOffContext = backOffPolicy.start(context);
+            } catch (Throwable ex) {
+                finish(null, ex);
+                return;
+            }
+            attempt();
+        }
+
+        void attempt() {
+            CompletionStage<T> stage;
+            try {
+                // 呼叫端已取消，不再發起新的嘗試
+                if (result.isDone()) {
+                    finish(null, null);
+                    return;
+                }
+                if (!retryPolicy.canRetry(context) || context.isExhaustedOnly()) {
+                    exhausted();
+                    return;
+                }
+            } catch (Throwable ex) {
+                finish(null, ex);
+                return;
+            }
+
+            try {
+                stage = Objects.requireNonNull(callback.doWithRetry(context), "AsyncRetryCallback 不可返回 null");
+            } catch (Throwable ex) {
+                stage = CompletableFuture.failedFuture(ex);
+            }
+            stage.whenComplete(this::onAttemptComplete);
+        }
+
+        private void onAttemptComplete(T value, Throwable failure) {
+            try {
+                if (failure == null) {
+                    for (RetryListener listener : listeners) {
+                        listener.onSuccess(context, this, value);
+                    }
+                    finish(value, null);
+                    return;
+                }
+
+                Throwable cause = unwrap(failure);
+                retryPolicy.registerThrowable(context, cause);
+                for (int i = listeners.size() - 1; i >= 0; i--) {
+                    listeners.get(i).onError(context, this, cause);
+                }
+
+                if (retryPolicy.canRetry(context) && !context.isExhaustedOnly()) {
+                    // 只計算延遲時間，由計時器在到期時觸發下一次嘗試；計時器關閉時以拒絕的原因結束
+                    long delay = BackOffDelays.nextDelay(backOffPolicy, backOffContext);
+                    scheduler.schedule(RetryScheduler.rejectable(this::attempt, this::rejected), delay);
+                } else {
+                    exhausted();
+                }
+            } catch (Throwable ex) {
+                finish(null, ex);
+            }
+        }
+
+        /**
+         * 等待中的下一次嘗試因排程器關閉而不會執行，最後一次失敗附加在拒絕的異常上
+         */
+        private void rejected(RejectedExecutionException cause) {
+            Throwable lastThrowable = context.getLastThrowable();
+            if (lastThrowable != null) {
+                cause.addSuppressed(lastThrowable);
+            }
+            finish(null, cause);
+        }
+
+        private void exhausted() {
+            context.setAttribute(RetryContext.EXHAUSTED, true);
+            if (recoveryCallback == null) {
+                finish(null, context.getLastThrowable());
+                return;
+            }
+            T recovered;
+            try {
+                recovered = recoveryCallback.recover(context);
+            } catch (Throwable ex) {
+                finish(null, ex);
+                return;
+            }
+            finish(recovered, null);
+        }
+
+        /**
+         * 關閉重試並完成 result，關閉時拋出的異常也會反映在 result 上
+         */
+        private void finish(T value, Throwable failure) {
+            Throwable outcome = failure;
+            try {
+                close(failure);
+            } catch (Throwable ex) {
+                if (outcome == null) {
+                    outcome = ex;
+                } else {
+                    outcome.addSuppressed(ex);
+                }
+            }
+            if (outcome == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(outcome);
+            }
+        }
+
+        private void close(Throwable failure) {
+            retryPolicy.close(context);
+            context.setAttribute(RetryContext.CLOSED, true);
+            for (int i = listeners.size() - 1; i >= 0; i--) {
+                listeners.get(i).close(context, this, failure);
+            }
+        }
+    }
+}
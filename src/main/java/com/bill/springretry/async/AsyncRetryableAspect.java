@@ -0,0 +1,263 @@
+package com.bill.springretry.async;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.UniformRandomBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 讓 @Retryable 支援回傳 CompletableFuture 的方法
+ * Spring Retry 的攔截器只看得到同步拋出的異常，非同步失敗會被當成成功返回；
+ * 這個切面以 retryFor/noRetryFor 分類非同步失敗，透過時間輪排程下一次嘗試，
+ * 全部失敗後呼叫同一個類別中的 @Recover 方法作為非同步的降級結果
+ *
+ * 順序排在 @EnableRetry 的攔截器（LOWEST_PRECEDENCE - 1）之內，所有失敗都轉成回傳的 future，
+ * 外層的同步攔截器因此不會再重試一次
+ *
+ * 註解以 AnnotatedElementUtils 合併後讀取，value 與已棄用的 include/exclude 透過別名併入 retryFor/noRetryFor；
+ * 不支援的屬性（maxAttemptsExpression、exceptionExpression、listeners、label、stateful、notRecoverable
+ * 與 @Backoff 的各個 Expression）有設定時，第一次呼叫就以 IllegalStateException 失敗，而不是默默忽略
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AsyncRetryableAspect {
+
+    private final RetryScheduler retryTimer;
+
+    // 每個方法的重試模板與恢復方法只解析一次
+    private final Map<Method, AsyncRetryTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<Method, Map<Class<?>, Method>> recoverMethods = new ConcurrentHashMap<>();
+
+    public AsyncRetryableAspect(RetryScheduler retryTimer) {
+        this.retryTimer = retryTimer;
+    }
+
+    @Around("@annotation(retryable) && execution(java.util.concurrent.CompletableFuture *(..))")
+    public Object retryAsync(ProceedingJoinPoint joinPoint, Retryable retryable) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Object[] args = joinPoint.getArgs();
+
+        AsyncRetryTemplate template = templates.computeIfAbsent(method, m -> createTemplate(target, m));
+        return template.execute(context -> proceed(joinPoint))
+                .exceptionallyCompose(failure -> recover(target, method, retryable, args, unwrap(failure)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletionStage<Object> proceed(ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return (CompletionStage<Object>) joinPoint.proceed();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * 依照 @Retryable 的設定建立重試模板
+     *
+     * @throws IllegalStateException 設定了這個切面不支援的屬性時
+     */
+    private AsyncRetryTemplate createTemplate(Object target, Method method) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(target));
+        Retryable retryable = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Retryable.class);
+        if (retryable == null) {
+            retryable = AnnotatedElementUtils.findMergedAnnotation(method, Retryable.class);
+        }
+        checkSupported(method, retryable);
+
+        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
+        for (Class<? extends Throwable> type : retryable.retryFor()) {
+            retryableExceptions.put(type, true);
+        }
+        boolean retryAll = retryableExceptions.isEmpty();
+        for (Class<? extends Throwable> type : retryable.noRetryFor()) {
+            retryableExceptions.put(type, false);
+        }
+
+        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(
+                retryable.maxAttempts(), retryableExceptions, true, retryAll);
+        return new AsyncRetryTemplate(retryPolicy, createBackOffPolicy(retryable.backoff()), retryTimer);
+    }
+
+    /**
+     * 非同步重試沒有 BeanFactory 可以解析運算式與監聽器，也沒有跨呼叫保存的有狀態重試；
+     * 這些屬性被忽略時重試的行為會與註解不同，因此直接拒絕
+     */
+    private static void checkSupported(Method method, Retryable retryable) {
+        List<String> unsupported = new ArrayList<>();
+        if (!retryable.maxAttemptsExpression().isEmpty()) {
+            unsupported.add("maxAttemptsExpression");
+        }
+        if (!retryable.exceptionExpression().isEmpty()) {
+            unsupported.add("exceptionExpression");
+        }
+        if (retryable.listeners().length > 0) {
+            unsupported.add("listeners");
+        }
+        if (!retryable.label().isEmpty()) {
+            unsupported.add("label");
+        }
+        if (retryable.stateful()) {
+            unsupported.add("stateful");
+        }
+        if (retryable.notRecoverable().length > 0) {
+            unsupported.add("notRecoverable");
+        }
+        Backoff backoff = retryable.backoff();
+        if (!backoff.delayExpression().isEmpty()) {
+            unsupported.add("backoff.delayExpression");
+        }
+        if (!backoff.maxDelayExpression().isEmpty()) {
+            unsupported.add("backoff.maxDelayExpression");
+        }
+        if (!backoff.multiplierExpression().isEmpty()) {
+            unsupported.add("backoff.multiplierExpression");
+        }
+        if (!backoff.randomExpression().isEmpty()) {
+            unsupported.add("backoff.randomExpression");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new IllegalStateException("回傳 CompletableFuture 的 @Retryable 方法不支援 " + unsupported
+                    + "，請改用固定值或以 AsyncRetryTemplate 自行組合：" + method.toGenericString());
+        }
+    }
+
+    /**
+     * 依照 @Backoff 的設定建立退避策略，規則與 Spring Retry 相同
+     */
+    private BackOffPolicy createBackOffPolicy(Backoff backoff) {
+        long delay = backoff.delay() > 0 ? backoff.delay() : backoff.value();
+        long maxDelay = backoff.maxDelay();
+
+        if (backoff.multiplier() > 0) {
+            ExponentialBackOffPolicy policy = backoff.random()
+                    ? new ExponentialRandomBackOffPolicy()
+                    : new ExponentialBackOffPolicy();
+            policy.setInitialInterval(delay);
+            policy.setMultiplier(backoff.multiplier());
+            policy.setMaxInterval(maxDelay > delay ? maxDelay : ExponentialBackOffPolicy.DEFAULT_MAX_INTERVAL);
+            return policy;
+        }
+        if (maxDelay > delay) {
+            UniformRandomBackOffPolicy policy = new UniformRandomBackOffPolicy();
+            policy.setMinBackOffPeriod(delay);
+            policy.setMaxBackOffPeriod(maxDelay);
+            return policy;
+        }
+        FixedBackOffPolicy policy = new FixedBackOffPolicy();
+        policy.setBackOffPeriod(delay);
+        return policy;
+    }
+
+    /**
+     * 找出並呼叫最接近異常類型的 @Recover 方法；找不到時維持原本的失敗
+     * 恢復方法可以回傳 CompletionStage，也可以直接回傳值
+     */
+    private CompletableFuture<Object> recover(Object target, Method method, Retryable retryable,
+                                              Object[] args, Throwable cause) {
+        Method recoverMethod = findRecoverMethod(target, method, retryable, cause.getClass());
+        if (recoverMethod == null) {
+            return CompletableFuture.failedFuture(cause);
+        }
+
+        Object[] recoverArgs = new Object[recoverMethod.getParameterCount()];
+        recoverArgs[0] = cause;
+        System.arraycopy(args, 0, recoverArgs, 1, Math.min(args.length, recoverArgs.length - 1));
+        try {
+            Object result = recoverMethod.invoke(target, recoverArgs);
+            if (result instanceof CompletionStage<?> stage) {
+                return stage.toCompletableFuture().thenApply(value -> value);
+            }
+            return CompletableFuture.completedFuture(result);
+        } catch (InvocationTargetException e) {
+            return CompletableFuture.failedFuture(e.getTargetException());
+        } catch (IllegalAccessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Method findRecoverMethod(Object target, Method method, Retryable retryable, Class<?> causeType) {
+        Map<Class<?>, Method> byCause = recoverMethods.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        Method cached = byCause.computeIfAbsent(causeType, type -> {
+            Method found = lookupRecoverMethod(target, method, retryable, type);
+            // ConcurrentHashMap 不接受 null，以方法本身代表「沒有恢復方法」
+            return found != null ? found : method;
+        });
+        return cached == method ? null : cached;
+    }
+
+    private Method lookupRecoverMethod(Object target, Method method, Retryable retryable, Class<?> causeType) {
+        Class<?> targetClass = AopUtils.getTargetClass(target);
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        Class<?>[] argTypes = specificMethod.getParameterTypes();
+        Method[] best = new Method[1];
+
+        ReflectionUtils.doWithMethods(targetClass, candidate -> {
+            if (!candidate.isAnnotationPresent(Recover.class)) {
+                return;
+            }
+            if (!retryable.recover().isEmpty() && !retryable.recover().equals(candidate.getName())) {
+                return;
+            }
+            Class<?>[] parameterTypes = candidate.getParameterTypes();
+            if (parameterTypes.length == 0 || !parameterTypes[0].isAssignableFrom(causeType)
+                    || parameterTypes.length - 1 > argTypes.length) {
+                return;
+            }
+            for (int i = 1; i < parameterTypes.length; i++) {
+                if (!parameterTypes[i].equals(argTypes[i - 1])) {
+                    return;
+                }
+            }
+            // 異常參數越接近實際異常類型越優先
+            if (best[0] == null || best[0].getParameterTypes()[0].isAssignableFrom(parameterTypes[0])) {
+                best[0] = candidate;
+            }
+        });
+
+        if (best[0] != null) {
+            ReflectionUtils.makeAccessible(best[0]);
+        }
+        return best[0];
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bill.springretry.async;
+
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 把 BackOffPolicy 的「睡眠」轉換成「計算延遲時間」
+ * 對於實作 SleepingBackOffPolicy 的策略（ExponentialBackOffPolicy、FixedBackOffPolicy 等），
+ * 以記錄用的 Sleeper 取代 Thread.sleep，呼叫端拿到延遲時間後再自行決定如何等待
+ */
+public final class BackOffDelays {
+
+    // 每個執行緒各自記錄最近一次退避要求的睡眠時間，backOff 在呼叫執行緒上同步執行，因此不會互相干擾
+    private static final ThreadLocal<long[]> RECORDED_DELAY = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final Sleeper RECORDING_SLEEPER = backOffPeriod -> RECORDED_DELAY.get()[0] += backOffPeriod;
+
+    private BackOffDelays() {
+    }
+
+    /**
+     * 取得不會阻塞的退避策略
+     * 不支援 Sleeper 的策略會原樣返回，這類策略的 backOff 仍會在呼叫執行緒上執行
+     *
+     * @param backOffPolicy 原本的退避策略
+     * @return 只記錄延遲、不實際睡眠的退避策略
+     */
+    public static BackOffPolicy nonBlocking(BackOffPolicy backOffPolicy) {
+        if (backOffPolicy instanceof SleepingBackOffPolicy<?> sleepingPolicy) {
+            return sleepingPolicy.withSleeper(RECORDING_SLEEPER);
+        }
+        return backOffPolicy;
+    }
+
+    /**
+     * 執行一次退避並返回該次退避要求的延遲時間
+     *
+     * @param nonBlockingPolicy 透過 {@link #nonBlocking(BackOffPolicy)} 取得的退避策略
+     * @param backOffContext 退避上下文
+     * @return 下一次嘗試前應等待的毫秒數
+     */
+    public static long nextDelay(BackOffPolicy nonBlockingPolicy, BackOffContext backOffContext)
+            throws BackOffInterruptedException {
+        // 包裝其他策略的退避策略也會在 backOff 中呼叫這個方法，因此保留外層的記錄值
+        long[] recorded = RECORDED_DELAY.get();
+        long outer = recorded[0];
+        recorded[0] = 0;
+        try {
+            nonBlockingPolicy.backOff(backOffContext);
+            return recorded[0];
+        } finally {
+            recorded[0] = outer;
+        }
+    }
+}
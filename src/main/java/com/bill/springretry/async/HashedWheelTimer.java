@@ -0,0 +1,435 @@
+package com.bill.springretry.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 時間輪計時器 - 用於大量等待中的重試
+ * 每個等待中的重試只是一個掛在時間格上的節點，不需要睡眠的執行緒，也不需要維護優先佇列：
+ * 新增與取消都是 O(1)，由單一工作執行緒每個 tick 處理一格
+ * 精度為一個 tick，適合退避這類對準確時間不敏感的延遲
+ * 關閉時尚未到期的任務不會執行；其中的 {@link RetryScheduler.RejectableTask} 會收到 reject，
+ * 等待它們的 future 因此可以結束，其餘任務由 {@link #stop()} 回傳
+ */
+public class HashedWheelTimer implements RetryScheduler, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    // 每個 tick 最多從佇列搬入時間輪的節點數，避免大量新增時工作執行緒遲遲無法推進
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+
+    // 新增與取消都先進入無鎖佇列，由工作執行緒統一處理，時間格本身只有工作執行緒會存取
+    private final Queue<WheelTimeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> pendingCancels = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+    private final LongAdder expiredTimeouts = new LongAdder();
+    private final LongAdder cancelledTimeouts = new LongAdder();
+
+    private final long startTime;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // 工作執行緒結束時寫入，關閉前為空
+    private volatile List<Runnable> unprocessed = List.of();
+
+    // 只有工作執行緒會讀寫
+    private long tick;
+
+    /**
+     * 建立在工作執行緒上直接執行到期任務的時間輪
+     * 到期任務應該很短（例如只是發起一次非同步呼叫），否則會拖慢後續的 tick
+     *
+     * @param tickDuration 每一格代表的時間
+     * @param unit 時間單位
+     * @param wheelSize 時間輪的格數，會調整為 2 的次方
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        this(tickDuration, unit, wheelSize, Runnable::run);
+    }
+
+    /**
+     * 建立時間輪
+     *
+     * @param tickDuration 每一格代表的時間
+     * @param unit 時間單位
+     * @param wheelSize 時間輪的格數，會調整為 2 的次方
+     * @param taskExecutor 執行到期任務的 Executor
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor taskExecutor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration 必須大於 0: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize 必須介於 1 與 2^30 之間: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = createWheel(wheelSize);
+        this.mask = wheel.length - 1;
+        this.taskExecutor = taskExecutor;
+        this.startTime = System.nanoTime();
+
+        this.worker = new Thread(this::runWorker, "retry-wheel-timer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    private static Bucket[] createWheel(int wheelSize) {
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        Bucket[] buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        return buckets;
+    }
+
+    /**
+     * 在指定延遲後執行任務
+     * 極大的延遲（例如 Long.MAX_VALUE 毫秒）視為永不到期，而不是因為溢位立即執行
+     *
+     * @return 可用來取消的 Timeout
+     * @throws RejectedExecutionException 計時器已關閉時
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new RejectedExecutionException("時間輪計時器已關閉");
+        }
+        long elapsed = System.nanoTime() - startTime;
+        // toNanos 在溢位時飽和為 Long.MAX_VALUE，再加上經過時間會變成負數，因此限制在不溢位的範圍內
+        long deadline = elapsed + Math.min(unit.toNanos(Math.max(delay, 0)), Long.MAX_VALUE - elapsed);
+        WheelTimeout timeout = new WheelTimeout(task, deadline);
+        pendingTimeouts.incrementAndGet();
+        pendingAdds.add(timeout);
+        // 與 close 競爭：工作執行緒可能已經清空佇列，仍留在佇列中的任務由這裡拒絕
+        if (!running && pendingAdds.remove(timeout)) {
+            pendingTimeouts.decrementAndGet();
+            throw new RejectedExecutionException("時間輪計時器已關閉");
+        }
+        return timeout;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        newTimeout(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 目前等待中（尚未到期也未取消）的任務數
+     */
+    public long getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * 累計已到期執行的任務數
+     */
+    public long getExpiredTimeouts() {
+        return expiredTimeouts.sum();
+    }
+
+    /**
+     * 累計被取消的任務數
+     */
+    public long getCancelledTimeouts() {
+        return cancelledTimeouts.sum();
+    }
+
+    /**
+     * 停止工作執行緒，尚未到期的任務不會再被執行，RejectableTask 會收到 reject
+     */
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * 停止工作執行緒並回傳尚未到期的任務，RejectableTask 在回傳前已經收到 reject
+     * 工作執行緒正在執行較長的到期任務而未能及時結束時，回傳空列表，剩下的任務在它結束時同樣會被拒絕
+     */
+    public List<Runnable> stop() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("時間輪工作執行緒未能及時結束，尚未到期的任務將在它結束時被拒絕");
+        }
+        return unprocessed;
+    }
+
+    private void runWorker() {
+        while (running) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            processCancelled();
+            transferToBuckets();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+        unprocessed = rejectUnprocessed();
+    }
+
+    /**
+     * 取出時間格與佇列中所有尚未到期的任務並拒絕，只在工作執行緒結束前呼叫
+     */
+    private List<Runnable> rejectUnprocessed() {
+        List<WheelTimeout> timeouts = new ArrayList<>();
+        for (Bucket bucket : wheel) {
+            bucket.drainTo(timeouts);
+        }
+        WheelTimeout timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            timeouts.add(timeout);
+        }
+        pendingCancels.clear();
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (WheelTimeout candidate : timeouts) {
+            if (candidate.reject()) {
+                tasks.add(candidate.task);
+            }
+        }
+        return List.copyOf(tasks);
+    }
+
+    /**
+     * 等待到下一個 tick，計時器關閉時返回 false
+     */
+    private boolean waitForNextTick() {
+        long target = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = target - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+            if (!running) {
+                return false;
+            }
+        }
+    }
+
+    private void processCancelled() {
+        WheelTimeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferToBuckets() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            WheelTimeout timeout = pendingAdds.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // 已經過期的任務放到目前這一格，本次 tick 就會執行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 已排程的任務，可用來取消
+     */
+    public interface Timeout {
+
+        /**
+         * 取消任務
+         *
+         * @return 任務尚未到期且成功取消時返回 true
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private final class WheelTimeout implements Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final int ST_REJECTED = 3;
+
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = ST_INIT;
+
+        // 以下欄位只有工作執行緒會存取
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTimeout prev;
+        private WheelTimeout next;
+
+        WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            pendingTimeouts.decrementAndGet();
+            cancelledTimeouts.increment();
+            // 交給工作執行緒從時間格中移除
+            pendingCancels.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            pendingTimeouts.decrementAndGet();
+            expiredTimeouts.increment();
+            try {
+                taskExecutor.execute(task);
+            } catch (Throwable ex) {
+                // 工作執行緒不能因為單一任務失敗而停止，只記錄下來；任務自己的結果應由任務內部回報
+                log.warn("時間輪任務執行失敗", ex);
+            }
+        }
+
+        /**
+         * 計時器關閉時拒絕尚未到期的任務
+         *
+         * @return 任務尚未到期也未取消時返回 true
+         */
+        boolean reject() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_REJECTED)) {
+                return false;
+            }
+            pendingTimeouts.decrementAndGet();
+            if (task instanceof RejectableTask rejectable) {
+                try {
+                    rejectable.reject(new RejectedExecutionException("時間輪計時器已關閉，任務不會執行"));
+                } catch (Throwable ex) {
+                    log.warn("時間輪任務的拒絕處理失敗", ex);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 時間輪的一格 - 以雙向鏈結串列保存節點，新增與移除都是 O(1)
+     */
+    private static final class Bucket {
+
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            WheelTimeout timeout = head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        /**
+         * 移出所有節點，計時器關閉時使用
+         */
+        void drainTo(List<WheelTimeout> timeouts) {
+            WheelTimeout timeout = head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.bucket = null;
+                timeouts.add(timeout);
+                timeout = next;
+            }
+            head = tail = null;
+        }
+
+        void remove(WheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            WheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bill.springretry.async;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 延遲執行下一次嘗試的排程器
+ * 非同步重試與有狀態的延遲重試都透過它等待退避，而不是讓執行緒睡眠
+ */
+@FunctionalInterface
+public interface RetryScheduler {
+
+    /**
+     * 在指定延遲後執行任務
+     *
+     * @param task 要執行的任務
+     * @param delayMillis 延遲毫秒數
+     */
+    void schedule(Runnable task, long delayMillis);
+
+    /**
+     * 建立排程器關閉時會收到通知的任務
+     *
+     * @param task 到期時執行的任務
+     * @param onRejected 排程器關閉而任務不會再執行時呼叫，通常用來結束等待這個任務的 future
+     */
+    static RejectableTask rejectable(Runnable task, Consumer<RejectedExecutionException> onRejected) {
+        return new RejectableTask() {
+            @Override
+            public void run() {
+                task.run();
+            }
+
+            @Override
+            public void reject(RejectedExecutionException cause) {
+                onRejected.accept(cause);
+            }
+        };
+    }
+
+    /**
+     * 以 ScheduledExecutorService 作為排程器
+     */
+    static RetryScheduler of(ScheduledExecutorService executor) {
+        return (task, delayMillis) -> executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 排程器關閉時仍在等待的任務
+     * HashedWheelTimer 關閉時對尚未到期的 RejectableTask 呼叫 reject，而不是默默丟棄，
+     * 等待這些任務的 future 因此可以結束
+     */
+    interface RejectableTask extends Runnable {
+
+        /**
+         * 任務不會再被執行時呼叫
+         */
+        void reject(RejectedExecutionException cause);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bill.springretry.backoff;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 去相關抖動退避 (decorrelated jitter)：sleep = min(maxInterval, random(initialInterval, 上一次 sleep * multiplier))
+ * 每次的延遲取決於上一次的隨機結果，同時重啟的客戶端很快就會分散開，不會一波一波地同時重試
+ *
+ * 隨機來源預設為 ThreadLocalRandom，每條執行緒各自的產生器，大量並發重試不會爭用同一個產生器
+ * 測試時可以注入固定種子的產生器以驗證延遲分佈
+ */
+public class DecorrelatedJitterBackOffPolicy implements SleepingBackOffPolicy<DecorrelatedJitterBackOffPolicy> {
+
+    private long initialInterval = 100;
+    private long maxInterval = 30000;
+    private double multiplier = 3.0;
+    private Supplier<? extends RandomGenerator> randomSource = ThreadLocalRandom::current;
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    /**
+     * 最小延遲，也是第一次延遲範圍的下限（毫秒）
+     */
+    public void setInitialInterval(long initialInterval) {
+        this.initialInterval = Math.max(1, initialInterval);
+    }
+
+    /**
+     * 延遲上限（毫秒）
+     */
+    public void setMaxInterval(long maxInterval) {
+        this.maxInterval = Math.max(1, maxInterval);
+    }
+
+    /**
+     * 延遲範圍上限相對於上一次延遲的倍數，預設為 3
+     */
+    public void setMultiplier(double multiplier) {
+        this.multiplier = Math.max(1.0, multiplier);
+    }
+
+    /**
+     * 隨機來源，每次退避時呼叫一次取得產生器
+     */
+    public void setRandomSource(Supplier<? extends RandomGenerator> randomSource) {
+        this.randomSource = randomSource;
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    public long getInitialInterval() {
+        return initialInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public DecorrelatedJitterBackOffPolicy withSleeper(Sleeper sleeper) {
+        DecorrelatedJitterBackOffPolicy copy = new DecorrelatedJitterBackOffPolicy();
+        copy.setInitialInterval(initialInterval);
+        copy.setMaxInterval(maxInterval);
+        copy.setMultiplier(multiplier);
+        copy.setRandomSource(randomSource);
+        copy.setSleeper(sleeper);
+        return copy;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new DecorrelatedJitterBackOffContext(initialInterval);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        DecorrelatedJitterBackOffContext context = (DecorrelatedJitterBackOffContext) backOffContext;
+        long sleepTime = nextInterval(context.previousInterval);
+        context.previousInterval = sleepTime;
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    private long nextInterval(long previousInterval) {
+        long upper = (long) Math.min(maxInterval, previousInterval * multiplier);
+        long lower = Math.min(initialInterval, upper);
+        if (upper <= lower) {
+            return lower;
+        }
+        return randomSource.get().nextLong(lower, upper + 1);
+    }
+
+    private static class DecorrelatedJitterBackOffContext implements BackOffContext {
+
+        private long previousInterval;
+
+        DecorrelatedJitterBackOffContext(long initialInterval) {
+            this.previousInterval = initialInterval;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.bill.springretry.backoff;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 完全抖動退避 (full jitter)：sleep = random(0, min(maxInterval, initialInterval * multiplier^n))
+ * 指數成長的只是延遲範圍的上限，實際延遲在整個範圍內均勻分佈
+ *
+ * 隨機來源預設為 ThreadLocalRandom，每條執行緒各自的產生器，大量並發重試不會爭用同一個產生器
+ */
+public class FullJitterBackOffPolicy implements SleepingBackOffPolicy<FullJitterBackOffPolicy> {
+
+    private long initialInterval = 100;
+    private long maxInterval = 30000;
+    private double multiplier = 2.0;
+    private Supplier<? extends RandomGenerator> randomSource = ThreadLocalRandom::current;
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    /**
+     * 第一次延遲範圍的上限（毫秒）
+     */
+    public void setInitialInterval(long initialInterval) {
+        this.initialInterval = Math.max(1, initialInterval);
+    }
+
+    /**
+     * 延遲範圍上限的最大值（毫秒）
+     */
+    public void setMaxInterval(long maxInterval) {
+        this.maxInterval = Math.max(1, maxInterval);
+    }
+
+    /**
+     * 每次重試延遲範圍上限的成長倍數，預設為 2
+     */
+    public void setMultiplier(double multiplier) {
+        this.multiplier = Math.max(1.0, multiplier);
+    }
+
+    /**
+     * 隨機來源，每次退避時呼叫一次取得產生器
+     */
+    public void setRandomSource(Supplier<? extends RandomGenerator> randomSource) {
+        this.randomSource = randomSource;
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    public long getInitialInterval() {
+        return initialInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public FullJitterBackOffPolicy withSleeper(Sleeper sleeper) {
+        FullJitterBackOffPolicy copy = new FullJitterBackOffPolicy();
+        copy.setInitialInterval(initialInterval);
+        copy.setMaxInterval(maxInterval);
+        copy.setMultiplier(multiplier);
+        copy.setRandomSource(randomSource);
+        copy.setSleeper(sleeper);
+        return copy;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new FullJitterBackOffContext(initialInterval);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        FullJitterBackOffContext context = (FullJitterBackOffContext) backOffContext;
+        long ceiling = Math.min(maxInterval, context.ceiling);
+        long sleepTime = randomSource.get().nextLong(ceiling + 1);
+        context.ceiling = (long) Math.min(maxInterval, context.ceiling * multiplier);
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    private static class FullJitterBackOffContext implements BackOffContext {
+
+        private long ceiling;
+
+        FullJitterBackOffContext(long initialInterval) {
+            this.ceiling = initialInterval;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bill.springretry.backoff;
+
+import com.bill.springretry.async.BackOffDelays;
+import com.bill.springretry.exception.RetryHint;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 遵守伺服器 Retry-After 的退避策略
+ * 最後一次失敗（或其 cause 鏈中）的重試提示帶有建議延遲時，例如 RemoteServiceException 的 Retry-After，
+ * 等待建議的時間，但不超過 maxRetryAfter；沒有建議時改用後備策略，預設為指數退避
+ *
+ * 外層的 DeadlineAwareBackOffPolicy 以伺服器要求的原始時間（而不是截短後的時間）檢查剩餘的時間預算，
+ * 超過時直接放棄而不是白等
+ */
+public class RetryAfterBackOffPolicy implements SleepingBackOffPolicy<RetryAfterBackOffPolicy> {
+
+    private long maxRetryAfter = 30000;
+    private BackOffPolicy fallback = BackOffDelays.nonBlocking(new ExponentialBackOffPolicy());
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    /**
+     * 遵守 Retry-After 的上限（毫秒），伺服器要求更久時以上限等待
+     */
+    public void setMaxRetryAfter(long maxRetryAfter) {
+        this.maxRetryAfter = Math.max(0, maxRetryAfter);
+    }
+
+    /**
+     * 沒有 Retry-After 時使用的退避策略，只用來計算延遲，等待由本策略的 Sleeper 完成
+     */
+    public void setFallback(BackOffPolicy fallback) {
+        this.fallback = BackOffDelays.nonBlocking(fallback);
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    public long getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    @Override
+    public RetryAfterBackOffPolicy withSleeper(Sleeper sleeper) {
+        RetryAfterBackOffPolicy copy = new RetryAfterBackOffPolicy();
+        copy.maxRetryAfter = maxRetryAfter;
+        copy.fallback = fallback;
+        copy.setSleeper(sleeper);
+        return copy;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new RetryAfterBackOffContext(context, fallback.start(context));
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        RetryAfterBackOffContext context = (RetryAfterBackOffContext) backOffContext;
+        long retryAfter = findRetryAfter(context.retryContext);
+        long sleepTime = retryAfter >= 0
+                ? Math.min(retryAfter, maxRetryAfter)
+                : BackOffDelays.nextDelay(fallback, context.fallbackContext);
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    /**
+     * 從最後一次失敗的重試提示取得建議延遲（毫秒），沒有建議時回傳 -1
+     */
+    private static long findRetryAfter(RetryContext retryContext) {
+        if (retryContext == null) {
+            return -1;
+        }
+        return RetryHint.findSuggestedDelay(retryContext.getLastThrowable())
+                .map(delay -> delay.toMillis())
+                .orElse(-1L);
+    }
+
+    private static class RetryAfterBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private final BackOffContext fallbackContext;
+
+        RetryAfterBackOffContext(RetryContext retryContext, BackOffContext fallbackContext) {
+            this.retryContext = retryContext;
+            this.fallbackContext = fallbackContext;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.bill.springretry.backoff;
+
+import com.bill.springretry.async.BackOffDelays;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依端點共享退避狀態的策略
+ * 每次退避的延遲 = max(包裝策略計算的延遲, 端點目前的懲罰)，並把延遲記錄為端點的懲罰；
+ * 其他呼叫者對同一個已知故障的端點重試時，直接從目前的懲罰開始等待，而不是都從第一次的短間隔重新開始
+ *
+ * 端點取自重試上下文的 {@link #ENDPOINT} 屬性，由回調在嘗試時設定；沒有端點時等同包裝的策略
+ * {@link #successListener()} 需要註冊到同一個 RetryTemplate：操作成功時懲罰依 decayFactor 衰減
+ * 懲罰超過 penaltyExpiry 沒有更新時視為過期；追蹤的端點數量有上限，已滿時新端點不共享狀態
+ *
+ * 策略本身不實作 RetryListener，宣告為 Bean 時不會被 @EnableRetry 當成全域監聽器套用到所有 @Retryable 方法
+ */
+public class SharedEndpointBackOffPolicy implements SleepingBackOffPolicy<SharedEndpointBackOffPolicy> {
+
+    public static final String ENDPOINT = "endpoint";
+
+    private final BackOffPolicy delegate;
+    private final ConcurrentMap<String, EndpointPenalty> penalties;
+    private int maxEndpoints = 1024;
+    private long penaltyExpiry = 60_000;
+    private double decayFactor = 2.0;
+    private Sleeper sleeper = new ThreadWaitSleeper();
+    private LongSupplier clock = System::currentTimeMillis;
+    private final RetryListener successListener = new RetryListener() {
+        @Override
+        public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                                   Throwable throwable) {
+            decay(context, throwable);
+        }
+    };
+
+    /**
+     * @param delegate 每次操作自己的退避策略，只用來計算延遲
+     */
+    public SharedEndpointBackOffPolicy(BackOffPolicy delegate) {
+        this(BackOffDelays.nonBlocking(delegate), new ConcurrentHashMap<>());
+    }
+
+    private SharedEndpointBackOffPolicy(BackOffPolicy delegate, ConcurrentMap<String, EndpointPenalty> penalties) {
+        this.delegate = delegate;
+        this.penalties = penalties;
+    }
+
+    /**
+     * 同時追蹤的端點上限
+     */
+    public void setMaxEndpoints(int maxEndpoints) {
+        this.maxEndpoints = Math.max(1, maxEndpoints);
+    }
+
+    /**
+     * 懲罰沒有更新多久（毫秒）之後視為過期
+     */
+    public void setPenaltyExpiry(long penaltyExpiry) {
+        this.penaltyExpiry = Math.max(1, penaltyExpiry);
+    }
+
+    /**
+     * 每次成功時懲罰除以的倍數，預設為 2
+     */
+    public void setDecayFactor(double decayFactor) {
+        this.decayFactor = Math.max(1.0, decayFactor);
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 端點目前的懲罰（毫秒），沒有懲罰或已過期時為 0
+     */
+    public long getPenalty(String endpoint) {
+        EndpointPenalty penalty = penalties.get(endpoint);
+        return penalty == null ? 0 : penalty.current(clock.getAsLong(), penaltyExpiry);
+    }
+
+    public int getTrackedEndpoints() {
+        return penalties.size();
+    }
+
+    /**
+     * 操作成功時衰減端點懲罰的監聽器，以 RetryTemplate.registerListener 註冊到使用本策略的模板
+     */
+    public RetryListener successListener() {
+        return successListener;
+    }
+
+    /**
+     * 建立使用指定 Sleeper 的副本，副本與本實例共享端點狀態
+     */
+    @Override
+    public SharedEndpointBackOffPolicy withSleeper(Sleeper sleeper) {
+        SharedEndpointBackOffPolicy copy = new SharedEndpointBackOffPolicy(delegate, penalties);
+        copy.maxEndpoints = maxEndpoints;
+        copy.penaltyExpiry = penaltyExpiry;
+        copy.decayFactor = decayFactor;
+        copy.clock = clock;
+        copy.setSleeper(sleeper);
+        return copy;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new SharedEndpointBackOffContext(context, delegate.start(context));
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        SharedEndpointBackOffContext context = (SharedEndpointBackOffContext) backOffContext;
+        long sleepTime = BackOffDelays.nextDelay(delegate, context.delegateContext);
+
+        String endpoint = endpoint(context.retryContext);
+        if (endpoint != null) {
+            EndpointPenalty penalty = penaltyFor(endpoint);
+            if (penalty != null) {
+                long now = clock.getAsLong();
+                sleepTime = Math.max(sleepTime, penalty.current(now, penaltyExpiry));
+                penalty.raise(sleepTime, now, penaltyExpiry);
+            }
+        }
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    /**
+     * 操作成功時衰減端點的懲罰，衰減到 0 時不再追蹤該端點
+     */
+    private void decay(RetryContext context, Throwable throwable) {
+        String endpoint = endpoint(context);
+        if (throwable != null || endpoint == null) {
+            return;
+        }
+        EndpointPenalty penalty = penalties.get(endpoint);
+        if (penalty != null && penalty.decay(decayFactor) == 0) {
+            penalties.remove(endpoint, penalty);
+        }
+    }
+
+    private EndpointPenalty penaltyFor(String endpoint) {
+        EndpointPenalty penalty = penalties.get(endpoint);
+        if (penalty != null) {
+            return penalty;
+        }
+        if (penalties.size() >= maxEndpoints) {
+            evictExpired();
+            if (penalties.size() >= maxEndpoints) {
+                return null;
+            }
+        }
+        return penalties.computeIfAbsent(endpoint, key -> new EndpointPenalty());
+    }
+
+    private void evictExpired() {
+        long now = clock.getAsLong();
+        penalties.values().removeIf(penalty -> penalty.current(now, penaltyExpiry) == 0);
+    }
+
+    private static String endpoint(RetryContext context) {
+        Object endpoint = context != null ? context.getAttribute(ENDPOINT) : null;
+        return endpoint != null ? endpoint.toString() : null;
+    }
+
+    /**
+     * 端點的懲罰與最後一次更新時間
+     * 兩者放在同一個不可變的狀態中一起更新，過期判斷與提高懲罰在同一次 CAS 內完成
+     */
+    private static class EndpointPenalty {
+
+        private final AtomicReference<PenaltyState> state = new AtomicReference<>(new PenaltyState(0, 0));
+
+        long current(long now, long expiry) {
+            return state.get().current(now, expiry);
+        }
+
+        /**
+         * 已過期的懲罰不再參與比較，直接以本次延遲重新開始
+         */
+        void raise(long delay, long now, long expiry) {
+            state.updateAndGet(value -> new PenaltyState(Math.max(value.current(now, expiry), delay), now));
+        }
+
+        long decay(double factor) {
+            return state.updateAndGet(value -> new PenaltyState((long) (value.penalty() / factor), value.updatedAt()))
+                    .penalty();
+        }
+    }
+
+    private record PenaltyState(long penalty, long updatedAt) {
+
+        long current(long now, long expiry) {
+            return now - updatedAt >= expiry ? 0 : penalty;
+        }
+    }
+
+    private static class SharedEndpointBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private final BackOffContext delegateContext;
+
+        SharedEndpointBackOffContext(RetryContext retryContext, BackOffContext delegateContext) {
+            this.retryContext = retryContext;
+            this.delegateContext = delegateContext;
+        }
+    }
+}
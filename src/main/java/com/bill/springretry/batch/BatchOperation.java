@@ -0,0 +1,16 @@
+package com.bill.springretry.batch;
+
+import org.springframework.retry.RetryContext;
+
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 一次處理多個項目的操作，例如以單一查詢取得多筆資料
+ * 整批失敗時直接拋出異常；部分失敗時在 BatchOutcome 中標記失敗的項目
+ */
+@FunctionalInterface
+public interface BatchOperation<I, R> {
+
+    BatchOutcome<R> execute(List<I> items, RetryContext context) throws Exception;
+}
@@ -0,0 +1,69 @@
+package com.bill.springretry.batch;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 一次批次操作中每個項目的結果，索引與傳入批次的項目順序一致
+ * 沒有標記成功或失敗的項目視為失敗；結果數量必須與送出的項目數相同，見 {@link #requireSize}
+ */
+public class BatchOutcome<R> {
+
+    private final Object[] results;
+    private final Throwable[] failures;
+    private final boolean[] succeeded;
+
+    public BatchOutcome(int size) {
+        this.results = new Object[size];
+        this.failures = new Throwable[size];
+        this.succeeded = new boolean[size];
+    }
+
+    /**
+     * 檢查批次操作回傳的結果數量與送出的項目數一致
+     * 不一致（或沒有回傳結果）時拋出 IllegalStateException，而不是在逐項讀取時超出陣列範圍
+     */
+    public static <R> BatchOutcome<R> requireSize(BatchOutcome<R> outcome, int expected) {
+        if (outcome == null) {
+            throw new IllegalStateException("批次操作沒有回傳結果，送出了 " + expected + " 個項目");
+        }
+        if (outcome.size() != expected) {
+            throw new IllegalStateException(
+                    "批次操作回傳 " + outcome.size() + " 個結果，但送出了 " + expected + " 個項目");
+        }
+        return outcome;
+    }
+
+    public void success(int index, R result) {
+        results[index] = result;
+        failures[index] = null;
+        succeeded[index] = true;
+    }
+
+    public void failure(int index, Throwable failure) {
+        results[index] = null;
+        failures[index] = failure;
+        succeeded[index] = false;
+    }
+
+    public int size() {
+        return results.length;
+    }
+
+    public boolean isSucceeded(int index) {
+        return succeeded[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public R getResult(int index) {
+        return (R) results[index];
+    }
+
+    public Throwable getFailure(int index) {
+        if (succeeded[index]) {
+            return null;
+        }
+        if (failures[index] == null) {
+            return new IllegalStateException("批次操作沒有回傳第 " + index + " 個項目的結果");
+        }
+        return failures[index];
+    }
+}
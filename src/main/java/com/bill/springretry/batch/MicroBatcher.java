@@ -0,0 +1,194 @@
+package com.bill.springretry.batch;
+
+import org.springframework.retry.RetryOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 微批次收集器：收集並發提交的項目，累積到 maxBatchSize 個或等待 maxDelayMicros 微秒後合併成一次批次操作
+ * 每個批次只建立一個重試上下文，整批以 RetryOperations 重試；
+ * 部分失敗時下一次嘗試只包含尚未成功的項目，每個呼叫者各自取得自己項目的結果
+ *
+ * 部分失敗時以第一個失敗項目的異常交給重試策略判斷是否重試，
+ * 用盡重試後，尚未成功的項目各自以最後一次的失敗結束
+ */
+public class MicroBatcher<I, R> implements AutoCloseable {
+
+    private final RetryOperations retryOperations;
+    private final BatchOperation<I, R> operation;
+    private final int maxBatchSize;
+    private final long maxDelayMicros;
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Object lock = new Object();
+    private List<Pending<I, R>> current = new ArrayList<>();
+    private long generation;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder items = new LongAdder();
+
+    public MicroBatcher(RetryOperations retryOperations, BatchOperation<I, R> operation,
+                        int maxBatchSize, long maxDelayMicros) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize 必須大於 0");
+        }
+        this.retryOperations = retryOperations;
+        this.operation = operation;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMicros = maxDelayMicros;
+
+        this.timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "micro-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 提交一個項目，返回該項目最終結果的 future
+     */
+    public CompletableFuture<R> submit(I item) {
+        Pending<I, R> pending = new Pending<>(item);
+        List<Pending<I, R>> fullBatch = null;
+
+        synchronized (lock) {
+            current.add(pending);
+            if (current.size() >= maxBatchSize) {
+                fullBatch = takeCurrent();
+            } else if (current.size() == 1) {
+                // 批次的第一個項目負責啟動計時，時間到時不論數量都送出
+                long batchGeneration = generation;
+                timer.schedule(() -> flush(batchGeneration), maxDelayMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return pending.future;
+    }
+
+    /**
+     * 已執行的批次數
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * 已送出的項目數，與批次數相除即為平均批次大小
+     */
+    public long getItemCount() {
+        return items.sum();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        batchExecutor.shutdown();
+    }
+
+    private void flush(long batchGeneration) {
+        List<Pending<I, R>> batch;
+        synchronized (lock) {
+            // 批次已經因為數量額滿送出時，這個計時就不需要了
+            if (batchGeneration != generation || current.isEmpty()) {
+                return;
+            }
+            batch = takeCurrent();
+        }
+        dispatch(batch);
+    }
+
+    private List<Pending<I, R>> takeCurrent() {
+        List<Pending<I, R>> batch = current;
+        current = new ArrayList<>();
+        generation++;
+        return batch;
+    }
+
+    private void dispatch(List<Pending<I, R>> batch) {
+        batches.increment();
+        items.add(batch.size());
+        try {
+            batchExecutor.execute(() -> runBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    private void runBatch(List<Pending<I, R>> batch) {
+        try {
+            retryOperations.execute(context -> {
+                List<Pending<I, R>> remaining = new ArrayList<>();
+                List<I> remainingItems = new ArrayList<>();
+                for (Pending<I, R> pending : batch) {
+                    if (!pending.future.isDone()) {
+                        remaining.add(pending);
+                        remainingItems.add(pending.item);
+                    }
+                }
+
+                BatchOutcome<R> outcome;
+                try {
+                    outcome = BatchOutcome.requireSize(operation.execute(remainingItems, context), remaining.size());
+                } catch (Exception e) {
+                    remaining.forEach(pending -> pending.lastFailure = e);
+                    throw e;
+                }
+
+                Throwable firstFailure = null;
+                for (int i = 0; i < remaining.size(); i++) {
+                    Pending<I, R> pending = remaining.get(i);
+                    if (outcome.isSucceeded(i)) {
+                        pending.future.complete(outcome.getResult(i));
+                    } else {
+                        pending.lastFailure = outcome.getFailure(i);
+                        if (firstFailure == null) {
+                            firstFailure = pending.lastFailure;
+                        }
+                    }
+                }
+                if (firstFailure != null) {
+                    throw asException(firstFailure);
+                }
+                return null;
+            });
+        } catch (Throwable e) {
+            for (Pending<I, R> pending : batch) {
+                pending.future.completeExceptionally(pending.lastFailure != null ? pending.lastFailure : e);
+            }
+        }
+    }
+
+    private static Exception asException(Throwable throwable) {
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        return (Exception) throwable;
+    }
+
+    private static final class Pending<I, R> {
+
+        private final I item;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        // 只在執行批次的執行緒上讀寫
+        private Throwable lastFailure;
+
+        Pending(I item) {
+            this.item = item;
+        }
+    }
+}
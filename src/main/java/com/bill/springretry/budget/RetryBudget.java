@@ -0,0 +1,143 @@
+package com.bill.springretry.budget;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 全域重試預算：滑動窗口內的重試次數不超過第一次嘗試次數的固定比例，
+ * 另外保留每秒最少可用的重試次數，讓低流量時仍然可以重試
+ *
+ * 窗口分成多個時間桶，每個桶以 LongAdder 計數，記錄與檢查都不需要鎖，
+ * 每次檢查只加總固定數量的桶；檢查與記錄之間沒有原子性，高並發時可能略為超出預算
+ */
+public class RetryBudget {
+
+    private static final int BUCKET_COUNT = 10;
+
+    private final double retryRatio;
+    private final long minRetriesPerWindow;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+
+    private final LongAdder rejectedRetries = new LongAdder();
+
+    /**
+     * @param retryRatio 重試次數相對於第一次嘗試次數的比例上限，例如 0.1 表示最多多出 10% 的流量
+     * @param minRetriesPerSecond 不論比例，每秒至少允許的重試次數
+     * @param window 滑動窗口長度
+     */
+    public RetryBudget(double retryRatio, int minRetriesPerSecond, Duration window) {
+        this(retryRatio, minRetriesPerSecond, window, System::currentTimeMillis);
+    }
+
+    RetryBudget(double retryRatio, int minRetriesPerSecond, Duration window, LongSupplier clock) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("retryRatio 不可小於 0");
+        }
+        long windowMillis = window.toMillis();
+        if (windowMillis < BUCKET_COUNT) {
+            throw new IllegalArgumentException("窗口長度至少需要 " + BUCKET_COUNT + "ms");
+        }
+        this.retryRatio = retryRatio;
+        this.minRetriesPerWindow = Math.round(minRetriesPerSecond * windowMillis / 1000.0);
+        this.bucketMillis = windowMillis / BUCKET_COUNT;
+        this.clock = clock;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * 記錄一次第一次嘗試（新的重試操作）
+     */
+    public void recordAttempt() {
+        currentBucket().attempts.increment();
+    }
+
+    /**
+     * 嘗試取得一次重試的額度，預算用盡時返回 false
+     */
+    public boolean tryAcquireRetry() {
+        long epoch = clock.getAsLong() / bucketMillis;
+        long attempts = 0;
+        long retries = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > epoch - BUCKET_COUNT) {
+                attempts += bucket.attempts.sum();
+                retries += bucket.retries.sum();
+            }
+        }
+
+        long allowance = Math.max((long) (attempts * retryRatio), minRetriesPerWindow);
+        if (retries >= allowance) {
+            rejectedRetries.increment();
+            return false;
+        }
+        bucket(epoch).retries.increment();
+        return true;
+    }
+
+    /**
+     * 因預算用盡而被拒絕的重試次數
+     */
+    public long getRejectedRetries() {
+        return rejectedRetries.sum();
+    }
+
+    /**
+     * 目前窗口內的第一次嘗試次數
+     */
+    public long getAttemptsInWindow() {
+        long epoch = clock.getAsLong() / bucketMillis;
+        long attempts = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > epoch - BUCKET_COUNT) {
+                attempts += bucket.attempts.sum();
+            }
+        }
+        return attempts;
+    }
+
+    /**
+     * 目前窗口內已使用的重試次數
+     */
+    public long getRetriesInWindow() {
+        long epoch = clock.getAsLong() / bucketMillis;
+        long retries = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > epoch - BUCKET_COUNT) {
+                retries += bucket.retries.sum();
+            }
+        }
+        return retries;
+    }
+
+    private Bucket currentBucket() {
+        return bucket(clock.getAsLong() / bucketMillis);
+    }
+
+    private Bucket bucket(long epoch) {
+        Bucket bucket = buckets[(int) (epoch % BUCKET_COUNT)];
+        if (bucket.epoch != epoch) {
+            // 桶已經過期，只有輪替時才需要同步，一般情況下只讀取 volatile 欄位
+            synchronized (bucket) {
+                if (bucket.epoch != epoch) {
+                    bucket.attempts.reset();
+                    bucket.retries.reset();
+                    bucket.epoch = epoch;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+
+        private volatile long epoch = Long.MIN_VALUE;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+    }
+}
@@ -0,0 +1,24 @@
+package com.bill.springretry.budget;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 所有重試模板共用的重試預算
+ * 後端部分故障時，各模板各自重試會把流量放大 3-5 倍；共用預算讓整體的重試流量有上限
+ */
+@Configuration
+public class RetryBudgetConfiguration {
+
+    @Bean(name = "retryBudget")
+    public RetryBudget retryBudget(
+            @Value("${retry.budget.ratio:0.1}") double ratio,
+            @Value("${retry.budget.min-retries-per-second:10}") int minRetriesPerSecond,
+            @Value("${retry.budget.window-seconds:10}") long windowSeconds) {
+        return new RetryBudget(ratio, minRetriesPerSecond, Duration.ofSeconds(windowSeconds));
+    }
+}
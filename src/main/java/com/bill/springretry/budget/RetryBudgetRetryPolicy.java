@@ -0,0 +1,79 @@
+package com.bill.springretry.budget;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 以全域重試預算包裝既有的重試策略
+ * 開啟上下文時記錄一次第一次嘗試；每次重試前除了原策略允許，還需要從預算取得額度，
+ * 預算用盡時立即停止重試，拋出最後一個異常（或執行恢復回調）
+ *
+ * RetryTemplate 在同一次重試前會多次呼叫 canRetry，決定以重試次數為鍵存在上下文中，每次重試只消耗一次額度
+ */
+public class RetryBudgetRetryPolicy implements RetryPolicy {
+
+    /**
+     * 上下文屬性：預算已經批准的重試次數
+     */
+    public static final String APPROVED_RETRY = "retryBudget.approvedRetry";
+
+    /**
+     * 上下文屬性：因預算用盡而停止重試時為 true
+     */
+    public static final String BUDGET_EXHAUSTED = "retryBudget.exhausted";
+
+    private final RetryPolicy delegate;
+    private final RetryBudget retryBudget;
+
+    public RetryBudgetRetryPolicy(RetryPolicy delegate, RetryBudget retryBudget) {
+        this.delegate = delegate;
+        this.retryBudget = retryBudget;
+    }
+
+    public RetryPolicy getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (!delegate.canRetry(context)) {
+            return false;
+        }
+        int retryCount = context.getRetryCount();
+        if (retryCount == 0) {
+            // 第一次嘗試不是重試，不消耗預算
+            return true;
+        }
+        if (context.hasAttribute(BUDGET_EXHAUSTED)) {
+            return false;
+        }
+
+        Object approved = context.getAttribute(APPROVED_RETRY);
+        if (approved instanceof Integer approvedRetry && approvedRetry == retryCount) {
+            return true;
+        }
+        if (retryBudget.tryAcquireRetry()) {
+            context.setAttribute(APPROVED_RETRY, retryCount);
+            return true;
+        }
+        context.setAttribute(BUDGET_EXHAUSTED, true);
+        return false;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        retryBudget.recordAttempt();
+        return delegate.open(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+}
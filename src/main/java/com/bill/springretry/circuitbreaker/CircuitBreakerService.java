@@ -1,11 +1,11 @@
 package com.bill.springretry.circuitbreaker;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.RetryContext;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.RetryOperations;
 import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -20,32 +20,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Service
 public class CircuitBreakerService {
 
-    private final RetryTemplate retryTemplate;
+    private final RetryOperations retryTemplate;
     private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
     
     // 用於模擬服務健康狀態
     private volatile boolean serviceHealthy = true;
     
-    public CircuitBreakerService() {
-        this.retryTemplate = new RetryTemplate();
-        
-        // 創建基本的重試策略
-        SimpleRetryPolicy simpleRetryPolicy = new SimpleRetryPolicy();
-        simpleRetryPolicy.setMaxAttempts(3);
-        
-        // 包裝為斷路器策略
-        CircuitBreakerRetryPolicy circuitBreakerRetryPolicy = new CircuitBreakerRetryPolicy(simpleRetryPolicy);
-        
-        // 設置打開斷路器的閾值（連續失敗次數）
-        circuitBreakerRetryPolicy.setOpenTimeout(5000); // 斷路器打開後 5 秒內不允許新的請求
-        circuitBreakerRetryPolicy.setResetTimeout(10000); // 10 秒後自動重置斷路器狀態
-        
-        this.retryTemplate.setRetryPolicy(circuitBreakerRetryPolicy);
-        
-        // 設置退避策略
-        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
-        backOffPolicy.setBackOffPeriod(1000); // 1 秒的固定退避時間
-        this.retryTemplate.setBackOffPolicy(backOffPolicy);
+    /**
+     * @param retryTemplate retry.policies.circuit-breaker 宣告的模板：最多 3 次、固定 1 秒退避，
+     *                      以 CircuitBreakerRetryPolicy 包裝（5 秒內用盡重試時打開，10 秒後自動重置）
+     */
+    @Autowired
+    public CircuitBreakerService(@Qualifier("circuitBreakerRetryTemplate") RetryOperations retryTemplate) {
+        this.retryTemplate = retryTemplate;
     }
     
     /**
@@ -0,0 +1,86 @@
+package com.bill.springretry.classifier;
+
+import org.springframework.classify.Classifier;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.policy.NeverRetryPolicy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依異常類別選擇重試策略的分類器，供 ExceptionClassifierRetryPolicy 使用
+ * 每個異常類別只在第一次出現時沿著父類別找出最接近的設定，結果快取在 ClassValue 中；
+ * 之後的分類只是一次快取查詢，失敗路徑上不會建立任何物件
+ *
+ * 回傳的策略是建立時傳入的共用實例，ExceptionClassifierRetryPolicy 以策略實例對應重試上下文，
+ * 同一類異常因此累計在同一個上下文，不會每次失敗都從頭計算嘗試次數
+ * 異常本身沒有符合的設定時，沿著 cause 鏈往下找，最多 causeDepth 層
+ */
+public class CachingExceptionClassifier implements Classifier<Throwable, RetryPolicy> {
+
+    // ClassValue 不保存 null，以這個實例代表「沒有符合的設定」
+    private static final RetryPolicy UNMATCHED = new NeverRetryPolicy();
+
+    private final Map<Class<? extends Throwable>, RetryPolicy> policies;
+    private final RetryPolicy defaultPolicy;
+    private final int causeDepth;
+
+    private final ClassValue<RetryPolicy> cache = new ClassValue<>() {
+        @Override
+        protected RetryPolicy computeValue(Class<?> type) {
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                RetryPolicy policy = policies.get(current);
+                if (policy != null) {
+                    return policy;
+                }
+            }
+            return UNMATCHED;
+        }
+    };
+
+    /**
+     * @param policies 異常類別對應的重試策略，子類別沒有自己的設定時使用最接近的父類別的策略
+     * @param defaultPolicy 沒有符合的設定時使用的策略
+     * @param causeDepth 往 cause 鏈找幾層，0 表示只看異常本身
+     */
+    public CachingExceptionClassifier(Map<Class<? extends Throwable>, ? extends RetryPolicy> policies,
+                                      RetryPolicy defaultPolicy, int causeDepth) {
+        if (causeDepth < 0) {
+            throw new IllegalArgumentException("cause 鏈深度不可為負數：" + causeDepth);
+        }
+        this.policies = Map.copyOf(new LinkedHashMap<>(policies));
+        this.defaultPolicy = defaultPolicy;
+        this.causeDepth = causeDepth;
+    }
+
+    /**
+     * 只看異常本身，不往 cause 鏈找
+     */
+    public CachingExceptionClassifier(Map<Class<? extends Throwable>, ? extends RetryPolicy> policies,
+                                      RetryPolicy defaultPolicy) {
+        this(policies, defaultPolicy, 0);
+    }
+
+    @Override
+    public RetryPolicy classify(Throwable throwable) {
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth <= causeDepth; depth++) {
+            RetryPolicy policy = cache.get(current.getClass());
+            if (policy != UNMATCHED) {
+                return policy;
+            }
+            Throwable cause = current.getCause();
+            current = cause != current ? cause : null;
+        }
+        return defaultPolicy;
+    }
+
+    public RetryPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    public int getCauseDepth() {
+        return causeDepth;
+    }
+}
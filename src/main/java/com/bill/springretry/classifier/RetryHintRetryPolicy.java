@@ -0,0 +1,92 @@
+package com.bill.springretry.classifier;
+
+import com.bill.springretry.exception.RetryHint;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 先查詢異常自己的重試提示 (RetryHint) 的重試策略
+ * 異常本身或 cause 鏈中實作 RetryHint 的異常由提示決定是否重試；其他外部異常才依類別對照表判斷，
+ * 對照表以最接近的父類別為準，每個類別只查找一次並快取在 ClassValue 中
+ */
+public class RetryHintRetryPolicy implements RetryPolicy {
+
+    private final int maxAttempts;
+    private final Map<Class<? extends Throwable>, Boolean> foreignExceptions;
+
+    private final ClassValue<Boolean> foreignCache = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                Boolean retryable = foreignExceptions.get(current);
+                if (retryable != null) {
+                    return retryable;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    };
+
+    /**
+     * @param maxAttempts 最大嘗試次數
+     * @param foreignExceptions 沒有重試提示的異常類別是否可以重試，不在對照表中的類別不重試
+     */
+    public RetryHintRetryPolicy(int maxAttempts, Map<Class<? extends Throwable>, Boolean> foreignExceptions) {
+        this.maxAttempts = maxAttempts;
+        this.foreignExceptions = Map.copyOf(new LinkedHashMap<>(foreignExceptions));
+    }
+
+    /**
+     * 只重試帶有可重試提示的異常
+     */
+    public RetryHintRetryPolicy(int maxAttempts) {
+        this(maxAttempts, Map.of());
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (context.getRetryCount() >= maxAttempts) {
+            return false;
+        }
+        Throwable lastThrowable = context.getLastThrowable();
+        return lastThrowable == null || isRetryable(lastThrowable);
+    }
+
+    /**
+     * 異常是否值得重試，不考慮已嘗試的次數
+     * 重試提示沿著 cause 鏈查找，被 Spring 或代理包裝的異常同樣依提示判斷
+     */
+    public boolean isRetryable(Throwable throwable) {
+        RetryHint hint = RetryHint.find(throwable);
+        if (hint != null) {
+            return hint.isRetryable();
+        }
+        return foreignCache.get(throwable.getClass());
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        return new RetryContextSupport(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        if (context instanceof RetryContextSupport support) {
+            support.registerThrowable(throwable);
+        }
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bill.springretry.coalescing;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 合併相同鍵值的並發操作 (single-flight)
+ * 同一個鍵只有第一個呼叫者真正執行操作（包含它的所有重試與退避），
+ * 其他並發呼叫者掛在同一個執行上，共享最終結果或最終異常
+ * 操作完成後鍵立即移除，之後的呼叫會重新執行，不會快取結果
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, Call<?>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final AtomicInteger currentWaiters = new AtomicInteger();
+
+    /**
+     * 執行操作；相同鍵值的操作正在進行時，等待並共享它的結果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> operation) throws Exception {
+        Call<T> call = new Call<>();
+        Call<?> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalescedCalls.increment();
+            return (T) existing.await(currentWaiters);
+        }
+
+        executions.increment();
+        try {
+            T result = operation.call();
+            call.future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * 真正執行操作的次數
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * 掛在既有執行上、沒有自行執行的呼叫次數
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    /**
+     * 目前正在等待其他呼叫者結果的數量
+     */
+    public int getCurrentWaiters() {
+        return currentWaiters.get();
+    }
+
+    /**
+     * 目前進行中的鍵數量
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final class Call<T> {
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        T await(AtomicInteger waiters) throws Exception {
+            waiters.incrementAndGet();
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception exception) {
+                    throw exception;
+                }
+                throw (Error) cause;
+            } finally {
+                waiters.decrementAndGet();
+            }
+        }
+    }
+}
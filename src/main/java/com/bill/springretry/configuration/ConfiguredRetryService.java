@@ -1,35 +1,74 @@
 package com.bill.springretry.configuration;
 
+import com.bill.springretry.adaptive.DownstreamLoadTracker;
+import com.bill.springretry.backoff.SharedEndpointBackOffPolicy;
+import com.bill.springretry.batch.BatchOutcome;
+import com.bill.springretry.batch.MicroBatcher;
+import com.bill.springretry.coalescing.SingleFlight;
 import com.bill.springretry.exception.DatabaseException;
 import com.bill.springretry.exception.TransientNetworkException;
+import com.bill.springretry.hedging.HedgingExecutor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.RetryCallback;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryOperations;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author Bill.Lin 2025/4/13
  * 使用配置的重試模板
  */
 @Service
-public class ConfiguredRetryService {
+public class ConfiguredRetryService implements DisposableBean {
 
-    private final RetryTemplate simpleRetryTemplate;
-    private final RetryTemplate databaseRetryTemplate;
-    private final RetryTemplate networkRetryTemplate;
-    private final RetryTemplate monitoredRetryTemplate;
+    // 未指定操作名稱時使用的名稱，與 RetryMetricsListener 的預設名稱相同
+    private static final String DEFAULT_OPERATION = "DEFAULT";
+    
+    // simple、monitored 由 retry.policies 宣告，database、network 由 retry.database、retry.network 設定，
+    // 設定變更時都會在執行中替換
+    private final RetryOperations simpleRetryTemplate;
+    private final RetryOperations databaseRetryTemplate;
+    private final RetryOperations networkRetryTemplate;
+    private final RetryOperations monitoredRetryTemplate;
+    private final HedgingExecutor networkHedgingExecutor;
+    private final DownstreamLoadTracker downstreamLoadTracker;
+    
+    // 合併相同查詢的並發資料庫操作，避免每個呼叫者各自重試放大資料庫負載
+    private final SingleFlight databaseSingleFlight = new SingleFlight();
+    
+    // 合併並發的資料庫查詢成批次，整批共用一個重試上下文
+    private final MicroBatcher<String, String> databaseBatcher;
+    
+    // 未開啟虛擬執行緒模式時為 null
+    private final VirtualThreadRetryExecutor virtualThreadExecutor;
     
     @Autowired
     public ConfiguredRetryService(
-            @Qualifier("simpleRetryTemplate") RetryTemplate simpleRetryTemplate,
-            @Qualifier("databaseRetryTemplate") RetryTemplate databaseRetryTemplate,
-            @Qualifier("networkRetryTemplate") RetryTemplate networkRetryTemplate,
-            @Qualifier("monitoredRetryTemplate") RetryTemplate monitoredRetryTemplate) {
+            @Qualifier("simpleRetryTemplate") RetryOperations simpleRetryTemplate,
+            @Qualifier("databaseRetryTemplate") RetryOperations databaseRetryTemplate,
+            @Qualifier("networkRetryTemplate") RetryOperations networkRetryTemplate,
+            @Qualifier("monitoredRetryTemplate") RetryOperations monitoredRetryTemplate,
+            @Qualifier("networkHedgingExecutor") HedgingExecutor networkHedgingExecutor,
+            DownstreamLoadTracker downstreamLoadTracker,
+            ObjectProvider<VirtualThreadRetryExecutor> virtualThreadExecutor,
+            @Value("${retry.batch.max-size:32}") int batchMaxSize,
+            @Value("${retry.batch.max-delay-micros:500}") long batchMaxDelayMicros) {
         this.simpleRetryTemplate = simpleRetryTemplate;
         this.databaseRetryTemplate = databaseRetryTemplate;
         this.networkRetryTemplate = networkRetryTemplate;
         this.monitoredRetryTemplate = monitoredRetryTemplate;
+        this.networkHedgingExecutor = networkHedgingExecutor;
+        this.downstreamLoadTracker = downstreamLoadTracker;
+        this.virtualThreadExecutor = virtualThreadExecutor.getIfAvailable();
+        this.databaseBatcher = new MicroBatcher<>(
+                databaseRetryTemplate, this::queryBatch, batchMaxSize, batchMaxDelayMicros);
     }
     
     /**
@@ -53,18 +92,89 @@ public class ConfiguredRetryService {
         return networkRetryTemplate.execute(callback);
     }
     
+    /**
+     * 執行對沖模式的網絡重試 - 每次嘗試遲遲未完成時平行送出對沖請求，降低慢請求造成的尾延遲
+     * 回調必須是冪等的，並行的嘗試各自拿到重試上下文的子上下文，勝出嘗試寫入的屬性會寫回重試上下文
+     */
+    public <T> T executeNetworkRetryHedged(RetryCallback<T, Exception> callback) throws Exception {
+        return networkRetryTemplate.execute(context -> networkHedgingExecutor.execute(context, callback));
+    }
+    
     /**
      * 執行有監聽器的重試
      */
     public <T> T executeMonitoredRetry(RetryCallback<T, Exception> callback) throws Exception {
-        return monitoredRetryTemplate.execute(callback);
+        return executeMonitoredRetry(DEFAULT_OPERATION, callback);
+    }
+    
+    /**
+     * 執行有監聽器的重試，每次嘗試的延遲與並發計入指定操作的下游負載，退避間隔隨之調整
+     */
+    public <T> T executeMonitoredRetry(String operationName, RetryCallback<T, Exception> callback) throws Exception {
+        return monitoredRetryTemplate.execute(downstreamLoadTracker.instrument(operationName, callback));
+    }
+    
+    /**
+     * 提交簡單重試，開啟虛擬執行緒模式時在虛擬執行緒上執行
+     */
+    public <T> CompletableFuture<T> submitSimpleRetry(RetryCallback<T, Exception> callback) {
+        return submit(simpleRetryTemplate, callback);
+    }
+    
+    /**
+     * 提交資料庫重試，開啟虛擬執行緒模式時在虛擬執行緒上執行
+     */
+    public <T> CompletableFuture<T> submitDatabaseRetry(RetryCallback<T, Exception> callback) {
+        return submit(databaseRetryTemplate, callback);
+    }
+    
+    /**
+     * 提交網絡重試，開啟虛擬執行緒模式時在虛擬執行緒上執行
+     */
+    public <T> CompletableFuture<T> submitNetworkRetry(RetryCallback<T, Exception> callback) {
+        return submit(networkRetryTemplate, callback);
+    }
+    
+    /**
+     * 提交有監聽器的重試，開啟虛擬執行緒模式時在虛擬執行緒上執行
+     */
+    public <T> CompletableFuture<T> submitMonitoredRetry(RetryCallback<T, Exception> callback) {
+        return submit(monitoredRetryTemplate, downstreamLoadTracker.instrument(DEFAULT_OPERATION, callback));
+    }
+    
+    /**
+     * 是否開啟了虛擬執行緒模式
+     */
+    public boolean isVirtualThreadMode() {
+        return virtualThreadExecutor != null;
+    }
+    
+    private <T> CompletableFuture<T> submit(RetryOperations template, RetryCallback<T, Exception> callback) {
+        if (virtualThreadExecutor != null) {
+            return virtualThreadExecutor.submit(template, callback);
+        }
+        
+        // 未開啟虛擬執行緒模式時，在呼叫端執行緒上同步執行
+        try {
+            return CompletableFuture.completedFuture(template.execute(callback));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * 資料庫操作的合併統計
+     */
+    public SingleFlight getDatabaseSingleFlight() {
+        return databaseSingleFlight;
     }
     
     /**
      * 模擬資料庫操作
+     * 相同查詢的並發呼叫只會有一個重試執行，其他呼叫者共享它的結果或最終異常
      */
     public String performDatabaseOperation(String query) throws Exception {
-        return executeDatabaseRetry(context -> {
+        return databaseSingleFlight.execute("performDatabaseOperation:" + query, () -> executeDatabaseRetry(context -> {
             System.out.println("執行資料庫查詢: " + query + " (嘗試 #" + context.getRetryCount() + ")");
             
             // 模擬資料庫操作可能失敗
@@ -73,7 +183,51 @@ public class ConfiguredRetryService {
             }
             
             return "資料庫查詢結果: " + query.toUpperCase();
-        });
+        }));
+    }
+    
+    /**
+     * 以微批次提交資料庫查詢 - 並發的查詢會合併成一次批次查詢並整批重試，
+     * 部分失敗時只有失敗的查詢會在下一次嘗試中重送
+     */
+    public CompletableFuture<String> submitDatabaseOperation(String query) {
+        return databaseBatcher.submit(query);
+    }
+    
+    /**
+     * 資料庫查詢的批次統計
+     */
+    public MicroBatcher<String, String> getDatabaseBatcher() {
+        return databaseBatcher;
+    }
+    
+    /**
+     * 模擬批次資料庫查詢
+     */
+    private BatchOutcome<String> queryBatch(List<String> queries, RetryContext context) {
+        System.out.println("執行批次資料庫查詢: " + queries.size() + " 筆 (嘗試 #" + context.getRetryCount() + ")");
+        
+        // 模擬整批查詢可能失敗
+        if (Math.random() < 0.3) {
+            throw new DatabaseException("資料庫連接異常: 批次查詢");
+        }
+        
+        // 模擬個別查詢可能失敗
+        BatchOutcome<String> outcome = new BatchOutcome<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            String query = queries.get(i);
+            if (Math.random() < 0.1) {
+                outcome.failure(i, new DatabaseException("資料庫查詢異常: " + query));
+            } else {
+                outcome.success(i, "資料庫查詢結果: " + query.toUpperCase());
+            }
+        }
+        return outcome;
+    }
+    
+    @Override
+    public void destroy() {
+        databaseBatcher.close();
     }
     
     /**
@@ -81,6 +235,7 @@ public class ConfiguredRetryService {
      */
     public String performNetworkOperation(String url) throws Exception {
         return executeNetworkRetry(context -> {
+            context.setAttribute(SharedEndpointBackOffPolicy.ENDPOINT, url);
             System.out.println("請求URL: " + url + " (嘗試 #" + context.getRetryCount() + ")");
             
             // 模擬網絡操作可能失敗
@@ -96,8 +251,7 @@ public class ConfiguredRetryService {
      * 執行受監控的操作
      */
     public String performMonitoredOperation(String operation) throws Exception {
-        return executeMonitoredRetry(context -> {
-            context.setAttribute("operationName", "monitored-" + operation);
+        return executeMonitoredRetry("monitored-" + operation, context -> {
             System.out.println("執行受監控操作: " + operation + " (嘗試 #" + context.getRetryCount() + ")");
             
             // 模擬操作可能失敗
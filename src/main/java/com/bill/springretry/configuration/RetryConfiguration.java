@@ -1,126 +1,193 @@
 package com.bill.springretry.configuration;
 
-import com.bill.springretry.exception.DatabaseException;
-import com.bill.springretry.exception.RemoteServiceException;
-import com.bill.springretry.exception.TransientNetworkException;
-import com.bill.springretry.listener.RetryLoggingListener;
+import com.bill.springretry.backoff.DecorrelatedJitterBackOffPolicy;
+import com.bill.springretry.backoff.FullJitterBackOffPolicy;
+import com.bill.springretry.backoff.SharedEndpointBackOffPolicy;
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.budget.RetryBudgetRetryPolicy;
+import com.bill.springretry.classifier.RetryHintRetryPolicy;
+import com.bill.springretry.database.DatabaseErrorBackOffPolicy;
+import com.bill.springretry.database.DatabaseErrorRetryPolicy;
+import com.bill.springretry.deadline.DeadlineAwareBackOffPolicy;
+import com.bill.springretry.deadline.DeadlineRetryPolicy;
+import com.bill.springretry.exception.DatabaseErrorCategory;
+import com.bill.springretry.listener.RetryListenerRegistry;
 import com.bill.springretry.listener.RetryMetricsListener;
+import com.bill.springretry.reload.RefreshableRetryTemplate;
+import com.bill.springretry.reload.RetryComponents;
+import com.bill.springretry.reload.RetryTemplateRegistry;
+import com.bill.springretry.schedule.BackOffSchedule;
+import com.bill.springretry.schedule.CachedClock;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 /**
  * @author Bill.Lin 2025/4/13
  * 基於配置的重試機制
  * 使用 Spring 的依賴注入配置不同類型的重試模板
+ * 所有模板的重試策略都以共用的 RetryBudget 包裝，整體重試流量不會超過預算
  */
 @Configuration
 public class RetryConfiguration {
 
     /**
-     * 簡單的重試模板，使用固定的退避策略
+     * 在 Java 中組合的模板在 RetryTemplateRegistry 中的名稱，也是設定的前綴（retry.database、retry.network）
      */
-    @Bean(name = "simpleRetryTemplate")
-    public RetryTemplate simpleRetryTemplate() {
-        RetryTemplate template = new RetryTemplate();
-        
-        // 配置重試策略
-        SimpleRetryPolicy policy = new SimpleRetryPolicy();
-        policy.setMaxAttempts(3);
-        template.setRetryPolicy(policy);
-        
-        // 配置退避策略
-        FixedBackOffPolicy backOff = new FixedBackOffPolicy();
-        backOff.setBackOffPeriod(1000); // 1秒的固定間隔
-        template.setBackOffPolicy(backOff);
-        
-        return template;
+    public static final String DATABASE = "database";
+    public static final String NETWORK = "network";
+
+    /**
+     * 在 retry.policies 宣告的重試模板（例如 simpleRetryTemplate、monitoredRetryTemplate），
+     * 啟動時驗證並註冊為 RetryTemplate Bean；BeanDefinitionRegistryPostProcessor 必須以靜態方法宣告
+     */
+    @Bean
+    public static RetryTemplateRegistrar retryTemplateRegistrar() {
+        return new RetryTemplateRegistrar();
+    }
+    
+    /**
+     * 建立宣告式重試模板的工廠，監聽器依名稱從 RetryListenerRegistry 取得，schedule 退避使用 retry.backoff-schedule 的時段表
+     */
+    @Bean
+    public RetryTemplateFactory retryTemplateFactory(RetryBudget retryBudget, RetryListenerRegistry retryListenerRegistry,
+                                                     BackOffSchedule backOffSchedule,
+                                                     @Qualifier("scheduleClock") CachedClock scheduleClock) {
+        return new RetryTemplateFactory(retryBudget, retryListenerRegistry::get, backOffSchedule, scheduleClock);
     }
     
     /**
-     * 資料庫操作的重試模板，針對數據庫異常進行優化
+     * 資料庫操作的重試模板，參數由 retry.database 設定，重新載入時依目前的設定重新組合
+     * 響應式重試透過 RetryTemplateRegistry.getComponents 共用同一組策略
      */
     @Bean(name = "databaseRetryTemplate")
-    public RetryTemplate databaseRetryTemplate() {
-        RetryTemplate template = new RetryTemplate();
-        
-        // 配置針對數據庫異常的重試策略
-        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
-        retryableExceptions.put(DatabaseException.class, true);
-        
-        SimpleRetryPolicy policy = new SimpleRetryPolicy(5, retryableExceptions);
-        template.setRetryPolicy(policy);
-        
-        // 配置指數退避策略
-        ExponentialBackOffPolicy backOff = new ExponentialBackOffPolicy();
-        backOff.setInitialInterval(100);    // 初始 100ms
-        backOff.setMultiplier(2.0);         // 每次加倍
-        backOff.setMaxInterval(30000);      // 最大 30秒
-        template.setBackOffPolicy(backOff);
-        
-        return template;
+    public RefreshableRetryTemplate databaseRetryTemplate(RetryTemplateRegistry retryTemplateRegistry,
+                                                          RetryBudget retryBudget) {
+        return retryTemplateRegistry.register(DATABASE,
+                properties -> databaseRetry(properties.getDatabase(), retryBudget));
     }
     
     /**
-     * 網絡操作的重試模板，針對網絡異常進行優化
+     * 網絡操作的重試模板，參數由 retry.network 設定，重新載入時依目前的設定重新組合
+     * 響應式重試透過 RetryTemplateRegistry.getComponents 共用同一組策略
      */
     @Bean(name = "networkRetryTemplate")
-    public RetryTemplate networkRetryTemplate() {
-        RetryTemplate template = new RetryTemplate();
-        
-        // 配置針對網絡異常的重試策略
-        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
-        retryableExceptions.put(TransientNetworkException.class, true);
-        retryableExceptions.put(RemoteServiceException.class, true);
-        
-        SimpleRetryPolicy policy = new SimpleRetryPolicy(4, retryableExceptions);
-        template.setRetryPolicy(policy);
-        
-        // 配置指數退避策略（帶隨機因子）
-        ExponentialBackOffPolicy backOff = new ExponentialBackOffPolicy();
-        backOff.setInitialInterval(500);     // 初始 500ms
-        backOff.setMultiplier(1.5);          // 每次乘以 1.5
-        backOff.setMaxInterval(10000);       // 最大 10秒
-        
-        // 添加隨機因子，避免多個客戶端同時重試
-        org.springframework.retry.backoff.ExponentialRandomBackOffPolicy randomBackOff = 
-                new org.springframework.retry.backoff.ExponentialRandomBackOffPolicy();
-        randomBackOff.setInitialInterval(backOff.getInitialInterval());
-        randomBackOff.setMultiplier(backOff.getMultiplier());
-        randomBackOff.setMaxInterval(backOff.getMaxInterval());
-        template.setBackOffPolicy(randomBackOff);
-        
-        return template;
+    public RefreshableRetryTemplate networkRetryTemplate(RetryTemplateRegistry retryTemplateRegistry,
+                                                         RetryBudget retryBudget) {
+        return retryTemplateRegistry.register(NETWORK,
+                properties -> networkRetry(properties.getNetwork(), retryBudget));
     }
     
     /**
-     * 具有監聽功能的重試模板
+     * 資料庫操作的重試策略與退避策略，針對數據庫異常進行優化
+     * 依 DatabaseException 的錯誤分類（由 SQLState 與廠商錯誤碼推導）決定嘗試次數與退避方式
+     * 整個重試過程受 retry.database.deadline-millis 的時間預算限制，呼叫端也可以用 RetryDeadline.callWithin 縮短
      */
-    @Bean(name = "monitoredRetryTemplate")
-    public RetryTemplate monitoredRetryTemplate() {
-        RetryTemplate template = new RetryTemplate();
-        
-        // 使用標準的重試策略
-        SimpleRetryPolicy policy = new SimpleRetryPolicy();
-        policy.setMaxAttempts(3);
-        template.setRetryPolicy(policy);
-        
-        // 使用標準的退避策略
-        FixedBackOffPolicy backOff = new FixedBackOffPolicy();
-        backOff.setBackOffPeriod(500);
-        template.setBackOffPolicy(backOff);
-        
-        // 添加監聽器
-        template.registerListener(new RetryLoggingListener());
-        template.registerListener(new RetryMetricsListener());
-        
-        return template;
+    static RetryComponents databaseRetry(RetryProperties.Database database, RetryBudget retryBudget) {
+        List<String> errors = database.getBackoff().validate("retry.database.backoff");
+        if (database.getDeadlineMillis() <= 0) {
+            errors.add("retry.database.deadline-millis 必須大於 0，目前為 " + database.getDeadlineMillis());
+        }
+        database.getMaxAttempts().forEach((category, maxAttempts) -> {
+            if (maxAttempts == null || maxAttempts < 1) {
+                errors.add("retry.database.max-attempts." + category + " 必須至少為 1，目前為 " + maxAttempts);
+            }
+        });
+        requireValid(errors);
+        
+        // 依錯誤分類決定嘗試次數：違反約束與語句錯誤不重試，未設定的分類沿用策略的預設
+        DatabaseErrorRetryPolicy policy = new DatabaseErrorRetryPolicy();
+        database.getMaxAttempts().forEach(policy::setMaxAttempts);
+        RetryPolicy retryPolicy = new DeadlineRetryPolicy(
+                new RetryBudgetRetryPolicy(policy, retryBudget), Duration.ofMillis(database.getDeadlineMillis()));
+        
+        // 預設（無法判斷的錯誤）使用指數退避，預設初始 100ms，每次加倍，最大 30秒
+        ExponentialBackOffPolicy defaultBackOff = new ExponentialBackOffPolicy();
+        defaultBackOff.setInitialInterval(database.getBackoff().getInitialInterval());
+        defaultBackOff.setMultiplier(database.getBackoff().getMultiplier());
+        defaultBackOff.setMaxInterval(database.getBackoff().getMaxInterval());
+        DatabaseErrorBackOffPolicy backOff = new DatabaseErrorBackOffPolicy(defaultBackOff);
+        
+        // 死結幾乎立即重試，只加上 50ms 以內的抖動，避免兩個交易再次同時搶鎖
+        FullJitterBackOffPolicy deadlockBackOff = new FullJitterBackOffPolicy();
+        deadlockBackOff.setInitialInterval(50);
+        deadlockBackOff.setMaxInterval(50);
+        backOff.setBackOff(DatabaseErrorCategory.DEADLOCK, deadlockBackOff);
+        
+        // 連線中斷等待較久，並以去相關抖動分散重新連線，1秒到 15秒
+        DecorrelatedJitterBackOffPolicy connectionBackOff = new DecorrelatedJitterBackOffPolicy();
+        connectionBackOff.setInitialInterval(1000);
+        connectionBackOff.setMaxInterval(15000);
+        backOff.setBackOff(DatabaseErrorCategory.CONNECTION, connectionBackOff);
+        
+        // 資源不足時給資料庫喘息的時間，500ms 起每次加倍，最大 10秒
+        ExponentialBackOffPolicy resourceBackOff = new ExponentialBackOffPolicy();
+        resourceBackOff.setInitialInterval(500);
+        resourceBackOff.setMultiplier(2.0);
+        resourceBackOff.setMaxInterval(10000);
+        backOff.setBackOff(DatabaseErrorCategory.RESOURCE, resourceBackOff);
+        
+        // 會超過截止時間的退避直接以 RetryDeadlineExceededException 結束
+        return new RetryComponents(retryPolicy, new DeadlineAwareBackOffPolicy(backOff));
+    }
+    
+    /**
+     * 網絡操作的重試策略與退避策略，針對網絡異常進行優化
+     * 共享端點退避的 successListener 只註冊到使用它的模板上，策略本身不是 RetryListener，
+     * 不會被 @EnableRetry 套用到所有 @Retryable 方法；重新載入後端點的懲罰從頭累計
+     */
+    static RetryComponents networkRetry(RetryProperties.Network network, RetryBudget retryBudget) {
+        List<String> errors = network.getBackoff().validate("retry.network.backoff");
+        if (network.getMaxAttempts() < 1) {
+            errors.add("retry.network.max-attempts 必須至少為 1，目前為 " + network.getMaxAttempts());
+        }
+        requireValid(errors);
+        
+        // 由異常的重試提示決定是否重試（例如 RemoteServiceException 的 4xx 不重試）
+        // 沒有提示的外部異常只重試 IOException
+        RetryHintRetryPolicy policy = new RetryHintRetryPolicy(network.getMaxAttempts(), Map.of(IOException.class, true));
+        
+        // 配置去相關抖動退避策略，避免多個客戶端同時重試
+        // 預設每次延遲介於 500ms 與上一次延遲的 3 倍之間，最大 10秒
+        DecorrelatedJitterBackOffPolicy jitter = new DecorrelatedJitterBackOffPolicy();
+        jitter.setInitialInterval(network.getBackoff().getInitialInterval());
+        jitter.setMultiplier(network.getBackoff().getMultiplier());
+        jitter.setMaxInterval(network.getBackoff().getMaxInterval());
+        
+        // 同一個端點的退避狀態在所有呼叫間共享，已知故障的端點不會被新的呼叫從 500ms 開始重新打
+        SharedEndpointBackOffPolicy backOff = new SharedEndpointBackOffPolicy(jitter);
+        return new RetryComponents(new RetryBudgetRetryPolicy(policy, retryBudget), backOff,
+                List.of(backOff.successListener()));
+    }
+    
+    /**
+     * 設定有誤時以 IllegalArgumentException 回報所有錯誤，RetryTemplateRegistry 會保留原本的模板
+     */
+    static void requireValid(List<String> errors) {
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("；", errors));
+        }
+    }
+    
+    /**
+     * 虛擬執行緒執行模式，透過 retry.virtual-threads.enabled 開啟
+     * 開啟後 ConfiguredRetryService 的 submit 系列方法會在虛擬執行緒上執行重試
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "retry.virtual-threads", name = "enabled", havingValue = "true")
+    public VirtualThreadRetryExecutor virtualThreadRetryExecutor(
+            @Value("${retry.virtual-threads.max-concurrency:1000}") int maxConcurrency,
+            @Value("${retry.virtual-threads.submit-timeout-millis:100}") long submitTimeoutMillis) {
+        return new VirtualThreadRetryExecutor(maxConcurrency, submitTimeoutMillis);
     }
     
     /**
@@ -130,4 +197,13 @@ public class RetryConfiguration {
     public RetryMetricsListener retryMetricsListener() {
         return new RetryMetricsListener();
     }
+    
+    /**
+     * retry.policies 的 listeners 依名稱引用的監聽器
+     * 日誌監聽器只放在這裡而不是宣告為 Bean，不會被 @EnableRetry 套用到所有 @Retryable 方法
+     */
+    @Bean
+    public RetryListenerRegistry retryListenerRegistry(RetryMetricsListener retryMetricsListener) {
+        return new RetryListenerRegistry(retryMetricsListener);
+    }
 }
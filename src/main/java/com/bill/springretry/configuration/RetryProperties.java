@@ -0,0 +1,456 @@
+package com.bill.springretry.configuration;
+
+import com.bill.springretry.exception.DatabaseErrorCategory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 宣告式重試模板的設定 (retry.policies)
+ * 每個名稱註冊為一個名為「名稱 + RetryTemplate」的 RetryTemplate Bean，例如 simple 對應 simpleRetryTemplate；
+ * 調整次數或間隔只需要修改 application.yml，不需要重新編譯
+ * database、network、http 是在 Java 中組合的模板（databaseRetryTemplate 等）可以調整的參數，
+ * 與 retry.policies 一樣可以在執行中重新載入
+ */
+@ConfigurationProperties(prefix = "retry")
+public class RetryProperties {
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+    private Database database = new Database();
+    private Network network = new Network();
+    private Http http = new Http();
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    /**
+     * databaseRetryTemplate 的參數
+     */
+    public Database getDatabase() {
+        return database;
+    }
+
+    public void setDatabase(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * networkRetryTemplate 的參數
+     */
+    public Network getNetwork() {
+        return network;
+    }
+
+    public void setNetwork(Network network) {
+        this.network = network;
+    }
+
+    /**
+     * CustomRetryService 的 HTTP 重試模板的參數
+     */
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
+    /**
+     * 從環境讀取目前的設定，設定在執行中被修改後再次呼叫即可取得新的值
+     */
+    public static RetryProperties bind(Environment environment) {
+        return Binder.get(environment)
+                .bind("retry", Bindable.of(RetryProperties.class))
+                .orElseGet(RetryProperties::new);
+    }
+
+    /**
+     * 一個具名的重試模板
+     */
+    public static class Policy {
+
+        private int maxAttempts = 3;
+        private List<String> retryableExceptions = new ArrayList<>();
+        private List<String> notRetryableExceptions = new ArrayList<>();
+        private boolean budget = true;
+        private BackOff backoff = new BackOff();
+        private CircuitBreaker circuitBreaker;
+        private List<String> listeners = new ArrayList<>();
+
+        /**
+         * 最大嘗試次數（包含第一次）
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * 可重試的異常類別全名，子類別同樣適用；未設定時除了 notRetryableExceptions 以外都重試
+         */
+        public List<String> getRetryableExceptions() {
+            return retryableExceptions;
+        }
+
+        public void setRetryableExceptions(List<String> retryableExceptions) {
+            this.retryableExceptions = retryableExceptions;
+        }
+
+        /**
+         * 不重試的異常類別全名
+         */
+        public List<String> getNotRetryableExceptions() {
+            return notRetryableExceptions;
+        }
+
+        public void setNotRetryableExceptions(List<String> notRetryableExceptions) {
+            this.notRetryableExceptions = notRetryableExceptions;
+        }
+
+        /**
+         * 是否受全域重試預算限制，預設為 true
+         */
+        public boolean isBudget() {
+            return budget;
+        }
+
+        public void setBudget(boolean budget) {
+            this.budget = budget;
+        }
+
+        public BackOff getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(BackOff backoff) {
+            this.backoff = backoff;
+        }
+
+        /**
+         * 斷路器設定，未設定時不使用斷路器
+         */
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        /**
+         * 註冊到模板的 RetryListener Bean 名稱
+         */
+        public List<String> getListeners() {
+            return listeners;
+        }
+
+        public void setListeners(List<String> listeners) {
+            this.listeners = listeners;
+        }
+    }
+
+    /**
+     * 退避策略的類型與參數，未使用的參數會被忽略
+     */
+    public static class BackOff {
+
+        private BackOffType type = BackOffType.FIXED;
+        private long initialInterval = 1000;
+        private Double multiplier;
+        private long maxInterval = 30000;
+        private long targetLatencyMillis = 200;
+        private int targetConcurrency = 50;
+
+        public BackOffType getType() {
+            return type;
+        }
+
+        public void setType(BackOffType type) {
+            this.type = type;
+        }
+
+        /**
+         * 固定退避的間隔，其他類型的第一次間隔（毫秒）
+         */
+        public long getInitialInterval() {
+            return initialInterval;
+        }
+
+        public void setInitialInterval(long initialInterval) {
+            this.initialInterval = initialInterval;
+        }
+
+        /**
+         * 間隔的成長倍數，未設定時使用各退避策略自己的預設值
+         */
+        public Double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(Double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public long getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(long maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+
+        /**
+         * 自適應退避的目標延遲（毫秒）
+         */
+        public long getTargetLatencyMillis() {
+            return targetLatencyMillis;
+        }
+
+        public void setTargetLatencyMillis(long targetLatencyMillis) {
+            this.targetLatencyMillis = targetLatencyMillis;
+        }
+
+        /**
+         * 自適應退避的目標並發數
+         */
+        public int getTargetConcurrency() {
+            return targetConcurrency;
+        }
+
+        public void setTargetConcurrency(int targetConcurrency) {
+            this.targetConcurrency = targetConcurrency;
+        }
+    }
+
+    /**
+     * 以 CircuitBreakerRetryPolicy 包裝重試策略，連續失敗時在 openTimeout 內打開斷路器
+     * 斷路器的狀態保存在有狀態重試的上下文快取中，模板被重新載入時會回到關閉狀態
+     */
+    public static class CircuitBreaker {
+
+        private long openTimeout = 5000;
+        private long resetTimeout = 20000;
+
+        /**
+         * 計算失敗的時間窗口（毫秒），窗口內用盡重試時打開斷路器
+         */
+        public long getOpenTimeout() {
+            return openTimeout;
+        }
+
+        public void setOpenTimeout(long openTimeout) {
+            this.openTimeout = openTimeout;
+        }
+
+        /**
+         * 斷路器打開後經過多久（毫秒）允許再次嘗試
+         */
+        public long getResetTimeout() {
+            return resetTimeout;
+        }
+
+        public void setResetTimeout(long resetTimeout) {
+            this.resetTimeout = resetTimeout;
+        }
+    }
+
+    /**
+     * 資料庫重試：依錯誤分類的嘗試次數、時間預算，以及無法判斷的錯誤使用的指數退避
+     * 死結、連線與資源不足各自的退避方式與錯誤的性質綁在一起，維持在 RetryConfiguration 中
+     */
+    public static class Database {
+
+        private long deadlineMillis = 10000;
+        private Map<DatabaseErrorCategory, Integer> maxAttempts = new LinkedHashMap<>(Map.of(
+                DatabaseErrorCategory.DEADLOCK, 5,
+                DatabaseErrorCategory.CONNECTION, 4,
+                DatabaseErrorCategory.RESOURCE, 3,
+                DatabaseErrorCategory.UNKNOWN, 5));
+        private BackOffIntervals backoff = new BackOffIntervals(100, 2.0, 30000);
+
+        /**
+         * 整個重試過程（包含退避）的時間預算（毫秒）
+         */
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public void setDeadlineMillis(long deadlineMillis) {
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * 各錯誤分類的最大嘗試次數，未列出的分類沿用 DatabaseErrorRetryPolicy 的預設
+         */
+        public Map<DatabaseErrorCategory, Integer> getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(Map<DatabaseErrorCategory, Integer> maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public BackOffIntervals getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(BackOffIntervals backoff) {
+            this.backoff = backoff;
+        }
+    }
+
+    /**
+     * 網絡重試：最大嘗試次數與去相關抖動退避的範圍
+     */
+    public static class Network {
+
+        private int maxAttempts = 4;
+        private BackOffIntervals backoff = new BackOffIntervals(500, 3.0, 10000);
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public BackOffIntervals getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(BackOffIntervals backoff) {
+            this.backoff = backoff;
+        }
+    }
+
+    /**
+     * HTTP 重試：時間預算、Retry-After 的上限與狀態碼規則沒有覆寫時的指數退避
+     * 各狀態碼的嘗試次數與退避由 retry.http-status 設定
+     */
+    public static class Http {
+
+        private long deadlineMillis = 30000;
+        private long maxRetryAfterMillis = 10000;
+        private BackOffIntervals backoff = new BackOffIntervals(100, 2.0, 10000);
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public void setDeadlineMillis(long deadlineMillis) {
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * 遵守 Retry-After 時最多等待的時間（毫秒）
+         */
+        public long getMaxRetryAfterMillis() {
+            return maxRetryAfterMillis;
+        }
+
+        public void setMaxRetryAfterMillis(long maxRetryAfterMillis) {
+            this.maxRetryAfterMillis = maxRetryAfterMillis;
+        }
+
+        public BackOffIntervals getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(BackOffIntervals backoff) {
+            this.backoff = backoff;
+        }
+    }
+
+    /**
+     * 在 Java 中組合的模板使用的退避間隔，退避的類型由各模板決定
+     */
+    public static class BackOffIntervals {
+
+        private long initialInterval;
+        private double multiplier;
+        private long maxInterval;
+
+        public BackOffIntervals() {
+            this(1000, 2.0, 30000);
+        }
+
+        public BackOffIntervals(long initialInterval, double multiplier, long maxInterval) {
+            this.initialInterval = initialInterval;
+            this.multiplier = multiplier;
+            this.maxInterval = maxInterval;
+        }
+
+        public long getInitialInterval() {
+            return initialInterval;
+        }
+
+        public void setInitialInterval(long initialInterval) {
+            this.initialInterval = initialInterval;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public long getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(long maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+
+        /**
+         * 檢查間隔設定，錯誤訊息以 prefix 開頭，例如 retry.database.backoff
+         */
+        public List<String> validate(String prefix) {
+            List<String> errors = new ArrayList<>();
+            if (initialInterval <= 0) {
+                errors.add(prefix + ".initial-interval 必須大於 0，目前為 " + initialInterval);
+            }
+            if (maxInterval < initialInterval) {
+                errors.add(prefix + ".max-interval (" + maxInterval
+                        + ") 不可小於 initial-interval (" + initialInterval + ")");
+            }
+            if (multiplier < 1.0) {
+                errors.add(prefix + ".multiplier 不可小於 1，目前為 " + multiplier);
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 支援的退避策略
+     * SCHEDULE 依 retry.backoff-schedule 的時段決定間隔，不使用 BackOff 的其他參數
+     */
+    public enum BackOffType {
+        NONE,
+        FIXED,
+        EXPONENTIAL,
+        FULL_JITTER,
+        DECORRELATED_JITTER,
+        ADAPTIVE,
+        SCHEDULE
+    }
+}
@@ -0,0 +1,272 @@
+package com.bill.springretry.configuration;
+
+import com.bill.springretry.adaptive.AdaptiveBackOffPolicy;
+import com.bill.springretry.backoff.DecorrelatedJitterBackOffPolicy;
+import com.bill.springretry.backoff.FullJitterBackOffPolicy;
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.budget.RetryBudgetRetryPolicy;
+import com.bill.springretry.schedule.BackOffSchedule;
+import com.bill.springretry.schedule.CachedClock;
+import com.bill.springretry.schedule.ScheduleBackOffPolicy;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依 retry.policies 的設定建立 RetryTemplate
+ * 設定在啟動時由 {@link #validate} 檢查，錯誤的設定讓應用程式無法啟動，而不是在第一次重試時才發現
+ */
+public class RetryTemplateFactory {
+
+    private final RetryBudget retryBudget;
+    private final Function<String, RetryListener> listenerResolver;
+    private final BackOffSchedule backOffSchedule;
+    private final CachedClock scheduleClock;
+
+    /**
+     * 不支援 schedule 退避的工廠
+     * @param retryBudget 設定 budget 為 true 的模板共用的重試預算
+     * @param listenerResolver 依名稱取得監聽器，名稱不存在時拋出 IllegalArgumentException
+     */
+    public RetryTemplateFactory(RetryBudget retryBudget, Function<String, RetryListener> listenerResolver) {
+        this(retryBudget, listenerResolver, null, null);
+    }
+
+    /**
+     * @param backOffSchedule schedule 退避使用的時段表
+     * @param scheduleClock schedule 退避查詢目前時段的時鐘
+     */
+    public RetryTemplateFactory(RetryBudget retryBudget, Function<String, RetryListener> listenerResolver,
+                                BackOffSchedule backOffSchedule, CachedClock scheduleClock) {
+        this.retryBudget = retryBudget;
+        this.listenerResolver = listenerResolver;
+        this.backOffSchedule = backOffSchedule;
+        this.scheduleClock = scheduleClock;
+    }
+
+    /**
+     * 建立一個重試模板，設定必須已經通過驗證
+     */
+    public RetryTemplate create(RetryProperties.Policy policy) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(createRetryPolicy(policy));
+        template.setBackOffPolicy(createBackOffPolicy(policy));
+        for (RetryListener listener : createListeners(policy)) {
+            template.registerListener(listener);
+        }
+        return template;
+    }
+
+    /**
+     * 建立模板使用的重試策略，設定 budget 時以共用的重試預算包裝，設定 circuit-breaker 時再以斷路器包裝
+     * 非 RetryTemplate 的執行模型（例如 ReactorRetryOperators）可以用這組方法取得與模板相同的設定
+     */
+    public RetryPolicy createRetryPolicy(RetryProperties.Policy policy) {
+        RetryPolicy retryPolicy = retryPolicy(policy);
+        if (policy.isBudget()) {
+            retryPolicy = new RetryBudgetRetryPolicy(retryPolicy, retryBudget);
+        }
+        RetryProperties.CircuitBreaker circuitBreaker = policy.getCircuitBreaker();
+        if (circuitBreaker == null) {
+            return retryPolicy;
+        }
+        CircuitBreakerRetryPolicy circuitBreakerPolicy = new CircuitBreakerRetryPolicy(retryPolicy);
+        circuitBreakerPolicy.setOpenTimeout(circuitBreaker.getOpenTimeout());
+        circuitBreakerPolicy.setResetTimeout(circuitBreaker.getResetTimeout());
+        return circuitBreakerPolicy;
+    }
+
+    /**
+     * 建立模板使用的退避策略
+     */
+    public BackOffPolicy createBackOffPolicy(RetryProperties.Policy policy) {
+        return backOffPolicy(policy.getBackoff());
+    }
+
+    /**
+     * 依註冊順序取得模板使用的監聽器
+     */
+    public List<RetryListener> createListeners(RetryProperties.Policy policy) {
+        List<RetryListener> listeners = new ArrayList<>(policy.getListeners().size());
+        for (String listener : policy.getListeners()) {
+            listeners.add(listenerResolver.apply(listener));
+        }
+        return listeners;
+    }
+
+    private static RetryPolicy retryPolicy(RetryProperties.Policy policy) {
+        if (policy.getRetryableExceptions().isEmpty() && policy.getNotRetryableExceptions().isEmpty()) {
+            return new SimpleRetryPolicy(policy.getMaxAttempts());
+        }
+        Map<Class<? extends Throwable>, Boolean> exceptions = new LinkedHashMap<>();
+        for (String name : policy.getRetryableExceptions()) {
+            exceptions.put(exceptionClass(name), true);
+        }
+        for (String name : policy.getNotRetryableExceptions()) {
+            exceptions.put(exceptionClass(name), false);
+        }
+        // 只列出不重試的異常時，其他異常都重試
+        boolean retryOthers = policy.getRetryableExceptions().isEmpty();
+        return new SimpleRetryPolicy(policy.getMaxAttempts(), exceptions, true, retryOthers);
+    }
+
+    private BackOffPolicy backOffPolicy(RetryProperties.BackOff backOff) {
+        switch (backOff.getType()) {
+            case NONE -> {
+                return new NoBackOffPolicy();
+            }
+            case FIXED -> {
+                FixedBackOffPolicy policy = new FixedBackOffPolicy();
+                policy.setBackOffPeriod(backOff.getInitialInterval());
+                return policy;
+            }
+            case EXPONENTIAL -> {
+                ExponentialBackOffPolicy policy = new ExponentialBackOffPolicy();
+                policy.setInitialInterval(backOff.getInitialInterval());
+                policy.setMaxInterval(backOff.getMaxInterval());
+                if (backOff.getMultiplier() != null) {
+                    policy.setMultiplier(backOff.getMultiplier());
+                }
+                return policy;
+            }
+            case FULL_JITTER -> {
+                FullJitterBackOffPolicy policy = new FullJitterBackOffPolicy();
+                policy.setInitialInterval(backOff.getInitialInterval());
+                policy.setMaxInterval(backOff.getMaxInterval());
+                if (backOff.getMultiplier() != null) {
+                    policy.setMultiplier(backOff.getMultiplier());
+                }
+                return policy;
+            }
+            case DECORRELATED_JITTER -> {
+                DecorrelatedJitterBackOffPolicy policy = new DecorrelatedJitterBackOffPolicy();
+                policy.setInitialInterval(backOff.getInitialInterval());
+                policy.setMaxInterval(backOff.getMaxInterval());
+                if (backOff.getMultiplier() != null) {
+                    policy.setMultiplier(backOff.getMultiplier());
+                }
+                return policy;
+            }
+            case ADAPTIVE -> {
+                AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy();
+                policy.setInitialInterval(backOff.getInitialInterval());
+                policy.setMaxInterval(backOff.getMaxInterval());
+                policy.setTargetLatencyMillis(backOff.getTargetLatencyMillis());
+                policy.setTargetConcurrency(backOff.getTargetConcurrency());
+                if (backOff.getMultiplier() != null) {
+                    policy.setMultiplier(backOff.getMultiplier());
+                }
+                return policy;
+            }
+            case SCHEDULE -> {
+                if (backOffSchedule == null) {
+                    throw new IllegalStateException("這個工廠沒有設定 BackOffSchedule，不支援 schedule 退避");
+                }
+                return new ScheduleBackOffPolicy(backOffSchedule, scheduleClock);
+            }
+            default -> throw new IllegalArgumentException("不支援的退避類型：" + backOff.getType());
+        }
+    }
+
+    /**
+     * 檢查一個模板的設定，回傳所有錯誤訊息，設定正確時回傳空列表
+     * 監聽器是否存在由呼叫端檢查
+     */
+    public static List<String> validate(String name, RetryProperties.Policy policy) {
+        List<String> errors = new ArrayList<>();
+        String prefix = "retry.policies." + name;
+        if (policy.getMaxAttempts() < 1) {
+            errors.add(prefix + ".max-attempts 必須至少為 1，目前為 " + policy.getMaxAttempts());
+        }
+        for (String exception : policy.getRetryableExceptions()) {
+            validateException(prefix + ".retryable-exceptions", exception, errors);
+        }
+        for (String exception : policy.getNotRetryableExceptions()) {
+            validateException(prefix + ".not-retryable-exceptions", exception, errors);
+        }
+
+        RetryProperties.CircuitBreaker circuitBreaker = policy.getCircuitBreaker();
+        if (circuitBreaker != null && (circuitBreaker.getOpenTimeout() <= 0 || circuitBreaker.getResetTimeout() <= 0)) {
+            errors.add(prefix + ".circuit-breaker.open-timeout 與 reset-timeout 必須大於 0");
+        }
+
+        RetryProperties.BackOff backOff = policy.getBackoff();
+        if (backOff == null || backOff.getType() == null) {
+            errors.add(prefix + ".backoff.type 未設定");
+            return errors;
+        }
+        if (backOff.getType() == RetryProperties.BackOffType.NONE
+                || backOff.getType() == RetryProperties.BackOffType.SCHEDULE) {
+            return errors;
+        }
+        if (backOff.getInitialInterval() <= 0) {
+            errors.add(prefix + ".backoff.initial-interval 必須大於 0，目前為 " + backOff.getInitialInterval());
+        }
+        if (backOff.getType() != RetryProperties.BackOffType.FIXED) {
+            if (backOff.getMaxInterval() < backOff.getInitialInterval()) {
+                errors.add(prefix + ".backoff.max-interval (" + backOff.getMaxInterval()
+                        + ") 不可小於 initial-interval (" + backOff.getInitialInterval() + ")");
+            }
+            if (backOff.getMultiplier() != null && backOff.getMultiplier() < 1.0) {
+                errors.add(prefix + ".backoff.multiplier 不可小於 1，目前為 " + backOff.getMultiplier());
+            }
+        }
+        if (backOff.getType() == RetryProperties.BackOffType.ADAPTIVE) {
+            if (backOff.getTargetLatencyMillis() <= 0 || backOff.getTargetConcurrency() <= 0) {
+                errors.add(prefix + ".backoff.target-latency-millis 與 target-concurrency 必須大於 0");
+            }
+        }
+        return errors;
+    }
+
+    private static void validateException(String property, String className, List<String> errors) {
+        try {
+            Class<?> type = Class.forName(className, false, RetryTemplateFactory.class.getClassLoader());
+            if (!Throwable.class.isAssignableFrom(type)) {
+                errors.add(property + " 的 " + className + " 不是異常類別");
+            }
+        } catch (ClassNotFoundException e) {
+            errors.add(property + " 找不到類別 " + className);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Throwable> exceptionClass(String className) {
+        try {
+            return (Class<? extends Throwable>) Class.forName(className, false, RetryTemplateFactory.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("找不到異常類別：" + className, e);
+        }
+    }
+
+    /**
+     * 設定名稱對應的 Bean 名稱，例如 simple 對應 simpleRetryTemplate，order-service 對應 orderServiceRetryTemplate
+     */
+    public static String beanName(String name) {
+        StringBuilder beanName = new StringBuilder(name.length() + 13);
+        boolean upper = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '-' || c == '_') {
+                upper = beanName.length() > 0;
+            } else {
+                beanName.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return beanName.append("RetryTemplate").toString();
+    }
+}
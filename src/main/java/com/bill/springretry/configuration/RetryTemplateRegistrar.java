@@ -0,0 +1,71 @@
+package com.bill.springretry.configuration;
+
+import com.bill.springretry.listener.RetryListenerRegistry;
+import com.bill.springretry.reload.RefreshableRetryTemplate;
+import com.bill.springretry.reload.RetryTemplateRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 在建立任何 Bean 之前讀取 retry.policies，為每個名稱註冊一個 RefreshableRetryTemplate Bean
+ * 所有設定（包含 RetryListenerRegistry 是否有引用的監聽器）都在註冊前驗證，任何錯誤都會列出並讓應用程式啟動失敗；
+ * 模板在第一次被注入時才由 RetryTemplateRegistry 建立，因此可以使用重試預算與監聽器等一般 Bean，
+ * 之後設定被修改時也由 RetryTemplateRegistry 重新建立並替換
+ */
+public class RetryTemplateRegistrar implements BeanDefinitionRegistryPostProcessor, EnvironmentAware {
+
+    private Environment environment;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        RetryProperties properties = RetryProperties.bind(environment);
+
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, RetryProperties.Policy> entry : properties.getPolicies().entrySet()) {
+            String name = entry.getKey();
+            RetryProperties.Policy policy = entry.getValue();
+            errors.addAll(RetryTemplateFactory.validate(name, policy));
+            for (String listener : policy.getListeners()) {
+                if (!RetryListenerRegistry.contains(listener)) {
+                    errors.add("retry.policies." + name + ".listeners 找不到監聽器：" + listener
+                            + "，可用的名稱：" + RetryListenerRegistry.getNames());
+                }
+            }
+            String beanName = RetryTemplateFactory.beanName(name);
+            if (registry.containsBeanDefinition(beanName)) {
+                errors.add("retry.policies." + name + " 對應的 Bean 名稱 " + beanName + " 已經被其他 Bean 使用");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("重試模板設定錯誤：\n  " + String.join("\n  ", errors));
+        }
+
+        properties.getPolicies().keySet().forEach(name -> {
+            RootBeanDefinition definition = new RootBeanDefinition(RefreshableRetryTemplate.class,
+                    () -> beanFactory.getBean(RetryTemplateRegistry.class).get(name));
+            definition.setDescription("retry.policies." + name);
+            registry.registerBeanDefinition(RetryTemplateFactory.beanName(name), definition);
+        });
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bill.springretry.configuration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryOperations;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 在虛擬執行緒上執行重試操作
+ * 每個重試操作（包含所有嘗試與退避）都在獨立的虛擬執行緒上完成，
+ * 退避時的 Thread.sleep 只會讓虛擬執行緒讓出載體執行緒，不會佔住平台執行緒
+ */
+public class VirtualThreadRetryExecutor implements DisposableBean {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // 限制同時進行中的重試操作數量，避免下游故障時無上限地堆積
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long submitTimeoutMillis;
+
+    /**
+     * @param maxConcurrency 同時進行中的重試操作上限
+     * @param submitTimeoutMillis 達到上限時，提交端最多等待的毫秒數
+     */
+    public VirtualThreadRetryExecutor(int maxConcurrency, long submitTimeoutMillis) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.submitTimeoutMillis = submitTimeoutMillis;
+    }
+
+    /**
+     * 提交一個重試操作
+     * 超過併發上限且在等待時間內沒有空位時，返回以 RejectedExecutionException 完成的 future
+     */
+    public <T> CompletableFuture<T> submit(RetryOperations retryOperations, RetryCallback<T, Exception> callback) {
+        try {
+            if (!permits.tryAcquire(submitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("進行中的重試操作已達上限: " + maxConcurrency));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // RetrySynchronizationManager 以 ThreadLocal 保存上下文，虛擬執行緒不會繼承，
+        // 因此把呼叫端目前的重試上下文帶過去，讓巢狀重試仍然可以找到父上下文
+        RetryContext parentContext = RetrySynchronizationManager.getContext();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (parentContext != null) {
+                        RetrySynchronizationManager.register(parentContext);
+                    }
+                    result.complete(retryOperations.execute(callback));
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                } finally {
+                    // 虛擬執行緒用完即丟，ThreadLocal 會隨執行緒一起回收，不需要另外清理
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    /**
+     * 目前進行中的重試操作數量
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -1,11 +1,28 @@
 package com.bill.springretry.custom;
 
+import com.bill.springretry.backoff.RetryAfterBackOffPolicy;
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.budget.RetryBudgetRetryPolicy;
+import com.bill.springretry.configuration.RetryProperties;
+import com.bill.springretry.deadline.DeadlineAwareBackOffPolicy;
+import com.bill.springretry.deadline.DeadlineRetryPolicy;
 import com.bill.springretry.exception.RemoteServiceException;
+import com.bill.springretry.hedging.HedgingExecutor;
+import com.bill.springretry.ratelimit.AimdRateLimiter;
+import com.bill.springretry.reload.RetryComponents;
+import com.bill.springretry.reload.RetryTemplateRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.RetryContext;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.retry.RetryOperations;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * @author Bill.Lin 2025/4/13
  * 使用自定義重試策略與退避策略的服務
@@ -13,52 +30,89 @@ import org.springframework.stereotype.Service;
 @Service
 public class CustomRetryService {
 
-    private final RetryTemplate httpRetryTemplate;
-    private final RetryTemplate timeAwareRetryTemplate;
+    /**
+     * HTTP 重試模板在 RetryTemplateRegistry 中的名稱，也是設定的前綴 (retry.http)
+     */
+    public static final String HTTP = "http";
+
+    private final RetryOperations httpRetryTemplate;
+    private final RetryOperations timeAwareRetryTemplate;
+    private final HedgingExecutor httpHedgingExecutor;
+    private final AimdRateLimiter httpRateLimiter;
     
-    public CustomRetryService() {
-        // 創建使用 HTTP 狀態碼重試策略的模板
-        this.httpRetryTemplate = new RetryTemplate();
+    @Autowired
+    public CustomRetryService(@Qualifier("httpHedgingExecutor") HedgingExecutor httpHedgingExecutor,
+                              RetryBudget retryBudget,
+                              RetryTemplateRegistry retryTemplateRegistry,
+                              @Qualifier("timeAwareRetryTemplate") RetryOperations timeAwareRetryTemplate,
+                              @Qualifier("httpRateLimiter") AimdRateLimiter httpRateLimiter,
+                              @Qualifier("httpStatusRules") HttpStatusRules httpStatusRules) {
+        this.httpHedgingExecutor = httpHedgingExecutor;
+        this.httpRateLimiter = httpRateLimiter;
         
-        // 設置自定義的 HTTP 狀態碼重試策略
-        // 只有當狀態碼為 429 (Too Many Requests), 503 (Service Unavailable), 504 (Gateway Timeout) 時才重試
-        int[] retryableStatusCodes = {429, 503, 504};
-        HttpStatusCodeRetryPolicy httpRetryPolicy = new HttpStatusCodeRetryPolicy(5, retryableStatusCodes);
-        this.httpRetryTemplate.setRetryPolicy(httpRetryPolicy);
+        // 使用 HTTP 狀態碼重試策略的模板，參數由 retry.http 設定，重新載入時依目前的設定重新組合
+        this.httpRetryTemplate = retryTemplateRegistry.register(HTTP,
+                properties -> httpRetry(properties.getHttp(), retryBudget, httpStatusRules));
         
-        // 使用標準的指數退避策略
-        org.springframework.retry.backoff.ExponentialBackOffPolicy backOffPolicy = 
-                new org.springframework.retry.backoff.ExponentialBackOffPolicy();
-        backOffPolicy.setInitialInterval(100); // 100ms 初始間隔
-        backOffPolicy.setMultiplier(2.0);      // 每次重試間隔加倍
-        backOffPolicy.setMaxInterval(10_000);  // 最大 10 秒間隔
-        this.httpRetryTemplate.setBackOffPolicy(backOffPolicy);
+        // 使用時間感知退避策略的模板由 retry.policies.time-aware 宣告：最多 4 次，受重試預算限制，
+        // 時段由 retry.backoff-schedule 設定（預設：平日 9-18 點為 3 倍，夜間 0.5 秒）
+        this.timeAwareRetryTemplate = timeAwareRetryTemplate;
+    }
+    
+    /**
+     * HTTP 重試的策略與退避策略
+     */
+    private static RetryComponents httpRetry(RetryProperties.Http http, RetryBudget retryBudget,
+                                             HttpStatusRules httpStatusRules) {
+        List<String> errors = http.getBackoff().validate("retry.http.backoff");
+        if (http.getDeadlineMillis() <= 0) {
+            errors.add("retry.http.deadline-millis 必須大於 0，目前為 " + http.getDeadlineMillis());
+        }
+        if (http.getMaxRetryAfterMillis() < 0) {
+            errors.add("retry.http.max-retry-after-millis 不可小於 0，目前為 " + http.getMaxRetryAfterMillis());
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("；", errors));
+        }
         
-        // 創建使用時間感知退避策略的模板
-        this.timeAwareRetryTemplate = new RetryTemplate();
+        // 設置自定義的 HTTP 狀態碼重試策略，規則由 retry.http-status 設定
+        // 預設只有 429 (Too Many Requests), 503 (Service Unavailable), 504 (Gateway Timeout) 時才重試
+        // 整個 HTTP 重試預設最多 30 秒
+        HttpStatusCodeRetryPolicy httpRetryPolicy = new HttpStatusCodeRetryPolicy(httpStatusRules);
+        RetryPolicy retryPolicy = new DeadlineRetryPolicy(
+                new RetryBudgetRetryPolicy(httpRetryPolicy, retryBudget), Duration.ofMillis(http.getDeadlineMillis()));
         
-        // 使用標準的簡單重試策略
-        org.springframework.retry.policy.SimpleRetryPolicy simpleRetryPolicy = 
-                new org.springframework.retry.policy.SimpleRetryPolicy();
-        simpleRetryPolicy.setMaxAttempts(4);
-        this.timeAwareRetryTemplate.setRetryPolicy(simpleRetryPolicy);
+        // 遵守伺服器的 Retry-After（預設最多等待 10 秒，原始要求超過剩餘時間預算時直接放棄）；
+        // 沒有提示時使用狀態碼規則的退避，規則沒有覆寫時使用指數退避（預設 100ms 起每次加倍，最大 10 秒）
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(http.getBackoff().getInitialInterval());
+        backOffPolicy.setMultiplier(http.getBackoff().getMultiplier());
+        backOffPolicy.setMaxInterval(http.getBackoff().getMaxInterval());
+        RetryAfterBackOffPolicy retryAfterBackOffPolicy = new RetryAfterBackOffPolicy();
+        retryAfterBackOffPolicy.setMaxRetryAfter(http.getMaxRetryAfterMillis());
+        retryAfterBackOffPolicy.setFallback(new HttpStatusBackOffPolicy(backOffPolicy, httpStatusRules));
         
-        // 設置自定義的時間感知退避策略
-        TimeAwareBackOffPolicy timeAwareBackOffPolicy = new TimeAwareBackOffPolicy(
-                1000,  // 基本 1 秒退避
-                500,   // 夜間 0.5 秒退避
-                9,     // 高峰時段從 9 點開始
-                18,    // 高峰時段到 18 點結束
-                3.0f   // 高峰時段退避時間是基本時間的 3 倍
-        );
-        this.timeAwareRetryTemplate.setBackOffPolicy(timeAwareBackOffPolicy);
+        // Retry-After 超過剩餘時間時直接放棄
+        return new RetryComponents(retryPolicy, new DeadlineAwareBackOffPolicy(retryAfterBackOffPolicy));
     }
     
     /**
      * 模擬 HTTP 請求，使用自定義的 HTTP 重試策略
+     * 每次嘗試前先向 AIMD 限流器取得許可，收到 429/503 時降低送出速率；
+     * 超過限流時拋出 RateLimitExceededException，不會被 HTTP 重試策略重試
      */
     public <T> T executeHttpRequest(RetryCallback<T, Exception> callback) throws Exception {
-        return httpRetryTemplate.execute(callback);
+        return httpRetryTemplate.execute(httpRateLimiter.limit(callback));
+    }
+    
+    /**
+     * 對沖模式的 HTTP 請求 - 每次嘗試在對沖延遲內未完成時會平行送出第二個相同請求，
+     * 最先成功的結果勝出；所有嘗試都失敗時仍由 HTTP 重試策略決定是否重試
+     * 回調必須是冪等的，並行的嘗試各自拿到重試上下文的子上下文；對沖請求同樣受限流器限制
+     */
+    public <T> T executeHttpRequestHedged(RetryCallback<T, Exception> callback) throws Exception {
+        RetryCallback<T, Exception> limited = httpRateLimiter.limit(callback);
+        return httpRetryTemplate.execute(context -> httpHedgingExecutor.execute(context, limited));
     }
     
     /**
@@ -68,6 +122,13 @@ public class CustomRetryService {
         return timeAwareRetryTemplate.execute(callback);
     }
     
+    /**
+     * HTTP 請求的限流器，可以讀取目前速率、排隊人數與拒絕次數
+     */
+    public AimdRateLimiter getHttpRateLimiter() {
+        return httpRateLimiter;
+    }
+    
     /**
      * 模擬 HTTP 請求
      * @param statusCode 返回的 HTTP 狀態碼
@@ -0,0 +1,79 @@
+package com.bill.springretry.custom;
+
+import com.bill.springretry.async.BackOffDelays;
+import com.bill.springretry.exception.RemoteServiceException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依狀態碼規則覆寫退避間隔的策略
+ * 最後一次失敗的狀態碼對應的規則有退避設定時使用規則的間隔，否則使用包裝的策略
+ */
+public class HttpStatusBackOffPolicy implements SleepingBackOffPolicy<HttpStatusBackOffPolicy> {
+
+    private final BackOffPolicy delegate;
+    private final HttpStatusRules rules;
+    private final Sleeper sleeper;
+
+    public HttpStatusBackOffPolicy(BackOffPolicy delegate, HttpStatusRules rules) {
+        this(BackOffDelays.nonBlocking(delegate), rules, new ThreadWaitSleeper());
+    }
+
+    private HttpStatusBackOffPolicy(BackOffPolicy delegate, HttpStatusRules rules, Sleeper sleeper) {
+        this.delegate = delegate;
+        this.rules = rules;
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public HttpStatusBackOffPolicy withSleeper(Sleeper sleeper) {
+        return new HttpStatusBackOffPolicy(delegate, rules, sleeper);
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new HttpStatusBackOffContext(context, delegate.start(context));
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        HttpStatusBackOffContext context = (HttpStatusBackOffContext) backOffContext;
+        HttpStatusRule rule = null;
+        if (context.retryContext != null
+                && context.retryContext.getLastThrowable() instanceof RemoteServiceException ex) {
+            rule = rules.ruleFor(ex.getStatusCode());
+        }
+
+        long sleepTime;
+        if (rule != null && rule.hasBackOffOverride()) {
+            sleepTime = rule.backOffDelay(context.overrideCount++);
+        } else {
+            sleepTime = BackOffDelays.nextDelay(delegate, context.delegateContext);
+        }
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    private static class HttpStatusBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private final BackOffContext delegateContext;
+        private int overrideCount;
+
+        HttpStatusBackOffContext(RetryContext retryContext, BackOffContext delegateContext) {
+            this.retryContext = retryContext;
+            this.delegateContext = delegateContext;
+        }
+    }
+}
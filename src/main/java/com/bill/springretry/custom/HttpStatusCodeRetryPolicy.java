@@ -8,13 +8,14 @@ import org.springframework.retry.context.RetryContextSupport;
 /**
  * @author Bill.Lin 2025/4/13
  * 自定義重試策略 - 根據 HTTP 狀態碼決定是否重試
+ * 狀態碼的分類與最大嘗試次數由預先計算好的 HttpStatusRules 查表決定
  */
 public class HttpStatusCodeRetryPolicy implements RetryPolicy {
 
-    private final int maxAttempts;
-    
-    // 可重試的 HTTP 狀態碼 (通常是那些暫時性錯誤)
-    private final int[] retryableStatusCodes;
+    // 最後一次失敗的 HTTP 狀態碼，放在重試上下文中供監聽器讀取
+    public static final String LAST_STATUS_CODE = "http.lastStatusCode";
+
+    private final HttpStatusRules rules;
 
     /**
      * 建立 HTTP 狀態碼重試策略
@@ -23,33 +24,29 @@ public class HttpStatusCodeRetryPolicy implements RetryPolicy {
      * @param retryableStatusCodes 可重試的 HTTP 狀態碼列表
      */
     public HttpStatusCodeRetryPolicy(int maxAttempts, int[] retryableStatusCodes) {
-        this.maxAttempts = maxAttempts;
-        this.retryableStatusCodes = retryableStatusCodes;
+        this(HttpStatusRules.of(maxAttempts, retryableStatusCodes));
+    }
+
+    /**
+     * 建立依規則表決定是否重試的策略，每條規則可以有自己的最大嘗試次數
+     */
+    public HttpStatusCodeRetryPolicy(HttpStatusRules rules) {
+        this.rules = rules;
     }
 
     @Override
     public boolean canRetry(RetryContext context) {
-        // 檢查重試次數是否超過上限
-        HttpRetryContext httpContext = (HttpRetryContext) context;
-        if (httpContext.getRetryCount() >= maxAttempts) {
-            return false;
-        }
+        Throwable lastThrowable = context.getLastThrowable();
         
-        // 如果沒有異常，不需要重試
-        if (httpContext.getLastThrowable() == null) {
-            return true;
+        // 如果沒有異常，不需要依狀態碼判斷
+        if (lastThrowable == null) {
+            return context.getRetryCount() < rules.getDefaultMaxAttempts();
         }
         
-        // 檢查是否是 RemoteServiceException 以及狀態碼是否可重試
-        if (httpContext.getLastThrowable() instanceof RemoteServiceException) {
-            RemoteServiceException ex = (RemoteServiceException) httpContext.getLastThrowable();
-            int statusCode = ex.getStatusCode();
-            
-            for (int retryableStatusCode : retryableStatusCodes) {
-                if (statusCode == retryableStatusCode) {
-                    return true;
-                }
-            }
+        // 只有 RemoteServiceException 且狀態碼符合可重試的規則時才重試
+        if (lastThrowable instanceof RemoteServiceException ex) {
+            HttpStatusRule rule = rules.ruleFor(ex.getStatusCode());
+            return rule != null && rule.isRetryable() && context.getRetryCount() < rule.getMaxAttempts();
         }
         
         return false;
@@ -57,48 +54,26 @@ public class HttpStatusCodeRetryPolicy implements RetryPolicy {
 
     @Override
     public RetryContext open(RetryContext parent) {
-        return new HttpRetryContext(parent);
+        return new RetryContextSupport(parent);
     }
 
     @Override
     public void close(RetryContext context) {
-        // 在重試結束時執行的操作
-        HttpRetryContext httpContext = (HttpRetryContext) context;
-        System.out.println("HTTP 重試結束，嘗試次數: " + httpContext.getRetryCount());
     }
 
     @Override
     public void registerThrowable(RetryContext context, Throwable throwable) {
-        HttpRetryContext httpContext = (HttpRetryContext) context;
-        httpContext.registerThrowable(throwable);
+        if (context instanceof RetryContextSupport support) {
+            support.registerThrowable(throwable);
+        }
         
         // 記錄 HTTP 狀態碼
-        if (throwable instanceof RemoteServiceException) {
-            RemoteServiceException ex = (RemoteServiceException) throwable;
-            httpContext.setLastStatusCode(ex.getStatusCode());
-            System.out.println("HTTP 請求失敗，狀態碼: " + ex.getStatusCode() + 
-                    ", 嘗試次數: " + httpContext.getRetryCount());
+        if (throwable instanceof RemoteServiceException ex) {
+            context.setAttribute(LAST_STATUS_CODE, ex.getStatusCode());
         }
     }
-    
-    /**
-     * 擴展 RetryContext 以支持 HTTP 狀態碼
-     */
-    private static class HttpRetryContext extends RetryContextSupport {
-        
-        private int lastStatusCode;
-        
-        public HttpRetryContext(RetryContext parent) {
-            super(parent);
-            this.lastStatusCode = -1;
-        }
-        
-        public int getLastStatusCode() {
-            return lastStatusCode;
-        }
-        
-        public void setLastStatusCode(int lastStatusCode) {
-            this.lastStatusCode = lastStatusCode;
-        }
+
+    public HttpStatusRules getRules() {
+        return rules;
     }
 }
@@ -0,0 +1,54 @@
+package com.bill.springretry.custom;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 解析後的狀態碼規則：是否重試、最大嘗試次數與可選的退避覆寫
+ */
+public final class HttpStatusRule {
+
+    private final String name;
+    private final boolean retryable;
+    private final int maxAttempts;
+    // initialInterval 為 -1 表示不覆寫退避
+    private final long initialInterval;
+    private final double multiplier;
+    private final long maxInterval;
+
+    HttpStatusRule(String name, boolean retryable, int maxAttempts,
+                   long initialInterval, double multiplier, long maxInterval) {
+        this.name = name;
+        this.retryable = retryable;
+        this.maxAttempts = maxAttempts;
+        this.initialInterval = initialInterval;
+        this.multiplier = multiplier;
+        this.maxInterval = maxInterval;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean hasBackOffOverride() {
+        return initialInterval >= 0;
+    }
+
+    /**
+     * 覆寫的第 backOffCount 次（從 0 開始）退避間隔 = min(上限, 初始間隔 * 倍數^n)
+     */
+    public long backOffDelay(int backOffCount) {
+        return (long) Math.min(maxInterval, initialInterval * Math.pow(multiplier, backOffCount));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bill.springretry.custom;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 由 retry.http-status 建立 HTTP 狀態碼規則表
+ */
+@Configuration
+@EnableConfigurationProperties(HttpStatusRuleProperties.class)
+public class HttpStatusRuleConfiguration {
+
+    @Bean(name = "httpStatusRules")
+    public HttpStatusRules httpStatusRules(HttpStatusRuleProperties properties) {
+        return HttpStatusRules.of(properties);
+    }
+}
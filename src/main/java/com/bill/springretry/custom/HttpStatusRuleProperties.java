@@ -0,0 +1,145 @@
+package com.bill.springretry.custom;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * HTTP 狀態碼重試規則的設定 (retry.http-status)
+ * 狀態碼以逗號分隔，可以是單一狀態碼 (429)、整個類別 (5xx) 或範圍 (500-504)；
+ * 規則依列出的順序決定優先權，同一個狀態碼符合多條規則時以排在前面的為準
+ */
+@ConfigurationProperties(prefix = "retry.http-status")
+public class HttpStatusRuleProperties {
+
+    private int defaultMaxAttempts = 5;
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * 規則沒有指定最大嘗試次數時使用
+     */
+    public int getDefaultMaxAttempts() {
+        return defaultMaxAttempts;
+    }
+
+    public void setDefaultMaxAttempts(int defaultMaxAttempts) {
+        this.defaultMaxAttempts = defaultMaxAttempts;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 一條狀態碼規則
+     */
+    public static class Rule {
+
+        private String name;
+        private String statuses;
+        private String except;
+        private boolean retryable = true;
+        private Integer maxAttempts;
+        private BackOff backoff;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 符合的狀態碼，例如 "429"、"5xx"、"500-504"
+         */
+        public String getStatuses() {
+            return statuses;
+        }
+
+        public void setStatuses(String statuses) {
+            this.statuses = statuses;
+        }
+
+        /**
+         * 從 statuses 中排除的狀態碼，語法相同，例如 "501,505"
+         */
+        public String getExcept() {
+            return except;
+        }
+
+        public void setExcept(String except) {
+            this.except = except;
+        }
+
+        /**
+         * 符合的狀態碼是否重試，設為 false 可以明確排除後面規則涵蓋的狀態碼
+         */
+        public boolean isRetryable() {
+            return retryable;
+        }
+
+        public void setRetryable(boolean retryable) {
+            this.retryable = retryable;
+        }
+
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * 覆寫退避間隔，沒有設定時使用模板原本的退避策略
+         */
+        public BackOff getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(BackOff backoff) {
+            this.backoff = backoff;
+        }
+    }
+
+    /**
+     * 規則自己的指數退避設定
+     */
+    public static class BackOff {
+
+        private long initialInterval = 100;
+        private double multiplier = 2.0;
+        private long maxInterval = 10000;
+
+        public long getInitialInterval() {
+            return initialInterval;
+        }
+
+        public void setInitialInterval(long initialInterval) {
+            this.initialInterval = initialInterval;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public long getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(long maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+    }
+}
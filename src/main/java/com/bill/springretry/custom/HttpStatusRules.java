@@ -0,0 +1,129 @@
+package com.bill.springretry.custom;
+
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 預先計算好的 HTTP 狀態碼規則表
+ * 建立時把 100-599 的每個狀態碼對應到生效的規則，分類只是一次陣列存取，與規則數量無關
+ */
+public final class HttpStatusRules {
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    private final int defaultMaxAttempts;
+    private final HttpStatusRule[] table;
+
+    private HttpStatusRules(int defaultMaxAttempts, HttpStatusRule[] table) {
+        this.defaultMaxAttempts = defaultMaxAttempts;
+        this.table = table;
+    }
+
+    /**
+     * 依照設定建立規則表
+     */
+    public static HttpStatusRules of(HttpStatusRuleProperties properties) {
+        HttpStatusRule[] table = new HttpStatusRule[MAX_STATUS + 1];
+        List<HttpStatusRuleProperties.Rule> rules = properties.getRules();
+
+        // 由後往前填入，排在前面的規則覆蓋後面的規則
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            HttpStatusRuleProperties.Rule configured = rules.get(i);
+            HttpStatusRuleProperties.BackOff backOff = configured.getBackoff();
+            HttpStatusRule rule = new HttpStatusRule(
+                    configured.getName() != null ? configured.getName() : configured.getStatuses(),
+                    configured.isRetryable(),
+                    configured.getMaxAttempts() != null ? configured.getMaxAttempts() : properties.getDefaultMaxAttempts(),
+                    backOff != null ? backOff.getInitialInterval() : -1,
+                    backOff != null ? backOff.getMultiplier() : 1.0,
+                    backOff != null ? backOff.getMaxInterval() : 0);
+
+            boolean[] matched = parse(configured.getStatuses());
+            boolean[] excluded = parse(configured.getExcept());
+            for (int status = MIN_STATUS; status <= MAX_STATUS; status++) {
+                if (matched[status] && !excluded[status]) {
+                    table[status] = rule;
+                }
+            }
+        }
+        return new HttpStatusRules(properties.getDefaultMaxAttempts(), table);
+    }
+
+    /**
+     * 由可重試的狀態碼列表建立規則表，所有狀態碼使用相同的最大嘗試次數
+     */
+    public static HttpStatusRules of(int maxAttempts, int... retryableStatusCodes) {
+        HttpStatusRule rule = new HttpStatusRule("retryable", true, maxAttempts, -1, 1.0, 0);
+        HttpStatusRule[] table = new HttpStatusRule[MAX_STATUS + 1];
+        for (int status : retryableStatusCodes) {
+            checkStatus(status);
+            table[status] = rule;
+        }
+        return new HttpStatusRules(maxAttempts, table);
+    }
+
+    /**
+     * 查詢狀態碼生效的規則，沒有符合的規則時為 null
+     */
+    public HttpStatusRule ruleFor(int statusCode) {
+        if (statusCode < MIN_STATUS || statusCode > MAX_STATUS) {
+            return null;
+        }
+        return table[statusCode];
+    }
+
+    public boolean isRetryable(int statusCode) {
+        HttpStatusRule rule = ruleFor(statusCode);
+        return rule != null && rule.isRetryable();
+    }
+
+    public int getDefaultMaxAttempts() {
+        return defaultMaxAttempts;
+    }
+
+    /**
+     * 解析 "429, 5xx, 500-504" 形式的狀態碼列表
+     */
+    private static boolean[] parse(String spec) {
+        boolean[] statuses = new boolean[MAX_STATUS + 1];
+        if (spec == null || spec.isBlank()) {
+            return statuses;
+        }
+        for (String token : spec.split(",")) {
+            String value = token.trim().toLowerCase();
+            if (value.isEmpty()) {
+                continue;
+            }
+            int from;
+            int to;
+            try {
+                if (value.length() == 3 && value.endsWith("xx")) {
+                    from = Integer.parseInt(value.substring(0, 1)) * 100;
+                    to = from + 99;
+                } else if (value.contains("-")) {
+                    String[] range = value.split("-", 2);
+                    from = Integer.parseInt(range[0].trim());
+                    to = Integer.parseInt(range[1].trim());
+                } else {
+                    from = Integer.parseInt(value);
+                    to = from;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("無法解析的 HTTP 狀態碼：" + token.trim(), e);
+            }
+            checkStatus(from);
+            checkStatus(to);
+            for (int status = from; status <= to; status++) {
+                statuses[status] = true;
+            }
+        }
+        return statuses;
+    }
+
+    private static void checkStatus(int status) {
+        if (status < MIN_STATUS || status > MAX_STATUS) {
+            throw new IllegalArgumentException("HTTP 狀態碼必須介於 " + MIN_STATUS + " 與 " + MAX_STATUS + " 之間：" + status);
+        }
+    }
+}
@@ -1,24 +1,32 @@
 package com.bill.springretry.custom;
 
+import com.bill.springretry.schedule.BackOffSchedule;
+import com.bill.springretry.schedule.BackOffScheduleProperties;
+import com.bill.springretry.schedule.CachedClock;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.backoff.BackOffContext;
 import org.springframework.retry.backoff.BackOffInterruptedException;
-import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
 
+import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Bill.Lin 2025/4/13
  * 自定義退避策略 - 根據當前時間調整退避間隔
  * 例如，高峰時段使用較長的退避時間，避免系統過載
+ * 時段在建立時轉換成 BackOffSchedule 排程表，退避時只需查表；需要多個時段或依星期區分時改用 ScheduleBackOffPolicy
  */
-public class TimeAwareBackOffPolicy implements BackOffPolicy {
+public class TimeAwareBackOffPolicy implements SleepingBackOffPolicy<TimeAwareBackOffPolicy> {
 
-    private final long baseInterval;  // 基本退避間隔（毫秒）
-    private final long nightInterval; // 夜間退避間隔（毫秒）
-    private final int startHour;      // 高峰時段開始小時
-    private final int endHour;        // 高峰時段結束小時
-    private final float peakMultiplier; // 高峰時段倍數
+    private final BackOffSchedule schedule; // 高峰、夜間與正常時段預先計算好的排程表
+    private final CachedClock clock;        // 取得目前時間的快取時鐘
+    private final Sleeper sleeper;          // 實際執行等待的 Sleeper
     
     /**
      * 建立時間感知的退避策略
@@ -30,11 +38,14 @@ public class TimeAwareBackOffPolicy implements BackOffPolicy {
      * @param peakMultiplier 高峰時段倍數
      */
     public TimeAwareBackOffPolicy(long baseInterval, long nightInterval, int startHour, int endHour, float peakMultiplier) {
-        this.baseInterval = baseInterval;
-        this.nightInterval = nightInterval;
-        this.startHour = startHour;
-        this.endHour = endHour;
-        this.peakMultiplier = peakMultiplier;
+        this(createSchedule(baseInterval, nightInterval, startHour, endHour, peakMultiplier),
+                CachedClock.system(ZoneId.systemDefault()), new ThreadWaitSleeper());
+    }
+    
+    private TimeAwareBackOffPolicy(BackOffSchedule schedule, CachedClock clock, Sleeper sleeper) {
+        this.schedule = schedule;
+        this.clock = clock;
+        this.sleeper = sleeper;
     }
     
     /**
@@ -45,6 +56,49 @@ public class TimeAwareBackOffPolicy implements BackOffPolicy {
         this(1000, 500, 9, 18, 2.0f);
     }
 
+    /**
+     * 把高峰時段與夜間（22 點至 6 點）轉換成排程表，高峰時段優先
+     */
+    private static BackOffSchedule createSchedule(long baseInterval, long nightInterval, int startHour, int endHour,
+                                                  float peakMultiplier) {
+        List<BackOffScheduleProperties.Window> windows = new ArrayList<>();
+        if (startHour < endHour) {
+            windows.add(window("peak", startHour, endHour, (long) (baseInterval * peakMultiplier)));
+        }
+        windows.add(window("night", 22, 6, nightInterval));
+
+        BackOffScheduleProperties properties = new BackOffScheduleProperties();
+        properties.setZone(ZoneId.systemDefault());
+        properties.setDefaultInterval(baseInterval);
+        properties.setMaxInterval(Long.MAX_VALUE);
+        properties.setWindows(windows);
+        return BackOffSchedule.of(properties);
+    }
+
+    private static BackOffScheduleProperties.Window window(String name, int startHour, int endHour, long interval) {
+        BackOffScheduleProperties.Window window = new BackOffScheduleProperties.Window();
+        window.setName(name);
+        window.setStart(LocalTime.of(startHour, 0));
+        window.setEnd(endHour >= 24 ? LocalTime.MIDNIGHT : LocalTime.of(endHour, 0));
+        window.setBaseInterval(interval);
+        return window;
+    }
+
+    /**
+     * 建立使用指定 Sleeper 的副本，讓非同步重試可以只取得退避時間而不實際睡眠
+     * 副本沿用本實例的 getCurrentTime，因此覆寫過時間來源的子類別也能正確運作
+     */
+    @Override
+    public TimeAwareBackOffPolicy withSleeper(Sleeper sleeper) {
+        TimeAwareBackOffPolicy source = this;
+        return new TimeAwareBackOffPolicy(schedule, clock, sleeper) {
+            @Override
+            protected LocalTime getCurrentTime() {
+                return source.getCurrentTime();
+            }
+        };
+    }
+
     @Override
     public BackOffContext start(RetryContext context) {
         return new TimeAwareBackOffContext();
@@ -58,7 +112,7 @@ public class TimeAwareBackOffPolicy implements BackOffPolicy {
         context.setLastBackOff(sleepTime);
         
         try {
-            Thread.sleep(sleepTime);
+            sleeper.sleep(sleepTime);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
@@ -66,27 +120,11 @@ public class TimeAwareBackOffPolicy implements BackOffPolicy {
     }
     
     /**
-     * 根據當前時間計算退避時間
+     * 根據當前時間查表取得退避時間
+     * 所有時段每天都適用，因此只需要一天之內的分鐘數
      */
     private long calculateSleepTime() {
-        LocalTime now = getCurrentTime();
-        int currentHour = now.getHour();
-        
-        // 判斷是否在高峰時段
-        if (currentHour >= startHour && currentHour < endHour) {
-            System.out.println("目前是高峰時段，增加退避時間");
-            return (long) (baseInterval * peakMultiplier);
-        }
-        
-        // 判斷是否在夜間
-        if (currentHour >= 22 || currentHour < 6) {
-            System.out.println("目前是夜間時段，減少退避時間");
-            return nightInterval;
-        }
-        
-        // 默認使用基本退避時間
-        System.out.println("目前是正常時段，使用標準退避時間");
-        return baseInterval;
+        return schedule.windowAt(DayOfWeek.MONDAY, getCurrentTime()).delay(0);
     }
     
     /**
@@ -94,7 +132,7 @@ public class TimeAwareBackOffPolicy implements BackOffPolicy {
      * @return 當前時間
      */
     protected LocalTime getCurrentTime() {
-        return LocalTime.now();
+        return clock.localTime();
     }
     
     /**
@@ -0,0 +1,106 @@
+package com.bill.springretry.database;
+
+import com.bill.springretry.async.BackOffDelays;
+import com.bill.springretry.exception.DatabaseErrorCategory;
+import com.bill.springretry.exception.DatabaseException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依資料庫錯誤分類選擇退避策略
+ * 最後一次失敗是 DatabaseException 且其分類設定了退避策略時使用該策略，否則使用預設策略；
+ * 每個分類的退避狀態各自獨立，例如連線中斷後再遇到死結，死結仍從自己的第一次間隔開始
+ */
+public class DatabaseErrorBackOffPolicy implements SleepingBackOffPolicy<DatabaseErrorBackOffPolicy> {
+
+    private static final DatabaseErrorCategory[] CATEGORIES = DatabaseErrorCategory.values();
+
+    private final BackOffPolicy defaultBackOff;
+
+    // 以分類的 ordinal 為索引的退避策略，沒有設定的分類為 null
+    private final BackOffPolicy[] backOffs;
+
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    /**
+     * @param defaultBackOff 分類沒有設定退避策略時使用的策略
+     */
+    public DatabaseErrorBackOffPolicy(BackOffPolicy defaultBackOff) {
+        this.defaultBackOff = BackOffDelays.nonBlocking(defaultBackOff);
+        this.backOffs = new BackOffPolicy[CATEGORIES.length];
+    }
+
+    /**
+     * 設定某個分類的退避策略，只用來計算延遲，等待由本策略的 Sleeper 完成
+     */
+    public void setBackOff(DatabaseErrorCategory category, BackOffPolicy backOff) {
+        backOffs[category.ordinal()] = BackOffDelays.nonBlocking(backOff);
+    }
+
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public DatabaseErrorBackOffPolicy withSleeper(Sleeper sleeper) {
+        DatabaseErrorBackOffPolicy copy = new DatabaseErrorBackOffPolicy(defaultBackOff);
+        System.arraycopy(backOffs, 0, copy.backOffs, 0, backOffs.length);
+        copy.setSleeper(sleeper);
+        return copy;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new DatabaseErrorBackOffContext(context, defaultBackOff.start(context));
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        DatabaseErrorBackOffContext context = (DatabaseErrorBackOffContext) backOffContext;
+        long sleepTime = nextDelay(context);
+        if (sleepTime <= 0) {
+            return;
+        }
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    private long nextDelay(DatabaseErrorBackOffContext context) {
+        if (context.retryContext != null
+                && context.retryContext.getLastThrowable() instanceof DatabaseException ex) {
+            int index = ex.getCategory().ordinal();
+            BackOffPolicy backOff = backOffs[index];
+            if (backOff != null) {
+                // 分類第一次出現時才建立它的退避上下文
+                if (context.categoryContexts[index] == null) {
+                    context.categoryContexts[index] = backOff.start(context.retryContext);
+                }
+                return BackOffDelays.nextDelay(backOff, context.categoryContexts[index]);
+            }
+        }
+        return BackOffDelays.nextDelay(defaultBackOff, context.defaultContext);
+    }
+
+    private static class DatabaseErrorBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private final BackOffContext defaultContext;
+        private final BackOffContext[] categoryContexts = new BackOffContext[CATEGORIES.length];
+
+        DatabaseErrorBackOffContext(RetryContext retryContext, BackOffContext defaultContext) {
+            this.retryContext = retryContext;
+            this.defaultContext = defaultContext;
+        }
+    }
+}
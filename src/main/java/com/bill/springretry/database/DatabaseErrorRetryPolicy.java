@@ -0,0 +1,83 @@
+package com.bill.springretry.database;
+
+import com.bill.springretry.exception.DatabaseErrorCategory;
+import com.bill.springretry.exception.DatabaseException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依資料庫錯誤分類決定最大嘗試次數的重試策略
+ * 只重試 DatabaseException，違反約束與語句錯誤預設只嘗試一次，不浪費資料庫的容量
+ * 最後一次失敗的分類記錄在重試上下文的 {@link #CATEGORY} 屬性，供退避策略與監聽器讀取
+ */
+public class DatabaseErrorRetryPolicy implements RetryPolicy {
+
+    public static final String CATEGORY = "database.errorCategory";
+
+    private static final DatabaseErrorCategory[] CATEGORIES = DatabaseErrorCategory.values();
+
+    // 以分類的 ordinal 為索引的最大嘗試次數
+    private final int[] maxAttempts = new int[CATEGORIES.length];
+
+    public DatabaseErrorRetryPolicy() {
+        for (DatabaseErrorCategory category : CATEGORIES) {
+            maxAttempts[category.ordinal()] = category.getSeverity().isRetryable() ? 5 : 1;
+        }
+    }
+
+    /**
+     * 設定某個分類的最大嘗試次數，1 表示不重試
+     */
+    public void setMaxAttempts(DatabaseErrorCategory category, int maxAttempts) {
+        this.maxAttempts[category.ordinal()] = Math.max(1, maxAttempts);
+    }
+
+    public int getMaxAttempts(DatabaseErrorCategory category) {
+        return maxAttempts[category.ordinal()];
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        Throwable lastThrowable = context.getLastThrowable();
+        if (lastThrowable == null) {
+            return context.getRetryCount() < getMaxAttempts();
+        }
+        if (lastThrowable instanceof DatabaseException ex) {
+            return context.getRetryCount() < maxAttempts[ex.getCategory().ordinal()];
+        }
+        return false;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        return new RetryContextSupport(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        if (context instanceof RetryContextSupport support) {
+            support.registerThrowable(throwable);
+        }
+        if (throwable instanceof DatabaseException ex) {
+            context.setAttribute(CATEGORY, ex.getCategory());
+        }
+    }
+
+    /**
+     * 所有分類中最大的嘗試次數
+     */
+    @Override
+    public int getMaxAttempts() {
+        int max = 1;
+        for (int attempts : maxAttempts) {
+            max = Math.max(max, attempts);
+        }
+        return max;
+    }
+}
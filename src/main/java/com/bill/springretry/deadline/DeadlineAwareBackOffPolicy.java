@@ -0,0 +1,84 @@
+package com.bill.springretry.deadline;
+
+import com.bill.springretry.async.BackOffDelays;
+import com.bill.springretry.exception.RetryHint;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 感知截止時間的退避策略
+ * 先向原本的退避策略取得延遲時間，等待會超過 DeadlineRetryPolicy 設定的截止時間時不再等待，
+ * 直接拋出 RetryDeadlineExceededException，避免在呼叫端已經放棄後仍繼續重試
+ * 最後一次失敗帶有伺服器建議的等待時間（Retry-After）時，以原始的建議時間檢查，
+ * 原策略把建議截短到上限也不會因此在伺服器允許之前提早重試
+ *
+ * 原策略不支援 Sleeper 時無法預先得知延遲，只能在它等待後才檢查
+ */
+public class DeadlineAwareBackOffPolicy implements SleepingBackOffPolicy<DeadlineAwareBackOffPolicy> {
+
+    private final BackOffPolicy delegate;
+    private final Sleeper sleeper;
+
+    public DeadlineAwareBackOffPolicy(BackOffPolicy delegate) {
+        this(delegate, new ThreadWaitSleeper());
+    }
+
+    private DeadlineAwareBackOffPolicy(BackOffPolicy delegate, Sleeper sleeper) {
+        this.delegate = BackOffDelays.nonBlocking(delegate);
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public DeadlineAwareBackOffPolicy withSleeper(Sleeper sleeper) {
+        return new DeadlineAwareBackOffPolicy(delegate, sleeper);
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new DeadlineBackOffContext(context, delegate.start(context));
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        DeadlineBackOffContext context = (DeadlineBackOffContext) backOffContext;
+        long delay = BackOffDelays.nextDelay(delegate, context.delegateContext);
+
+        if (context.retryContext != null
+                && context.retryContext.getAttribute(RetryDeadline.DEADLINE_NANOS) instanceof Long deadline) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000L;
+            long requiredMillis = Math.max(delay, RetryHint.findSuggestedDelay(context.retryContext.getLastThrowable())
+                    .map(suggested -> suggested.toMillis())
+                    .orElse(0L));
+            if (requiredMillis >= remainingMillis) {
+                context.retryContext.setAttribute(RetryDeadline.DEADLINE_EXCEEDED, true);
+                throw new RetryDeadlineExceededException(
+                        "剩餘 " + Math.max(0, remainingMillis) + "ms 不足以等待 " + requiredMillis + "ms 的退避",
+                        context.retryContext.getLastThrowable());
+            }
+        }
+
+        try {
+            sleeper.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    private static class DeadlineBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private final BackOffContext delegateContext;
+
+        DeadlineBackOffContext(RetryContext retryContext, BackOffContext delegateContext) {
+            this.retryContext = retryContext;
+            this.delegateContext = delegateContext;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bill.springretry.deadline;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+import java.time.Duration;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 具有端對端時間預算的重試策略
+ * 截止時間取以下最早者：設定的時間預算、呼叫端以 RetryDeadline.callWithin 宣告的預算、外層重試上下文的截止時間
+ * 截止時間存放在上下文屬性中，巢狀的重試會自動繼承；截止時間一到就不再重試
+ */
+public class DeadlineRetryPolicy implements RetryPolicy {
+
+    private final RetryPolicy delegate;
+    private final Duration timeBudget;
+
+    public DeadlineRetryPolicy(RetryPolicy delegate, Duration timeBudget) {
+        this.delegate = delegate;
+        this.timeBudget = timeBudget;
+    }
+
+    public RetryPolicy getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        RetryContext context = delegate.open(parent);
+
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        Long callerDeadline = RetryDeadline.callerDeadline();
+        if (callerDeadline != null) {
+            deadline = RetryDeadline.earlier(deadline, callerDeadline);
+        }
+        if (parent != null && parent.getAttribute(RetryDeadline.DEADLINE_NANOS) instanceof Long parentDeadline) {
+            deadline = RetryDeadline.earlier(deadline, parentDeadline);
+        }
+
+        context.setAttribute(RetryDeadline.DEADLINE_NANOS, deadline);
+        updateRemaining(context, deadline);
+        return context;
+    }
+
+    /**
+     * 上下文沒有截止時間或屬性被設為其他型別時，只由包裝的策略決定
+     */
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (context.getAttribute(RetryDeadline.DEADLINE_NANOS) instanceof Long deadline
+                && updateRemaining(context, deadline) <= 0) {
+            context.setAttribute(RetryDeadline.DEADLINE_EXCEEDED, true);
+            return false;
+        }
+        return delegate.canRetry(context);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+
+    private static long updateRemaining(RetryContext context, long deadline) {
+        long remainingMillis = Math.max(0, (deadline - System.nanoTime()) / 1_000_000L);
+        context.setAttribute(RetryDeadline.REMAINING_MILLIS, remainingMillis);
+        return remainingMillis;
+    }
+}
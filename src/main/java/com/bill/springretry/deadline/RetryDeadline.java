@@ -0,0 +1,75 @@
+package com.bill.springretry.deadline;
+
+import org.springframework.retry.RetryContext;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 重試的截止時間
+ * 呼叫端可以用 callWithin 宣告自己的時間預算，範圍內開啟的 DeadlineRetryPolicy 會沿用較早的截止時間；
+ * 回調可以從 RetryContext 取得剩餘時間，據此縮短自己的逾時設定
+ */
+public final class RetryDeadline {
+
+    /**
+     * 上下文屬性：截止時間（System.nanoTime 的值）
+     */
+    public static final String DEADLINE_NANOS = "retryDeadline.deadlineNanos";
+
+    /**
+     * 上下文屬性：每次嘗試前更新的剩餘毫秒數
+     */
+    public static final String REMAINING_MILLIS = "retryDeadline.remainingMillis";
+
+    /**
+     * 上下文屬性：因截止時間已過而停止重試時為 true
+     */
+    public static final String DEADLINE_EXCEEDED = "retryDeadline.exceeded";
+
+    private static final ThreadLocal<Long> CALLER_DEADLINE = new ThreadLocal<>();
+
+    private RetryDeadline() {
+    }
+
+    /**
+     * 在指定的時間預算內執行，期間開啟的重試不會超過這個截止時間
+     * 巢狀呼叫時以較早的截止時間為準
+     */
+    public static <T> T callWithin(Duration timeBudget, Callable<T> callable) throws Exception {
+        Long previous = CALLER_DEADLINE.get();
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        CALLER_DEADLINE.set(previous != null ? earlier(previous, deadline) : deadline);
+        try {
+            return callable.call();
+        } finally {
+            if (previous != null) {
+                CALLER_DEADLINE.set(previous);
+            } else {
+                CALLER_DEADLINE.remove();
+            }
+        }
+    }
+
+    /**
+     * 目前重試的剩餘時間，沒有設定截止時間時為空
+     */
+    public static Optional<Duration> remaining(RetryContext context) {
+        Object deadline = context.getAttribute(DEADLINE_NANOS);
+        if (deadline instanceof Long deadlineNanos) {
+            return Optional.of(Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime())));
+        }
+        return Optional.empty();
+    }
+
+    static Long callerDeadline() {
+        return CALLER_DEADLINE.get();
+    }
+
+    static long earlier(long first, long second) {
+        // nanoTime 只能以差值比較
+        return first - second < 0 ? first : second;
+    }
+}
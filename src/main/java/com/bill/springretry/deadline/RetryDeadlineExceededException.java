@@ -0,0 +1,14 @@
+package com.bill.springretry.deadline;
+
+import org.springframework.retry.RetryException;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 剩餘時間不足以完成下一次退避時拋出，cause 為最後一次嘗試的異常
+ */
+public class RetryDeadlineExceededException extends RetryException {
+
+    public RetryDeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,126 @@
+package com.bill.springretry.exception;
+
+import java.sql.SQLException;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 與資料庫廠商無關的錯誤分類，由 SQLState 與常見的廠商錯誤碼推導
+ * 不同分類需要不同的重試方式：死結可以立即重試、連線中斷需要等待較久，違反約束則重試也不會成功
+ */
+public enum DatabaseErrorCategory {
+
+    /**
+     * 死結、序列化衝突或鎖等待逾時，交易被回滾後立即重試通常就會成功
+     */
+    DEADLOCK(RetrySeverity.TRANSIENT),
+
+    /**
+     * 連線中斷、無法建立連線或伺服器關閉，需要等待資料庫或網絡恢復
+     */
+    CONNECTION(RetrySeverity.TRANSIENT),
+
+    /**
+     * 資源不足或查詢逾時，資料庫負載過高，應該等久一點
+     */
+    RESOURCE(RetrySeverity.THROTTLED),
+
+    /**
+     * 違反唯一鍵、外鍵或其他完整性約束，重試不會成功
+     */
+    INTEGRITY(RetrySeverity.PERMANENT),
+
+    /**
+     * 語法錯誤、權限不足或資料格式錯誤，重試不會成功
+     */
+    INVALID_STATEMENT(RetrySeverity.PERMANENT),
+
+    /**
+     * 無法判斷的錯誤，沿用原本的重試方式
+     */
+    UNKNOWN(RetrySeverity.TRANSIENT);
+
+    private final RetrySeverity severity;
+
+    DatabaseErrorCategory(RetrySeverity severity) {
+        this.severity = severity;
+    }
+
+    public RetrySeverity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * 依 SQLState 與廠商錯誤碼分類，SQLState 無法判斷時再看錯誤碼
+     *
+     * @param sqlState SQLState，可以為 null
+     * @param vendorCode 廠商錯誤碼 (SQLException.getErrorCode)
+     */
+    public static DatabaseErrorCategory of(String sqlState, int vendorCode) {
+        DatabaseErrorCategory category = fromSqlState(sqlState);
+        return category != UNKNOWN ? category : fromVendorCode(vendorCode);
+    }
+
+    /**
+     * 分類 SQLException，沿著 cause 鏈與 getNextException 找出第一個可以判斷的錯誤
+     */
+    public static DatabaseErrorCategory of(SQLException exception) {
+        for (SQLException current = exception; current != null; current = next(current)) {
+            DatabaseErrorCategory category = of(current.getSQLState(), current.getErrorCode());
+            if (category != UNKNOWN) {
+                return category;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static SQLException next(SQLException exception) {
+        if (exception.getCause() instanceof SQLException cause && cause != exception) {
+            return cause;
+        }
+        SQLException next = exception.getNextException();
+        return next != exception ? next : null;
+    }
+
+    private static DatabaseErrorCategory fromSqlState(String sqlState) {
+        if (sqlState == null || sqlState.length() < 2) {
+            return UNKNOWN;
+        }
+        switch (sqlState) {
+            case "40001", "40P01" -> {
+                // 序列化失敗 / PostgreSQL 死結
+                return DEADLOCK;
+            }
+            case "57P01", "57P02", "57P03" -> {
+                // PostgreSQL 管理員關閉或伺服器尚未就緒
+                return CONNECTION;
+            }
+            case "57014", "HYT00", "HYT01" -> {
+                // 查詢被取消或逾時
+                return RESOURCE;
+            }
+            default -> {
+            }
+        }
+        return switch (sqlState.substring(0, 2)) {
+            case "08" -> CONNECTION;
+            case "53" -> RESOURCE;
+            case "23" -> INTEGRITY;
+            case "22", "28", "42" -> INVALID_STATEMENT;
+            default -> UNKNOWN;
+        };
+    }
+
+    private static DatabaseErrorCategory fromVendorCode(int vendorCode) {
+        return switch (vendorCode) {
+            // MySQL 死結 / 鎖等待逾時（SQL Server 1205 同樣為死結），Oracle ORA-00060
+            case 1213, 1205, 60 -> DEADLOCK;
+            // MySQL server has gone away / lost connection，Oracle ORA-03113 / ORA-17002
+            case 2006, 2013, 3113, 17002 -> CONNECTION;
+            // MySQL too many connections
+            case 1040 -> RESOURCE;
+            // MySQL 重複鍵 / 外鍵，SQL Server 2601 / 2627 / 547
+            case 1062, 1451, 1452, 2601, 2627, 547 -> INTEGRITY;
+            default -> UNKNOWN;
+        };
+    }
+}
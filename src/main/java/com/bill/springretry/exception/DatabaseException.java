@@ -1,15 +1,51 @@
 package com.bill.springretry.exception;
 
+import java.sql.SQLException;
+
 /**
  * @author Bill.Lin 2025/4/13
+ * 資料庫異常，帶有與廠商無關的錯誤分類
+ * 以 SQLException 為 cause 建立時由 SQLState 與廠商錯誤碼推導分類，否則為 UNKNOWN
  */
-public class DatabaseException extends RuntimeException {
+public class DatabaseException extends RuntimeException implements RetryHint {
+    
+    private final DatabaseErrorCategory category;
     
     public DatabaseException(String message) {
-        super(message);
+        this(message, DatabaseErrorCategory.UNKNOWN);
     }
     
     public DatabaseException(String message, Throwable cause) {
         super(message, cause);
+        this.category = categoryOf(cause);
+    }
+    
+    public DatabaseException(String message, DatabaseErrorCategory category) {
+        super(message);
+        this.category = category;
+    }
+    
+    public DatabaseErrorCategory getCategory() {
+        return category;
+    }
+    
+    @Override
+    public RetrySeverity getRetrySeverity() {
+        return category.getSeverity();
+    }
+    
+    private static DatabaseErrorCategory categoryOf(Throwable cause) {
+        for (Throwable current = cause; current != null; current = current.getCause()) {
+            if (current instanceof SQLException sqlException) {
+                return DatabaseErrorCategory.of(sqlException);
+            }
+            if (current instanceof DatabaseException databaseException) {
+                return databaseException.getCategory();
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return DatabaseErrorCategory.UNKNOWN;
     }
 }
@@ -1,18 +1,63 @@
 package com.bill.springretry.exception;
 
+import java.time.Duration;
+import java.util.Optional;
+
 /**
  * @author Bill.Lin 2025/4/13
  */
-public class RemoteServiceException extends RuntimeException {
+public class RemoteServiceException extends RuntimeException implements RetryHint {
     
     private final int statusCode;
     
+    // 伺服器透過 Retry-After 指定的等待時間，沒有提供時為 null
+    private final Duration retryAfter;
+    
+    private final RetrySeverity severity;
+    
     public RemoteServiceException(String message, int statusCode) {
+        this(message, statusCode, null);
+    }
+    
+    public RemoteServiceException(String message, int statusCode, Duration retryAfter) {
         super(message);
         this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+        this.severity = severityOf(statusCode);
     }
     
     public int getStatusCode() {
         return statusCode;
     }
+    
+    /**
+     * 伺服器要求的重試等待時間 (Retry-After)
+     */
+    public Optional<Duration> getRetryAfter() {
+        return Optional.ofNullable(retryAfter);
+    }
+    
+    /**
+     * 429、503 為降速，408 與其他 5xx（501 除外）為暫時性故障，其餘為永久性錯誤
+     * Retry-After 只提供建議延遲，不會讓 4xx 等永久性錯誤變成可重試
+     */
+    @Override
+    public RetrySeverity getRetrySeverity() {
+        return severity;
+    }
+    
+    @Override
+    public Optional<Duration> getSuggestedDelay() {
+        return getRetryAfter();
+    }
+    
+    private static RetrySeverity severityOf(int statusCode) {
+        if (statusCode == 429 || statusCode == 503) {
+            return RetrySeverity.THROTTLED;
+        }
+        if (statusCode == 408 || (statusCode >= 500 && statusCode != 501)) {
+            return RetrySeverity.TRANSIENT;
+        }
+        return RetrySeverity.PERMANENT;
+    }
 }
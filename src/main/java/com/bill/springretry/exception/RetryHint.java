@@ -0,0 +1,58 @@
+package com.bill.springretry.exception;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 異常自己攜帶的重試提示：是否可以重試、建議的等待時間與嚴重程度
+ * 重試策略與退避策略先查詢提示，只有不實作本介面的外部異常才需要依類別對照表判斷，
+ * 判斷因此只是一次虛擬方法呼叫，不需要沿著類別階層查找
+ */
+public interface RetryHint {
+
+    /**
+     * 異常的嚴重程度
+     */
+    RetrySeverity getRetrySeverity();
+
+    /**
+     * 是否值得重試，預設由嚴重程度決定
+     */
+    default boolean isRetryable() {
+        return getRetrySeverity().isRetryable();
+    }
+
+    /**
+     * 建議在下一次嘗試前等待的時間，沒有建議時由退避策略決定
+     */
+    default Optional<Duration> getSuggestedDelay() {
+        return Optional.empty();
+    }
+
+    /**
+     * 從異常的 cause 鏈找出第一個帶有重試提示的異常，沒有時回傳 null
+     */
+    static RetryHint find(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryHint hint) {
+                return hint;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 從異常的 cause 鏈取得第一個重試提示的建議延遲，沒有提示、沒有建議或建議為負值時回傳空值
+     */
+    static Optional<Duration> findSuggestedDelay(Throwable throwable) {
+        RetryHint hint = find(throwable);
+        if (hint == null) {
+            return Optional.empty();
+        }
+        return hint.getSuggestedDelay().filter(delay -> !delay.isNegative());
+    }
+}
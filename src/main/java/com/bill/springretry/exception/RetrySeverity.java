@@ -0,0 +1,33 @@
+package com.bill.springretry.exception;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 異常的重試嚴重程度
+ */
+public enum RetrySeverity {
+
+    /**
+     * 暫時性故障，例如網絡中斷或連線逾時，稍後重試通常會成功
+     */
+    TRANSIENT(true),
+
+    /**
+     * 下游要求降速，例如 429 或 503，可以重試但應該等久一點並降低送出速率
+     */
+    THROTTLED(true),
+
+    /**
+     * 永久性錯誤，例如參數錯誤或權限不足，重試不會有不同的結果
+     */
+    PERMANENT(false);
+
+    private final boolean retryable;
+
+    RetrySeverity(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -3,8 +3,13 @@ package com.bill.springretry.exception;
 /**
  * @author Bill.Lin 2025/4/13
  */
-public class TransientNetworkException extends RuntimeException {
+public class TransientNetworkException extends RuntimeException implements RetryHint {
     public TransientNetworkException(String message) {
         super(message);
     }
+
+    @Override
+    public RetrySeverity getRetrySeverity() {
+        return RetrySeverity.TRANSIENT;
+    }
 }
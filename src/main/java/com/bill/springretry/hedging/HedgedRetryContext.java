@@ -0,0 +1,56 @@
+package com.bill.springretry.hedging;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 單次對沖嘗試使用的子上下文
+ * 同一次重試的主要請求與對沖請求會並行執行，重試上下文的屬性表不是執行緒安全的，
+ * 因此每個嘗試把屬性寫在自己的子上下文中；讀不到的屬性（例如截止時間）向外層上下文查詢，
+ * 重試次數與最後一次失敗也取自外層上下文
+ *
+ * 並行期間外層上下文只會被讀取；嘗試結束後由呼叫端的執行緒以 {@link #mergeIntoParent()} 把屬性寫回外層
+ */
+final class HedgedRetryContext extends RetryContextSupport {
+
+    HedgedRetryContext(RetryContext parent) {
+        super(parent);
+    }
+
+    @Override
+    public int getRetryCount() {
+        return getParent().getRetryCount();
+    }
+
+    @Override
+    public Throwable getLastThrowable() {
+        return getParent().getLastThrowable();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        if (super.hasAttribute(name)) {
+            return super.getAttribute(name);
+        }
+        return getParent().getAttribute(name);
+    }
+
+    @Override
+    public boolean hasAttribute(String name) {
+        return super.hasAttribute(name) || getParent().hasAttribute(name);
+    }
+
+    /**
+     * 把這次嘗試寫入的屬性與終止標記寫回外層上下文，只能在呼叫端的執行緒呼叫
+     */
+    void mergeIntoParent() {
+        RetryContext parent = getParent();
+        for (String name : super.attributeNames()) {
+            parent.setAttribute(name, super.getAttribute(name));
+        }
+        if (isExhaustedOnly()) {
+            parent.setExhaustedOnly();
+        }
+    }
+}
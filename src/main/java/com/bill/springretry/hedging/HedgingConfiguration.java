@@ -0,0 +1,68 @@
+package com.bill.springretry.hedging;
+
+import com.bill.springretry.async.RetryScheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 對沖請求的共用設定
+ * 每個下游各自一個 HedgingExecutor，延遲統計與對沖上限不會互相影響
+ */
+@Configuration
+public class HedgingConfiguration {
+
+    @Value("${retry.hedging.delay-millis:100}")
+    private long delayMillis;
+
+    @Value("${retry.hedging.delay-percentile:95}")
+    private double delayPercentile;
+
+    @Value("${retry.hedging.max-hedges-per-window:10}")
+    private int maxHedgesPerWindow;
+
+    @Value("${retry.hedging.window-millis:1000}")
+    private long windowMillis;
+
+    /**
+     * 執行對沖嘗試的虛擬執行緒執行器，落敗的嘗試被中斷時不會佔用平台執行緒
+     */
+    @Bean(name = "hedgeAttemptExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService hedgeAttemptExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * CustomRetryService 的 HTTP 請求使用
+     */
+    @Bean(name = "httpHedgingExecutor")
+    public HedgingExecutor httpHedgingExecutor(
+            @Qualifier("hedgeAttemptExecutor") ExecutorService hedgeAttemptExecutor,
+            RetryScheduler retryTimer) {
+        return createHedgingExecutor(hedgeAttemptExecutor, retryTimer);
+    }
+
+    /**
+     * ConfiguredRetryService 的網絡操作使用
+     */
+    @Bean(name = "networkHedgingExecutor")
+    public HedgingExecutor networkHedgingExecutor(
+            @Qualifier("hedgeAttemptExecutor") ExecutorService hedgeAttemptExecutor,
+            RetryScheduler retryTimer) {
+        return createHedgingExecutor(hedgeAttemptExecutor, retryTimer);
+    }
+
+    private HedgingExecutor createHedgingExecutor(ExecutorService attemptExecutor, RetryScheduler scheduler) {
+        HedgingExecutor executor = new HedgingExecutor(attemptExecutor, scheduler);
+        executor.setDelayMillis(delayMillis);
+        executor.setDelayPercentile(delayPercentile);
+        executor.setMaxHedgesPerWindow(maxHedgesPerWindow);
+        executor.setWindowMillis(windowMillis);
+        return executor;
+    }
+}
@@ -0,0 +1,272 @@
+package com.bill.springretry.hedging;
+
+import com.bill.springretry.async.RetryScheduler;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 對沖請求 (hedged requests)：第一次嘗試在對沖延遲內尚未完成時，再平行送出一次相同的請求
+ * 最先成功的結果勝出，其餘進行中的嘗試會被取消（中斷）
+ *
+ * 對沖延遲可以是固定值，也可以是最近嘗試延遲的百分位數（樣本不足時使用固定值）；
+ * 每次嘗試結束時都記錄延遲，包括失敗與被勝出者取消的嘗試，百分位數不會只反映最先完成的快請求；
+ * 被取消的慢嘗試以取消前經過的時間作為延遲的下限，保留百分位數要衡量的尾端
+ * 每個時間窗口內的對沖次數有上限，服務中斷、所有請求都變慢時不會讓負載加倍
+ *
+ * 重試與對沖是互補的：外層的 RetryTemplate 處理失敗，對沖只處理慢請求
+ * 所有嘗試都失敗時拋出最後一個異常，交給外層的重試策略判斷；
+ * 在重試回調中使用時以 {@link #execute(RetryContext, RetryCallback)} 讓每個嘗試使用自己的子上下文
+ */
+public class HedgingExecutor {
+
+    private final ExecutorService attemptExecutor;
+    private final RetryScheduler scheduler;
+    private final LatencyTracker latencyTracker = new LatencyTracker(1024, 100);
+
+    private long delayMillis = 100;
+    private double delayPercentile = 0;
+    private int minSamples = 20;
+    private int maxHedges = 1;
+    private int maxHedgesPerWindow = 10;
+    private long windowMillis = 1000;
+
+    // 目前時間窗口的起點與已使用的對沖次數，兩者一起以 CAS 更新
+    private final AtomicReference<HedgeWindow> window = new AtomicReference<>(new HedgeWindow(System.nanoTime(), 0));
+
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong throttledHedges = new AtomicLong();
+
+    /**
+     * @param attemptExecutor 執行每次嘗試的執行器，建議使用虛擬執行緒
+     * @param scheduler 在對沖延遲後觸發對沖嘗試的排程器
+     */
+    public HedgingExecutor(ExecutorService attemptExecutor, RetryScheduler scheduler) {
+        this.attemptExecutor = attemptExecutor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 固定的對沖延遲，使用百分位數時作為樣本不足時的預設值
+     */
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * 以最近嘗試延遲的百分位數 (例如 95) 作為對沖延遲，0 表示只使用固定延遲
+     */
+    public void setDelayPercentile(double delayPercentile) {
+        this.delayPercentile = delayPercentile;
+    }
+
+    /**
+     * 使用百分位數前至少需要的樣本數
+     */
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * 每個請求最多額外送出的對沖次數
+     */
+    public void setMaxHedges(int maxHedges) {
+        this.maxHedges = maxHedges;
+    }
+
+    /**
+     * 每個時間窗口內最多的對沖次數
+     */
+    public void setMaxHedgesPerWindow(int maxHedgesPerWindow) {
+        this.maxHedgesPerWindow = maxHedgesPerWindow;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * 執行請求，必要時送出對沖請求，阻塞直到有嘗試成功或全部失敗
+     */
+    public <T> T execute(Callable<T> attempt) throws Exception {
+        Execution<T> execution = new Execution<>(attempt);
+        execution.launch(false);
+        scheduleHedge(execution, 1);
+
+        try {
+            return execution.winner.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        } catch (InterruptedException e) {
+            execution.cancelAll();
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * 在重試回調中執行請求，每個並行的嘗試使用自己的子上下文，不會同時寫入同一個重試上下文
+     * 成功時把勝出嘗試寫入的屬性寫回重試上下文；全部失敗時依失敗的先後順序寫回所有嘗試的屬性，
+     * 讓退避策略等讀取上下文屬性（例如 endpoint）的元件在下一次退避時看得到
+     */
+    public <T> T execute(RetryContext context, RetryCallback<T, Exception> callback) throws Exception {
+        Queue<HedgedRetryContext> failedAttempts = new ConcurrentLinkedQueue<>();
+        HedgedAttempt<T> winner;
+        try {
+            winner = execute(() -> {
+                HedgedRetryContext attemptContext = new HedgedRetryContext(context);
+                try {
+                    return new HedgedAttempt<>(callback.doWithRetry(attemptContext), attemptContext);
+                } catch (Throwable e) {
+                    failedAttempts.add(attemptContext);
+                    throw e;
+                }
+            });
+        } catch (Exception | Error e) {
+            failedAttempts.forEach(HedgedRetryContext::mergeIntoParent);
+            throw e;
+        }
+        winner.context().mergeIntoParent();
+        return winner.result();
+    }
+
+    /**
+     * 目前使用的對沖延遲
+     */
+    public long currentDelayMillis() {
+        if (delayPercentile > 0) {
+            long observed = latencyTracker.percentile(delayPercentile, minSamples);
+            if (observed >= 0) {
+                return observed;
+            }
+        }
+        return delayMillis;
+    }
+
+    public long getHedgedRequests() {
+        return hedgedRequests.get();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    public long getThrottledHedges() {
+        return throttledHedges.get();
+    }
+
+    private <T> void scheduleHedge(Execution<T> execution, int hedgeNumber) {
+        if (hedgeNumber > maxHedges) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            if (execution.winner.isDone()) {
+                return;
+            }
+            if (!tryAcquireHedge()) {
+                throttledHedges.incrementAndGet();
+                return;
+            }
+            hedgedRequests.incrementAndGet();
+            execution.launch(true);
+            scheduleHedge(execution, hedgeNumber + 1);
+        }, currentDelayMillis());
+    }
+
+    /**
+     * 在目前的時間窗口內取得一次對沖配額
+     * 窗口的起點與次數在同一次 CAS 中更新，換窗口時的重設不會蓋掉其他執行緒剛取得的配額
+     */
+    private boolean tryAcquireHedge() {
+        long now = System.nanoTime();
+        long windowNanos = windowMillis * 1_000_000L;
+        while (true) {
+            HedgeWindow current = window.get();
+            HedgeWindow next;
+            if (now - current.start() >= windowNanos) {
+                next = new HedgeWindow(now, 1);
+            } else if (current.hedges() < maxHedgesPerWindow) {
+                next = new HedgeWindow(current.start(), current.hedges() + 1);
+            } else {
+                return false;
+            }
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private record HedgeWindow(long start, int hedges) {
+    }
+
+    private record HedgedAttempt<T>(T result, HedgedRetryContext context) {
+    }
+
+    /**
+     * 單一請求的所有嘗試
+     */
+    private final class Execution<T> {
+
+        private final Callable<T> attempt;
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final List<Future<?>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Execution(Callable<T> attempt) {
+            this.attempt = attempt;
+        }
+
+        void launch(boolean hedge) {
+            inFlight.incrementAndGet();
+            attempts.add(attemptExecutor.submit(() -> run(hedge)));
+            if (winner.isDone()) {
+                cancelAll();
+            }
+        }
+
+        private void run(boolean hedge) {
+            long startTime = System.nanoTime();
+            try {
+                T result = attempt.call();
+                if (winner.complete(result)) {
+                    if (hedge) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    cancelAll();
+                }
+            } catch (Throwable e) {
+                // 已有結果時 completeExceptionally 不會生效；最後一個進行中的嘗試失敗時整個請求失敗
+                if (inFlight.decrementAndGet() == 0) {
+                    winner.completeExceptionally(e);
+                }
+            } finally {
+                // 被取消的嘗試至少已經花了這麼久，捨棄它們會讓百分位數只剩下快請求，對沖延遲因此越來越短
+                latencyTracker.record((System.nanoTime() - startTime) / 1_000_000L);
+            }
+        }
+
+        void cancelAll() {
+            for (Future<?> future : attempts) {
+                future.cancel(true);
+            }
+        }
+    }
+}
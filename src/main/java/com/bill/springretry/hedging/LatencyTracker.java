@@ -0,0 +1,67 @@
+package com.bill.springretry.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 記錄最近結束的嘗試延遲（成功、失敗與被取消的嘗試都記錄），提供百分位數作為對沖延遲
+ * 記錄只寫入環狀緩衝區；百分位數最多每 refreshMillis 重新排序計算一次，其餘時間讀取快取值
+ */
+public class LatencyTracker {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final long refreshNanos;
+
+    private volatile long cachedPercentileMillis = -1;
+    private volatile double cachedPercentile = -1;
+    private volatile long lastRefreshNanos;
+
+    /**
+     * @param capacity 保留的樣本數
+     * @param refreshMillis 百分位數快取的有效時間
+     */
+    public LatencyTracker(int capacity, long refreshMillis) {
+        this.samples = new AtomicLongArray(capacity);
+        this.refreshNanos = refreshMillis * 1_000_000L;
+    }
+
+    public void record(long latencyMillis) {
+        long index = sampleCount.getAndIncrement();
+        samples.set((int) (index % samples.length()), latencyMillis);
+    }
+
+    public long getSampleCount() {
+        return Math.min(sampleCount.get(), samples.length());
+    }
+
+    /**
+     * 取得最近樣本的百分位數 (0-100]，樣本數不足 minSamples 時返回 -1
+     */
+    public long percentile(double percentile, int minSamples) {
+        int size = (int) getSampleCount();
+        if (size < minSamples) {
+            return -1;
+        }
+
+        long now = System.nanoTime();
+        if (cachedPercentile == percentile && cachedPercentileMillis >= 0 && now - lastRefreshNanos < refreshNanos) {
+            return cachedPercentileMillis;
+        }
+
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        long value = sorted[Math.max(0, Math.min(rank, size - 1))];
+
+        cachedPercentileMillis = value;
+        cachedPercentile = percentile;
+        lastRefreshNanos = now;
+        return value;
+    }
+}
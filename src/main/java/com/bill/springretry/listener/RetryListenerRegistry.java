@@ -0,0 +1,55 @@
+package com.bill.springretry.listener;
+
+import org.springframework.retry.RetryListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * retry.policies 的 listeners 可以引用的監聽器
+ * 監聽器不宣告為 RetryListener Bean，否則 @EnableRetry 會把它們套用到所有 @Retryable 方法；
+ * 名稱在這裡固定，RetryTemplateRegistrar 在建立任何 Bean 之前就能驗證設定
+ */
+public class RetryListenerRegistry {
+
+    public static final String LOGGING = "retryLoggingListener";
+    public static final String METRICS = "retryMetricsListener";
+
+    private static final Set<String> NAMES = Set.of(LOGGING, METRICS);
+
+    private final Map<String, RetryListener> listeners;
+
+    /**
+     * @param metricsListener 共用的度量監聽器，與其他服務看到的統計相同
+     */
+    public RetryListenerRegistry(RetryMetricsListener metricsListener) {
+        this.listeners = Map.of(
+                LOGGING, new RetryLoggingListener(),
+                METRICS, metricsListener);
+    }
+
+    /**
+     * 取得名稱對應的監聽器
+     * @throws IllegalArgumentException 沒有這個名稱的監聽器時
+     */
+    public RetryListener get(String name) {
+        RetryListener listener = listeners.get(name);
+        if (listener == null) {
+            throw new IllegalArgumentException("沒有名為 " + name + " 的監聽器，可用的名稱：" + getNames());
+        }
+        return listener;
+    }
+
+    /**
+     * 是否為可以引用的監聽器名稱
+     */
+    public static boolean contains(String name) {
+        return NAMES.contains(name);
+    }
+
+    public static Set<String> getNames() {
+        return new TreeSet<>(NAMES);
+    }
+}
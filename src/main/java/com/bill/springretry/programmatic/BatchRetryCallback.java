@@ -0,0 +1,18 @@
+package com.bill.springretry.programmatic;
+
+import com.bill.springretry.batch.BatchOutcome;
+import org.springframework.retry.RetryContext;
+
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 批次重試的回調，回報每個元素各自的成功或失敗
+ * contexts 與 items 一一對應，每個元素擁有自己的重試上下文，可以從中取得該元素的重試次數
+ * 整批失敗時直接拋出異常，視為所有元素都以該異常失敗
+ */
+@FunctionalInterface
+public interface BatchRetryCallback<I, R> {
+
+    BatchOutcome<R> doWithRetry(List<I> items, List<RetryContext> contexts) throws Exception;
+}
@@ -0,0 +1,91 @@
+package com.bill.springretry.programmatic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 批次重試的結果，索引與傳入的元素順序一致
+ * 用盡重試的元素列在 getExhausted()，交給呼叫者進行恢復處理
+ */
+public class BatchRetryResult<I, R> {
+
+    private final List<R> results;
+    private final int[] attempts;
+    private final List<Exhausted<I>> exhausted = new ArrayList<>();
+
+    BatchRetryResult(int size) {
+        this.results = new ArrayList<>(Collections.nCopies(size, null));
+        this.attempts = new int[size];
+    }
+
+    void success(int index, R result, int attemptCount) {
+        results.set(index, result);
+        attempts[index] = attemptCount;
+    }
+
+    void exhausted(int index, I item, Throwable lastFailure, int attemptCount) {
+        exhausted.add(new Exhausted<>(index, item, lastFailure, attemptCount));
+        attempts[index] = attemptCount;
+    }
+
+    /**
+     * 每個元素的結果，用盡重試的元素為 null
+     */
+    public List<R> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * 指定元素的嘗試次數
+     */
+    public int getAttempts(int index) {
+        return attempts[index];
+    }
+
+    /**
+     * 用盡重試（或遇到不可重試異常）的元素
+     */
+    public List<Exhausted<I>> getExhausted() {
+        return Collections.unmodifiableList(exhausted);
+    }
+
+    public boolean isAllSucceeded() {
+        return exhausted.isEmpty();
+    }
+
+    /**
+     * 用盡重試的元素與它最後一次的失敗
+     */
+    public static class Exhausted<I> {
+
+        private final int index;
+        private final I item;
+        private final Throwable lastFailure;
+        private final int attempts;
+
+        Exhausted(int index, I item, Throwable lastFailure, int attempts) {
+            this.index = index;
+            this.item = item;
+            this.lastFailure = lastFailure;
+            this.attempts = attempts;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public I getItem() {
+            return item;
+        }
+
+        public Throwable getLastFailure() {
+            return lastFailure;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+    }
+}
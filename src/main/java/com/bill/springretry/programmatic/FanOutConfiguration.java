@@ -0,0 +1,33 @@
+package com.bill.springretry.programmatic;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 平行重試 (executeAll) 使用的執行器設定
+ */
+@Configuration
+public class FanOutConfiguration {
+
+    /**
+     * fixed：固定 parallelism 條平台執行緒
+     * virtual：每個項目一條虛擬執行緒，適合大量等待 I/O 與退避的項目
+     * 兩者的 Future.cancel(true) 都會中斷執行中的項目；ForkJoinPool 的 cancel 不會中斷，快速失敗時其餘項目會繼續執行，因此不提供
+     */
+    @Bean(name = "fanOutExecutor", destroyMethod = "shutdown")
+    public ExecutorService fanOutExecutor(
+            @Value("${retry.fan-out.executor:fixed}") String executorType,
+            @Value("${retry.fan-out.parallelism:64}") int parallelism) {
+        return switch (executorType) {
+            case "fixed" -> Executors.newFixedThreadPool(parallelism);
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException(
+                    "未知的 retry.fan-out.executor: " + executorType + "，可用的值為 fixed 或 virtual");
+        };
+    }
+}
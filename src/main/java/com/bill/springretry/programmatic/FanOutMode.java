@@ -0,0 +1,18 @@
+package com.bill.springretry.programmatic;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 平行執行多個重試操作時，遇到失敗的處理方式
+ */
+public enum FanOutMode {
+
+    /**
+     * 任一項目用盡重試後立即取消其餘項目，並拋出該項目的異常
+     */
+    FAIL_FAST,
+
+    /**
+     * 等待所有項目完成，成功的結果與失敗的異常一併收集
+     */
+    COLLECT_ALL
+}
@@ -0,0 +1,48 @@
+package com.bill.springretry.programmatic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 平行執行多個重試操作的彙總結果，索引與傳入的回調順序一致
+ */
+public class FanOutResult<T> {
+
+    private final List<T> results;
+    private final Map<Integer, Throwable> failures;
+
+    FanOutResult(List<T> results, Map<Integer, Throwable> failures) {
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+    }
+
+    /**
+     * 每個項目的結果，失敗的項目為 null
+     */
+    public List<T> getResults() {
+        return results;
+    }
+
+    /**
+     * 用盡重試仍失敗的項目，鍵為項目索引
+     */
+    public Map<Integer, Throwable> getFailures() {
+        return failures;
+    }
+
+    public int getSuccessCount() {
+        return results.size() - failures.size();
+    }
+
+    public int getFailureCount() {
+        return failures.size();
+    }
+
+    public boolean isAllSucceeded() {
+        return failures.isEmpty();
+    }
+}
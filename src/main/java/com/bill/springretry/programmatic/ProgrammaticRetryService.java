@@ -1,19 +1,43 @@
 package com.bill.springretry.programmatic;
 
+import com.bill.springretry.async.AsyncRetryCallback;
+import com.bill.springretry.async.AsyncRetryTemplate;
+import com.bill.springretry.async.RetryScheduler;
+import com.bill.springretry.batch.BatchOutcome;
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.budget.RetryBudgetRetryPolicy;
+import com.bill.springretry.classifier.CachingExceptionClassifier;
 import com.bill.springretry.exception.DatabaseException;
-import org.springframework.classify.Classifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.ExceptionClassifierRetryPolicy;
+import org.springframework.retry.policy.MaxAttemptsRetryPolicy;
 import org.springframework.retry.policy.NeverRetryPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author Bill.Lin 2025/4/13
@@ -22,16 +46,45 @@ import java.util.Map;
 @Service
 public class ProgrammaticRetryService {
 
+    // executeWithExceptionBasedRetry 的設定：數據庫異常時重試，狀態異常時不重試，最多 3 次
+    private static final RetrySpec EXCEPTION_BASED_SPEC = RetrySpec.of(3, Map.of(
+                    DatabaseException.class, true,
+                    IllegalStateException.class, false))
+            .withBackOff(500, 2.0, 30000);
+
+    // 數據庫異常的最大嘗試次數，也是批次重試中每個元素的嘗試上限
+    private static final int DATABASE_MAX_ATTEMPTS = 5;
+
     private final RetryTemplate simpleRetryTemplate;
     private final RetryTemplate customRetryTemplate;
+    private final RetryPolicy batchRetryPolicy;
+    private final BackOffPolicy customBackOffPolicy;
+    private final AsyncRetryTemplate asyncRetryTemplate;
+    private final ExecutorService fanOutExecutor;
+    private final int fanOutParallelism;
+    private final RetryBudget retryBudget;
+    private final RetryTemplateCache templateCache;
+
+    @Autowired
+    public ProgrammaticRetryService(RetryScheduler retryTimer,
+                                    RetryBudget retryBudget,
+                                    @Qualifier("fanOutExecutor") ExecutorService fanOutExecutor,
+                                    @Value("${retry.fan-out.parallelism:64}") int fanOutParallelism,
+                                    @Value("${retry.template-cache.max-size:64}") int templateCacheMaxSize) {
+        this.fanOutExecutor = fanOutExecutor;
+        this.fanOutParallelism = fanOutParallelism;
+        this.retryBudget = retryBudget;
+        this.templateCache = new RetryTemplateCache(templateCacheMaxSize, this::createTemplate);
 
-    public ProgrammaticRetryService() {
         // 設置簡單的重試模板
         this.simpleRetryTemplate = new RetryTemplate();
         
         // 配置重試策略 - 最多重試3次
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
-        retryPolicy.setMaxAttempts(3);
+        SimpleRetryPolicy simpleRetryPolicy = new SimpleRetryPolicy();
+        simpleRetryPolicy.setMaxAttempts(3);
+        
+        // 以共用的重試預算包裝，後端故障時不會放大流量
+        RetryPolicy retryPolicy = new RetryBudgetRetryPolicy(simpleRetryPolicy, retryBudget);
         
         // 配置退避策略 - 指數退避
         ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
@@ -42,31 +95,34 @@ public class ProgrammaticRetryService {
         this.simpleRetryTemplate.setRetryPolicy(retryPolicy);
         this.simpleRetryTemplate.setBackOffPolicy(backOffPolicy);
         
+        // 設置非同步重試模板 - 沿用相同的重試與退避策略，但退避期間不阻塞執行緒
+        this.asyncRetryTemplate = new AsyncRetryTemplate(retryPolicy, backOffPolicy, retryTimer);
+        
         // 設置自訂重試模板 - 根據異常類型決定不同的重試策略
         this.customRetryTemplate = new RetryTemplate();
         
         // 創建分類器 - 根據異常類型選擇不同的重試策略
         ExceptionClassifierRetryPolicy classifierRetryPolicy = new ExceptionClassifierRetryPolicy();
         
-        // 為不同的異常配置不同的重試策略
-        Classifier<Throwable, RetryPolicy> classifier = throwable -> {
-            if (throwable instanceof DatabaseException) {
-                // 數據庫異常最多重試5次
-                SimpleRetryPolicy dbPolicy = new SimpleRetryPolicy();
-                dbPolicy.setMaxAttempts(5);
-                return dbPolicy;
-            }
-            // 其他異常不重試
-            return new NeverRetryPolicy();
-        };
+        // 為不同的異常配置不同的重試策略，策略實例在所有失敗之間共用
+        // 數據庫異常（包含被包裝一層的情況）最多重試5次，其他異常不重試
+        CachingExceptionClassifier classifier = new CachingExceptionClassifier(
+                Map.of(DatabaseException.class, new MaxAttemptsRetryPolicy(DATABASE_MAX_ATTEMPTS)),
+                new NeverRetryPolicy(),
+                1);
         
         classifierRetryPolicy.setExceptionClassifier(classifier);
         
-        // 應用自訂策略
-        this.customRetryTemplate.setRetryPolicy(classifierRetryPolicy);
+        // 應用自訂策略，同樣受重試預算限制
+        RetryPolicy budgetedClassifierPolicy = new RetryBudgetRetryPolicy(classifierRetryPolicy, retryBudget);
+        this.customRetryTemplate.setRetryPolicy(budgetedClassifierPolicy);
         
         // 使用相同的退避策略
         this.customRetryTemplate.setBackOffPolicy(backOffPolicy);
+        
+        // 批次重試沿用自訂模板的策略，但每個元素各自開啟重試上下文
+        this.batchRetryPolicy = budgetedClassifierPolicy;
+        this.customBackOffPolicy = backOffPolicy;
     }
 
     /**
@@ -76,6 +132,107 @@ public class ProgrammaticRetryService {
         return simpleRetryTemplate.execute(retryCallback);
     }
 
+    /**
+     * 使用簡單重試策略的非同步版本 - 退避期間不佔用執行緒，下一次嘗試由共用的時間輪計時器觸發
+     */
+    public <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryCallback<T> retryCallback) {
+        return asyncRetryTemplate.execute(retryCallback);
+    }
+
+    /**
+     * 平行執行多個操作，每個項目各自以簡單重試模板重試，失敗時收集所有結果
+     */
+    public <T> FanOutResult<T> executeAll(Collection<? extends RetryCallback<T, Exception>> retryCallbacks)
+            throws Exception {
+        return executeAll(retryCallbacks, FanOutMode.COLLECT_ALL);
+    }
+
+    /**
+     * 平行執行多個操作，每個項目各自以簡單重試模板重試，擁有獨立的重試上下文
+     * 同時執行的項目數不超過 retry.fan-out.parallelism，超過時提交端會等待空位
+     * FAIL_FAST 模式下任一項目用盡重試會取消其餘項目並拋出該異常：
+     * 執行中的項目會被中斷，不回應中斷的項目也不會再開始下一次嘗試
+     */
+    public <T> FanOutResult<T> executeAll(Collection<? extends RetryCallback<T, Exception>> retryCallbacks,
+                                          FanOutMode mode) throws Exception {
+        List<RetryCallback<T, Exception>> items = new ArrayList<>(retryCallbacks);
+        List<T> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        Map<Integer, Throwable> failures = new HashMap<>();
+        CompletableFuture<?>[] completions = new CompletableFuture<?>[items.size()];
+        List<Future<?>> tasks = new ArrayList<>(items.size());
+        CompletableFuture<Throwable> firstFailure = new CompletableFuture<>();
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Semaphore permits = new Semaphore(fanOutParallelism);
+
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                if (mode == FanOutMode.FAIL_FAST && firstFailure.isDone()) {
+                    break;
+                }
+                permits.acquire();
+
+                int index = i;
+                RetryCallback<T, Exception> item = items.get(i);
+                CompletableFuture<Void> completion = new CompletableFuture<>();
+                completions[i] = completion;
+                tasks.add(fanOutExecutor.submit(() -> {
+                    try {
+                        T result = simpleRetryTemplate.execute(context -> {
+                            if (cancelled.get()) {
+                                context.setExhaustedOnly();
+                                throw new CancellationException("平行重試已取消");
+                            }
+                            return item.doWithRetry(context);
+                        });
+                        synchronized (results) {
+                            results.set(index, result);
+                        }
+                    } catch (Throwable e) {
+                        synchronized (results) {
+                            failures.put(index, e);
+                        }
+                        firstFailure.complete(e);
+                    } finally {
+                        permits.release();
+                        completion.complete(null);
+                    }
+                }));
+            }
+
+            CompletableFuture<Void> allDone = CompletableFuture.allOf(
+                    Arrays.stream(completions).filter(Objects::nonNull).toArray(CompletableFuture[]::new));
+            if (mode == FanOutMode.FAIL_FAST) {
+                CompletableFuture.anyOf(allDone, firstFailure).join();
+                if (firstFailure.isDone()) {
+                    cancelAll(tasks, cancelled);
+                    throw asException(firstFailure.join());
+                }
+            } else {
+                allDone.join();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(tasks, cancelled);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+
+        synchronized (results) {
+            return new FanOutResult<>(results, failures);
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> tasks, AtomicBoolean cancelled) {
+        cancelled.set(true);
+        tasks.forEach(task -> task.cancel(true));
+    }
+
+    private static Exception asException(Throwable throwable) {
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        return (Exception) throwable;
+    }
+
     /**
      * 使用自訂重試模板進行操作
      */
@@ -84,31 +241,110 @@ public class ProgrammaticRetryService {
     }
     
     /**
-     * 使用基於異常的重試策略 - 這種方式可以直接在方法內建立臨時的重試模板
+     * 以自訂重試策略執行批次操作 - 每個元素各自追蹤重試次數，
+     * 每一輪只重送尚未成功且仍可重試的元素，輪與輪之間使用自訂模板的退避策略
+     * 用盡重試的元素不會拋出異常，而是列在結果的 getExhausted() 中
+     */
+    public <I, R> BatchRetryResult<I, R> executeBatchWithCustomRetry(List<I> items, BatchRetryCallback<I, R> callback) {
+        BatchRetryResult<I, R> result = new BatchRetryResult<>(items.size());
+        List<Integer> pending = new ArrayList<>(items.size());
+        List<RetryContext> contexts = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            pending.add(i);
+            contexts.add(batchRetryPolicy.open(null));
+        }
+        BackOffContext backOffContext = customBackOffPolicy.start(null);
+        
+        while (!pending.isEmpty()) {
+            List<I> roundItems = new ArrayList<>(pending.size());
+            List<RetryContext> roundContexts = new ArrayList<>(pending.size());
+            for (int index : pending) {
+                roundItems.add(items.get(index));
+                roundContexts.add(contexts.get(index));
+            }
+            
+            BatchOutcome<R> outcome;
+            try {
+                outcome = BatchOutcome.requireSize(callback.doWithRetry(roundItems, roundContexts), roundItems.size());
+            } catch (Exception e) {
+                // 整批失敗（包括結果數量不符） - 視為每個元素都以同一個異常失敗
+                outcome = new BatchOutcome<>(roundItems.size());
+                for (int i = 0; i < roundItems.size(); i++) {
+                    outcome.failure(i, e);
+                }
+            }
+            
+            List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                int index = pending.get(i);
+                RetryContext context = contexts.get(index);
+                if (outcome.isSucceeded(i)) {
+                    result.success(index, outcome.getResult(i), context.getRetryCount() + 1);
+                    batchRetryPolicy.close(context);
+                    continue;
+                }
+                
+                Throwable failure = outcome.getFailure(i);
+                batchRetryPolicy.registerThrowable(context, failure);
+                if (batchRetryPolicy.canRetry(context)) {
+                    failed.add(index);
+                } else {
+                    result.exhausted(index, items.get(index), failure, context.getRetryCount());
+                    batchRetryPolicy.close(context);
+                }
+            }
+            
+            pending = failed;
+            if (!pending.isEmpty()) {
+                customBackOffPolicy.backOff(backOffContext);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 使用基於異常的重試策略 - 數據庫異常時重試，狀態異常時不重試，500ms 起的指數退避
+     * 模板只在第一次呼叫時建立，之後從快取取得
      */
     public <T> T executeWithExceptionBasedRetry(RetryCallback<T, Exception> retryCallback) throws Exception {
-        // 創建重試模板
+        return executeWithRetrySpec(EXCEPTION_BASED_SPEC, retryCallback);
+    }
+    
+    /**
+     * 以臨時的重試設定執行，相同設定的呼叫共用同一個模板，不需要每次重新建立策略
+     * 所有重試都失敗時拋出包裝最後一個異常的 RuntimeException
+     */
+    public <T> T executeWithRetrySpec(RetrySpec spec, RetryCallback<T, Exception> retryCallback) throws Exception {
+        return templateCache.get(spec).execute(retryCallback, context -> {
+            // 恢復回調 - 當所有重試都失敗時執行
+            System.err.println("所有重試都失敗了，最後一個異常: " + context.getLastThrowable().getMessage());
+            throw new RuntimeException("重試失敗", context.getLastThrowable());
+        });
+    }
+    
+    /**
+     * 臨時重試模板的快取，可以讀取命中與淘汰次數
+     */
+    public RetryTemplateCache getTemplateCache() {
+        return templateCache;
+    }
+    
+    private RetryTemplate createTemplate(RetrySpec spec) {
         RetryTemplate template = new RetryTemplate();
         
-        // 配置基於特定異常的重試策略
-        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
-        retryableExceptions.put(DatabaseException.class, true);        // 數據庫異常時重試
-        retryableExceptions.put(IllegalStateException.class, false);   // 狀態異常時不重試
+        // 配置基於特定異常的重試策略，同樣受重試預算限制
+        SimpleRetryPolicy policy = new SimpleRetryPolicy(
+                spec.maxAttempts(), spec.retryableExceptions(), spec.traverseCauses());
+        template.setRetryPolicy(new RetryBudgetRetryPolicy(policy, retryBudget));
         
-        SimpleRetryPolicy policy = new SimpleRetryPolicy(3, retryableExceptions, true);
-        template.setRetryPolicy(policy);
-        
-        // 使用固定間隔的退避策略
+        // 使用指數退避策略
         ExponentialBackOffPolicy backOff = new ExponentialBackOffPolicy();
-        backOff.setInitialInterval(500);
+        backOff.setInitialInterval(spec.initialInterval());
+        backOff.setMultiplier(spec.multiplier());
+        backOff.setMaxInterval(spec.maxInterval());
         template.setBackOffPolicy(backOff);
         
-        // 執行重試操作
-        return template.execute(retryCallback, context -> {
-            // 恢復回調 - 當所有重試都失敗時執行
-            System.err.println("所有重試都失敗了，最後一個異常: " + context.getLastThrowable().getMessage());
-            throw new RuntimeException("重試失敗", context.getLastThrowable());
-        });
+        return template;
     }
     
     /**
@@ -0,0 +1,48 @@
+package com.bill.springretry.programmatic;
+
+import java.util.Map;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 臨時重試模板的設定，作為 RetryTemplateCache 的鍵值
+ * 不可變且以內容比較相等，相同設定的呼叫共用同一個已建立的模板
+ *
+ * @param maxAttempts 最大嘗試次數（包含第一次）
+ * @param retryableExceptions 異常類別是否可以重試，子類別同樣適用
+ * @param traverseCauses 是否沿著 cause 鏈判斷異常類別
+ * @param initialInterval 指數退避的第一次間隔（毫秒）
+ * @param multiplier 每次重試間隔的成長倍數
+ * @param maxInterval 指數退避的最大間隔（毫秒）
+ */
+public record RetrySpec(int maxAttempts,
+                        Map<Class<? extends Throwable>, Boolean> retryableExceptions,
+                        boolean traverseCauses,
+                        long initialInterval,
+                        double multiplier,
+                        long maxInterval) {
+
+    public RetrySpec {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("最大嘗試次數必須至少為 1：" + maxAttempts);
+        }
+        if (initialInterval < 1 || maxInterval < initialInterval || multiplier < 1.0) {
+            throw new IllegalArgumentException("退避設定無效：initialInterval=" + initialInterval
+                    + ", multiplier=" + multiplier + ", maxInterval=" + maxInterval);
+        }
+        retryableExceptions = Map.copyOf(retryableExceptions);
+    }
+
+    /**
+     * 沿著 cause 鏈判斷異常，使用 1 秒起每次加倍、最大 30 秒的指數退避
+     */
+    public static RetrySpec of(int maxAttempts, Map<Class<? extends Throwable>, Boolean> retryableExceptions) {
+        return new RetrySpec(maxAttempts, retryableExceptions, true, 1000, 2.0, 30000);
+    }
+
+    /**
+     * 相同的重試條件，改用指定的指數退避
+     */
+    public RetrySpec withBackOff(long initialInterval, double multiplier, long maxInterval) {
+        return new RetrySpec(maxAttempts, retryableExceptions, traverseCauses, initialInterval, multiplier, maxInterval);
+    }
+}
@@ -0,0 +1,145 @@
+package com.bill.springretry.programmatic;
+
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 以 RetrySpec 為鍵值的重試模板快取
+ * 臨時的重試設定只在第一次出現時建立模板（重試策略、退避策略與異常對照表），之後的呼叫直接重用；
+ * RetryTemplate 本身是執行緒安全的，每次執行的狀態都放在各自的 RetryContext 中
+ * 命中時只讀取 ConcurrentHashMap 並更新存取序號，不需要加鎖；模板在鎖之外建立，只有等待同一個設定的呼叫端會等待
+ * 超過 maxSize 時淘汰存取序號最舊的模板（近似 LRU），避免以呼叫參數組成設定的呼叫端讓快取無限成長
+ */
+public class RetryTemplateCache {
+
+    private final int maxSize;
+    private final Function<RetrySpec, RetryTemplate> builder;
+    private final ConcurrentMap<RetrySpec, Entry> templates = new ConcurrentHashMap<>();
+    private final AtomicLong accessOrder = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize 最多保留的模板數量
+     * @param builder 依設定建立模板
+     */
+    public RetryTemplateCache(int maxSize, Function<RetrySpec, RetryTemplate> builder) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("快取大小必須至少為 1：" + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.builder = builder;
+    }
+
+    /**
+     * 取得設定對應的模板，沒有時建立並放入快取
+     * 同一個設定同時第一次出現時只會建立一次，其他呼叫端等待該次建立；建立失敗時不留下快取項目
+     */
+    public RetryTemplate get(RetrySpec spec) {
+        Entry entry = templates.get(spec);
+        if (entry == null) {
+            Entry created = new Entry(accessOrder.incrementAndGet());
+            entry = templates.putIfAbsent(spec, created);
+            if (entry == null) {
+                misses.increment();
+                return build(spec, created);
+            }
+        }
+        hits.increment();
+        entry.lastAccess = accessOrder.incrementAndGet();
+        return entry.await();
+    }
+
+    /**
+     * 在 ConcurrentHashMap 的鎖之外建立模板，較慢的建立不會擋住同一個雜湊桶中的其他設定
+     */
+    private RetryTemplate build(RetrySpec spec, Entry entry) {
+        RetryTemplate template;
+        try {
+            template = builder.apply(spec);
+        } catch (RuntimeException | Error e) {
+            templates.remove(spec, entry);
+            entry.template.completeExceptionally(e);
+            throw e;
+        }
+        entry.template.complete(template);
+        evictIfFull();
+        return template;
+    }
+
+    /**
+     * 淘汰存取序號最舊的模板直到不超過上限
+     * 只在建立新模板後執行，掃描的數量約為 maxSize，不影響命中的讀取
+     */
+    private void evictIfFull() {
+        synchronized (evictionLock) {
+            while (templates.size() > maxSize) {
+                Map.Entry<RetrySpec, Entry> eldest = null;
+                for (Map.Entry<RetrySpec, Entry> candidate : templates.entrySet()) {
+                    if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                        eldest = candidate;
+                    }
+                }
+                if (eldest != null && templates.remove(eldest.getKey(), eldest.getValue())) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<RetryTemplate> template = new CompletableFuture<>();
+        private volatile long lastAccess;
+
+        Entry(long lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+
+        RetryTemplate await() {
+            try {
+                return template.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
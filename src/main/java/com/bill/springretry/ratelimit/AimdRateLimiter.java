@@ -0,0 +1,228 @@
+package com.bill.springretry.ratelimit;
+
+import com.bill.springretry.exception.RetryHint;
+import com.bill.springretry.exception.RetrySeverity;
+import org.springframework.retry.RetryCallback;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * AIMD (additive increase, multiplicative decrease) 客戶端限流器
+ * 下游回應 429/503 時允許的速率乘以 decreaseFactor，每次成功加上 additiveIncrease，速率維持在最小與最大值之間；
+ * 一個冷卻時間內只降速一次，同一波擁塞造成的多個 429 不會把速率直接壓到最低
+ *
+ * 許可依目前速率平均分配時間槽，沒有可用的時間槽時呼叫者排隊等待，
+ * 排隊時間超過 maxQueueMillis 或排隊人數達到 maxQueueDepth 時拋出 RateLimitExceededException（maxQueueMillis 為 0 即不排隊）
+ */
+public class AimdRateLimiter {
+
+    private final double minRate;
+    private final double maxRate;
+    private final LongSupplier nanoClock;
+
+    private double additiveIncrease = 1.0;
+    private double decreaseFactor = 0.5;
+    private long decreaseCooldownNanos = TimeUnit.SECONDS.toNanos(1);
+    private long maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(500);
+    private int maxQueueDepth = 1000;
+
+    // 目前允許的速率（每秒請求數），以 double 的位元表示存放
+    private final AtomicLong rateBits;
+    private final AtomicLong nextPermitNanos;
+    private final AtomicLong lastDecreaseNanos;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttledResponses = new LongAdder();
+
+    /**
+     * @param initialRate 初始速率（每秒請求數）
+     * @param minRate 速率下限
+     * @param maxRate 速率上限
+     */
+    public AimdRateLimiter(double initialRate, double minRate, double maxRate) {
+        this(initialRate, minRate, maxRate, System::nanoTime);
+    }
+
+    AimdRateLimiter(double initialRate, double minRate, double maxRate, LongSupplier nanoClock) {
+        if (minRate <= 0 || minRate > maxRate) {
+            throw new IllegalArgumentException("速率範圍不正確：min=" + minRate + ", max=" + maxRate);
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.nanoClock = nanoClock;
+        this.rateBits = new AtomicLong(Double.doubleToRawLongBits(clamp(initialRate)));
+        long now = nanoClock.getAsLong();
+        this.nextPermitNanos = new AtomicLong(now);
+        this.lastDecreaseNanos = new AtomicLong(now - decreaseCooldownNanos);
+    }
+
+    /**
+     * 每次成功增加的速率（每秒請求數）
+     */
+    public void setAdditiveIncrease(double additiveIncrease) {
+        this.additiveIncrease = Math.max(0, additiveIncrease);
+    }
+
+    /**
+     * 收到 429/503 時速率乘上的倍數，介於 0 與 1 之間
+     */
+    public void setDecreaseFactor(double decreaseFactor) {
+        this.decreaseFactor = Math.min(1.0, Math.max(0.01, decreaseFactor));
+    }
+
+    /**
+     * 兩次降速之間至少間隔的時間（毫秒）
+     */
+    public void setDecreaseCooldownMillis(long decreaseCooldownMillis) {
+        this.decreaseCooldownNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, decreaseCooldownMillis));
+    }
+
+    /**
+     * 呼叫者最多排隊等待的時間（毫秒），0 表示超過限流時立即失敗
+     */
+    public void setMaxQueueMillis(long maxQueueMillis) {
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxQueueMillis));
+    }
+
+    /**
+     * 同時排隊的呼叫者上限
+     */
+    public void setMaxQueueDepth(int maxQueueDepth) {
+        this.maxQueueDepth = Math.max(0, maxQueueDepth);
+    }
+
+    /**
+     * 包裝重試回調，每一次嘗試前先取得許可，並依結果調整速率
+     */
+    public <T> RetryCallback<T, Exception> limit(RetryCallback<T, Exception> callback) {
+        return context -> {
+            acquire();
+            try {
+                T result = callback.doWithRetry(context);
+                onSuccess();
+                return result;
+            } catch (Exception e) {
+                if (isThrottled(e)) {
+                    onThrottled();
+                }
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * 取得一個許可，必要時排隊等待
+     * @throws RateLimitExceededException 排隊時間或排隊人數超過上限
+     */
+    public void acquire() throws InterruptedException {
+        long now = nanoClock.getAsLong();
+        long interval = (long) (1_000_000_000L / getRate());
+        long waitNanos;
+        while (true) {
+            long next = nextPermitNanos.get();
+            long slot = Math.max(now, next);
+            waitNanos = slot - now;
+            if (waitNanos > maxQueueNanos) {
+                throw reject(String.format("超過客戶端限流：目前速率 %.1f/s，需要等待 %d ms",
+                        getRate(), waitNanos / 1_000_000));
+            }
+            // 排隊人數只是近似的上限，並發檢查之間可能略為超過
+            if (waitNanos > 0 && queueDepth.get() >= maxQueueDepth) {
+                throw reject("超過客戶端限流：排隊人數已達上限 " + maxQueueDepth);
+            }
+            if (nextPermitNanos.compareAndSet(next, slot + interval)) {
+                break;
+            }
+        }
+        permitted.increment();
+
+        if (waitNanos <= 0) {
+            return;
+        }
+        queueDepth.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    private RateLimitExceededException reject(String message) {
+        rejected.increment();
+        return new RateLimitExceededException(message);
+    }
+
+    /**
+     * 下游回應成功，速率加上 additiveIncrease
+     */
+    public void onSuccess() {
+        updateRate(rate -> rate + additiveIncrease);
+    }
+
+    /**
+     * 下游回應 429/503，冷卻時間外時速率乘上 decreaseFactor
+     */
+    public void onThrottled() {
+        throttledResponses.increment();
+        long now = nanoClock.getAsLong();
+        long last = lastDecreaseNanos.get();
+        if (now - last >= decreaseCooldownNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+            updateRate(rate -> rate * decreaseFactor);
+        }
+    }
+
+    private void updateRate(DoubleUnaryOperator update) {
+        long current;
+        long updated;
+        do {
+            current = rateBits.get();
+            updated = Double.doubleToRawLongBits(clamp(update.applyAsDouble(Double.longBitsToDouble(current))));
+        } while (current != updated && !rateBits.compareAndSet(current, updated));
+    }
+
+    private double clamp(double rate) {
+        return Math.max(minRate, Math.min(maxRate, rate));
+    }
+
+    /**
+     * 是否為下游要求降速的回應，由異常的重試提示決定（例如 429 Too Many Requests, 503 Service Unavailable）
+     */
+    static boolean isThrottled(Throwable throwable) {
+        RetryHint hint = RetryHint.find(throwable);
+        return hint != null && hint.getRetrySeverity() == RetrySeverity.THROTTLED;
+    }
+
+    /**
+     * 目前允許的速率（每秒請求數）
+     */
+    public double getRate() {
+        return Double.longBitsToDouble(rateBits.get());
+    }
+
+    /**
+     * 目前排隊等待許可的呼叫者數量
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getPermitted() {
+        return permitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getThrottledResponses() {
+        return throttledResponses.sum();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bill.springretry.ratelimit;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 超過客戶端限流，且無法在允許的排隊時間內取得許可時拋出
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
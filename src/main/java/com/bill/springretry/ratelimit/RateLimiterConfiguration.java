@@ -0,0 +1,33 @@
+package com.bill.springretry.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 客戶端限流器的設定
+ */
+@Configuration
+public class RateLimiterConfiguration {
+
+    /**
+     * CustomRetryService 的 HTTP 請求使用
+     */
+    @Bean(name = "httpRateLimiter")
+    public AimdRateLimiter httpRateLimiter(
+            @Value("${retry.rate-limit.http.initial-rate:100}") double initialRate,
+            @Value("${retry.rate-limit.http.min-rate:1}") double minRate,
+            @Value("${retry.rate-limit.http.max-rate:1000}") double maxRate,
+            @Value("${retry.rate-limit.http.additive-increase:1}") double additiveIncrease,
+            @Value("${retry.rate-limit.http.decrease-factor:0.5}") double decreaseFactor,
+            @Value("${retry.rate-limit.http.max-queue-millis:500}") long maxQueueMillis,
+            @Value("${retry.rate-limit.http.max-queue-depth:1000}") int maxQueueDepth) {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(initialRate, minRate, maxRate);
+        rateLimiter.setAdditiveIncrease(additiveIncrease);
+        rateLimiter.setDecreaseFactor(decreaseFactor);
+        rateLimiter.setMaxQueueMillis(maxQueueMillis);
+        rateLimiter.setMaxQueueDepth(maxQueueDepth);
+        return rateLimiter;
+    }
+}
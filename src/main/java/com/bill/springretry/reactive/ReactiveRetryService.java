@@ -0,0 +1,84 @@
+package com.bill.springretry.reactive;
+
+import com.bill.springretry.backoff.SharedEndpointBackOffPolicy;
+import com.bill.springretry.configuration.RetryConfiguration;
+import com.bill.springretry.reload.RetryComponents;
+import com.bill.springretry.reload.RetryTemplateRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.retry.RetryContext;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 讓響應式服務共用 RetryConfiguration 中調校好的重試策略與退避策略（與對應的 RetryTemplate 是同一組）
+ * 每次訂閱時向 RetryTemplateRegistry 取得目前的策略，retry.database、retry.network 重新載入後的訂閱立即使用新的設定
+ */
+@Service
+public class ReactiveRetryService {
+
+    private final RetryTemplateRegistry retryTemplateRegistry;
+
+    @Autowired
+    public ReactiveRetryService(RetryTemplateRegistry retryTemplateRegistry) {
+        this.retryTemplateRegistry = retryTemplateRegistry;
+    }
+
+    /**
+     * 以資料庫重試模板的策略重試 Mono
+     */
+    public <T> Mono<T> withDatabaseRetry(Mono<T> source) {
+        return Mono.defer(() -> operators(RetryConfiguration.DATABASE).retry(source));
+    }
+
+    /**
+     * 以網絡重試模板的策略重試 Mono
+     */
+    public <T> Mono<T> withNetworkRetry(Mono<T> source) {
+        return Mono.defer(() -> operators(RetryConfiguration.NETWORK).retry(source));
+    }
+
+    /**
+     * 以網絡重試模板的策略重試 Flux
+     */
+    public <T> Flux<T> withNetworkRetry(Flux<T> source) {
+        return Flux.defer(() -> operators(RetryConfiguration.NETWORK).retry(source));
+    }
+
+    /**
+     * 以網絡重試模板的策略重試 Mono，每次嘗試前把端點記錄在重試上下文，同一端點的呼叫共享退避懲罰
+     */
+    public <T> Mono<T> withNetworkRetry(String endpoint, Mono<T> source) {
+        return withNetworkRetry(Mono.deferContextual(view -> {
+            markEndpoint(view, endpoint);
+            return source;
+        }));
+    }
+
+    /**
+     * 以網絡重試模板的策略重試 Flux，每次訂閱前把端點記錄在重試上下文，同一端點的呼叫共享退避懲罰
+     */
+    public <T> Flux<T> withNetworkRetry(String endpoint, Flux<T> source) {
+        return withNetworkRetry(Flux.deferContextual(view -> {
+            markEndpoint(view, endpoint);
+            return source;
+        }));
+    }
+
+    /**
+     * 以目前的策略建立運算子；共享端點退避的 successListener 包含在網絡模板的監聽器中，成功時衰減端點的懲罰
+     */
+    private ReactorRetryOperators operators(String name) {
+        RetryComponents components = retryTemplateRegistry.getComponents(name);
+        return ReactorRetryOperators.of(components.retryPolicy(), components.backOffPolicy(), components.listeners());
+    }
+
+    private static void markEndpoint(ContextView view, String endpoint) {
+        RetryContext context = ReactorRetryOperators.retryContext(view);
+        if (context != null) {
+            context.setAttribute(SharedEndpointBackOffPolicy.ENDPOINT, endpoint);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.bill.springretry.reactive;
+
+import com.bill.springretry.async.BackOffDelays;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 把 RetryTemplate 使用的重試策略、退避策略與監聽器轉換成 Reactor 的 retryWhen 運算子
+ * 策略由呼叫端直接傳入（通常是 RetryConfiguration 中與 RetryTemplate 共用的同一組 Bean），建立後可以在所有訂閱間共用
+ * 每次訂閱對應一次 RetryTemplate.execute：由 RetryPolicy 決定是否重試，BackOffPolicy 只用來計算延遲，
+ * 等待交給 Mono.delay 在計時排程器上完成，不會阻塞，也不需要切換到 boundedElastic
+ *
+ * 重試上下文以 {@link #RETRY_CONTEXT_KEY} 放在 Reactor 的 Context 中，上游可以用
+ * {@code Mono.deferContextual(view -> ...)} 與 {@link #retryContext(ContextView)} 取得，
+ * 例如設定 SharedEndpointBackOffPolicy 的 endpoint，或以 RetryDeadline.remaining 取得剩餘時間；
+ * 同一次訂閱的嘗試一個接一個進行，不會同時寫入上下文
+ */
+public final class ReactorRetryOperators {
+
+    /**
+     * Reactor Context 中重試上下文的鍵值
+     */
+    public static final Class<RetryContext> RETRY_CONTEXT_KEY = RetryContext.class;
+
+    private final RetryPolicy retryPolicy;
+    private final BackOffPolicy backOffPolicy;
+    private final List<RetryListener> listeners;
+    private final Scheduler timer;
+
+    private ReactorRetryOperators(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy,
+                                  List<RetryListener> listeners, Scheduler timer) {
+        this.retryPolicy = retryPolicy;
+        this.backOffPolicy = BackOffDelays.nonBlocking(backOffPolicy);
+        this.listeners = List.copyOf(listeners);
+        this.timer = timer;
+    }
+
+    /**
+     * 建立可重複使用的重試運算子，退避在 Schedulers.parallel() 上計時
+     * @param listeners 依註冊順序呼叫的監聽器，與 RetryTemplate.registerListener 的順序相同
+     */
+    public static ReactorRetryOperators of(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy,
+                                           List<RetryListener> listeners) {
+        return of(retryPolicy, backOffPolicy, listeners, Schedulers.parallel());
+    }
+
+    /**
+     * 建立可重複使用的重試運算子，退避在指定的排程器上計時
+     */
+    public static ReactorRetryOperators of(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy,
+                                           List<RetryListener> listeners, Scheduler timer) {
+        return new ReactorRetryOperators(retryPolicy, backOffPolicy, listeners, timer);
+    }
+
+    /**
+     * 建立 Mono 的重試運算子，用法：{@code mono.transform(ReactorRetryOperators.forMono(policy, backOff))}
+     */
+    public static <T> Function<Mono<T>, Mono<T>> forMono(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy) {
+        return of(retryPolicy, backOffPolicy, List.of())::retry;
+    }
+
+    /**
+     * 建立 Flux 的重試運算子，用法：{@code flux.transform(ReactorRetryOperators.forFlux(policy, backOff))}
+     */
+    public static <T> Function<Flux<T>, Flux<T>> forFlux(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy) {
+        return of(retryPolicy, backOffPolicy, List.of())::retry;
+    }
+
+    /**
+     * 從上游的 Reactor Context 取得目前訂閱的重試上下文，不在重試運算子之內時回傳 null
+     */
+    public static RetryContext retryContext(ContextView contextView) {
+        return contextView.getOrDefault(RETRY_CONTEXT_KEY, null);
+    }
+
+    /**
+     * 以 RetryTemplate 的策略重試 Mono
+     * 成功（包括沒有值而完成）時呼叫監聽器的 onSuccess
+     */
+    public <T> Mono<T> retry(Mono<T> source) {
+        return Mono.defer(() -> {
+            Execution<T> execution = new Execution<>(this,
+                    context -> source.contextWrite(view -> view.put(RETRY_CONTEXT_KEY, context)).block());
+            if (!execution.open()) {
+                return Mono.error(new TerminatedRetryException("重試在第一次嘗試前被監聽器終止"));
+            }
+            return source.contextWrite(view -> view.put(RETRY_CONTEXT_KEY, execution.context))
+                    .retryWhen(execution.retry())
+                    .doOnSuccess(execution::onSuccess)
+                    .doOnError(execution::onFinalError)
+                    .doFinally(signalType -> execution.close());
+        });
+    }
+
+    /**
+     * 以 RetryTemplate 的策略重試 Flux
+     * 重試會重新訂閱上游，已經發出的元素會再發出一次，上游需要能安全地重新訂閱
+     * 完成時以最後一個元素（沒有元素時為 null）呼叫監聽器的 onSuccess，與監聽器直接呼叫回調的結果一致
+     */
+    public <T> Flux<T> retry(Flux<T> source) {
+        return Flux.defer(() -> {
+            Execution<T> execution = new Execution<>(this,
+                    context -> source.contextWrite(view -> view.put(RETRY_CONTEXT_KEY, context)).blockLast());
+            if (!execution.open()) {
+                return Flux.error(new TerminatedRetryException("重試在第一次嘗試前被監聽器終止"));
+            }
+            return source.contextWrite(view -> view.put(RETRY_CONTEXT_KEY, execution.context))
+                    .retryWhen(execution.retry())
+                    .doOnNext(execution::onNext)
+                    .doOnComplete(() -> execution.onSuccess(execution.lastValue))
+                    .doOnError(execution::onFinalError)
+                    .doFinally(signalType -> execution.close());
+        });
+    }
+
+    /**
+     * 單次訂閱的重試狀態，同時作為傳給監聽器的 RetryCallback
+     */
+    private static final class Execution<T> implements RetryCallback<T, Exception> {
+
+        private final ReactorRetryOperators operator;
+        private final Function<RetryContext, T> blockingAttempt;
+        private final RetryContext context;
+        private BackOffContext backOffContext;
+        private Throwable finalError;
+        private T lastValue;
+
+        Execution(ReactorRetryOperators operator, Function<RetryContext, T> blockingAttempt) {
+            this.operator = operator;
+            this.blockingAttempt = blockingAttempt;
+            this.context = operator.retryPolicy.open(null);
+        }
+
+        /**
+         * 監聽器直接呼叫回調時，阻塞地訂閱上游一次並回傳結果（Flux 回傳最後一個元素），不經過重試
+         * 正常的重試流程不會呼叫這個方法
+         */
+        @Override
+        public T doWithRetry(RetryContext context) {
+            return blockingAttempt.apply(context);
+        }
+
+        boolean open() {
+            for (RetryListener listener : operator.listeners) {
+                if (!listener.open(context, this)) {
+                    return false;
+                }
+            }
+            backOffContext = operator.backOffPolicy.start(context);
+            return true;
+        }
+
+        Retry retry() {
+            // concatMap 一次只處理一個失敗訊號，重試之間不會重疊，也尊重下游的背壓
+            return Retry.from(signals -> signals.concatMap(signal -> {
+                Throwable failure = signal.failure();
+                operator.retryPolicy.registerThrowable(context, failure);
+                for (int i = operator.listeners.size() - 1; i >= 0; i--) {
+                    operator.listeners.get(i).onError(context, this, failure);
+                }
+
+                if (!operator.retryPolicy.canRetry(context) || context.isExhaustedOnly()) {
+                    context.setAttribute(RetryContext.EXHAUSTED, true);
+                    return Mono.<Long>error(failure);
+                }
+                long delay = BackOffDelays.nextDelay(operator.backOffPolicy, backOffContext);
+                return Mono.delay(Duration.ofMillis(delay), operator.timer);
+            }));
+        }
+
+        void onNext(T value) {
+            this.lastValue = value;
+        }
+
+        void onSuccess(T value) {
+            for (RetryListener listener : operator.listeners) {
+                listener.onSuccess(context, this, value);
+            }
+        }
+
+        void onFinalError(Throwable error) {
+            this.finalError = error;
+        }
+
+        void close() {
+            operator.retryPolicy.close(context);
+            context.setAttribute(RetryContext.CLOSED, true);
+            for (int i = operator.listeners.size() - 1; i >= 0; i--) {
+                operator.listeners.get(i).close(context, this, finalError);
+            }
+        }
+    }
+}
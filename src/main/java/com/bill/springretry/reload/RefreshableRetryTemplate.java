@@ -0,0 +1,68 @@
+package com.bill.springretry.reload;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryOperations;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 可以在執行中替換的重試模板
+ * 每次執行只讀取一次 volatile 的目前模板，執行中的重試會以開始時的模板完成，
+ * 之後的執行才使用新的策略；替換本身不需要加鎖，也不會影響讀取端
+ */
+public class RefreshableRetryTemplate implements RetryOperations {
+
+    private final String name;
+    private volatile RetryTemplate delegate;
+
+    public RefreshableRetryTemplate(String name, RetryTemplate delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback) throws E {
+        return delegate.execute(retryCallback);
+    }
+
+    @Override
+    public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback,
+                                              RecoveryCallback<T> recoveryCallback) throws E {
+        return delegate.execute(retryCallback, recoveryCallback);
+    }
+
+    @Override
+    public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback, RetryState retryState) throws E {
+        return delegate.execute(retryCallback, retryState);
+    }
+
+    @Override
+    public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback,
+                                              RecoveryCallback<T> recoveryCallback,
+                                              RetryState retryState) throws E {
+        return delegate.execute(retryCallback, recoveryCallback, retryState);
+    }
+
+    /**
+     * 替換目前的模板，之後開始的執行使用新的模板
+     */
+    public void refresh(RetryTemplate delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 目前的模板
+     */
+    public RetryTemplate getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * retry.policies 中的名稱
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,35 @@
+package com.bill.springretry.reload;
+
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 在 Java 中組合的重試模板的組成部分
+ * 同一組策略同時用來建立 RetryTemplate 與響應式的重試運算子，重新載入時兩者一起替換
+ */
+public record RetryComponents(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy, List<RetryListener> listeners) {
+
+    public RetryComponents {
+        listeners = List.copyOf(listeners);
+    }
+
+    public RetryComponents(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy) {
+        this(retryPolicy, backOffPolicy, List.of());
+    }
+
+    /**
+     * 以這組策略建立新的模板
+     */
+    public RetryTemplate createTemplate() {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(retryPolicy);
+        template.setBackOffPolicy(backOffPolicy);
+        listeners.forEach(template::registerListener);
+        return template;
+    }
+}
@@ -0,0 +1,145 @@
+package com.bill.springretry.reload;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 監看外部的重試設定檔 (retry.reload.file)，檔案變更時重新載入 retry.policies
+ * 設定檔的內容加入環境並覆寫 application.yml 的同名設定，但優先權低於 JMX 的覆寫 (RetryPolicyManagement)；
+ * 檔案格式錯誤或設定驗證失敗時移除這次的內容，所有模板維持原本的設定
+ * 檔案被刪除時移除覆寫，模板回到 application.yml 的設定
+ */
+public class RetryPolicyFileWatcher implements InitializingBean, DisposableBean {
+
+    public static final String PROPERTY_SOURCE_NAME = "retryPolicyFile";
+
+    private final Path file;
+    private final ConfigurableEnvironment environment;
+    private final RetryTemplateRegistry registry;
+    private final YamlPropertySourceLoader loader = new YamlPropertySourceLoader();
+
+    private volatile WatchService watchService;
+    private Thread watcher;
+
+    public RetryPolicyFileWatcher(Path file, ConfigurableEnvironment environment, RetryTemplateRegistry registry) {
+        this.file = file.toAbsolutePath();
+        this.environment = environment;
+        this.registry = registry;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (Files.exists(file)) {
+            reloadFile();
+        }
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = new Thread(this::watch, "retry-policy-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    reloadFile();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // destroy 關閉了監看服務
+        }
+    }
+
+    /**
+     * 讀取設定檔並重新載入所有模板
+     *
+     * @return 是否成功套用
+     */
+    public synchronized boolean reloadFile() {
+        MutablePropertySources propertySources = environment.getPropertySources();
+        PropertySource<?> previous = propertySources.get(PROPERTY_SOURCE_NAME);
+        try {
+            List<PropertySource<?>> loaded = Files.exists(file)
+                    ? loader.load(PROPERTY_SOURCE_NAME, new FileSystemResource(file))
+                    : List.of();
+            if (loaded.isEmpty()) {
+                propertySources.remove(PROPERTY_SOURCE_NAME);
+            } else if (previous != null) {
+                // 多文件的 YAML 只使用第一個文件
+                propertySources.replace(PROPERTY_SOURCE_NAME, loaded.get(0));
+            } else {
+                add(propertySources, loaded.get(0));
+            }
+            List<String> refreshed = registry.reload();
+            System.out.println("已從 " + file + " 重新載入重試設定：" + refreshed);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            restore(propertySources, previous);
+            System.err.println("重試設定檔 " + file + " 無法套用，維持原本的設定：" + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void restore(MutablePropertySources propertySources, PropertySource<?> previous) {
+        if (previous == null) {
+            propertySources.remove(PROPERTY_SOURCE_NAME);
+        } else if (propertySources.contains(PROPERTY_SOURCE_NAME)) {
+            propertySources.replace(PROPERTY_SOURCE_NAME, previous);
+        } else {
+            add(propertySources, previous);
+        }
+    }
+
+    /**
+     * 把設定檔加在 JMX 的覆寫之後，其餘來源之前；檔案被刪除後重新出現時也不會蓋過執行中的覆寫
+     */
+    private static void add(MutablePropertySources propertySources, PropertySource<?> source) {
+        if (propertySources.contains(RetryPolicyManagement.PROPERTY_SOURCE_NAME)) {
+            propertySources.addAfter(RetryPolicyManagement.PROPERTY_SOURCE_NAME, source);
+        } else {
+            propertySources.addFirst(source);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.bill.springretry.reload;
+
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 透過 JMX 在執行中調整 retry.policies 與 retry.database 等在 Java 中組合的模板的設定，
+ * 例如事故期間拉長退避或減少嘗試次數
+ * 覆寫的設定只存在記憶體中，優先權高於設定檔與 application.yml，重新啟動後消失
+ */
+@ManagedResource(description = "宣告式重試模板的執行中調整")
+public class RetryPolicyManagement {
+
+    public static final String PROPERTY_SOURCE_NAME = "retryPolicyOverrides";
+
+    private final ConfigurableEnvironment environment;
+    private final RetryTemplateRegistry registry;
+
+    // 目前生效的覆寫，每次修改都建立新的屬性來源，失敗時直接換回原本的
+    private Map<String, Object> overrides = Map.of();
+
+    public RetryPolicyManagement(ConfigurableEnvironment environment, RetryTemplateRegistry registry) {
+        this.environment = environment;
+        this.registry = registry;
+    }
+
+    /**
+     * 覆寫一個設定並立即套用，例如 setProperty("retry.policies.simple.max-attempts", "2")
+     * 或 setProperty("retry.network.max-attempts", "2")
+     *
+     * @throws IllegalArgumentException 設定名稱或值無法套用時，此時環境與所有模板都維持原本的設定
+     */
+    @ManagedOperation(description = "覆寫可重新載入的重試模板的一個設定並重新載入")
+    @ManagedOperationParameter(name = "key", description = "設定名稱，以 retry.policies. 或 retry.database. 等已註冊模板的前綴開頭")
+    @ManagedOperationParameter(name = "value", description = "新的值")
+    public synchronized String setProperty(String key, String value) {
+        List<String> prefixes = registry.getPropertyPrefixes();
+        if (key == null || prefixes.stream().noneMatch(key::startsWith)) {
+            throw new IllegalArgumentException("只能覆寫 " + prefixes + " 下的設定：" + key);
+        }
+        Map<String, Object> updated = new LinkedHashMap<>(overrides);
+        updated.put(key, value);
+        return apply(updated);
+    }
+
+    /**
+     * 移除所有覆寫，回到設定檔與 application.yml 的設定
+     */
+    @ManagedOperation(description = "移除所有執行中的覆寫並重新載入")
+    public synchronized String clearOverrides() {
+        return apply(Map.of());
+    }
+
+    /**
+     * 依環境中目前的設定重新載入所有模板
+     */
+    @ManagedOperation(description = "重新載入所有可替換的重試模板")
+    public synchronized String reload() {
+        try {
+            return "已重新載入：" + registry.reload();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("重新載入失敗，維持原本的設定：" + describe(e));
+        }
+    }
+
+    @ManagedAttribute(description = "目前生效的覆寫")
+    public synchronized String getOverrides() {
+        return new TreeMap<>(overrides).toString();
+    }
+
+    @ManagedAttribute(description = "可以重新載入的重試模板")
+    public String[] getPolicyNames() {
+        return registry.getNames().toArray(String[]::new);
+    }
+
+    /**
+     * 套用新的覆寫，任何失敗（包括 Binder 無法轉換的值）都換回原本的屬性來源，
+     * 否則錯誤的覆寫會留在環境中，之後每次重新載入都會失敗
+     */
+    private String apply(Map<String, Object> updated) {
+        Map<String, Object> previous = overrides;
+        replacePropertySource(updated);
+        try {
+            String result = "已重新載入：" + registry.reload();
+            overrides = Map.copyOf(updated);
+            return result;
+        } catch (RuntimeException e) {
+            replacePropertySource(previous);
+            // JMX 用戶端不一定有 Spring 的異常類別，因此只帶訊息，不帶 cause
+            throw new IllegalArgumentException("覆寫無法套用，已恢復原本的設定：" + describe(e));
+        }
+    }
+
+    /**
+     * 串接異常與各層 cause 的訊息，例如 BindException 的實際原因在 ConversionFailedException 中
+     */
+    private static String describe(Throwable throwable) {
+        StringBuilder message = new StringBuilder(String.valueOf(throwable.getMessage()));
+        for (Throwable cause = throwable.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && message.indexOf(cause.getMessage()) < 0) {
+                message.append("：").append(cause.getMessage());
+            }
+        }
+        return message.toString();
+    }
+
+    private void replacePropertySource(Map<String, Object> properties) {
+        MutablePropertySources propertySources = environment.getPropertySources();
+        if (properties.isEmpty()) {
+            propertySources.remove(PROPERTY_SOURCE_NAME);
+            return;
+        }
+        MapPropertySource propertySource = new MapPropertySource(PROPERTY_SOURCE_NAME, new LinkedHashMap<>(properties));
+        if (propertySources.contains(PROPERTY_SOURCE_NAME)) {
+            propertySources.replace(PROPERTY_SOURCE_NAME, propertySource);
+        } else {
+            propertySources.addFirst(propertySource);
+        }
+    }
+}
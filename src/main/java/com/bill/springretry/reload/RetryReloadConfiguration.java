@@ -0,0 +1,39 @@
+package com.bill.springretry.reload;
+
+import com.bill.springretry.configuration.RetryTemplateFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.nio.file.Path;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 宣告式重試模板的執行中重新載入
+ * 設定 retry.reload.file 時監看該檔案；JMX 開啟時可以透過 RetryPolicyManagement 覆寫設定
+ */
+@Configuration
+public class RetryReloadConfiguration {
+
+    @Bean
+    public RetryTemplateRegistry retryTemplateRegistry(RetryTemplateFactory retryTemplateFactory,
+                                                       ConfigurableEnvironment environment) {
+        return new RetryTemplateRegistry(retryTemplateFactory, environment);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "retry.reload", name = "file")
+    public RetryPolicyFileWatcher retryPolicyFileWatcher(@Value("${retry.reload.file}") String file,
+                                                         ConfigurableEnvironment environment,
+                                                         RetryTemplateRegistry retryTemplateRegistry) {
+        return new RetryPolicyFileWatcher(Path.of(file), environment, retryTemplateRegistry);
+    }
+
+    @Bean
+    public RetryPolicyManagement retryPolicyManagement(ConfigurableEnvironment environment,
+                                                       RetryTemplateRegistry retryTemplateRegistry) {
+        return new RetryPolicyManagement(environment, retryTemplateRegistry);
+    }
+}
@@ -0,0 +1,176 @@
+package com.bill.springretry.reload;
+
+import com.bill.springretry.configuration.RetryProperties;
+import com.bill.springretry.configuration.RetryTemplateFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 管理所有可替換的重試模板
+ * reload 會重新讀取環境中的設定，先驗證並建立全部的新模板，全部成功後才逐一替換；
+ * 任何一個設定錯誤時全部保留原本的模板，不會出現只更新一半的情況
+ *
+ * 重新載入的範圍：
+ * - 啟動時在 retry.policies 宣告的所有名稱（即 RetryTemplateRegistrar 註冊的所有 Bean），
+ *   尚未被注入的模板同樣會驗證，之後第一次取得時使用新的設定
+ * - 以 {@link #register} 註冊、在 Java 中組合的模板（例如 databaseRetryTemplate），
+ *   依名稱對應的 retry.database 等設定重新組合
+ * 執行中在 retry.policies 新增的名稱與移除名稱都視為設定錯誤，不會被默默忽略
+ */
+public class RetryTemplateRegistry {
+
+    private final RetryTemplateFactory factory;
+    private final Environment environment;
+    private final Set<String> declaredNames;
+    private final ConcurrentMap<String, RefreshableRetryTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, Function<RetryProperties, RetryComponents>> builders = new LinkedHashMap<>();
+    private final ConcurrentMap<String, RetryComponents> components = new ConcurrentHashMap<>();
+
+    public RetryTemplateRegistry(RetryTemplateFactory factory, Environment environment) {
+        this.factory = factory;
+        this.environment = environment;
+        // 與 RetryTemplateRegistrar 在啟動時讀到的名稱相同
+        this.declaredNames = new LinkedHashSet<>(RetryProperties.bind(environment).getPolicies().keySet());
+    }
+
+    /**
+     * 取得名稱對應的模板，第一次取得時依目前的設定建立
+     */
+    public RefreshableRetryTemplate get(String name) {
+        return templates.computeIfAbsent(name, key -> {
+            if (!declaredNames.contains(key)) {
+                throw new IllegalArgumentException("retry.policies 在啟動時沒有宣告名為 " + key + " 的模板");
+            }
+            RetryProperties.Policy policy = RetryProperties.bind(environment).getPolicies().get(key);
+            if (policy == null) {
+                throw new IllegalArgumentException("retry.policies 沒有名為 " + key + " 的設定");
+            }
+            return new RefreshableRetryTemplate(key, factory.create(policy));
+        });
+    }
+
+    /**
+     * 註冊在 Java 中組合的模板，之後每次重新載入都以目前的設定再次呼叫 builder
+     * 名稱同時是設定的前綴，例如 database 對應 retry.database，JMX 只允許覆寫這些前綴下的設定
+     *
+     * @param builder 依設定組合策略，設定有誤時拋出 IllegalArgumentException
+     * @throws IllegalArgumentException 名稱已被使用，或目前的設定無法組合時
+     */
+    public synchronized RefreshableRetryTemplate register(String name,
+                                                          Function<RetryProperties, RetryComponents> builder) {
+        if (declaredNames.contains(name) || builders.containsKey(name)) {
+            throw new IllegalArgumentException("已經有名為 " + name + " 的重試模板");
+        }
+        RetryComponents built = builder.apply(RetryProperties.bind(environment));
+        RefreshableRetryTemplate template = new RefreshableRetryTemplate(name, built.createTemplate());
+        builders.put(name, builder);
+        components.put(name, built);
+        templates.put(name, template);
+        return template;
+    }
+
+    /**
+     * 以 {@link #register} 註冊的模板目前使用的策略，響應式重試每次訂閱時讀取，重新載入後立即生效
+     */
+    public RetryComponents getComponents(String name) {
+        RetryComponents current = components.get(name);
+        if (current == null) {
+            throw new IllegalArgumentException("沒有以 register 註冊名為 " + name + " 的模板");
+        }
+        return current;
+    }
+
+    /**
+     * 可以重新載入的設定前綴：retry.policies. 與每個已註冊模板的 retry.名稱.
+     */
+    public synchronized List<String> getPropertyPrefixes() {
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add("retry.policies.");
+        builders.keySet().forEach(name -> prefixes.add("retry." + name + "."));
+        return prefixes;
+    }
+
+    /**
+     * 依環境中目前的設定重新建立所有模板並替換
+     *
+     * @return 已套用新設定的模板名稱
+     * @throws IllegalStateException 設定有誤時，此時所有模板都維持原本的設定
+     */
+    public synchronized List<String> reload() {
+        RetryProperties properties = RetryProperties.bind(environment);
+        Map<String, RetryProperties.Policy> policies = properties.getPolicies();
+
+        List<String> errors = new ArrayList<>();
+        for (String name : policies.keySet()) {
+            if (!declaredNames.contains(name)) {
+                errors.add("retry.policies." + name + " 不是啟動時宣告的模板，無法在執行中新增"
+                        + (builders.containsKey(name) ? "；" + name + " 的設定位於 retry." + name : ""));
+            }
+        }
+
+        Map<RefreshableRetryTemplate, RetryTemplate> replacements = new LinkedHashMap<>();
+        for (String name : declaredNames) {
+            RetryProperties.Policy policy = policies.get(name);
+            if (policy == null) {
+                errors.add("retry.policies." + name + " 被移除，執行中的模板無法移除");
+                continue;
+            }
+            List<String> policyErrors = RetryTemplateFactory.validate(name, policy);
+            if (!policyErrors.isEmpty()) {
+                errors.addAll(policyErrors);
+                continue;
+            }
+            RefreshableRetryTemplate template = templates.get(name);
+            if (template == null) {
+                // 尚未被注入，第一次取得時就會使用新的設定
+                continue;
+            }
+            try {
+                replacements.put(template, factory.create(policy));
+            } catch (RuntimeException e) {
+                // 例如 listeners 引用了不存在的監聽器
+                errors.add("retry.policies." + name + " 無法建立：" + e.getMessage());
+            }
+        }
+        Map<String, RetryComponents> rebuilt = new LinkedHashMap<>();
+        builders.forEach((name, builder) -> {
+            try {
+                RetryComponents built = builder.apply(properties);
+                rebuilt.put(name, built);
+                replacements.put(templates.get(name), built.createTemplate());
+            } catch (RuntimeException e) {
+                errors.add("retry." + name + " 無法建立：" + e.getMessage());
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("重試模板設定錯誤，保留原本的設定：\n  " + String.join("\n  ", errors));
+        }
+
+        replacements.forEach(RefreshableRetryTemplate::refresh);
+        components.putAll(rebuilt);
+        List<String> names = new ArrayList<>(declaredNames);
+        names.addAll(builders.keySet());
+        return List.copyOf(names);
+    }
+
+    /**
+     * 可以重新載入的模板名稱，包括啟動時宣告的名稱與以 register 註冊的名稱
+     */
+    public synchronized Set<String> getNames() {
+        Set<String> names = new TreeSet<>(declaredNames);
+        names.addAll(builders.keySet());
+        return names;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bill.springretry.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 預先計算好的退避排程表
+ * 建立時把一週的每一分鐘對應到生效的時段，查詢只是一次陣列存取，與時段數量無關
+ */
+public final class BackOffSchedule {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private final ZoneId zone;
+    // windows[0] 為預設時段
+    private final BackOffWindow[] windows;
+    private final short[] table;
+
+    private BackOffSchedule(ZoneId zone, BackOffWindow[] windows, short[] table) {
+        this.zone = zone;
+        this.windows = windows;
+        this.table = table;
+    }
+
+    /**
+     * 依照設定建立排程表
+     */
+    public static BackOffSchedule of(BackOffScheduleProperties properties) {
+        List<BackOffScheduleProperties.Window> configured = properties.getWindows();
+        if (configured.size() >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("退避時段過多：" + configured.size());
+        }
+
+        BackOffWindow[] windows = new BackOffWindow[configured.size() + 1];
+        windows[0] = new BackOffWindow("default", properties.getDefaultInterval(),
+                properties.getDefaultMultiplier(), properties.getMaxInterval());
+        short[] table = new short[MINUTES_PER_WEEK];
+
+        // 由後往前填入，排在前面的時段覆蓋後面的時段
+        for (int i = configured.size() - 1; i >= 0; i--) {
+            BackOffScheduleProperties.Window window = configured.get(i);
+            short index = (short) (i + 1);
+            String name = window.getName() != null ? window.getName() : "window-" + index;
+            long maxInterval = window.getMaxInterval() != null ? window.getMaxInterval() : properties.getMaxInterval();
+            windows[index] = new BackOffWindow(name, window.getBaseInterval(), window.getMultiplier(), maxInterval);
+
+            int start = minuteOfDay(window.getStart());
+            int end = minuteOfDay(window.getEnd());
+            int length = end > start ? end - start : end + MINUTES_PER_DAY - start;
+            for (DayOfWeek day : window.getDays()) {
+                int from = (day.getValue() - 1) * MINUTES_PER_DAY + start;
+                for (int minute = 0; minute < length; minute++) {
+                    table[(from + minute) % MINUTES_PER_WEEK] = index;
+                }
+            }
+        }
+        return new BackOffSchedule(properties.getZone(), windows, table);
+    }
+
+    /**
+     * 查詢一週中第 minuteOfWeek 分鐘（星期一 00:00 為 0）生效的時段
+     */
+    public BackOffWindow windowAt(int minuteOfWeek) {
+        return windows[table[minuteOfWeek]];
+    }
+
+    public BackOffWindow windowAt(DayOfWeek day, LocalTime time) {
+        return windowAt(minuteOfWeek(day, time));
+    }
+
+    public static int minuteOfWeek(DayOfWeek day, LocalTime time) {
+        return (day.getValue() - 1) * MINUTES_PER_DAY + minuteOfDay(time);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 所有時段，第一個為預設時段
+     */
+    public List<BackOffWindow> getWindows() {
+        return List.of(windows);
+    }
+}
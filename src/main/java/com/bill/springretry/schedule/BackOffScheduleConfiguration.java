@@ -0,0 +1,24 @@
+package com.bill.springretry.schedule;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 由 retry.backoff-schedule 建立排程表與對應時區的快取時鐘
+ */
+@Configuration
+@EnableConfigurationProperties(BackOffScheduleProperties.class)
+public class BackOffScheduleConfiguration {
+
+    @Bean(name = "backOffSchedule")
+    public BackOffSchedule backOffSchedule(BackOffScheduleProperties properties) {
+        return BackOffSchedule.of(properties);
+    }
+
+    @Bean(name = "scheduleClock")
+    public CachedClock scheduleClock(BackOffSchedule backOffSchedule) {
+        return CachedClock.system(backOffSchedule.getZone());
+    }
+}
@@ -0,0 +1,161 @@
+package com.bill.springretry.schedule;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 排程退避的設定 (retry.backoff-schedule)
+ * 時段依列出的順序決定優先權，重疊時以排在前面的時段為準；沒有被任何時段涵蓋的時間使用預設間隔
+ */
+@ConfigurationProperties(prefix = "retry.backoff-schedule")
+public class BackOffScheduleProperties {
+
+    private ZoneId zone = ZoneId.systemDefault();
+    private long defaultInterval = 1000;
+    private double defaultMultiplier = 1.0;
+    private long maxInterval = 30000;
+    private List<Window> windows = new ArrayList<>();
+
+    /**
+     * 判斷時段使用的時區
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public void setZone(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * 不在任何時段內時的退避間隔（毫秒）
+     */
+    public long getDefaultInterval() {
+        return defaultInterval;
+    }
+
+    public void setDefaultInterval(long defaultInterval) {
+        this.defaultInterval = defaultInterval;
+    }
+
+    /**
+     * 不在任何時段內時每次重試的間隔倍數，1.0 表示固定間隔
+     */
+    public double getDefaultMultiplier() {
+        return defaultMultiplier;
+    }
+
+    public void setDefaultMultiplier(double defaultMultiplier) {
+        this.defaultMultiplier = defaultMultiplier;
+    }
+
+    /**
+     * 退避間隔的上限（毫秒），時段沒有自己的上限時使用
+     */
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    public void setMaxInterval(long maxInterval) {
+        this.maxInterval = maxInterval;
+    }
+
+    public List<Window> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(List<Window> windows) {
+        this.windows = windows;
+    }
+
+    /**
+     * 一個退避時段
+     * end 早於 start 表示跨越午夜，屬於 start 所在的那一天；start 等於 end 表示整天
+     */
+    public static class Window {
+
+        private String name;
+        private Set<DayOfWeek> days = EnumSet.allOf(DayOfWeek.class);
+        private LocalTime start = LocalTime.MIDNIGHT;
+        private LocalTime end = LocalTime.MIDNIGHT;
+        private long baseInterval = 1000;
+        private double multiplier = 1.0;
+        private Long maxInterval;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 時段適用的星期，預設為每天
+         */
+        public Set<DayOfWeek> getDays() {
+            return days;
+        }
+
+        public void setDays(Set<DayOfWeek> days) {
+            this.days = days;
+        }
+
+        public LocalTime getStart() {
+            return start;
+        }
+
+        public void setStart(LocalTime start) {
+            this.start = start;
+        }
+
+        public LocalTime getEnd() {
+            return end;
+        }
+
+        public void setEnd(LocalTime end) {
+            this.end = end;
+        }
+
+        /**
+         * 時段內第一次退避的間隔（毫秒）
+         */
+        public long getBaseInterval() {
+            return baseInterval;
+        }
+
+        public void setBaseInterval(long baseInterval) {
+            this.baseInterval = baseInterval;
+        }
+
+        /**
+         * 時段內每次重試的間隔倍數，1.0 表示固定間隔
+         */
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        /**
+         * 時段自己的間隔上限（毫秒），沒有設定時使用全域上限
+         */
+        public Long getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(Long maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bill.springretry.schedule;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 排程中的一個時段：第 n 次退避的間隔 = min(上限, 基本間隔 * 倍數^n)
+ */
+public final class BackOffWindow {
+
+    private final String name;
+    private final long baseInterval;
+    private final double multiplier;
+    private final long maxInterval;
+
+    public BackOffWindow(String name, long baseInterval, double multiplier, long maxInterval) {
+        if (baseInterval < 0 || multiplier <= 0 || maxInterval < 0) {
+            throw new IllegalArgumentException("時段 " + name + " 的退避設定不正確：base=" + baseInterval
+                    + ", multiplier=" + multiplier + ", max=" + maxInterval);
+        }
+        this.name = name;
+        this.baseInterval = baseInterval;
+        this.multiplier = multiplier;
+        this.maxInterval = maxInterval;
+    }
+
+    /**
+     * 計算時段內第 backOffCount 次（從 0 開始）退避的間隔
+     */
+    public long delay(int backOffCount) {
+        if (multiplier == 1.0 || backOffCount == 0) {
+            return Math.min(maxInterval, baseInterval);
+        }
+        return (long) Math.min(maxInterval, baseInterval * Math.pow(multiplier, backOffCount));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBaseInterval() {
+        return baseInterval;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bill.springretry.schedule;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 快取「目前是一週中的第幾分鐘」的時鐘
+ * 同一分鐘內只比較一次毫秒數就能取得結果，跨過分鐘邊界時才做一次時區換算；
+ * 底層 Clock 可以注入，測試時用固定或可調整的時鐘取代系統時間
+ */
+public class CachedClock {
+
+    private final Clock clock;
+    private volatile Minute current = new Minute(Long.MIN_VALUE, Long.MIN_VALUE, 0);
+
+    public CachedClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public static CachedClock system(ZoneId zone) {
+        return new CachedClock(Clock.system(zone));
+    }
+
+    /**
+     * 目前是一週中的第幾分鐘，星期一 00:00 為 0
+     */
+    public int minuteOfWeek() {
+        long now = clock.millis();
+        Minute minute = current;
+        if (now < minute.startMillis || now >= minute.endMillis) {
+            minute = Minute.at(now, clock.getZone());
+            current = minute;
+        }
+        return minute.minuteOfWeek;
+    }
+
+    /**
+     * 目前的時間，精確到分鐘
+     */
+    public LocalTime localTime() {
+        int minuteOfDay = minuteOfWeek() % BackOffSchedule.MINUTES_PER_DAY;
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    public ZoneId getZone() {
+        return clock.getZone();
+    }
+
+    /**
+     * 一分鐘的範圍 [startMillis, endMillis) 與它在一週中的位置
+     */
+    private record Minute(long startMillis, long endMillis, int minuteOfWeek) {
+
+        static Minute at(long epochMillis, ZoneId zone) {
+            ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+            long startMillis = epochMillis - time.getSecond() * 1000L - time.getNano() / 1_000_000;
+            return new Minute(startMillis, startMillis + 60_000,
+                    BackOffSchedule.minuteOfWeek(time.getDayOfWeek(), time.toLocalTime()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bill.springretry.schedule;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 依排程表決定退避間隔的策略
+ * 每次退避時由快取時鐘取得目前分鐘，查表得到生效的時段，再依時段的基本間隔與倍數計算延遲；
+ * 生效的時段名稱記錄在重試上下文的 {@link #WINDOW} 屬性，方便監聽器觀察，不在熱路徑上輸出
+ */
+public class ScheduleBackOffPolicy implements SleepingBackOffPolicy<ScheduleBackOffPolicy> {
+
+    public static final String WINDOW = "backOffSchedule.window";
+
+    private final BackOffSchedule schedule;
+    private final CachedClock clock;
+    private final Sleeper sleeper;
+
+    public ScheduleBackOffPolicy(BackOffSchedule schedule) {
+        this(schedule, CachedClock.system(schedule.getZone()));
+    }
+
+    /**
+     * @param clock 時鐘的時區必須與排程表相同
+     */
+    public ScheduleBackOffPolicy(BackOffSchedule schedule, CachedClock clock) {
+        this(schedule, clock, new ThreadWaitSleeper());
+    }
+
+    private ScheduleBackOffPolicy(BackOffSchedule schedule, CachedClock clock, Sleeper sleeper) {
+        if (!schedule.getZone().equals(clock.getZone())) {
+            throw new IllegalArgumentException("時鐘時區 " + clock.getZone() + " 與排程表時區 " + schedule.getZone() + " 不同");
+        }
+        this.schedule = schedule;
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public ScheduleBackOffPolicy withSleeper(Sleeper sleeper) {
+        return new ScheduleBackOffPolicy(schedule, clock, sleeper);
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new ScheduleBackOffContext(context);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        ScheduleBackOffContext context = (ScheduleBackOffContext) backOffContext;
+        BackOffWindow window = schedule.windowAt(clock.minuteOfWeek());
+        long sleepTime = window.delay(context.backOffCount++);
+        if (context.retryContext != null) {
+            context.retryContext.setAttribute(WINDOW, window.getName());
+        }
+
+        try {
+            sleeper.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    private static class ScheduleBackOffContext implements BackOffContext {
+
+        private final transient RetryContext retryContext;
+        private int backOffCount;
+
+        ScheduleBackOffContext(RetryContext retryContext) {
+            this.retryContext = retryContext;
+        }
+    }
+}
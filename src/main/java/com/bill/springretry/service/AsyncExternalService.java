@@ -0,0 +1,42 @@
+package com.bill.springretry.service;
+
+import com.bill.springretry.exception.TransientNetworkException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Bill.Lin 2026/10/16
+ * 回傳 CompletableFuture 的 @Retryable 範例，非同步失敗由 AsyncRetryableAspect 重試
+ */
+@Service
+public class AsyncExternalService {
+
+    @Retryable(
+            retryFor = {TransientNetworkException.class},
+            maxAttempts = 3,
+            backoff = @Backoff(delay = 2000)
+    )
+    public CompletableFuture<String> callExternalServiceAsync(String request) {
+        System.out.println("嘗試非同步呼叫外部服務: " + request);
+        if (getRandomValue() < 0.7) {
+            return CompletableFuture.failedFuture(new TransientNetworkException("模擬網絡故障"));
+        }
+        System.out.println("外部服務呼叫成功！");
+        return CompletableFuture.completedFuture("外部服務回應: " + request);
+    }
+
+    // 為了便於測試，將隨機邏輯提取到一個方法中
+    protected double getRandomValue() {
+        return Math.random();
+    }
+
+    @Recover
+    public CompletableFuture<String> recover(TransientNetworkException e, String request) {
+        System.err.println("所有非同步重試失敗，執行恢復邏輯：" + e.getMessage());
+        return CompletableFuture.completedFuture("降級回應: " + request);
+    }
+}
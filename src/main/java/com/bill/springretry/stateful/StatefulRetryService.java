@@ -1,9 +1,20 @@
 package com.bill.springretry.stateful;
 
+import com.bill.springretry.async.BackOffDelays;
+import com.bill.springretry.async.RetryScheduler;
 import com.bill.springretry.exception.DatabaseException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.retry.RecoveryCallback;
 import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.RetryState;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.MapRetryContextCache;
+import org.springframework.retry.policy.RetryContextCache;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.DefaultRetryState;
 import org.springframework.retry.support.RetryTemplate;
@@ -12,7 +23,11 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author Bill.Lin 2025/4/13
@@ -25,34 +40,65 @@ public class StatefulRetryService {
     private final Map<String, RetryState> retryStateMap = new ConcurrentHashMap<>();
     private final RetryTemplate retryTemplate;
     
+    // 有狀態重試的上下文，延遲重試用來判斷次數是否已經用完
+    private final RetryContextCache retryContextCache = new MapRetryContextCache();
+    private final RetryPolicy retryPolicy;
+    
     // 模擬一個資料庫或緩存
     private final Map<String, TransactionData> dataStore = new ConcurrentHashMap<>();
     
-    public StatefulRetryService() {
+    // 延遲重試 - 失敗後把下一次呼叫排程到計時器上，而不是由呼叫端自行等待
+    // 計時器只負責觸發，實際的重試交給執行器，避免佔住計時器的執行緒
+    private final RetryScheduler retryTimer;
+    private final Executor deferredExecutor;
+    private final BackOffPolicy deferredBackOffPolicy;
+    
+    // 模擬數據庫操作是否失敗
+    private final BooleanSupplier failureSimulator;
+    
+    @Autowired
+    public StatefulRetryService(RetryScheduler retryTimer,
+                                @Qualifier("retryTaskExecutor") Executor deferredExecutor) {
+        this(retryTimer, deferredExecutor, () -> Math.random() < 0.7);
+    }
+    
+    StatefulRetryService(RetryScheduler retryTimer, Executor deferredExecutor, BooleanSupplier failureSimulator) {
         this.retryTemplate = new RetryTemplate();
         
         // 配置重試政策
         Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
         retryableExceptions.put(DatabaseException.class, true);
         
-        SimpleRetryPolicy policy = new SimpleRetryPolicy(3, retryableExceptions);
-        retryTemplate.setRetryPolicy(policy);
+        this.retryPolicy = new SimpleRetryPolicy(3, retryableExceptions);
+        retryTemplate.setRetryPolicy(retryPolicy);
+        retryTemplate.setRetryContextCache(retryContextCache);
+        
+        // 延遲重試的退避策略，只用來計算延遲時間
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(100);
+        backOffPolicy.setMultiplier(2.0);
+        backOffPolicy.setMaxInterval(5000);
+        this.deferredBackOffPolicy = BackOffDelays.nonBlocking(backOffPolicy);
+        this.retryTimer = retryTimer;
+        this.deferredExecutor = deferredExecutor;
+        this.failureSimulator = failureSimulator;
     }
     
     /**
      * 處理一個事務，支持有狀態的重試
      * 如果操作失敗，重試狀態會被保存，下一次調用時可以繼續重試
      */
-    public String processTransaction(String transactionId, String data) throws Exception {
+    public String processTransaction(String requestedTransactionId, String data) throws Exception {
         // 如果沒有指定交易ID，則創建一個新的
-        if (transactionId == null || transactionId.isEmpty()) {
-            transactionId = UUID.randomUUID().toString();
-        }
+        final String transactionId = requestedTransactionId == null || requestedTransactionId.isEmpty()
+                ? UUID.randomUUID().toString()
+                : requestedTransactionId;
         
         // 獲取或創建重試狀態
+        // forceRefresh 必須為 false，否則每次調用都會建立新的重試上下文，重試次數永遠不會累積
         RetryState retryState = retryStateMap.computeIfAbsent(
                 transactionId, 
-                id -> new DefaultRetryState(id, true)
+                id -> new DefaultRetryState(id, false)
         );
         
         // 創建交易數據對象
@@ -66,12 +112,13 @@ public class StatefulRetryService {
                         System.out.println("處理交易 " + transactionId + ", 嘗試 #" + (context.getRetryCount() + 1));
                         
                         // 模擬一個可能失敗的操作
-                        if (!isTransactionValid(transactionData) || Math.random() < 0.7) {
+                        if (!isTransactionValid(transactionData) || failureSimulator.getAsBoolean()) {
                             throw new DatabaseException("處理交易 " + transactionId + " 時發生數據庫錯誤");
                         }
                         
                         // 成功處理交易
                         dataStore.put(transactionId, transactionData);
+                        retryStateMap.remove(transactionId);
                         return "交易 " + transactionId + " 處理成功";
                     },
                     // 恢復回調
@@ -93,6 +140,64 @@ public class StatefulRetryService {
         }
     }
     
+    /**
+     * 處理一個事務，失敗時自動在退避後再次呼叫，直到成功或進入恢復流程
+     * 等待期間只是時間輪上的一個節點，不佔用任何執行緒
+     */
+    public CompletableFuture<String> processTransactionDeferred(String transactionId, String data) {
+        final String id = transactionId == null || transactionId.isEmpty()
+                ? UUID.randomUUID().toString()
+                : transactionId;
+        CompletableFuture<String> result = new CompletableFuture<>();
+        BackOffContext backOffContext = deferredBackOffPolicy.start(null);
+        processDeferred(id, data, backOffContext, result);
+        return result;
+    }
+    
+    private void processDeferred(String transactionId, String data, BackOffContext backOffContext,
+                                 CompletableFuture<String> result) {
+        try {
+            result.complete(processTransaction(transactionId, data));
+        } catch (DatabaseException e) {
+            if (isExhausted(transactionId)) {
+                // 這是最後一次允許的失敗，下一次呼叫只會執行恢復流程，不需要再等待一次退避
+                processDeferred(transactionId, data, backOffContext, result);
+                return;
+            }
+            // 重試狀態仍保留在 retryStateMap 中，退避後再次呼叫即可繼續計數
+            try {
+                long delay = BackOffDelays.nextDelay(deferredBackOffPolicy, backOffContext);
+                retryTimer.schedule(RetryScheduler.rejectable(
+                        () -> dispatchDeferred(transactionId, data, backOffContext, result),
+                        result::completeExceptionally), delay);
+            } catch (RuntimeException scheduleFailure) {
+                result.completeExceptionally(scheduleFailure);
+            }
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * 交易的重試上下文是否已經用完重試次數
+     */
+    private boolean isExhausted(String transactionId) {
+        RetryContext context = retryContextCache.get(transactionId);
+        return context != null && !retryPolicy.canRetry(context);
+    }
+    
+    /**
+     * 計時器到期時只把下一次呼叫交給執行器，processTransaction 不會在計時器的執行緒上執行
+     */
+    private void dispatchDeferred(String transactionId, String data, BackOffContext backOffContext,
+                                  CompletableFuture<String> result) {
+        try {
+            deferredExecutor.execute(() -> processDeferred(transactionId, data, backOffContext, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+    
     /**
      * 檢查交易是否有效
      */
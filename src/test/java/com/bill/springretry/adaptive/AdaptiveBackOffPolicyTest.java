@@ -0,0 +1,178 @@
+package com.bill.springretry.adaptive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBackOffPolicyTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void testSlowDownstream_StretchesInterval() throws Exception {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(1.0);
+        tracker.load("slow").recordLatency(800_000_000L); // 800ms，目標延遲的 4 倍
+
+        runFailingOnce(tracker, "slow");
+
+        assertEquals(List.of(2000L), sleeps, "延遲為目標的 4 倍時間隔應該拉長 4 倍");
+    }
+
+    @Test
+    void testHealthyDownstream_KeepsNominalInterval() throws Exception {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(1.0);
+        tracker.load("fast").recordLatency(10_000_000L); // 10ms，遠低於目標延遲
+
+        runFailingOnce(tracker, "fast");
+
+        assertEquals(List.of(500L), sleeps, "失敗後的間隔不應短於原本的間隔");
+    }
+
+    @Test
+    void testFastFailures_DoNotFeedLatency() throws Exception {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(1.0);
+        tracker.load("down").recordLatency(200_000_000L);
+        RetryTemplate template = retryTemplate();
+
+        // 下游故障時立即失敗，失敗的嘗試不應把 EWMA 拉低
+        assertThrows(RuntimeException.class, () -> template.execute(tracker.instrument("down", context -> {
+            throw new RuntimeException("連線被拒");
+        })));
+
+        DownstreamLoad load = tracker.load("down");
+        assertEquals(1, load.getSamples());
+        assertEquals(200.0, load.getLatencyMillis(), 0.001);
+        assertEquals(0, load.getInFlight());
+        assertEquals(List.of(500L, 500L), sleeps, "故障期間不應加快重試");
+    }
+
+    @Test
+    void testTracker_EvictsIdleOperationsBeyondMax() throws Exception {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(0.2, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> new RetryTemplate().execute(tracker.instrument("busy", context -> {
+                started.countDown();
+                release.await();
+                return "完成";
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            tracker.load("idle-1");
+            tracker.load("idle-2");
+            tracker.load("idle-3");
+
+            assertEquals(2, tracker.getLoads().size(), "操作數量不應超過上限");
+            assertTrue(tracker.getLoads().containsKey("busy"), "進行中的操作不應被淘汰");
+            assertTrue(tracker.getLoads().containsKey("idle-3"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStretch_BoundedByMaxInterval() throws Exception {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(1.0);
+        tracker.load("stalled").recordLatency(60_000_000_000L); // 60 秒
+
+        runFailingOnce(tracker, "stalled");
+
+        assertEquals(List.of(5000L), sleeps, "間隔不應超過最大間隔");
+    }
+
+    @Test
+    void testNoLoadData_UsesInitialInterval() throws Exception {
+        RetryTemplate template = retryTemplate();
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        template.execute(context -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new RuntimeException("測試失敗");
+            }
+            return "成功";
+        });
+
+        assertEquals(List.of(500L), sleeps);
+    }
+
+    @Test
+    void testEwma_TracksRecovery() {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(0.5);
+        DownstreamLoad load = tracker.load("recovering");
+
+        load.recordLatency(400_000_000L);
+        load.recordLatency(200_000_000L);
+        load.recordLatency(100_000_000L);
+
+        assertEquals(200.0, load.getLatencyMillis(), 0.001, "EWMA 應該逐步靠近最新的延遲");
+        assertEquals(3, load.getSamples());
+    }
+
+    @Test
+    void testInstrument_CountsConcurrentInFlight() throws Exception {
+        DownstreamLoadTracker tracker = new DownstreamLoadTracker(0.2);
+        RetryTemplate template = new RetryTemplate();
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.submit(() -> template.execute(tracker.instrument("busy", context -> {
+                    started.countDown();
+                    release.await();
+                    return "完成";
+                })));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(3, tracker.load("busy").getInFlight());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, tracker.load("busy").getInFlight());
+        assertEquals(3, tracker.load("busy").getSamples());
+    }
+
+    private void runFailingOnce(DownstreamLoadTracker tracker, String operationName) throws Exception {
+        RetryTemplate template = retryTemplate();
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        // 直接放入負載狀態，不讓測試本身的嘗試延遲影響 EWMA
+        template.execute(context -> {
+            context.setAttribute(DownstreamLoadTracker.LOAD, tracker.load(operationName));
+            if (attempts.incrementAndGet() < 2) {
+                throw new RuntimeException("測試失敗");
+            }
+            return "成功";
+        });
+    }
+
+    private RetryTemplate retryTemplate() {
+        AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy();
+        policy.setInitialInterval(500);
+        policy.setMaxInterval(5000);
+        policy.setTargetLatencyMillis(200);
+        policy.setTargetConcurrency(50);
+        policy.setSleeper(sleeps::add);
+
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(policy);
+        return template;
+    }
+}
@@ -0,0 +1,259 @@
+package com.bill.springretry.async;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRetryTemplateTest {
+
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testExecute_SucceedsWithoutBlockingCaller() throws Exception {
+        // 每次退避 300ms，兩次失敗後成功
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), fixedBackOff(300), scheduler);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> future = template.execute(context -> {
+            if (attempts.incrementAndGet() < 3) {
+                return CompletableFuture.failedFuture(new RuntimeException("測試失敗"));
+            }
+            return CompletableFuture.completedFuture("成功");
+        });
+        long returnTime = System.currentTimeMillis() - startTime;
+
+        // 呼叫端應該立即返回，而不是等待退避
+        assertTrue(returnTime < 200, "呼叫端不應被退避阻塞，實際耗時：" + returnTime);
+        assertFalse(future.isDone(), "第一次嘗試失敗後應該在等待排程");
+
+        assertEquals("成功", future.get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get(), "應該嘗試三次");
+        long totalTime = System.currentTimeMillis() - startTime;
+        assertTrue(totalTime >= 550, "兩次退避應該至少等待約600ms，實際為：" + totalTime);
+    }
+
+    @Test
+    void testExecute_ExhaustedCompletesWithLastException() {
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), fixedBackOff(10), scheduler);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        CompletableFuture<String> future = template.execute(context -> {
+            // 同步拋出的異常也應該被視為一次失敗的嘗試
+            throw new DatabaseException("第 " + attempts.incrementAndGet() + " 次失敗");
+        });
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof DatabaseException);
+        assertEquals("第 3 次失敗", exception.getCause().getMessage());
+        assertEquals(3, attempts.get(), "應該嘗試三次");
+    }
+
+    @Test
+    void testExecute_TimerClosedDuringBackOffCompletesExceptionally() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8);
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), fixedBackOff(10_000), timer);
+
+        CompletableFuture<String> future = template.execute(context -> {
+            throw new DatabaseException("第一次失敗");
+        });
+        // 第一次失敗後下一次嘗試已經掛在時間輪上
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (timer.getPendingTimeouts() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, timer.getPendingTimeouts());
+        timer.close();
+
+        // 等待中的下一次嘗試被丟棄時，future 應該立即結束，而不是永遠等不到結果
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertInstanceOf(DatabaseException.class, exception.getCause().getSuppressed()[0], "應該保留最後一次失敗");
+    }
+
+    @Test
+    void testExecute_NonRetryableExceptionFailsImmediately() {
+        // 只有 DatabaseException 可以重試
+        SimpleRetryPolicy policy = new SimpleRetryPolicy(5, Map.of(DatabaseException.class, true));
+        AsyncRetryTemplate template = new AsyncRetryTemplate(policy, fixedBackOff(10), scheduler);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        CompletableFuture<String> future = template.execute(context -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("不可重試"));
+        });
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(1, attempts.get(), "不可重試的異常只應嘗試一次");
+    }
+
+    @Test
+    void testExecute_RecoveryCallback() throws Exception {
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(2), fixedBackOff(10), scheduler);
+
+        CompletableFuture<String> future = template.execute(
+                context -> CompletableFuture.failedFuture(new RuntimeException("始終失敗")),
+                context -> "恢復: " + context.getLastThrowable().getMessage());
+
+        assertEquals("恢復: 始終失敗", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExecute_ListenersReceiveCallbacks() throws Exception {
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), fixedBackOff(10), scheduler);
+        AtomicInteger errors = new AtomicInteger(0);
+        AtomicInteger closed = new AtomicInteger(0);
+        template.registerListener(new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                errors.incrementAndGet();
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                closed.incrementAndGet();
+            }
+        });
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(context -> attempts.incrementAndGet() < 2
+                ? CompletableFuture.<String>failedFuture(new RuntimeException("測試失敗"))
+                : CompletableFuture.completedFuture("成功")).get(5, TimeUnit.SECONDS);
+
+        assertEquals("成功", result);
+        assertEquals(1, errors.get(), "應該記錄一次失敗");
+        assertEquals(1, closed.get(), "重試結束時應該關閉一次");
+    }
+
+    @Test
+    void testExecute_ThrowingRetryPolicyCompletesExceptionally() {
+        // 重試策略本身拋出異常時，future 仍應該完成，而不是讓呼叫端永遠等待
+        SimpleRetryPolicy policy = new SimpleRetryPolicy(3) {
+            @Override
+            public boolean canRetry(RetryContext context) {
+                if (context.getRetryCount() > 0) {
+                    throw new IllegalStateException("策略故障");
+                }
+                return true;
+            }
+        };
+        AsyncRetryTemplate template = new AsyncRetryTemplate(policy, fixedBackOff(10), scheduler);
+
+        CompletableFuture<String> future = template.execute(
+                context -> CompletableFuture.failedFuture(new RuntimeException("測試失敗")));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals("策略故障", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testExecute_ThrowingListenerCompletesExceptionally() {
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), fixedBackOff(10), scheduler);
+        AtomicInteger closed = new AtomicInteger(0);
+        template.registerListener(new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onSuccess(RetryContext context, RetryCallback<T, E> callback, T result) {
+                throw new IllegalStateException("監聽器故障");
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                closed.incrementAndGet();
+            }
+        });
+
+        CompletableFuture<String> future = template.execute(context -> CompletableFuture.completedFuture("成功"));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, closed.get(), "監聽器拋出異常時仍應該關閉重試");
+    }
+
+    @Test
+    void testExecute_ThrowingBackOffPolicyCompletesExceptionally() {
+        BackOffPolicy backOffPolicy = new BackOffPolicy() {
+            @Override
+            public BackOffContext start(RetryContext context) {
+                throw new IllegalStateException("退避策略故障");
+            }
+
+            @Override
+            public void backOff(BackOffContext backOffContext) {
+            }
+        };
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), backOffPolicy, scheduler);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        CompletableFuture<String> future = template.execute(context -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("成功");
+        });
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(0, attempts.get(), "退避策略無法開始時不應該發起嘗試");
+    }
+
+    @Test
+    void testListenerCallback_RunsOneBlockingAttempt() throws Exception {
+        // 監聽器拿到的 RetryCallback 可以直接呼叫，會以阻塞方式執行一次嘗試
+        AsyncRetryTemplate template = new AsyncRetryTemplate(new SimpleRetryPolicy(3), fixedBackOff(10), scheduler);
+        AtomicReference<Object> blockingResult = new AtomicReference<>();
+        template.registerListener(new RetryListener() {
+            @Override
+            public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+                try {
+                    blockingResult.set(callback.doWithRetry(context));
+                } catch (Throwable ex) {
+                    blockingResult.set(ex);
+                }
+                return true;
+            }
+        });
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(context -> CompletableFuture.completedFuture("第 " + attempts.incrementAndGet() + " 次"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("第 1 次", blockingResult.get());
+        assertEquals("第 2 次", result);
+    }
+
+    private FixedBackOffPolicy fixedBackOff(long period) {
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(period);
+        return backOffPolicy;
+    }
+}
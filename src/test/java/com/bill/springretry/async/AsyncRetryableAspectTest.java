@@ -0,0 +1,171 @@
+package com.bill.springretry.async;
+
+import com.bill.springretry.exception.DatabaseException;
+import com.bill.springretry.exception.TransientNetworkException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.annotation.Retryable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRetryableAspectTest {
+
+    private ScheduledExecutorService scheduler;
+    private AsyncOperations operations;
+    private AsyncOperations proxy;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        operations = new AsyncOperations();
+        AspectJProxyFactory factory = new AspectJProxyFactory(operations);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AsyncRetryableAspect(RetryScheduler.of(scheduler)));
+        proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testAsyncFailure_RetriedUntilSuccess() throws Exception {
+        operations.failuresBeforeSuccess = 2;
+
+        String result = proxy.fetch("資料").get(5, TimeUnit.SECONDS);
+
+        assertEquals("回應: 資料", result);
+        assertEquals(3, operations.attempts.get(), "非同步失敗應該被重試");
+    }
+
+    @Test
+    void testSynchronousFailure_AlsoRetried() throws Exception {
+        operations.failuresBeforeSuccess = 1;
+
+        String result = proxy.fetchThrowing("資料").get(5, TimeUnit.SECONDS);
+
+        assertEquals("回應: 資料", result);
+        assertEquals(2, operations.attempts.get(), "同步拋出的異常也應該被重試");
+    }
+
+    @Test
+    void testExhausted_RecoverMethodProvidesFallback() throws Exception {
+        operations.failuresBeforeSuccess = Integer.MAX_VALUE;
+
+        String result = proxy.fetch("資料").get(5, TimeUnit.SECONDS);
+
+        assertEquals("降級: 資料", result);
+        assertEquals(3, operations.attempts.get(), "應該嘗試 maxAttempts 次後才恢復");
+    }
+
+    @Test
+    void testNoRetryFor_FailsImmediatelyWithoutRecover() {
+        CompletableFuture<String> future = proxy.fetchNotRetryable();
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, operations.attempts.get(), "不可重試的異常只應嘗試一次");
+    }
+
+    @Test
+    void testCallerIsNotBlockedDuringBackOff() throws Exception {
+        operations.failuresBeforeSuccess = 1;
+
+        long startTime = System.nanoTime();
+        CompletableFuture<String> future = proxy.fetchSlowBackOff("資料");
+        long returnMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertTrue(returnMillis < 200, "呼叫端不應該等待退避，實際為：" + returnMillis);
+        assertEquals("回應: 資料", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testUnsupportedAttributes_FailFast() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> proxy.fetchWithExpressions("資料"));
+
+        assertTrue(exception.getMessage().contains("maxAttemptsExpression"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("backoff.delayExpression"), exception.getMessage());
+        assertEquals(0, operations.attempts.get(), "設定無法套用時不應該執行方法");
+    }
+
+    @Test
+    void testListenersAndLabel_FailFast() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> proxy.fetchWithListeners("資料"));
+
+        assertTrue(exception.getMessage().contains("listeners"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("label"), exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> proxy.fetchWithListeners("資料"),
+                "錯誤的設定不應該被快取成可用的模板");
+        assertEquals(0, operations.attempts.get());
+    }
+
+    static class AsyncOperations {
+
+        final AtomicInteger attempts = new AtomicInteger(0);
+        volatile int failuresBeforeSuccess;
+
+        @Retryable(retryFor = TransientNetworkException.class, maxAttempts = 3, backoff = @Backoff(delay = 10))
+        public CompletableFuture<String> fetch(String request) {
+            if (attempts.incrementAndGet() <= failuresBeforeSuccess) {
+                return CompletableFuture.failedFuture(new TransientNetworkException("模擬網絡故障"));
+            }
+            return CompletableFuture.completedFuture("回應: " + request);
+        }
+
+        @Retryable(retryFor = DatabaseException.class, maxAttempts = 3, backoff = @Backoff(delay = 10))
+        public CompletableFuture<String> fetchThrowing(String request) {
+            if (attempts.incrementAndGet() <= failuresBeforeSuccess) {
+                throw new DatabaseException("模擬資料庫錯誤");
+            }
+            return CompletableFuture.completedFuture("回應: " + request);
+        }
+
+        @Retryable(noRetryFor = IllegalStateException.class, maxAttempts = 3, backoff = @Backoff(delay = 10))
+        public CompletableFuture<String> fetchNotRetryable() {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("不可重試"));
+        }
+
+        @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 500))
+        public CompletableFuture<String> fetchSlowBackOff(String request) {
+            if (attempts.incrementAndGet() <= failuresBeforeSuccess) {
+                throw new TransientNetworkException("模擬網絡故障");
+            }
+            return CompletableFuture.completedFuture("回應: " + request);
+        }
+
+        @Retryable(retryFor = TransientNetworkException.class, maxAttemptsExpression = "${retry.async.max-attempts:3}",
+                backoff = @Backoff(delayExpression = "${retry.async.delay:10}"))
+        public CompletableFuture<String> fetchWithExpressions(String request) {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("回應: " + request);
+        }
+
+        @Retryable(retryFor = TransientNetworkException.class, listeners = "retryMetricsListener", label = "fetch",
+                backoff = @Backoff(delay = 10))
+        public CompletableFuture<String> fetchWithListeners(String request) {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("回應: " + request);
+        }
+
+        @Recover
+        public CompletableFuture<String> recover(TransientNetworkException e, String request) {
+            return CompletableFuture.completedFuture("降級: " + request);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.bill.springretry.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        // 10ms 一格，共 8 格 - 一圈只有 80ms，方便測試跨圈的延遲
+        timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.close();
+    }
+
+    @Test
+    void testNewTimeout_ExpiresAfterDelay() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        long startTime = System.nanoTime();
+        timer.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "任務應該在延遲後執行");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        // 延遲超過一圈，驗證輪數計算正確
+        assertTrue(elapsedMillis >= 190, "任務不應該提早執行，實際為：" + elapsedMillis);
+        assertEquals(0, timer.getPendingTimeouts());
+        assertEquals(1, timer.getExpiredTimeouts());
+    }
+
+    @Test
+    void testCancel_TaskDoesNotRun() throws Exception {
+        AtomicBoolean executed = new AtomicBoolean(false);
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> executed.set(true), 50, TimeUnit.MILLISECONDS);
+        assertEquals(1, timer.getPendingTimeouts());
+
+        assertTrue(timeout.cancel(), "尚未到期的任務應該可以取消");
+        assertFalse(timeout.cancel(), "重複取消應該返回 false");
+        assertEquals(0, timer.getPendingTimeouts());
+
+        Thread.sleep(150);
+        assertFalse(executed.get(), "已取消的任務不應該執行");
+        assertTrue(timeout.isCancelled());
+        assertEquals(1, timer.getCancelledTimeouts());
+    }
+
+    @Test
+    void testManyTimeouts_AllExpire() throws Exception {
+        int count = 10_000;
+        CountDownLatch latch = new CountDownLatch(count);
+
+        for (int i = 0; i < count; i++) {
+            timer.newTimeout(latch::countDown, i % 300, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "所有任務都應該到期執行");
+        assertEquals(0, timer.getPendingTimeouts());
+        assertEquals(count, timer.getExpiredTimeouts());
+    }
+
+    @Test
+    void testTaskExecutor_SlowTaskDoesNotBlockOtherTimeouts() throws Exception {
+        ExecutorService taskExecutor = Executors.newCachedThreadPool();
+        HashedWheelTimer dispatchingTimer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8, taskExecutor);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastTask = new CountDownLatch(1);
+        try {
+            // 第一個任務一直阻塞，工作執行緒只負責觸發，後面的任務仍應準時執行
+            dispatchingTimer.newTimeout(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            dispatchingTimer.newTimeout(fastTask::countDown, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(fastTask.await(1, TimeUnit.SECONDS), "阻塞的任務不應該拖住其他到期的任務");
+        } finally {
+            release.countDown();
+            dispatchingTimer.close();
+            taskExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testTaskExecutor_RejectionDoesNotStopWorker() throws Exception {
+        ExecutorService taskExecutor = Executors.newSingleThreadExecutor();
+        taskExecutor.shutdown();
+        HashedWheelTimer dispatchingTimer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8, taskExecutor);
+        try {
+            dispatchingTimer.newTimeout(() -> { }, 10, TimeUnit.MILLISECONDS);
+            dispatchingTimer.newTimeout(() -> { }, 60, TimeUnit.MILLISECONDS);
+            Thread.sleep(200);
+
+            // 執行器拒絕的任務只會被記錄，工作執行緒仍繼續推進到後面的時間格
+            assertEquals(2, dispatchingTimer.getExpiredTimeouts());
+            assertEquals(0, dispatchingTimer.getPendingTimeouts());
+        } finally {
+            dispatchingTimer.close();
+        }
+    }
+
+    @Test
+    void testNewTimeout_RejectedAfterClose() {
+        timer.close();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> timer.newTimeout(() -> { }, 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testStop_RejectsPendingTasks() {
+        AtomicBoolean executed = new AtomicBoolean(false);
+        CompletableFuture<String> waiting = new CompletableFuture<>();
+        Runnable plain = () -> executed.set(true);
+        Runnable rejectable = RetryScheduler.rejectable(() -> waiting.complete("執行"), waiting::completeExceptionally);
+        timer.newTimeout(plain, 10, TimeUnit.SECONDS);
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(rejectable, 1, TimeUnit.SECONDS);
+
+        List<Runnable> unprocessed = timer.stop();
+
+        assertEquals(Set.of(plain, rejectable), Set.copyOf(unprocessed));
+        assertTrue(waiting.isCompletedExceptionally(), "等待中的 future 應該在關閉時結束");
+        assertThrows(Exception.class, waiting::join);
+        assertFalse(executed.get(), "尚未到期的任務不應該在關閉時執行");
+        assertFalse(timeout.cancel(), "已被拒絕的任務不能再取消");
+        assertEquals(0, timer.getPendingTimeouts());
+    }
+
+    @Test
+    void testNewTimeout_HugeDelayNeverExpires() throws Exception {
+        AtomicBoolean executed = new AtomicBoolean(false);
+
+        timer.newTimeout(() -> executed.set(true), Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        timer.newTimeout(() -> executed.set(true), Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        Thread.sleep(100);
+        assertFalse(executed.get(), "極大的延遲不應該因為溢位而立即執行");
+        assertEquals(2, timer.getPendingTimeouts());
+    }
+}
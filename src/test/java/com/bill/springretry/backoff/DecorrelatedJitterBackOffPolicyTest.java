@@ -0,0 +1,90 @@
+package com.bill.springretry.backoff;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecorrelatedJitterBackOffPolicyTest {
+
+    @Test
+    void testDelays_StayWithinDecorrelatedBounds() {
+        List<Long> delays = new ArrayList<>();
+        DecorrelatedJitterBackOffPolicy policy = createPolicy(new Random(42), delays);
+
+        for (int sequence = 0; sequence < 1000; sequence++) {
+            delays.clear();
+            BackOffContext context = policy.start(new RetryContextSupport(null));
+            for (int i = 0; i < 10; i++) {
+                policy.backOff(context);
+            }
+
+            long previous = 100;
+            for (long delay : delays) {
+                assertTrue(delay >= 100, "延遲不應小於初始間隔，實際為：" + delay);
+                assertTrue(delay <= Math.min(5000, previous * 3), "延遲不應超過上一次的 3 倍或上限，實際為：" + delay);
+                previous = delay;
+            }
+        }
+    }
+
+    @Test
+    void testDelays_SpreadAcrossRange() {
+        List<Long> delays = new ArrayList<>();
+        DecorrelatedJitterBackOffPolicy policy = createPolicy(new Random(7), delays);
+
+        // 第一次延遲在 [100, 300] 均勻分佈
+        for (int i = 0; i < 10_000; i++) {
+            policy.backOff(policy.start(new RetryContextSupport(null)));
+        }
+
+        double mean = delays.stream().mapToLong(Long::longValue).average().orElse(0);
+        assertEquals(200, mean, 5, "第一次延遲的平均值應該接近範圍中點");
+        assertTrue(delays.stream().anyMatch(delay -> delay < 120), "延遲應該分佈到範圍下緣");
+        assertTrue(delays.stream().anyMatch(delay -> delay > 280), "延遲應該分佈到範圍上緣");
+    }
+
+    @Test
+    void testSameSeed_ProducesSameSequence() {
+        List<Long> first = new ArrayList<>();
+        List<Long> second = new ArrayList<>();
+        DecorrelatedJitterBackOffPolicy firstPolicy = createPolicy(new Random(123), first);
+        DecorrelatedJitterBackOffPolicy secondPolicy = createPolicy(new Random(123), second);
+
+        BackOffContext firstContext = firstPolicy.start(new RetryContextSupport(null));
+        BackOffContext secondContext = secondPolicy.start(new RetryContextSupport(null));
+        for (int i = 0; i < 20; i++) {
+            firstPolicy.backOff(firstContext);
+            secondPolicy.backOff(secondContext);
+        }
+
+        assertEquals(first, second, "相同種子應該產生相同的延遲序列");
+    }
+
+    @Test
+    void testWithSleeper_KeepsSettings() {
+        List<Long> delays = new ArrayList<>();
+        DecorrelatedJitterBackOffPolicy policy = createPolicy(new Random(1), new ArrayList<>());
+
+        DecorrelatedJitterBackOffPolicy copy = policy.withSleeper(delays::add);
+        copy.backOff(copy.start(new RetryContextSupport(null)));
+
+        assertEquals(100, copy.getInitialInterval());
+        assertEquals(5000, copy.getMaxInterval());
+        assertEquals(1, delays.size(), "副本應該使用新的 Sleeper");
+    }
+
+    private DecorrelatedJitterBackOffPolicy createPolicy(Random random, List<Long> delays) {
+        DecorrelatedJitterBackOffPolicy policy = new DecorrelatedJitterBackOffPolicy();
+        policy.setInitialInterval(100);
+        policy.setMaxInterval(5000);
+        policy.setRandomSource(() -> random);
+        policy.setSleeper(delays::add);
+        return policy;
+    }
+}
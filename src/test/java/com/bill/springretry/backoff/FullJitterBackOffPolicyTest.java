@@ -0,0 +1,76 @@
+package com.bill.springretry.backoff;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullJitterBackOffPolicyTest {
+
+    @Test
+    void testDelays_StayWithinExponentialCeiling() {
+        List<Long> delays = new ArrayList<>();
+        FullJitterBackOffPolicy policy = createPolicy(new Random(42), delays);
+
+        BackOffContext context = policy.start(new RetryContextSupport(null));
+        for (int i = 0; i < 10; i++) {
+            policy.backOff(context);
+        }
+
+        long ceiling = 100;
+        for (long delay : delays) {
+            assertTrue(delay >= 0 && delay <= ceiling, "延遲應該介於 0 與 " + ceiling + "，實際為：" + delay);
+            ceiling = Math.min(1000, ceiling * 2);
+        }
+    }
+
+    @Test
+    void testDelays_UniformAcrossFullRange() {
+        List<Long> delays = new ArrayList<>();
+        FullJitterBackOffPolicy policy = createPolicy(new Random(7), delays);
+
+        // 第三次退避的範圍為 [0, 400]
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            BackOffContext context = policy.start(new RetryContextSupport(null));
+            policy.backOff(context);
+            policy.backOff(context);
+            delays.clear();
+            policy.backOff(context);
+            assertTrue(delays.get(0) <= 400);
+            samples.add(delays.get(0));
+        }
+
+        double mean = samples.stream().mapToLong(Long::longValue).average().orElse(0);
+        assertEquals(200, mean, 8, "延遲的平均值應該接近範圍中點");
+        long lowerQuarter = samples.stream().filter(delay -> delay < 100).count();
+        assertEquals(2500, lowerQuarter, 250, "延遲應該均勻分佈，約四分之一落在下四分之一");
+    }
+
+    @Test
+    void testCeiling_CappedAtMaxInterval() {
+        List<Long> delays = new ArrayList<>();
+        FullJitterBackOffPolicy policy = createPolicy(new Random(3), delays);
+
+        BackOffContext context = policy.start(new RetryContextSupport(null));
+        for (int i = 0; i < 50; i++) {
+            policy.backOff(context);
+        }
+
+        assertTrue(delays.stream().allMatch(delay -> delay <= 1000), "延遲不應超過上限");
+    }
+
+    private FullJitterBackOffPolicy createPolicy(Random random, List<Long> delays) {
+        FullJitterBackOffPolicy policy = new FullJitterBackOffPolicy();
+        policy.setInitialInterval(100);
+        policy.setMaxInterval(1000);
+        policy.setRandomSource(() -> random);
+        policy.setSleeper(delays::add);
+        return policy;
+    }
+}
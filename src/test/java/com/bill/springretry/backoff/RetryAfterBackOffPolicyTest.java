@@ -0,0 +1,178 @@
+package com.bill.springretry.backoff;
+
+import com.bill.springretry.deadline.DeadlineAwareBackOffPolicy;
+import com.bill.springretry.deadline.DeadlineRetryPolicy;
+import com.bill.springretry.deadline.RetryDeadlineExceededException;
+import com.bill.springretry.exception.RemoteServiceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryAfterBackOffPolicyTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void testRetryAfter_HonoredWhenPresent() throws Exception {
+        RetryTemplate template = retryTemplate(retryAfterPolicy(10_000));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(context -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new RemoteServiceException("請求過多", 429, Duration.ofMillis(1500));
+            }
+            return "成功";
+        });
+
+        assertEquals("成功", result);
+        assertEquals(List.of(1500L, 1500L), sleeps, "應該等待伺服器指定的時間");
+    }
+
+    @Test
+    void testRetryAfter_ClampedToMax() throws Exception {
+        RetryTemplate template = retryTemplate(retryAfterPolicy(2000));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        template.execute(context -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new RemoteServiceException("服務不可用", 503, Duration.ofMinutes(5));
+            }
+            return "成功";
+        });
+
+        assertEquals(List.of(2000L), sleeps, "等待時間不應超過設定的上限");
+    }
+
+    @Test
+    void testNoRetryAfter_FallsBackToExponential() throws Exception {
+        RetryTemplate template = retryTemplate(retryAfterPolicy(10_000));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        template.execute(context -> {
+            if (attempts.incrementAndGet() < 4) {
+                throw new RemoteServiceException("閘道逾時", 504);
+            }
+            return "成功";
+        });
+
+        assertEquals(List.of(100L, 200L, 400L), sleeps, "沒有 Retry-After 時應該使用指數退避");
+    }
+
+    @Test
+    void testRetryAfter_FoundInCauseChain() throws Exception {
+        RetryTemplate template = retryTemplate(retryAfterPolicy(10_000));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        template.execute(context -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new IllegalStateException("包裝的異常",
+                        new RemoteServiceException("請求過多", 429, Duration.ofMillis(800)));
+            }
+            return "成功";
+        });
+
+        assertEquals(List.of(800L), sleeps);
+    }
+
+    @Test
+    void testRetryAfterBeyondDeadline_GivesUpWithoutWaiting() {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new DeadlineRetryPolicy(new SimpleRetryPolicy(5), Duration.ofSeconds(1)));
+        template.setBackOffPolicy(new DeadlineAwareBackOffPolicy(retryAfterPolicy(10_000)));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        long startTime = System.nanoTime();
+        RetryDeadlineExceededException exception = assertThrows(RetryDeadlineExceededException.class,
+                () -> template.execute(context -> {
+                    attempts.incrementAndGet();
+                    throw new RemoteServiceException("請求過多", 429, Duration.ofSeconds(5));
+                }));
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000L;
+
+        assertEquals(1, attempts.get(), "Retry-After 超過剩餘時間，不應該再嘗試");
+        assertInstanceOf(RemoteServiceException.class, exception.getCause());
+        assertTrue(elapsedMillis < 1000, "不應該等待 Retry-After，實際為：" + elapsedMillis);
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    void testRetryAfterBeyondDeadlineButWithinMax_NotShortened() {
+        // 上限 10 秒內的 Retry-After 以原本的時間交給截止時間檢查，不會被縮短成剩餘時間內的值而提早重試
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new DeadlineRetryPolicy(new SimpleRetryPolicy(5), Duration.ofSeconds(2)));
+        template.setBackOffPolicy(new DeadlineAwareBackOffPolicy(retryAfterPolicy(10_000)));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        assertThrows(RetryDeadlineExceededException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new RemoteServiceException("請求過多", 429, Duration.ofSeconds(3));
+        }));
+
+        assertEquals(1, attempts.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    void testRetryAfterBeyondMaxWithinDeadline_ClampedAndRetried() throws Exception {
+        // Retry-After 超過上限但仍在時間預算內時以上限等待後重試，不會因為超過上限就放棄
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new DeadlineRetryPolicy(new SimpleRetryPolicy(5), Duration.ofSeconds(30)));
+        template.setBackOffPolicy(new DeadlineAwareBackOffPolicy(retryAfterPolicy(1000)));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(context -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new RemoteServiceException("請求過多", 429, Duration.ofSeconds(5));
+            }
+            return "成功";
+        });
+
+        assertEquals("成功", result);
+        assertEquals(List.of(1000L), sleeps, "應該以上限等待");
+    }
+
+    @Test
+    void testRawRetryAfterBeyondDeadline_GivesUpEvenWhenClampedDelayFits() {
+        // 截短後的 1 秒在 2 秒的預算內，但伺服器要求的 3 秒超過剩餘時間，應該直接放棄
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new DeadlineRetryPolicy(new SimpleRetryPolicy(5), Duration.ofSeconds(2)));
+        template.setBackOffPolicy(new DeadlineAwareBackOffPolicy(retryAfterPolicy(1000)));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        assertThrows(RetryDeadlineExceededException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new RemoteServiceException("請求過多", 429, Duration.ofSeconds(3));
+        }));
+
+        assertEquals(1, attempts.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    private RetryAfterBackOffPolicy retryAfterPolicy(long maxRetryAfter) {
+        ExponentialBackOffPolicy fallback = new ExponentialBackOffPolicy();
+        fallback.setInitialInterval(100);
+        fallback.setMultiplier(2.0);
+        fallback.setMaxInterval(10_000);
+
+        RetryAfterBackOffPolicy policy = new RetryAfterBackOffPolicy();
+        policy.setMaxRetryAfter(maxRetryAfter);
+        policy.setFallback(fallback);
+        policy.setSleeper(sleeps::add);
+        return policy;
+    }
+
+    private RetryTemplate retryTemplate(RetryAfterBackOffPolicy backOffPolicy) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(5));
+        template.setBackOffPolicy(backOffPolicy);
+        return template;
+    }
+}
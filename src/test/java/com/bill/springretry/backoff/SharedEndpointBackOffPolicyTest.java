@@ -0,0 +1,129 @@
+package com.bill.springretry.backoff;
+
+import com.bill.springretry.exception.TransientNetworkException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedEndpointBackOffPolicyTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void testNewCall_StartsFromEndpointPenalty() throws Exception {
+        SharedEndpointBackOffPolicy policy = policy();
+        RetryTemplate template = retryTemplate(policy);
+
+        assertThrows(TransientNetworkException.class, () -> call(template, "https://bad.example.com", 3));
+        assertEquals(List.of(100L, 200L), sleeps);
+        assertEquals(200, policy.getPenalty("https://bad.example.com"));
+
+        sleeps.clear();
+        call(template, "https://bad.example.com", 1);
+        assertEquals(List.of(200L), sleeps, "新的呼叫應該從端點目前的懲罰開始等待");
+    }
+
+    @Test
+    void testOtherEndpoint_NotPenalized() throws Exception {
+        SharedEndpointBackOffPolicy policy = policy();
+        RetryTemplate template = retryTemplate(policy);
+
+        assertThrows(TransientNetworkException.class, () -> call(template, "https://bad.example.com", 3));
+        sleeps.clear();
+        call(template, "https://good.example.com", 1);
+
+        assertEquals(List.of(100L), sleeps);
+    }
+
+    @Test
+    void testSuccess_DecaysPenalty() throws Exception {
+        SharedEndpointBackOffPolicy policy = policy();
+        RetryTemplate template = retryTemplate(policy);
+
+        assertThrows(TransientNetworkException.class, () -> call(template, "https://flaky.example.com", 3));
+        call(template, "https://flaky.example.com", 0);
+        assertEquals(100, policy.getPenalty("https://flaky.example.com"), "成功後懲罰應該減半");
+
+        policy.setDecayFactor(1000);
+        call(template, "https://flaky.example.com", 0);
+        assertEquals(0, policy.getPenalty("https://flaky.example.com"));
+        assertEquals(0, policy.getTrackedEndpoints(), "懲罰衰減到 0 時不應再追蹤該端點");
+    }
+
+    @Test
+    void testPenalty_ExpiresWithoutUpdates() {
+        SharedEndpointBackOffPolicy policy = policy();
+        RetryTemplate template = retryTemplate(policy);
+
+        assertThrows(TransientNetworkException.class, () -> call(template, "https://bad.example.com", 3));
+        assertEquals(200, policy.getPenalty("https://bad.example.com"));
+        now.addAndGet(60_000);
+        sleeps.clear();
+
+        // 過期後只失敗一次（最多兩次嘗試），不會因成功而衰減
+        RetryTemplate twoAttempts = retryTemplate(policy, 2);
+        assertThrows(TransientNetworkException.class, () -> call(twoAttempts, "https://bad.example.com", 2));
+
+        assertEquals(List.of(100L), sleeps, "過期的懲罰不應影響新的呼叫");
+        assertEquals(100, policy.getPenalty("https://bad.example.com"), "過期後懲罰應該從本次的延遲重新開始，而不是恢復成 200");
+    }
+
+    @Test
+    void testTrackedEndpoints_Bounded() {
+        SharedEndpointBackOffPolicy policy = policy();
+        policy.setMaxEndpoints(1);
+        RetryTemplate template = retryTemplate(policy);
+
+        assertThrows(TransientNetworkException.class, () -> call(template, "https://a.example.com", 3));
+        assertThrows(TransientNetworkException.class, () -> call(template, "https://b.example.com", 3));
+
+        assertEquals(1, policy.getTrackedEndpoints());
+        assertEquals(200, policy.getPenalty("https://a.example.com"));
+        assertEquals(0, policy.getPenalty("https://b.example.com"), "已滿時新端點不共享狀態");
+    }
+
+    private String call(RetryTemplate template, String endpoint, int failures) throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        return template.execute(context -> {
+            context.setAttribute(SharedEndpointBackOffPolicy.ENDPOINT, endpoint);
+            if (attempts.incrementAndGet() <= failures) {
+                throw new TransientNetworkException("網絡連接超時: " + endpoint);
+            }
+            return "200 OK";
+        });
+    }
+
+    private SharedEndpointBackOffPolicy policy() {
+        ExponentialBackOffPolicy delegate = new ExponentialBackOffPolicy();
+        delegate.setInitialInterval(100);
+        delegate.setMultiplier(2.0);
+        delegate.setMaxInterval(10_000);
+
+        SharedEndpointBackOffPolicy policy = new SharedEndpointBackOffPolicy(delegate);
+        policy.setPenaltyExpiry(60_000);
+        policy.setSleeper(sleeps::add);
+        policy.setClock(now::get);
+        return policy;
+    }
+
+    private RetryTemplate retryTemplate(SharedEndpointBackOffPolicy policy) {
+        return retryTemplate(policy, 3);
+    }
+
+    private RetryTemplate retryTemplate(SharedEndpointBackOffPolicy policy, int maxAttempts) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(maxAttempts));
+        template.setBackOffPolicy(policy);
+        template.registerListener(policy.successListener());
+        return template;
+    }
+}
@@ -0,0 +1,161 @@
+package com.bill.springretry.batch;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatcherTest {
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private MicroBatcher<String, String> batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    @Test
+    void testFullBatch_DispatchedWithoutWaitingForDelay() throws Exception {
+        batcher = new MicroBatcher<>(retryTemplate(3), this::upperCase, 4, TimeUnit.SECONDS.toMicros(10));
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (String query : List.of("a", "b", "c", "d")) {
+            results.add(batcher.submit(query));
+        }
+
+        assertEquals("A", results.get(0).get(2, TimeUnit.SECONDS));
+        assertEquals("D", results.get(3).get(2, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("a", "b", "c", "d")), batches, "額滿時應該立即送出一個批次");
+    }
+
+    @Test
+    void testDelayElapsed_DispatchesPartialBatch() throws Exception {
+        batcher = new MicroBatcher<>(retryTemplate(3), this::upperCase, 100, 5_000);
+
+        CompletableFuture<String> first = batcher.submit("a");
+        CompletableFuture<String> second = batcher.submit("b");
+
+        assertEquals("A", first.get(2, TimeUnit.SECONDS));
+        assertEquals("B", second.get(2, TimeUnit.SECONDS));
+        assertEquals(1, batcher.getBatchCount(), "等待時間內提交的項目應該合併成一個批次");
+        assertEquals(2, batcher.getItemCount());
+    }
+
+    @Test
+    void testPartialFailure_OnlyFailedItemsRetried() throws Exception {
+        AtomicInteger bAttempts = new AtomicInteger(0);
+        batcher = new MicroBatcher<>(retryTemplate(3), (items, context) -> {
+            batches.add(List.copyOf(items));
+            BatchOutcome<String> outcome = new BatchOutcome<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                String item = items.get(i);
+                if (item.equals("b") && bAttempts.incrementAndGet() == 1) {
+                    outcome.failure(i, new DatabaseException("資料庫查詢異常: b"));
+                } else {
+                    outcome.success(i, item.toUpperCase());
+                }
+            }
+            return outcome;
+        }, 3, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<String> a = batcher.submit("a");
+        CompletableFuture<String> b = batcher.submit("b");
+        CompletableFuture<String> c = batcher.submit("c");
+
+        assertEquals("A", a.get(2, TimeUnit.SECONDS));
+        assertEquals("B", b.get(2, TimeUnit.SECONDS));
+        assertEquals("C", c.get(2, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("b")), batches, "重試時只應重送失敗的項目");
+    }
+
+    @Test
+    void testExhausted_FailedItemGetsItsOwnFailure() throws Exception {
+        batcher = new MicroBatcher<>(retryTemplate(2), (items, context) -> {
+            batches.add(List.copyOf(items));
+            BatchOutcome<String> outcome = new BatchOutcome<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).equals("broken")) {
+                    outcome.failure(i, new DatabaseException("資料庫查詢異常: " + items.get(i)));
+                } else {
+                    outcome.success(i, items.get(i).toUpperCase());
+                }
+            }
+            return outcome;
+        }, 2, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<String> ok = batcher.submit("ok");
+        CompletableFuture<String> broken = batcher.submit("broken");
+
+        assertEquals("OK", ok.get(2, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> broken.get(2, TimeUnit.SECONDS));
+        assertEquals("資料庫查詢異常: broken", exception.getCause().getMessage());
+        assertEquals(2, batches.size(), "失敗的項目應該用盡批次的重試次數");
+    }
+
+    @Test
+    void testWholeBatchFailure_RetriedAsUnit() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        batcher = new MicroBatcher<>(retryTemplate(3), (items, context) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new DatabaseException("資料庫連接異常");
+            }
+            return upperCase(items, context);
+        }, 2, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<String> a = batcher.submit("a");
+        CompletableFuture<String> b = batcher.submit("b");
+
+        assertEquals("A", a.get(2, TimeUnit.SECONDS));
+        assertEquals("B", b.get(2, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get(), "整批失敗時應該整批重試一次");
+    }
+
+    @Test
+    void testOutcomeSizeMismatch_FailsCallersInsteadOfOverrunning() {
+        // 回傳的結果比送出的項目少時，每個呼叫端都應該以 IllegalStateException 失敗，而不是讓批次執行緒超出陣列範圍
+        batcher = new MicroBatcher<>(retryTemplate(1), (items, context) -> {
+            BatchOutcome<String> outcome = new BatchOutcome<>(1);
+            outcome.success(0, "A");
+            return outcome;
+        }, 2, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<String> first = batcher.submit("a");
+        CompletableFuture<String> second = batcher.submit("b");
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(2, TimeUnit.SECONDS));
+    }
+
+    private BatchOutcome<String> upperCase(List<String> items, RetryContext context) {
+        batches.add(List.copyOf(items));
+        BatchOutcome<String> outcome = new BatchOutcome<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            outcome.success(i, items.get(i).toUpperCase());
+        }
+        return outcome;
+    }
+
+    private RetryTemplate retryTemplate(int maxAttempts) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(maxAttempts));
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(10);
+        template.setBackOffPolicy(backOffPolicy);
+        return template;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bill.springretry.budget;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetRetryPolicyTest {
+
+    @Test
+    void testBudgetExhausted_FailsFast() {
+        // 沒有最低保障，比例 50% - 第一個操作只能重試 0 次 (1 * 0.5 = 0)
+        RetryBudget budget = new RetryBudget(0.5, 0, Duration.ofSeconds(10));
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new RetryBudgetRetryPolicy(new SimpleRetryPolicy(5), budget));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        assertThrows(IllegalStateException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("後端故障");
+        }));
+
+        assertEquals(1, attempts.get(), "預算用盡時不應該重試");
+        assertEquals(1, budget.getRejectedRetries());
+    }
+
+    @Test
+    void testEachRetryConsumesOneUnit() throws Exception {
+        RetryBudget budget = new RetryBudget(0, 10, Duration.ofSeconds(10));
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new RetryBudgetRetryPolicy(new SimpleRetryPolicy(3), budget));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(context -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("暫時失敗");
+            }
+            return "成功";
+        });
+
+        assertEquals("成功", result);
+        assertEquals(2, budget.getRetriesInWindow(), "RetryTemplate 多次呼叫 canRetry 也只應消耗一次額度");
+        assertEquals(1, budget.getAttemptsInWindow());
+    }
+
+    @Test
+    void testDelegateDecisionRespected() {
+        RetryBudget budget = new RetryBudget(1.0, 100, Duration.ofSeconds(10));
+        RetryBudgetRetryPolicy policy = new RetryBudgetRetryPolicy(new SimpleRetryPolicy(2), budget);
+
+        RetryContext context = policy.open(null);
+        assertTrue(policy.canRetry(context), "第一次嘗試不消耗預算");
+        policy.registerThrowable(context, new IllegalStateException("失敗"));
+        assertTrue(policy.canRetry(context));
+        policy.registerThrowable(context, new IllegalStateException("失敗"));
+        assertFalse(policy.canRetry(context), "原策略不允許時不應該重試");
+        assertEquals(1, budget.getRetriesInWindow());
+    }
+}
@@ -0,0 +1,81 @@
+package com.bill.springretry.budget;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @Test
+    void testRetries_LimitedToRatioOfAttempts() {
+        // 比例 10%，沒有最低保障
+        RetryBudget budget = new RetryBudget(0.1, 0, Duration.ofSeconds(10), clock::get);
+        for (int i = 0; i < 100; i++) {
+            budget.recordAttempt();
+        }
+
+        int granted = 0;
+        for (int i = 0; i < 50; i++) {
+            if (budget.tryAcquireRetry()) {
+                granted++;
+            }
+        }
+
+        assertEquals(10, granted, "100 次嘗試只允許 10 次重試");
+        assertEquals(40, budget.getRejectedRetries());
+        assertEquals(10, budget.getRetriesInWindow());
+    }
+
+    @Test
+    void testMinRetriesPerSecond_AllowsRetriesAtLowTraffic() {
+        // 每秒至少 2 次，10 秒窗口共 20 次
+        RetryBudget budget = new RetryBudget(0.1, 2, Duration.ofSeconds(10), clock::get);
+        budget.recordAttempt();
+
+        int granted = 0;
+        while (budget.tryAcquireRetry()) {
+            granted++;
+        }
+
+        assertEquals(20, granted, "低流量時應該使用最低保障的重試次數");
+    }
+
+    @Test
+    void testWindowSlides_OldBucketsExpire() {
+        RetryBudget budget = new RetryBudget(0.5, 0, Duration.ofSeconds(10), clock::get);
+        for (int i = 0; i < 10; i++) {
+            budget.recordAttempt();
+        }
+        while (budget.tryAcquireRetry()) {
+            // 用盡預算
+        }
+        assertEquals(5, budget.getRetriesInWindow());
+
+        // 超過一個窗口後，舊的嘗試與重試都不再計算
+        clock.addAndGet(10_000);
+        assertEquals(0, budget.getAttemptsInWindow());
+        assertEquals(0, budget.getRetriesInWindow());
+        assertFalse(budget.tryAcquireRetry(), "沒有新的嘗試時不應該有重試額度");
+
+        budget.recordAttempt();
+        budget.recordAttempt();
+        assertTrue(budget.tryAcquireRetry(), "新的嘗試應該帶來新的額度");
+    }
+
+    @Test
+    void testPartialSlide_KeepsRecentBuckets() {
+        RetryBudget budget = new RetryBudget(1.0, 0, Duration.ofSeconds(10), clock::get);
+        budget.recordAttempt();
+        clock.addAndGet(5_000);
+        budget.recordAttempt();
+
+        assertEquals(2, budget.getAttemptsInWindow());
+        clock.addAndGet(5_500);
+        assertEquals(1, budget.getAttemptsInWindow(), "只有窗口內的嘗試應該被計算");
+    }
+}
@@ -0,0 +1,74 @@
+package com.bill.springretry.classifier;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.policy.MaxAttemptsRetryPolicy;
+import org.springframework.retry.policy.NeverRetryPolicy;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingExceptionClassifierTest {
+
+    private final RetryPolicy ioPolicy = new MaxAttemptsRetryPolicy(3);
+    private final RetryPolicy databasePolicy = new MaxAttemptsRetryPolicy(5);
+    private final RetryPolicy defaultPolicy = new NeverRetryPolicy();
+
+    @Test
+    void testClassify_ResolvesNearestSuperclass() {
+        CachingExceptionClassifier classifier = new CachingExceptionClassifier(
+                Map.of(IOException.class, ioPolicy, DatabaseException.class, databasePolicy), defaultPolicy);
+
+        // SocketTimeoutException 沒有自己的設定，使用最接近的父類別 IOException 的策略
+        assertSame(ioPolicy, classifier.classify(new SocketTimeoutException("逾時")));
+        assertSame(databasePolicy, classifier.classify(new DatabaseException("連線失敗")));
+        assertSame(defaultPolicy, classifier.classify(new IllegalStateException("其他")));
+        assertSame(defaultPolicy, classifier.classify(null));
+    }
+
+    @Test
+    void testClassify_ReturnsSharedInstance() {
+        CachingExceptionClassifier classifier = new CachingExceptionClassifier(
+                Map.of(DatabaseException.class, databasePolicy), defaultPolicy);
+
+        // 每次失敗都回傳同一個策略實例，重試次數才能在同一個上下文中累計
+        RetryPolicy first = classifier.classify(new DatabaseException("第一次"));
+        RetryPolicy second = classifier.classify(new DatabaseException("第二次"));
+        assertSame(first, second);
+    }
+
+    @Test
+    void testClassify_FollowsCauseChainUpToDepth() {
+        Throwable wrappedOnce = new RuntimeException(new DatabaseException("連線失敗"));
+        Throwable wrappedTwice = new IllegalStateException(wrappedOnce);
+
+        CachingExceptionClassifier shallow = new CachingExceptionClassifier(
+                Map.of(DatabaseException.class, databasePolicy), defaultPolicy, 0);
+        CachingExceptionClassifier oneLevel = new CachingExceptionClassifier(
+                Map.of(DatabaseException.class, databasePolicy), defaultPolicy, 1);
+
+        assertSame(defaultPolicy, shallow.classify(wrappedOnce), "深度為 0 時只看異常本身");
+        assertSame(databasePolicy, oneLevel.classify(wrappedOnce));
+        assertSame(defaultPolicy, oneLevel.classify(wrappedTwice), "超過設定的深度就不再往下找");
+    }
+
+    @Test
+    void testClassify_OwnMappingWinsOverCause() {
+        CachingExceptionClassifier classifier = new CachingExceptionClassifier(
+                Map.of(IOException.class, ioPolicy, DatabaseException.class, databasePolicy), defaultPolicy, 2);
+
+        // 異常本身有符合的設定時，不看 cause
+        assertSame(ioPolicy, classifier.classify(new IOException(new DatabaseException("連線失敗"))));
+        assertSame(databasePolicy, classifier.classify(new RuntimeException(new DatabaseException("連線失敗"))));
+    }
+
+    @Test
+    void testConstructor_RejectsNegativeDepth() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CachingExceptionClassifier(Map.of(), defaultPolicy, -1));
+    }
+}
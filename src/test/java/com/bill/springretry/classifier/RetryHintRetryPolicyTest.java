@@ -0,0 +1,101 @@
+package com.bill.springretry.classifier;
+
+import com.bill.springretry.exception.DatabaseException;
+import com.bill.springretry.exception.RemoteServiceException;
+import com.bill.springretry.exception.RetryHint;
+import com.bill.springretry.exception.RetrySeverity;
+import com.bill.springretry.exception.TransientNetworkException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryHintRetryPolicyTest {
+
+    @Test
+    void testRemoteServiceException_SeverityFromStatusCode() {
+        assertEquals(RetrySeverity.THROTTLED, new RemoteServiceException("請求過多", 429).getRetrySeverity());
+        assertEquals(RetrySeverity.THROTTLED, new RemoteServiceException("服務不可用", 503).getRetrySeverity());
+        assertEquals(RetrySeverity.TRANSIENT, new RemoteServiceException("閘道逾時", 504).getRetrySeverity());
+        assertEquals(RetrySeverity.PERMANENT, new RemoteServiceException("未實作", 501).getRetrySeverity());
+        assertEquals(RetrySeverity.PERMANENT, new RemoteServiceException("無效請求", 400).getRetrySeverity());
+
+        // Retry-After 只作為建議延遲，嚴重程度仍由狀態碼決定
+        RemoteServiceException withRetryAfter = new RemoteServiceException("維護中", 500, Duration.ofSeconds(2));
+        assertEquals(RetrySeverity.TRANSIENT, withRetryAfter.getRetrySeverity());
+        assertEquals(Duration.ofSeconds(2), withRetryAfter.getSuggestedDelay().orElseThrow());
+        assertEquals(RetrySeverity.THROTTLED,
+                new RemoteServiceException("請求過多", 429, Duration.ofSeconds(2)).getRetrySeverity());
+    }
+
+    @Test
+    void testRemoteServiceException_ClientErrorWithRetryAfterIsPermanent() {
+        RetryHintRetryPolicy policy = new RetryHintRetryPolicy(3);
+
+        // 4xx 回應即使帶有 Retry-After 也是永久性錯誤，重送相同的請求不會成功
+        for (int statusCode : new int[] {400, 401, 404}) {
+            RemoteServiceException exception = new RemoteServiceException("用戶端錯誤", statusCode, Duration.ofSeconds(2));
+            assertEquals(RetrySeverity.PERMANENT, exception.getRetrySeverity(), "狀態碼 " + statusCode);
+            assertFalse(canRetryAfter(policy, exception), "狀態碼 " + statusCode + " 不應該重試");
+        }
+    }
+
+    @Test
+    void testCanRetry_WrappedHint() {
+        RetryHintRetryPolicy policy = new RetryHintRetryPolicy(3, Map.of(IllegalStateException.class, true));
+
+        // 被包裝的提示優先於外層異常的類別對照表
+        assertTrue(canRetryAfter(policy, new IllegalArgumentException(new RemoteServiceException("請求過多", 429))));
+        assertFalse(canRetryAfter(policy, new IllegalStateException(new RemoteServiceException("找不到資源", 404))));
+    }
+
+    @Test
+    void testCanRetry_ConsultsHint() {
+        RetryHintRetryPolicy policy = new RetryHintRetryPolicy(3);
+
+        assertTrue(canRetryAfter(policy, new TransientNetworkException("連線中斷")));
+        assertTrue(canRetryAfter(policy, new DatabaseException("連線失敗")));
+        assertTrue(canRetryAfter(policy, new RemoteServiceException("請求過多", 429)));
+        assertFalse(canRetryAfter(policy, new RemoteServiceException("找不到資源", 404)), "永久性錯誤不應該重試");
+    }
+
+    @Test
+    void testCanRetry_ForeignExceptionsUseClassMap() {
+        RetryHintRetryPolicy policy = new RetryHintRetryPolicy(3, Map.of(IOException.class, true));
+
+        // 沒有重試提示的異常依對照表判斷，子類別使用父類別的設定
+        assertTrue(canRetryAfter(policy, new SocketTimeoutException("逾時")));
+        assertFalse(canRetryAfter(policy, new IllegalArgumentException("參數錯誤")));
+    }
+
+    @Test
+    void testCanRetry_MaxAttempts() {
+        RetryHintRetryPolicy policy = new RetryHintRetryPolicy(2);
+        RetryContext context = policy.open(null);
+        assertTrue(policy.canRetry(context), "第一次嘗試前應該可以執行");
+
+        policy.registerThrowable(context, new TransientNetworkException("第一次失敗"));
+        assertTrue(policy.canRetry(context));
+        policy.registerThrowable(context, new TransientNetworkException("第二次失敗"));
+        assertFalse(policy.canRetry(context), "超過最大嘗試次數後不應該重試");
+    }
+
+    @Test
+    void testFind_FollowsCauseChain() {
+        DatabaseException cause = new DatabaseException("連線失敗");
+        assertSame(cause, RetryHint.find(new IllegalStateException(cause)));
+        assertNull(RetryHint.find(new IllegalStateException("沒有提示")));
+        assertNull(RetryHint.find(null));
+    }
+
+    private static boolean canRetryAfter(RetryHintRetryPolicy policy, Throwable throwable) {
+        RetryContext context = policy.open(null);
+        policy.registerThrowable(context, throwable);
+        return policy.canRetry(context);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bill.springretry.coalescing;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private ExecutorService executor;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        singleFlight = new SingleFlight();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallers_ShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger(0);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 10;
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("query:hot-key", () -> {
+                executions.incrementAndGet();
+                release.await();
+                return "結果";
+            })));
+        }
+        waitUntil(() -> singleFlight.getCurrentWaiters() == callers - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("結果", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get(), "相同鍵值只應執行一次");
+        assertEquals(1, singleFlight.getExecutions());
+        assertEquals(callers - 1, singleFlight.getCoalescedCalls());
+        assertEquals(0, singleFlight.getCurrentWaiters());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testConcurrentCallers_ShareFinalException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("query:broken", () -> {
+            release.await();
+            throw new DatabaseException("資料庫連接異常");
+        }));
+        waitUntil(() -> singleFlight.getInFlightCount() == 1);
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("query:broken", () -> "不應執行"));
+        waitUntil(() -> singleFlight.getCurrentWaiters() == 1);
+        release.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DatabaseException.class, leaderFailure.getCause());
+        assertSame(leaderFailure.getCause(), waiterFailure.getCause(), "等待者應該收到同一個最終異常");
+    }
+
+    @Test
+    void testDifferentKeysAndLaterCalls_ExecuteSeparately() throws Exception {
+        AtomicInteger executions = new AtomicInteger(0);
+
+        singleFlight.execute("query:a", executions::incrementAndGet);
+        singleFlight.execute("query:b", executions::incrementAndGet);
+        singleFlight.execute("query:a", executions::incrementAndGet);
+
+        assertEquals(3, executions.get(), "完成後的鍵不應該快取結果");
+        assertEquals(0, singleFlight.getCoalescedCalls());
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待條件逾時");
+            Thread.sleep(5);
+        }
+    }
+}
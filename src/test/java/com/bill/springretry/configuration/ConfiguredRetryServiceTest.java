@@ -8,6 +8,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -69,6 +70,25 @@ class ConfiguredRetryServiceTest {
         assertEquals(4, attempts.get(), "網絡重試策略應該嘗試4次");
     }
 
+    @Test
+    void testSubmitDatabaseRetry_DefaultModeRunsOnCaller() throws Exception {
+        // 未開啟虛擬執行緒模式時，submit 系列方法在呼叫端同步執行
+        assertFalse(retryService.isVirtualThreadMode());
+        Thread caller = Thread.currentThread();
+        AtomicInteger attempts = new AtomicInteger(0);
+        
+        String result = retryService.submitDatabaseRetry(context -> {
+            assertSame(caller, Thread.currentThread());
+            if (attempts.incrementAndGet() < 2) {
+                throw new DatabaseException("測試數據庫連接失敗");
+            }
+            return "資料庫重試成功";
+        }).get(5, TimeUnit.SECONDS);
+        
+        assertEquals("資料庫重試成功", result);
+        assertEquals(2, attempts.get(), "應該嘗試2次");
+    }
+
     @Test
     void testExecuteMonitoredRetry() throws Exception {
         // 測試帶有監聽器的重試模板
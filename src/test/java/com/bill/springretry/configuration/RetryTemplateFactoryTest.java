@@ -0,0 +1,119 @@
+package com.bill.springretry.configuration;
+
+import com.bill.springretry.adaptive.AdaptiveBackOffPolicy;
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.budget.RetryBudgetRetryPolicy;
+import com.bill.springretry.exception.DatabaseException;
+import com.bill.springretry.listener.RetryMetricsListener;
+import com.bill.springretry.schedule.BackOffSchedule;
+import com.bill.springretry.schedule.BackOffScheduleProperties;
+import com.bill.springretry.schedule.CachedClock;
+import com.bill.springretry.schedule.ScheduleBackOffPolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTemplateFactoryTest {
+
+    private final RetryMetricsListener metricsListener = new RetryMetricsListener();
+    private final RetryTemplateFactory factory = new RetryTemplateFactory(
+            new RetryBudget(1.0, 100, Duration.ofSeconds(10)), name -> metricsListener);
+
+    @Test
+    void testCreate_RetryableExceptions() {
+        RetryProperties.Policy policy = new RetryProperties.Policy();
+        policy.setMaxAttempts(4);
+        policy.setRetryableExceptions(List.of(DatabaseException.class.getName()));
+        policy.getBackoff().setType(RetryProperties.BackOffType.NONE);
+        RetryTemplate template = factory.create(policy);
+
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(DatabaseException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new DatabaseException("資料庫連接錯誤");
+        }));
+        assertEquals(4, attempts.get(), "可重試的異常應該嘗試到最大次數");
+
+        attempts.set(0);
+        assertThrows(IllegalStateException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("不在可重試列表中");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testCreate_BackOffAndListeners() {
+        RetryProperties.Policy policy = new RetryProperties.Policy();
+        policy.getBackoff().setType(RetryProperties.BackOffType.ADAPTIVE);
+        policy.getBackoff().setInitialInterval(500);
+        policy.getBackoff().setMaxInterval(5000);
+        policy.setListeners(List.of("retryMetricsListener"));
+
+        assertInstanceOf(RetryBudgetRetryPolicy.class, factory.createRetryPolicy(policy), "預設受重試預算限制");
+        assertInstanceOf(AdaptiveBackOffPolicy.class, factory.createBackOffPolicy(policy));
+        assertEquals(List.<RetryListener>of(metricsListener), factory.createListeners(policy));
+    }
+
+    @Test
+    void testCreate_CircuitBreakerWrapsPolicy() {
+        RetryProperties.Policy policy = new RetryProperties.Policy();
+        policy.setBudget(false);
+        RetryProperties.CircuitBreaker circuitBreaker = new RetryProperties.CircuitBreaker();
+        circuitBreaker.setOpenTimeout(5000);
+        circuitBreaker.setResetTimeout(10000);
+        policy.setCircuitBreaker(circuitBreaker);
+
+        assertInstanceOf(CircuitBreakerRetryPolicy.class, factory.createRetryPolicy(policy));
+    }
+
+    @Test
+    void testCreate_ScheduleBackOff() {
+        RetryProperties.Policy policy = new RetryProperties.Policy();
+        policy.getBackoff().setType(RetryProperties.BackOffType.SCHEDULE);
+        RetryTemplateFactory scheduleFactory = new RetryTemplateFactory(
+                new RetryBudget(1.0, 100, Duration.ofSeconds(10)), name -> metricsListener,
+                BackOffSchedule.of(new BackOffScheduleProperties()), CachedClock.system(ZoneId.of("UTC")));
+
+        assertTrue(RetryTemplateFactory.validate("time-aware", policy).isEmpty(), "schedule 退避不使用間隔參數");
+        assertInstanceOf(ScheduleBackOffPolicy.class, scheduleFactory.createBackOffPolicy(policy));
+        assertThrows(IllegalStateException.class, () -> factory.createBackOffPolicy(policy),
+                "沒有時段表的工廠不應該默默改用其他退避");
+    }
+
+    @Test
+    void testValidate_ReportsAllErrors() {
+        RetryProperties.Policy policy = new RetryProperties.Policy();
+        policy.setMaxAttempts(0);
+        policy.setRetryableExceptions(List.of("com.example.MissingException", String.class.getName()));
+        policy.getBackoff().setType(RetryProperties.BackOffType.EXPONENTIAL);
+        policy.getBackoff().setInitialInterval(2000);
+        policy.getBackoff().setMaxInterval(1000);
+        policy.getBackoff().setMultiplier(0.5);
+        policy.setCircuitBreaker(new RetryProperties.CircuitBreaker());
+        policy.getCircuitBreaker().setResetTimeout(0);
+
+        List<String> errors = RetryTemplateFactory.validate("orders", policy);
+        assertEquals(6, errors.size(), errors.toString());
+        assertTrue(errors.get(0).startsWith("retry.policies.orders.max-attempts"));
+    }
+
+    @Test
+    void testValidate_DefaultsAreValid() {
+        assertTrue(RetryTemplateFactory.validate("simple", new RetryProperties.Policy()).isEmpty());
+    }
+
+    @Test
+    void testBeanName() {
+        assertEquals("simpleRetryTemplate", RetryTemplateFactory.beanName("simple"));
+        assertEquals("orderServiceRetryTemplate", RetryTemplateFactory.beanName("order-service"));
+    }
+}
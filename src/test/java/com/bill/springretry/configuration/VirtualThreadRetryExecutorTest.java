@@ -0,0 +1,99 @@
+package com.bill.springretry.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadRetryExecutorTest {
+
+    private VirtualThreadRetryExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void testSubmit_RunsOnVirtualThread() throws Exception {
+        executor = new VirtualThreadRetryExecutor(10, 100);
+        AtomicBoolean virtual = new AtomicBoolean(false);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        CompletableFuture<String> future = executor.submit(retryTemplate(3), context -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            if (attempts.incrementAndGet() < 3) {
+                throw new RuntimeException("測試失敗");
+            }
+            return "成功";
+        });
+
+        assertEquals("成功", future.get(5, TimeUnit.SECONDS));
+        assertTrue(virtual.get(), "重試操作應該在虛擬執行緒上執行");
+        assertEquals(3, attempts.get(), "應該嘗試三次");
+    }
+
+    @Test
+    void testSubmit_PropagatesParentRetryContext() throws Exception {
+        executor = new VirtualThreadRetryExecutor(10, 100);
+        RetryContext parent = new RetryContextSupport(null);
+        AtomicReference<RetryContext> observedParent = new AtomicReference<>();
+
+        RetrySynchronizationManager.register(parent);
+        try {
+            executor.submit(retryTemplate(1), context -> {
+                observedParent.set(context.getParent());
+                return "成功";
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            RetrySynchronizationManager.clear();
+        }
+
+        assertSame(parent, observedParent.get(), "虛擬執行緒上的重試應該能找到呼叫端的父上下文");
+    }
+
+    @Test
+    void testSubmit_RejectsWhenSaturated() throws Exception {
+        executor = new VirtualThreadRetryExecutor(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(retryTemplate(1), context -> {
+            release.await();
+            return "完成";
+        });
+        CompletableFuture<String> rejected = executor.submit(retryTemplate(1), context -> "不應執行");
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, executor.getActiveCount());
+
+        release.countDown();
+        assertEquals("完成", running.get(5, TimeUnit.SECONDS));
+    }
+
+    private RetryTemplate retryTemplate(int maxAttempts) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(maxAttempts));
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(50);
+        template.setBackOffPolicy(backOffPolicy);
+        return template;
+    }
+}
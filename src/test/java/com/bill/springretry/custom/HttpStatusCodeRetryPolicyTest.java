@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 
@@ -78,4 +80,31 @@ class HttpStatusCodeRetryPolicyTest {
         // 驗證不應該重試
         assertFalse(policy.canRetry(context), "非RemoteServiceException不應該重試");
     }
+
+    @Test
+    void testCanRetry_PerRuleMaxAttempts() {
+        // 429 最多嘗試 4 次，其他 5xx 使用預設的 2 次
+        HttpStatusRuleProperties.Rule tooManyRequests = new HttpStatusRuleProperties.Rule();
+        tooManyRequests.setStatuses("429");
+        tooManyRequests.setMaxAttempts(4);
+        HttpStatusRuleProperties.Rule serverErrors = new HttpStatusRuleProperties.Rule();
+        serverErrors.setStatuses("5xx");
+        serverErrors.setExcept("501");
+        HttpStatusRuleProperties properties = new HttpStatusRuleProperties();
+        properties.setDefaultMaxAttempts(2);
+        properties.setRules(List.of(tooManyRequests, serverErrors));
+        HttpStatusCodeRetryPolicy policy = new HttpStatusCodeRetryPolicy(HttpStatusRules.of(properties));
+        
+        RetryContext context = policy.open(null);
+        RemoteServiceException exception = new RemoteServiceException("請求過多", 429);
+        policy.registerThrowable(context, exception);
+        policy.registerThrowable(context, exception);
+        policy.registerThrowable(context, exception);
+        assertTrue(policy.canRetry(context), "429 應該可以嘗試到第 4 次");
+        assertEquals(429, context.getAttribute(HttpStatusCodeRetryPolicy.LAST_STATUS_CODE));
+        
+        RetryContext serverErrorContext = policy.open(null);
+        policy.registerThrowable(serverErrorContext, new RemoteServiceException("未實作", 501));
+        assertFalse(policy.canRetry(serverErrorContext), "501 被排除，不應該重試");
+    }
 }
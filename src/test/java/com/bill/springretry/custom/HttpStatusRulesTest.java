@@ -0,0 +1,84 @@
+package com.bill.springretry.custom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpStatusRulesTest {
+
+    @Test
+    void testRangeWithExceptions() {
+        HttpStatusRules rules = HttpStatusRules.of(properties(rule("5xx", "501,505")));
+
+        assertTrue(rules.isRetryable(500));
+        assertTrue(rules.isRetryable(503));
+        assertTrue(rules.isRetryable(599));
+        assertFalse(rules.isRetryable(501), "501 應該被排除");
+        assertFalse(rules.isRetryable(505), "505 應該被排除");
+        assertFalse(rules.isRetryable(404));
+    }
+
+    @Test
+    void testFirstListedRuleWins() {
+        HttpStatusRuleProperties.Rule notImplemented = rule("501", null);
+        notImplemented.setRetryable(false);
+        HttpStatusRuleProperties.Rule tooManyRequests = rule("429", null);
+        tooManyRequests.setMaxAttempts(8);
+        HttpStatusRules rules = HttpStatusRules.of(properties(notImplemented, tooManyRequests, rule("4xx,500-504", null)));
+
+        assertFalse(rules.isRetryable(501), "排在前面的不重試規則應該優先");
+        assertEquals(8, rules.ruleFor(429).getMaxAttempts());
+        assertEquals(5, rules.ruleFor(408).getMaxAttempts(), "沒有指定時使用預設的最大嘗試次數");
+        assertTrue(rules.isRetryable(502));
+    }
+
+    @Test
+    void testBackOffOverride() {
+        HttpStatusRuleProperties.BackOff backOff = new HttpStatusRuleProperties.BackOff();
+        backOff.setInitialInterval(1000);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(3000);
+        HttpStatusRuleProperties.Rule tooManyRequests = rule("429", null);
+        tooManyRequests.setBackoff(backOff);
+        HttpStatusRules rules = HttpStatusRules.of(properties(tooManyRequests, rule("503", null)));
+
+        HttpStatusRule rule = rules.ruleFor(429);
+        assertTrue(rule.hasBackOffOverride());
+        assertEquals(1000, rule.backOffDelay(0));
+        assertEquals(2000, rule.backOffDelay(1));
+        assertEquals(3000, rule.backOffDelay(2), "不應超過規則的最大間隔");
+        assertFalse(rules.ruleFor(503).hasBackOffOverride());
+    }
+
+    @Test
+    void testStatusCodeList() {
+        HttpStatusRules rules = HttpStatusRules.of(3, 429, 503, 504);
+
+        assertTrue(rules.isRetryable(429));
+        assertFalse(rules.isRetryable(500));
+        assertFalse(rules.isRetryable(42), "超出範圍的狀態碼不應重試");
+        assertEquals(3, rules.ruleFor(504).getMaxAttempts());
+    }
+
+    @Test
+    void testInvalidSpec_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> HttpStatusRules.of(properties(rule("5x", null))));
+        assertThrows(IllegalArgumentException.class, () -> HttpStatusRules.of(properties(rule("600", null))));
+    }
+
+    private HttpStatusRuleProperties properties(HttpStatusRuleProperties.Rule... rules) {
+        HttpStatusRuleProperties properties = new HttpStatusRuleProperties();
+        properties.setDefaultMaxAttempts(5);
+        properties.setRules(List.of(rules));
+        return properties;
+    }
+
+    private HttpStatusRuleProperties.Rule rule(String statuses, String except) {
+        HttpStatusRuleProperties.Rule rule = new HttpStatusRuleProperties.Rule();
+        rule.setStatuses(statuses);
+        rule.setExcept(except);
+        return rule;
+    }
+}
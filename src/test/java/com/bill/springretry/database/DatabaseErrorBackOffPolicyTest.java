@@ -0,0 +1,55 @@
+package com.bill.springretry.database;
+
+import com.bill.springretry.exception.DatabaseErrorCategory;
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseErrorBackOffPolicyTest {
+
+    @Test
+    void testBackOffPerCategory() throws Exception {
+        List<Long> sleeps = new ArrayList<>();
+        ExponentialBackOffPolicy defaultBackOff = new ExponentialBackOffPolicy();
+        defaultBackOff.setInitialInterval(100);
+        defaultBackOff.setMultiplier(2.0);
+        FixedBackOffPolicy connectionBackOff = new FixedBackOffPolicy();
+        connectionBackOff.setBackOffPeriod(1000);
+
+        DatabaseErrorBackOffPolicy backOff = new DatabaseErrorBackOffPolicy(defaultBackOff);
+        backOff.setBackOff(DatabaseErrorCategory.DEADLOCK, new NoBackOffPolicy());
+        backOff.setBackOff(DatabaseErrorCategory.CONNECTION, connectionBackOff);
+
+        DatabaseErrorCategory[] failures = {
+                DatabaseErrorCategory.DEADLOCK,
+                DatabaseErrorCategory.CONNECTION,
+                DatabaseErrorCategory.UNKNOWN,
+                DatabaseErrorCategory.UNKNOWN
+        };
+        AtomicInteger attempts = new AtomicInteger();
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new DatabaseErrorRetryPolicy());
+        template.setBackOffPolicy(backOff.withSleeper(sleeps::add));
+
+        String result = template.execute(context -> {
+            int attempt = attempts.getAndIncrement();
+            if (attempt < failures.length) {
+                throw new DatabaseException("第 " + (attempt + 1) + " 次失敗", failures[attempt]);
+            }
+            return "成功";
+        });
+
+        assertEquals("成功", result);
+        // 死結立即重試（不睡眠），連線中斷使用固定 1 秒，無法判斷的錯誤使用預設的指數退避
+        assertEquals(List.of(1000L, 100L, 200L), sleeps);
+    }
+}
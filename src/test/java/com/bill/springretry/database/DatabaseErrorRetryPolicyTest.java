@@ -0,0 +1,69 @@
+package com.bill.springretry.database;
+
+import com.bill.springretry.exception.DatabaseErrorCategory;
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseErrorRetryPolicyTest {
+
+    @Test
+    void testIntegrityErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DatabaseException.class, () -> template(new DatabaseErrorRetryPolicy()).execute(context -> {
+            attempts.incrementAndGet();
+            throw new DatabaseException("重複的主鍵", DatabaseErrorCategory.INTEGRITY);
+        }));
+        assertEquals(1, attempts.get(), "違反約束只應該嘗試一次");
+    }
+
+    @Test
+    void testMaxAttemptsPerCategory() {
+        DatabaseErrorRetryPolicy policy = new DatabaseErrorRetryPolicy();
+        policy.setMaxAttempts(DatabaseErrorCategory.CONNECTION, 3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DatabaseException.class, () -> template(policy).execute(context -> {
+            attempts.incrementAndGet();
+            throw new DatabaseException("連線中斷", DatabaseErrorCategory.CONNECTION);
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(5, policy.getMaxAttempts(DatabaseErrorCategory.UNKNOWN), "無法判斷的錯誤預設嘗試 5 次");
+    }
+
+    @Test
+    void testRecordsCategoryInContext() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = template(new DatabaseErrorRetryPolicy()).execute(context -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new DatabaseException("死結", DatabaseErrorCategory.DEADLOCK);
+            }
+            assertEquals(DatabaseErrorCategory.DEADLOCK, context.getAttribute(DatabaseErrorRetryPolicy.CATEGORY));
+            return "成功";
+        });
+        assertEquals("成功", result);
+    }
+
+    @Test
+    void testOtherExceptionsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> template(new DatabaseErrorRetryPolicy()).execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("不是資料庫異常");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    private static RetryTemplate template(DatabaseErrorRetryPolicy policy) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(policy);
+        return template;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bill.springretry.deadline;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineRetryPolicyTest {
+
+    @Test
+    void testBackOffOverrunningDeadline_FailsImmediately() {
+        RetryTemplate template = deadlineTemplate(Duration.ofMillis(300), 200);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        long startTime = System.nanoTime();
+        RetryDeadlineExceededException exception = assertThrows(RetryDeadlineExceededException.class,
+                () -> template.execute(context -> {
+                    throw new DatabaseException("第 " + attempts.incrementAndGet() + " 次失敗");
+                }));
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000L;
+
+        assertEquals(2, attempts.get(), "第二次退避會超過截止時間，不應該再等待");
+        assertInstanceOf(DatabaseException.class, exception.getCause());
+        assertEquals("第 2 次失敗", exception.getCause().getMessage());
+        assertTrue(elapsedMillis < 300, "不應該等到截止時間之後，實際為：" + elapsedMillis);
+    }
+
+    @Test
+    void testCallerDeadline_ShortensConfiguredBudget() {
+        RetryTemplate template = deadlineTemplate(Duration.ofSeconds(10), 200);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        assertThrows(RetryDeadlineExceededException.class,
+                () -> RetryDeadline.callWithin(Duration.ofMillis(150), () -> template.execute(context -> {
+                    attempts.incrementAndGet();
+                    throw new DatabaseException("資料庫連接錯誤");
+                })));
+
+        assertEquals(1, attempts.get(), "呼叫端的時間預算較短，第一次退避就超過截止時間");
+    }
+
+    @Test
+    void testRemainingTime_ExposedOnContext() throws Exception {
+        RetryTemplate template = deadlineTemplate(Duration.ofSeconds(2), 50);
+        AtomicLong firstRemaining = new AtomicLong();
+        AtomicLong secondRemaining = new AtomicLong();
+
+        template.execute(context -> {
+            long remaining = RetryDeadline.remaining(context).orElseThrow().toMillis();
+            if (context.getRetryCount() == 0) {
+                firstRemaining.set(remaining);
+                throw new DatabaseException("資料庫連接錯誤");
+            }
+            secondRemaining.set((Long) context.getAttribute(RetryDeadline.REMAINING_MILLIS));
+            return "成功";
+        });
+
+        assertTrue(firstRemaining.get() <= 2000 && firstRemaining.get() > 1500);
+        assertTrue(secondRemaining.get() < firstRemaining.get(), "剩餘時間應該隨著重試減少");
+    }
+
+    @Test
+    void testNestedRetry_InheritsOuterDeadline() throws Exception {
+        RetryTemplate outer = deadlineTemplate(Duration.ofMillis(500), 50);
+        RetryTemplate inner = deadlineTemplate(Duration.ofSeconds(30), 50);
+        AtomicLong innerRemaining = new AtomicLong();
+
+        outer.execute(outerContext -> inner.execute(innerContext -> {
+            innerRemaining.set(RetryDeadline.remaining(innerContext).orElseThrow().toMillis());
+            return "成功";
+        }));
+
+        assertTrue(innerRemaining.get() <= 500, "內層重試應該沿用外層較早的截止時間，實際為：" + innerRemaining.get());
+    }
+
+    @Test
+    void testCanRetry_MistypedDeadlineAttributeFallsBackToDelegate() {
+        DeadlineRetryPolicy policy = new DeadlineRetryPolicy(new SimpleRetryPolicy(2), Duration.ofSeconds(10));
+        RetryContext context = policy.open(null);
+
+        // 其他程式碼把截止時間屬性覆寫成其他型別時，不應該以 ClassCastException 中斷重試
+        context.setAttribute(RetryDeadline.DEADLINE_NANOS, "not-a-deadline");
+        assertTrue(policy.canRetry(context));
+
+        policy.registerThrowable(context, new DatabaseException("第一次失敗"));
+        policy.registerThrowable(context, new DatabaseException("第二次失敗"));
+        assertFalse(policy.canRetry(context), "仍然由包裝的策略限制次數");
+    }
+
+    private RetryTemplate deadlineTemplate(Duration timeBudget, long backOffPeriod) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new DeadlineRetryPolicy(new SimpleRetryPolicy(10), timeBudget));
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(backOffPeriod);
+        template.setBackOffPolicy(new DeadlineAwareBackOffPolicy(backOffPolicy));
+        return template;
+    }
+}
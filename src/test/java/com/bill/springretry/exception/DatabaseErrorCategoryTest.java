@@ -0,0 +1,55 @@
+package com.bill.springretry.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseErrorCategoryTest {
+
+    @Test
+    void testFromSqlState() {
+        assertEquals(DatabaseErrorCategory.DEADLOCK, DatabaseErrorCategory.of("40001", 0));
+        assertEquals(DatabaseErrorCategory.DEADLOCK, DatabaseErrorCategory.of("40P01", 0));
+        assertEquals(DatabaseErrorCategory.CONNECTION, DatabaseErrorCategory.of("08006", 0));
+        assertEquals(DatabaseErrorCategory.RESOURCE, DatabaseErrorCategory.of("53300", 0));
+        assertEquals(DatabaseErrorCategory.INTEGRITY, DatabaseErrorCategory.of("23505", 0));
+        assertEquals(DatabaseErrorCategory.INVALID_STATEMENT, DatabaseErrorCategory.of("42P01", 0));
+        assertEquals(DatabaseErrorCategory.UNKNOWN, DatabaseErrorCategory.of(null, 0));
+    }
+
+    @Test
+    void testFromVendorCodeWhenSqlStateIsGeneric() {
+        // MySQL 的死結 SQLState 為 40001，但部分驅動只給 HY000，這時以錯誤碼判斷
+        assertEquals(DatabaseErrorCategory.DEADLOCK, DatabaseErrorCategory.of("HY000", 1213));
+        assertEquals(DatabaseErrorCategory.CONNECTION, DatabaseErrorCategory.of("HY000", 2013));
+        assertEquals(DatabaseErrorCategory.INTEGRITY, DatabaseErrorCategory.of(null, 1062));
+        assertEquals(DatabaseErrorCategory.UNKNOWN, DatabaseErrorCategory.of("HY000", 9999));
+    }
+
+    @Test
+    void testDatabaseExceptionCategoryFromCause() {
+        DatabaseException deadlock = new DatabaseException("更新失敗", new SQLException("Deadlock found", "40001", 1213));
+        assertEquals(DatabaseErrorCategory.DEADLOCK, deadlock.getCategory());
+        assertEquals(RetrySeverity.TRANSIENT, deadlock.getRetrySeverity());
+
+        DatabaseException duplicate = new DatabaseException("新增失敗",
+                new IllegalStateException(new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062)));
+        assertEquals(DatabaseErrorCategory.INTEGRITY, duplicate.getCategory());
+        assertFalse(duplicate.isRetryable(), "違反約束不應該重試");
+
+        assertEquals(DatabaseErrorCategory.UNKNOWN, new DatabaseException("資料庫連接錯誤").getCategory());
+    }
+
+    @Test
+    void testNextExceptionChain() {
+        // 批次操作的真正原因通常在 getNextException 中
+        SQLException batchFailure = new SQLException("Batch entry 0 was aborted", "HY000");
+        batchFailure.setNextException(new SQLTransientConnectionException("Connection reset", "08S01"));
+
+        assertEquals(DatabaseErrorCategory.CONNECTION, DatabaseErrorCategory.of(batchFailure));
+    }
+}
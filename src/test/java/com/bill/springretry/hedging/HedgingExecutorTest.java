@@ -0,0 +1,238 @@
+package com.bill.springretry.hedging;
+
+import com.bill.springretry.async.RetryScheduler;
+import com.bill.springretry.exception.TransientNetworkException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingExecutorTest {
+
+    private ExecutorService attemptExecutor;
+    private ScheduledExecutorService scheduler;
+    private HedgingExecutor hedgingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        attemptExecutor = Executors.newCachedThreadPool();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        hedgingExecutor = new HedgingExecutor(attemptExecutor, RetryScheduler.of(scheduler));
+        hedgingExecutor.setDelayMillis(50);
+        hedgingExecutor.setDelayPercentile(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        attemptExecutor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testSlowPrimary_HedgeWinsAndPrimaryIsCancelled() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        long startTime = System.nanoTime();
+        String result = hedgingExecutor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                    throw e;
+                }
+                return "主要請求";
+            }
+            return "對沖請求";
+        });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertEquals("對沖請求", result);
+        assertTrue(elapsedMillis < 2000, "不應該等待慢的主要請求，實際為：" + elapsedMillis);
+        assertTrue(primaryInterrupted.await(2, TimeUnit.SECONDS), "落敗的主要請求應該被取消");
+        assertEquals(1, hedgingExecutor.getHedgedRequests());
+        assertEquals(1, hedgingExecutor.getHedgeWins());
+    }
+
+    @Test
+    void testFastPrimary_NoHedge() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = hedgingExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            return "成功";
+        });
+        Thread.sleep(100);
+
+        assertEquals("成功", result);
+        assertEquals(1, attempts.get(), "快速完成的請求不應該送出對沖");
+        assertEquals(0, hedgingExecutor.getHedgedRequests());
+    }
+
+    @Test
+    void testAllAttemptsFail_ThrowsLastFailure() {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        TransientNetworkException exception = assertThrows(TransientNetworkException.class,
+                () -> hedgingExecutor.execute(() -> {
+                    int attempt = attempts.incrementAndGet();
+                    Thread.sleep(attempt == 1 ? 150 : 200);
+                    throw new TransientNetworkException("第 " + attempt + " 次失敗");
+                }));
+
+        assertEquals("第 2 次失敗", exception.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testHedgeCap_ThrottlesHedgesWithinWindow() throws Exception {
+        hedgingExecutor.setMaxHedgesPerWindow(1);
+        hedgingExecutor.setWindowMillis(60_000);
+
+        for (int i = 0; i < 3; i++) {
+            hedgingExecutor.execute(() -> {
+                Thread.sleep(150);
+                return "成功";
+            });
+        }
+
+        assertEquals(1, hedgingExecutor.getHedgedRequests(), "時間窗口內只允許一次對沖");
+        assertEquals(2, hedgingExecutor.getThrottledHedges());
+    }
+
+    @Test
+    void testPercentileDelay_UsesObservedLatency() throws Exception {
+        hedgingExecutor.setDelayMillis(1000);
+        hedgingExecutor.setDelayPercentile(95);
+        hedgingExecutor.setMinSamples(20);
+
+        assertEquals(1000, hedgingExecutor.currentDelayMillis(), "樣本不足時使用固定延遲");
+        for (int i = 0; i < 20; i++) {
+            hedgingExecutor.execute(() -> "成功");
+        }
+
+        assertTrue(hedgingExecutor.currentDelayMillis() < 1000, "應該改用觀察到的延遲百分位數");
+    }
+
+    @Test
+    void testPercentileDelay_SamplesFailedAttempts() {
+        hedgingExecutor.setDelayMillis(1000);
+        hedgingExecutor.setDelayPercentile(95);
+        hedgingExecutor.setMinSamples(5);
+
+        // 失敗的嘗試同樣計入延遲樣本，百分位數不會只來自成功的快請求
+        for (int i = 0; i < 5; i++) {
+            assertThrows(TransientNetworkException.class, () -> hedgingExecutor.execute(() -> {
+                throw new TransientNetworkException("連線中斷");
+            }));
+        }
+
+        assertTrue(hedgingExecutor.currentDelayMillis() < 1000, "失敗的嘗試應該提供延遲樣本");
+    }
+
+    @Test
+    void testHedgeCap_ConcurrentRequestsNeverExceedCap() throws Exception {
+        ScheduledExecutorService concurrentScheduler = Executors.newScheduledThreadPool(8);
+        HedgingExecutor concurrentExecutor = new HedgingExecutor(attemptExecutor, RetryScheduler.of(concurrentScheduler));
+        concurrentExecutor.setDelayMillis(20);
+        concurrentExecutor.setDelayPercentile(0);
+        concurrentExecutor.setMaxHedgesPerWindow(5);
+        concurrentExecutor.setWindowMillis(60_000);
+        int requests = 20;
+        ExecutorService callers = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(callers.submit(() -> concurrentExecutor.execute(() -> {
+                    Thread.sleep(200);
+                    return "成功";
+                })));
+            }
+            for (Future<String> result : results) {
+                assertEquals("成功", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+            concurrentScheduler.shutdownNow();
+        }
+
+        // 同時觸發的對沖以 CAS 取得配額，不會超過上限，也不會遺失計數
+        assertEquals(5, concurrentExecutor.getHedgedRequests());
+        assertEquals(requests - 5, concurrentExecutor.getThrottledHedges());
+    }
+
+    @Test
+    void testPercentileDelay_SamplesCancelledLosers() throws Exception {
+        hedgingExecutor.setDelayMillis(50);
+        hedgingExecutor.setDelayPercentile(100);
+        hedgingExecutor.setMinSamples(2);
+        AtomicInteger attempts = new AtomicInteger(0);
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        hedgingExecutor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                    throw e;
+                }
+            }
+            return "成功";
+        });
+        assertTrue(primaryInterrupted.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // 被取消的慢嘗試以取消前經過的時間計入，尾端不會從樣本中消失
+        assertTrue(hedgingExecutor.currentDelayMillis() >= 50,
+                "被取消的主要請求應該提供至少對沖延遲的樣本，實際為：" + hedgingExecutor.currentDelayMillis());
+    }
+
+    @Test
+    void testRetryContext_EachAttemptUsesOwnChildContext() throws Exception {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(1));
+        AtomicReference<RetryContext> outer = new AtomicReference<>();
+        List<RetryContext> attemptContexts = new CopyOnWriteArrayList<>();
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(context -> {
+            outer.set(context);
+            context.setAttribute("shared", "外層");
+            return hedgingExecutor.execute(context, attemptContext -> {
+                attemptContexts.add(attemptContext);
+                assertEquals("外層", attemptContext.getAttribute("shared"), "子上下文應該讀得到外層的屬性");
+                if (attempts.incrementAndGet() == 1) {
+                    attemptContext.setAttribute("endpoint", "主要請求");
+                    Thread.sleep(5000);
+                    return "主要請求";
+                }
+                attemptContext.setAttribute("endpoint", "對沖請求");
+                return "對沖請求";
+            });
+        });
+
+        assertEquals("對沖請求", result);
+        assertEquals(2, attemptContexts.size());
+        assertNotSame(attemptContexts.get(0), attemptContexts.get(1), "並行的嘗試不應共用同一個上下文");
+        assertFalse(attemptContexts.contains(outer.get()));
+        assertEquals("對沖請求", outer.get().getAttribute("endpoint"), "勝出嘗試的屬性應該寫回外層上下文");
+    }
+}
@@ -0,0 +1,34 @@
+package com.bill.springretry.listener;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryListenerRegistryTest {
+
+    private final RetryMetricsListener metricsListener = new RetryMetricsListener();
+    private final RetryListenerRegistry registry = new RetryListenerRegistry(metricsListener);
+
+    @Test
+    void testGet_ReturnsSharedMetricsListener() {
+        assertSame(metricsListener, registry.get(RetryListenerRegistry.METRICS));
+        assertInstanceOf(RetryLoggingListener.class, registry.get(RetryListenerRegistry.LOGGING));
+        assertSame(registry.get(RetryListenerRegistry.LOGGING), registry.get(RetryListenerRegistry.LOGGING),
+                "同一個名稱應該取得同一個監聽器");
+    }
+
+    @Test
+    void testGet_UnknownNameFails() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> registry.get("auditListener"));
+
+        assertTrue(exception.getMessage().contains("auditListener"));
+    }
+
+    @Test
+    void testContains_KnownBeforeAnyInstance() {
+        assertTrue(RetryListenerRegistry.contains("retryLoggingListener"));
+        assertTrue(RetryListenerRegistry.contains("retryMetricsListener"));
+        assertFalse(RetryListenerRegistry.contains("networkBackOffPolicy"));
+    }
+}
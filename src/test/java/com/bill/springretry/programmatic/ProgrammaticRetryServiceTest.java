@@ -1,5 +1,6 @@
 package com.bill.springretry.programmatic;
 
+import com.bill.springretry.batch.BatchOutcome;
 import com.bill.springretry.exception.DatabaseException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,13 @@ import org.springframework.retry.RetryContext;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,6 +62,185 @@ class ProgrammaticRetryServiceTest {
         assertEquals(3, attempts.get(), "應該嘗試三次 (重試策略設定的最大嘗試次數)");
     }
 
+    @Test
+    void testExecuteWithRetryAsync_Success() throws Exception {
+        // 測試非同步重試 - 呼叫端立即取得 future，退避由共用計時器處理
+        AtomicInteger attempts = new AtomicInteger(0);
+        
+        CompletableFuture<String> future = retryService.executeWithRetryAsync(context -> {
+            if (attempts.incrementAndGet() <= 1) {
+                return CompletableFuture.failedFuture(new RuntimeException("測試失敗"));
+            }
+            return CompletableFuture.completedFuture("非同步成功");
+        });
+        
+        assertFalse(future.isDone(), "第一次失敗後應該在等待退避，而不是阻塞呼叫端");
+        assertEquals("非同步成功", future.get(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get(), "應該嘗試兩次");
+    }
+
+    @Test
+    void testExecuteAll_CollectAll() throws Exception {
+        // 測試平行執行 - 每個項目各自重試，失敗的項目不影響其他項目
+        List<AtomicInteger> attempts = new ArrayList<>();
+        List<RetryCallback<String, Exception>> callbacks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int index = i;
+            AtomicInteger itemAttempts = new AtomicInteger(0);
+            attempts.add(itemAttempts);
+            callbacks.add(context -> {
+                int attempt = itemAttempts.incrementAndGet();
+                if (index == 3) {
+                    throw new RuntimeException("項目 3 始終失敗");
+                }
+                if (index % 2 == 0 && attempt == 1) {
+                    throw new RuntimeException("項目 " + index + " 第一次失敗");
+                }
+                return "項目 " + index;
+            });
+        }
+
+        FanOutResult<String> result = retryService.executeAll(callbacks, FanOutMode.COLLECT_ALL);
+
+        assertEquals(9, result.getSuccessCount());
+        assertEquals(1, result.getFailureCount());
+        assertEquals("項目 3 始終失敗", result.getFailures().get(3).getMessage());
+        assertNull(result.getResults().get(3));
+        assertEquals("項目 8", result.getResults().get(8));
+        assertEquals(3, attempts.get(3).get(), "失敗的項目應該用盡自己的重試次數");
+        assertEquals(2, attempts.get(0).get(), "每個項目有獨立的重試狀態");
+        assertEquals(1, attempts.get(1).get(), "成功的項目只嘗試一次");
+    }
+
+    @Test
+    void testExecuteAll_FailFast() {
+        // 測試快速失敗 - 任一項目用盡重試即拋出該異常
+        List<RetryCallback<String, Exception>> callbacks = List.of(
+                context -> {
+                    throw new DatabaseException("資料庫連接錯誤");
+                },
+                context -> "成功");
+
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> retryService.executeAll(callbacks, FanOutMode.FAIL_FAST));
+
+        assertEquals("資料庫連接錯誤", exception.getMessage());
+    }
+
+    @Test
+    void testExecuteAll_FailFastStopsRemainingItems() throws Exception {
+        // 測試快速失敗時其餘項目真的停止 - 執行中的項目被中斷，之後也不會再開始下一次嘗試
+        CountDownLatch loserStarted = new CountDownLatch(1);
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        AtomicInteger loserAttempts = new AtomicInteger(0);
+        List<RetryCallback<String, Exception>> callbacks = List.of(
+                context -> {
+                    loserStarted.await();
+                    throw new DatabaseException("資料庫連接錯誤");
+                },
+                context -> {
+                    loserAttempts.incrementAndGet();
+                    loserStarted.countDown();
+                    try {
+                        Thread.sleep(60_000);
+                        return "太慢的結果";
+                    } catch (InterruptedException e) {
+                        loserInterrupted.countDown();
+                        throw e;
+                    }
+                });
+
+        assertThrows(DatabaseException.class, () -> retryService.executeAll(callbacks, FanOutMode.FAIL_FAST));
+
+        assertTrue(loserInterrupted.await(5, TimeUnit.SECONDS), "執行中的項目應該被中斷");
+        // 等待超過一次退避間隔（1秒），被中斷的項目不應該再開始下一次嘗試
+        Thread.sleep(1500);
+        assertEquals(1, loserAttempts.get(), "取消後不應該再嘗試");
+    }
+
+    @Test
+    void testExecuteBatchWithCustomRetry_OnlyFailedElementsResubmitted() {
+        // 測試批次重試 - 成功的元素不會重做，只有失敗的元素會在下一輪重送
+        List<List<String>> rounds = new ArrayList<>();
+        AtomicInteger flakyFailures = new AtomicInteger(0);
+        
+        BatchRetryResult<String, String> result = retryService.executeBatchWithCustomRetry(
+                List.of("ok-1", "flaky", "invalid", "ok-2"),
+                (items, contexts) -> {
+                    rounds.add(List.copyOf(items));
+                    BatchOutcome<String> outcome = new BatchOutcome<>(items.size());
+                    for (int i = 0; i < items.size(); i++) {
+                        String item = items.get(i);
+                        if (item.equals("flaky") && flakyFailures.incrementAndGet() <= 2) {
+                            outcome.failure(i, new DatabaseException("資料庫連接錯誤"));
+                        } else if (item.equals("invalid")) {
+                            outcome.failure(i, new IllegalArgumentException("無效的記錄"));
+                        } else {
+                            outcome.success(i, item.toUpperCase());
+                        }
+                    }
+                    return outcome;
+                });
+        
+        assertEquals(List.of(
+                List.of("ok-1", "flaky", "invalid", "ok-2"),
+                List.of("flaky"),
+                List.of("flaky")), rounds);
+        assertEquals(Arrays.asList("OK-1", "FLAKY", null, "OK-2"), result.getResults());
+        assertEquals(1, result.getAttempts(0));
+        assertEquals(3, result.getAttempts(1), "每個元素各自追蹤嘗試次數");
+        
+        assertFalse(result.isAllSucceeded());
+        assertEquals(1, result.getExhausted().size());
+        BatchRetryResult.Exhausted<String> exhausted = result.getExhausted().get(0);
+        assertEquals("invalid", exhausted.getItem());
+        assertEquals(2, exhausted.getIndex());
+        assertEquals(1, exhausted.getAttempts(), "不可重試的元素只嘗試一次");
+        assertInstanceOf(IllegalArgumentException.class, exhausted.getLastFailure());
+    }
+
+    @Test
+    void testExecuteBatchWithCustomRetry_PermanentlyFailingElementTerminates() {
+        // 一直以可重試的數據庫異常失敗的元素，應該在最大嘗試次數後列為用盡，而不是無限重送
+        AtomicInteger rounds = new AtomicInteger(0);
+        
+        BatchRetryResult<String, String> result = assertTimeoutPreemptively(Duration.ofSeconds(60),
+                () -> retryService.executeBatchWithCustomRetry(
+                        List.of("ok", "broken"),
+                        (items, contexts) -> {
+                            rounds.incrementAndGet();
+                            BatchOutcome<String> outcome = new BatchOutcome<>(items.size());
+                            for (int i = 0; i < items.size(); i++) {
+                                if (items.get(i).equals("broken")) {
+                                    outcome.failure(i, new DatabaseException("資料庫連接錯誤"));
+                                } else {
+                                    outcome.success(i, "OK");
+                                }
+                            }
+                            return outcome;
+                        }));
+        
+        assertEquals(5, rounds.get(), "失敗的元素應該在 5 次嘗試後停止");
+        assertEquals(Arrays.asList("OK", null), result.getResults());
+        assertEquals(1, result.getExhausted().size());
+        BatchRetryResult.Exhausted<String> exhausted = result.getExhausted().get(0);
+        assertEquals("broken", exhausted.getItem());
+        assertEquals(5, exhausted.getAttempts());
+        assertInstanceOf(DatabaseException.class, exhausted.getLastFailure());
+    }
+
+    @Test
+    void testExecuteBatchWithCustomRetry_OutcomeSizeMismatchFailsElements() {
+        // 回傳的結果數量與送出的元素不符時，整批以 IllegalStateException 失敗，不會超出陣列範圍
+        BatchRetryResult<String, String> result = retryService.executeBatchWithCustomRetry(
+                List.of("a", "b"),
+                (items, contexts) -> new BatchOutcome<>(1));
+        
+        assertEquals(2, result.getExhausted().size());
+        assertInstanceOf(IllegalStateException.class, result.getExhausted().get(0).getLastFailure());
+        assertEquals(1, result.getExhausted().get(0).getAttempts(), "IllegalStateException 不應該重試");
+    }
+
     @Test
     void testExecuteWithCustomRetry_DatabaseException() throws Exception {
         // 測試特定於資料庫異常的自定義重試
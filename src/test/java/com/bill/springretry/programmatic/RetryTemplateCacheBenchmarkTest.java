@@ -0,0 +1,76 @@
+package com.bill.springretry.programmatic;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 比較每次呼叫都建立臨時模板與從 RetryTemplateCache 取得模板的成本
+ * 預設不執行，執行方式：./gradlew test --tests '*RetryTemplateCacheBenchmarkTest' -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RetryTemplateCacheBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private static final RetryCallback<String, RuntimeException> CALLBACK = context -> "成功";
+
+    // 避免 JIT 消除沒有使用的結果
+    private static int sink;
+
+    @Test
+    void benchmarkPerCallSetupVersusCache() {
+        RetryTemplateCache cache = new RetryTemplateCache(64, RetryTemplateCacheBenchmarkTest::build);
+        RetrySpec spec = RetrySpec.of(3, Map.of(DatabaseException.class, true, IllegalStateException.class, false))
+                .withBackOff(500, 2.0, 30000);
+
+        run(RetryTemplateCacheBenchmarkTest::perCall, WARMUP);
+        run(() -> cache.get(spec).execute(CALLBACK), WARMUP);
+
+        long perCallNanos = run(RetryTemplateCacheBenchmarkTest::perCall, ITERATIONS);
+        long cachedNanos = run(() -> cache.get(spec).execute(CALLBACK), ITERATIONS);
+
+        System.out.printf("每次建立模板：%.1f ns/op，使用快取：%.1f ns/op (sink=%d)%n",
+                (double) perCallNanos / ITERATIONS, (double) cachedNanos / ITERATIONS, sink);
+        assertTrue(cachedNanos < perCallNanos, "使用快取應該比每次建立模板快");
+    }
+
+    // 與快取前的 executeWithExceptionBasedRetry 相同：每次呼叫建立對照表、策略與模板
+    private static String perCall() {
+        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
+        retryableExceptions.put(DatabaseException.class, true);
+        retryableExceptions.put(IllegalStateException.class, false);
+        RetrySpec spec = new RetrySpec(3, retryableExceptions, true, 500, 2.0, 30000);
+        return build(spec).execute(CALLBACK);
+    }
+
+    private static RetryTemplate build(RetrySpec spec) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(spec.maxAttempts(), spec.retryableExceptions(), spec.traverseCauses()));
+        ExponentialBackOffPolicy backOff = new ExponentialBackOffPolicy();
+        backOff.setInitialInterval(spec.initialInterval());
+        backOff.setMultiplier(spec.multiplier());
+        backOff.setMaxInterval(spec.maxInterval());
+        template.setBackOffPolicy(backOff);
+        return template;
+    }
+
+    private static long run(Supplier<String> operation, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.get().length();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,156 @@
+package com.bill.springretry.programmatic;
+
+import com.bill.springretry.exception.DatabaseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTemplateCacheTest {
+
+    @Test
+    void testSpecEqualityIsByContent() {
+        Map<Class<? extends Throwable>, Boolean> exceptions = new HashMap<>();
+        exceptions.put(DatabaseException.class, true);
+        RetrySpec spec = RetrySpec.of(3, exceptions);
+
+        // 修改原本的對照表不影響已建立的設定
+        exceptions.put(IllegalStateException.class, false);
+
+        assertEquals(RetrySpec.of(3, Map.of(DatabaseException.class, true)), spec);
+        assertNotEquals(spec, spec.withBackOff(500, 2.0, 30000));
+        assertThrows(IllegalArgumentException.class, () -> RetrySpec.of(0, Map.of()));
+    }
+
+    @Test
+    void testGet_BuildsOncePerSpec() {
+        AtomicInteger builds = new AtomicInteger();
+        RetryTemplateCache cache = new RetryTemplateCache(8, spec -> {
+            builds.incrementAndGet();
+            return new RetryTemplate();
+        });
+
+        RetryTemplate first = cache.get(RetrySpec.of(3, Map.of(DatabaseException.class, true)));
+        RetryTemplate second = cache.get(RetrySpec.of(3, Map.of(DatabaseException.class, true)));
+
+        assertSame(first, second, "相同內容的設定應該取得同一個模板");
+        assertEquals(1, builds.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() {
+        RetryTemplateCache cache = new RetryTemplateCache(2, spec -> new RetryTemplate());
+        RetrySpec one = RetrySpec.of(1, Map.of());
+        RetrySpec two = RetrySpec.of(2, Map.of());
+        RetrySpec three = RetrySpec.of(3, Map.of());
+
+        RetryTemplate oneTemplate = cache.get(one);
+        RetryTemplate twoTemplate = cache.get(two);
+        cache.get(one);     // one 變成最近使用
+        cache.get(three);   // 淘汰最久未使用的 two
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(oneTemplate, cache.get(one));
+        assertNotSame(twoTemplate, cache.get(two), "被淘汰的設定應該重新建立");
+    }
+
+    @Test
+    void testGet_SlowBuildDoesNotBlockOtherSpecs() throws Exception {
+        RetrySpec slow = RetrySpec.of(1, Map.of());
+        RetrySpec cached = RetrySpec.of(2, Map.of());
+        RetrySpec other = RetrySpec.of(3, Map.of());
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RetryTemplateCache cache = new RetryTemplateCache(8, spec -> {
+            if (spec.equals(slow)) {
+                building.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new RetryTemplate();
+        });
+        RetryTemplate cachedTemplate = cache.get(cached);
+
+        Thread slowBuilder = new Thread(() -> cache.get(slow));
+        slowBuilder.start();
+        try {
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+            // 模板在鎖之外建立，命中與建立其他設定都不需要等待
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                assertSame(cachedTemplate, cache.get(cached));
+                assertNotNull(cache.get(other));
+            });
+        } finally {
+            release.countDown();
+            slowBuilder.join();
+        }
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testGet_ConcurrentFirstAccessBuildsOnce() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        RetryTemplateCache cache = new RetryTemplateCache(8, spec -> {
+            builds.incrementAndGet();
+            return new RetryTemplate();
+        });
+        RetrySpec spec = RetrySpec.of(3, Map.of(DatabaseException.class, true));
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<RetryTemplate>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(spec);
+                }));
+            }
+            start.countDown();
+            RetryTemplate first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<RetryTemplate> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, builds.get(), "同時第一次出現的設定只應建立一次");
+        assertEquals(1, cache.getMisses());
+        assertEquals(threads - 1, cache.getHits());
+    }
+
+    @Test
+    void testGet_FailedBuildIsNotCached() {
+        AtomicInteger builds = new AtomicInteger();
+        RetryTemplateCache cache = new RetryTemplateCache(8, spec -> {
+            if (builds.incrementAndGet() == 1) {
+                throw new IllegalStateException("建立失敗");
+            }
+            return new RetryTemplate();
+        });
+        RetrySpec spec = RetrySpec.of(3, Map.of());
+
+        assertThrows(IllegalStateException.class, () -> cache.get(spec));
+        assertEquals(0, cache.size(), "建立失敗的設定不應該留在快取中");
+        assertNotNull(cache.get(spec), "下一次呼叫應該重新建立");
+        assertEquals(2, builds.get());
+    }
+}
@@ -0,0 +1,119 @@
+package com.bill.springretry.ratelimit;
+
+import com.bill.springretry.exception.RemoteServiceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    void testThrottled_DecreasesMultiplicativelyOncePerCooldown() {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(100, 1, 1000, now::get);
+
+        rateLimiter.onThrottled();
+        rateLimiter.onThrottled();
+        assertEquals(50.0, rateLimiter.getRate(), 0.001, "冷卻時間內只應降速一次");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.onThrottled();
+        assertEquals(25.0, rateLimiter.getRate(), 0.001);
+        assertEquals(3, rateLimiter.getThrottledResponses());
+    }
+
+    @Test
+    void testSuccess_IncreasesAdditivelyUpToMax() {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(9, 1, 10, now::get);
+        rateLimiter.setAdditiveIncrease(0.5);
+
+        rateLimiter.onSuccess();
+        assertEquals(9.5, rateLimiter.getRate(), 0.001);
+        rateLimiter.onSuccess();
+        rateLimiter.onSuccess();
+        assertEquals(10.0, rateLimiter.getRate(), 0.001, "速率不應超過上限");
+    }
+
+    @Test
+    void testRate_NeverBelowMin() {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(2, 1, 100, now::get);
+        rateLimiter.setDecreaseCooldownMillis(0);
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onThrottled();
+        }
+        assertEquals(1.0, rateLimiter.getRate(), 0.001);
+    }
+
+    @Test
+    void testFailFast_WhenOverLimit() throws Exception {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(10, 1, 100, now::get);
+        rateLimiter.setMaxQueueMillis(0);
+
+        rateLimiter.acquire();
+        assertThrows(RateLimitExceededException.class, rateLimiter::acquire, "同一個時間槽內的第二個請求應該立即失敗");
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        rateLimiter.acquire();
+        assertEquals(2, rateLimiter.getPermitted());
+        assertEquals(1, rateLimiter.getRejected());
+    }
+
+    @Test
+    void testQueue_WaitsForNextSlot() throws Exception {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(5, 1, 100);
+        rateLimiter.setMaxQueueMillis(1000);
+
+        rateLimiter.acquire();
+        CompletableFuture<Long> waited = CompletableFuture.supplyAsync(() -> {
+            long startTime = System.nanoTime();
+            try {
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return (System.nanoTime() - startTime) / 1_000_000L;
+        });
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (rateLimiter.getQueueDepth() == 0 && !waited.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, rateLimiter.getQueueDepth(), "第二個請求應該在排隊");
+
+        long waitedMillis = waited.get(2, TimeUnit.SECONDS);
+        assertTrue(waitedMillis >= 150, "每秒 5 次時應該等待約 200ms，實際為：" + waitedMillis);
+        assertEquals(0, rateLimiter.getQueueDepth());
+    }
+
+    @Test
+    void testLimit_AdjustsRateFromRetryOutcomes() throws Exception {
+        AimdRateLimiter rateLimiter = new AimdRateLimiter(100, 1, 1000, now::get);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(new NoBackOffPolicy());
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        String result = template.execute(rateLimiter.limit(context -> {
+            // 模擬時間前進，不需要真的排隊
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            if (attempts.incrementAndGet() == 1) {
+                throw new RemoteServiceException("請求過多", 429);
+            }
+            return "成功";
+        }));
+
+        assertEquals("成功", result);
+        assertEquals(51.0, rateLimiter.getRate(), 0.001, "429 後減半，成功後加 1");
+        assertEquals(0, rateLimiter.getRejected());
+    }
+}
@@ -0,0 +1,215 @@
+package com.bill.springretry.reactive;
+
+import com.bill.springretry.exception.DatabaseException;
+import com.bill.springretry.listener.RetryMetricsListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactorRetryOperatorsTest {
+
+    @Test
+    void testMono_RetriesUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        Mono<String> source = Mono.defer(() -> attempts.incrementAndGet() < 3
+                ? Mono.error(new RuntimeException("測試失敗"))
+                : Mono.just("成功"));
+
+        String result = source.transform(ReactorRetryOperators.forMono(new SimpleRetryPolicy(3), fixedBackOff(50)))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("成功", result);
+        assertEquals(3, attempts.get(), "應該嘗試三次");
+    }
+
+    @Test
+    void testMono_ExhaustedPropagatesLastError() {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        Mono<String> source = Mono.defer(() ->
+                Mono.error(new DatabaseException("第 " + attempts.incrementAndGet() + " 次失敗")));
+
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> source.transform(ReactorRetryOperators.forMono(new SimpleRetryPolicy(2), fixedBackOff(10)))
+                        .block(Duration.ofSeconds(5)));
+
+        assertEquals("第 2 次失敗", exception.getMessage());
+        assertEquals(2, attempts.get(), "應該嘗試兩次");
+    }
+
+    @Test
+    void testMono_RespectsRetryableClassification() {
+        SimpleRetryPolicy policy = new SimpleRetryPolicy(5, Map.of(DatabaseException.class, true));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        Mono<String> source = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("不可重試"));
+        });
+
+        assertThrows(IllegalStateException.class,
+                () -> source.transform(ReactorRetryOperators.forMono(policy, fixedBackOff(10)))
+                        .block(Duration.ofSeconds(5)));
+        assertEquals(1, attempts.get(), "不可重試的異常只應嘗試一次");
+    }
+
+    @Test
+    void testFlux_ResubscribesOnFailure() {
+        AtomicInteger subscriptions = new AtomicInteger(0);
+
+        Flux<Integer> source = Flux.defer(() -> subscriptions.incrementAndGet() < 2
+                ? Flux.error(new RuntimeException("測試失敗"))
+                : Flux.just(1, 2, 3));
+
+        List<Integer> result = source.transform(ReactorRetryOperators.forFlux(new SimpleRetryPolicy(3), fixedBackOff(10)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(1, 2, 3), result);
+        assertEquals(2, subscriptions.get(), "應該訂閱兩次");
+    }
+
+    @Test
+    void testMono_NotifiesRegisteredListeners() {
+        RetryMetricsListener metricsListener = new RetryMetricsListener();
+        ReactorRetryOperators operators = ReactorRetryOperators.of(
+                new SimpleRetryPolicy(3), fixedBackOff(10), List.of(metricsListener));
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        operators.retry(Mono.defer(() -> attempts.incrementAndGet() < 2
+                        ? Mono.error(new RuntimeException("測試失敗"))
+                        : Mono.just("成功")))
+                .block(Duration.ofSeconds(5));
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            metricsListener.printStats();
+            String output = outContent.toString();
+            assertTrue(output.contains("總操作數: 1"));
+            assertTrue(output.contains("成功操作數: 1"));
+            assertTrue(output.contains("總重試次數: 1"));
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
+    @Test
+    void testMono_ListenerCanInvokeCallbackDirectly() {
+        AtomicInteger attempts = new AtomicInteger(0);
+        AtomicReference<Object> directResult = new AtomicReference<>();
+        // 監聽器在失敗時直接呼叫回調，應該阻塞地重新訂閱上游一次，而不是拋出 UnsupportedOperationException
+        RetryListener listener = new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                         Throwable throwable) {
+                if (directResult.get() == null) {
+                    try {
+                        directResult.set(callback.doWithRetry(context));
+                    } catch (Throwable e) {
+                        directResult.set(e);
+                    }
+                }
+            }
+        };
+        ReactorRetryOperators operators = ReactorRetryOperators.of(
+                new SimpleRetryPolicy(3), fixedBackOff(10), List.of(listener));
+
+        String result = operators.retry(Mono.defer(() -> attempts.incrementAndGet() < 2
+                        ? Mono.error(new RuntimeException("測試失敗"))
+                        : Mono.just("成功")))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("成功", result);
+        assertEquals("成功", directResult.get(), "直接呼叫回調應該取得上游的結果");
+        assertEquals(3, attempts.get(), "直接呼叫會多訂閱一次上游");
+    }
+
+    @Test
+    void testFlux_NotifiesListenersOnCompletion() {
+        List<Object> successes = new CopyOnWriteArrayList<>();
+        RetryListener listener = new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onSuccess(RetryContext context, RetryCallback<T, E> callback, T result) {
+                successes.add(result);
+            }
+        };
+        ReactorRetryOperators operators = ReactorRetryOperators.of(
+                new SimpleRetryPolicy(3), fixedBackOff(10), List.of(listener));
+        AtomicInteger subscriptions = new AtomicInteger(0);
+
+        List<Integer> result = operators.retry(Flux.defer(() -> subscriptions.incrementAndGet() < 2
+                        ? Flux.<Integer>error(new RuntimeException("測試失敗"))
+                        : Flux.just(1, 2, 3)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(1, 2, 3), result);
+        assertEquals(List.of(3), successes, "Flux 完成時應該以最後一個元素通知監聽器一次");
+    }
+
+    @Test
+    void testMono_EmptyCompletionNotifiesListeners() {
+        AtomicInteger successes = new AtomicInteger(0);
+        RetryListener listener = new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onSuccess(RetryContext context, RetryCallback<T, E> callback, T result) {
+                successes.incrementAndGet();
+            }
+        };
+
+        ReactorRetryOperators.of(new SimpleRetryPolicy(3), fixedBackOff(10), List.of(listener))
+                .retry(Mono.<String>empty())
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, successes.get(), "沒有值而完成的 Mono 同樣是成功");
+    }
+
+    @Test
+    void testRetryContext_ExposedThroughReactorContext() {
+        List<RetryContext> seen = new CopyOnWriteArrayList<>();
+        List<Integer> retryCounts = new CopyOnWriteArrayList<>();
+
+        Mono<String> source = Mono.deferContextual(view -> {
+            RetryContext context = ReactorRetryOperators.retryContext(view);
+            seen.add(context);
+            retryCounts.add(context.getRetryCount());
+            context.setAttribute("endpoint", "https://api.example.com");
+            return context.getRetryCount() < 2
+                    ? Mono.error(new RuntimeException("測試失敗"))
+                    : Mono.just("成功");
+        });
+
+        String result = source.transform(ReactorRetryOperators.forMono(new SimpleRetryPolicy(3), fixedBackOff(10)))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("成功", result);
+        assertEquals(List.of(0, 1, 2), retryCounts, "每次嘗試都應該看到同一個重試上下文的重試次數");
+        assertSame(seen.get(0), seen.get(2), "所有嘗試應該共用同一個重試上下文");
+        assertEquals("https://api.example.com", seen.get(0).getAttribute("endpoint"));
+    }
+
+    private FixedBackOffPolicy fixedBackOff(long backOffPeriod) {
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(backOffPeriod);
+        return backOffPolicy;
+    }
+}
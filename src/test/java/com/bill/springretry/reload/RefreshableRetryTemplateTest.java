@@ -0,0 +1,65 @@
+package com.bill.springretry.reload;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshableRetryTemplateTest {
+
+    @Test
+    void testRefresh_NewExecutionsUseNewTemplate() {
+        RefreshableRetryTemplate template = new RefreshableRetryTemplate("simple", template(3));
+        assertEquals(3, attemptsUntilFailure(template));
+
+        template.refresh(template(1));
+        assertEquals(1, attemptsUntilFailure(template), "替換後的執行應該使用新的最大嘗試次數");
+    }
+
+    @Test
+    void testRefresh_InFlightExecutionKeepsOldTemplate() throws Exception {
+        RefreshableRetryTemplate template = new RefreshableRetryTemplate("simple", template(3));
+        CountDownLatch firstAttemptStarted = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> assertThrows(IllegalStateException.class,
+                () -> template.execute(context -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        firstAttemptStarted.countDown();
+                        refreshed.await(5, TimeUnit.SECONDS);
+                    }
+                    throw new IllegalStateException("第 " + attempts.get() + " 次失敗");
+                })));
+
+        assertTrue(firstAttemptStarted.await(5, TimeUnit.SECONDS));
+        template.refresh(template(1));
+        refreshed.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, attempts.get(), "執行中的重試應該以開始時的模板完成");
+    }
+
+    private static RetryTemplate template(int maxAttempts) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(maxAttempts));
+        template.setBackOffPolicy(new NoBackOffPolicy());
+        return template;
+    }
+
+    private static int attemptsUntilFailure(RefreshableRetryTemplate template) {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("失敗");
+        }));
+        return attempts.get();
+    }
+}
@@ -0,0 +1,92 @@
+package com.bill.springretry.reload;
+
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.configuration.RetryTemplateFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.PropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("retry.policies.simple.max-attempts", "3")
+            .withProperty("retry.policies.simple.backoff.type", "none");
+
+    private final RetryTemplateRegistry registry = new RetryTemplateRegistry(
+            new RetryTemplateFactory(new RetryBudget(1.0, 100, Duration.ofSeconds(10)), name -> {
+                throw new IllegalArgumentException("找不到監聽器 " + name);
+            }),
+            environment);
+
+    @Test
+    void testReloadFile_OverridesApplicationProperties() throws IOException {
+        Path file = directory.resolve("retry-policies.yml");
+        Files.writeString(file, "retry.policies.simple.max-attempts: 4\n");
+        RetryPolicyFileWatcher watcher = new RetryPolicyFileWatcher(file, environment, registry);
+        RefreshableRetryTemplate template = registry.get("simple");
+
+        assertTrue(watcher.reloadFile());
+
+        assertEquals(4, attemptsUntilFailure(template));
+    }
+
+    @Test
+    void testReloadFile_ReappearingFileStaysBelowJmxOverrides() throws IOException {
+        Path file = directory.resolve("retry-policies.yml");
+        RetryPolicyFileWatcher watcher = new RetryPolicyFileWatcher(file, environment, registry);
+        RetryPolicyManagement management = new RetryPolicyManagement(environment, registry);
+        RefreshableRetryTemplate template = registry.get("simple");
+        management.setProperty("retry.policies.simple.max-attempts", "2");
+
+        // 檔案在 JMX 覆寫之後才出現，不應該蓋過事故期間的覆寫
+        Files.writeString(file, "retry.policies.simple.max-attempts: 4\n");
+        assertTrue(watcher.reloadFile());
+
+        assertEquals(2, attemptsUntilFailure(template));
+        assertEquals(List.of(RetryPolicyManagement.PROPERTY_SOURCE_NAME, RetryPolicyFileWatcher.PROPERTY_SOURCE_NAME),
+                environment.getPropertySources().stream().map(PropertySource::getName).limit(2).toList());
+
+        management.clearOverrides();
+        assertEquals(4, attemptsUntilFailure(template), "移除覆寫後回到設定檔的值");
+    }
+
+    @Test
+    void testReloadFile_InvalidFileKeepsPreviousContentBelowJmxOverrides() throws IOException {
+        Path file = directory.resolve("retry-policies.yml");
+        Files.writeString(file, "retry.policies.simple.max-attempts: 4\n");
+        RetryPolicyFileWatcher watcher = new RetryPolicyFileWatcher(file, environment, registry);
+        RetryPolicyManagement management = new RetryPolicyManagement(environment, registry);
+        RefreshableRetryTemplate template = registry.get("simple");
+        assertTrue(watcher.reloadFile());
+        management.setProperty("retry.policies.simple.max-attempts", "2");
+
+        Files.writeString(file, "retry.policies.simple.backoff.type: unknown\n");
+        assertFalse(watcher.reloadFile());
+
+        assertEquals(2, attemptsUntilFailure(template));
+        assertEquals(List.of(RetryPolicyManagement.PROPERTY_SOURCE_NAME, RetryPolicyFileWatcher.PROPERTY_SOURCE_NAME),
+                environment.getPropertySources().stream().map(PropertySource::getName).limit(2).toList());
+    }
+
+    private static int attemptsUntilFailure(RefreshableRetryTemplate template) {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("失敗");
+        }));
+        return attempts.get();
+    }
+}
@@ -0,0 +1,96 @@
+package com.bill.springretry.reload;
+
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.configuration.RetryTemplateFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyManagementTest {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("retry.policies.simple.max-attempts", "3")
+            .withProperty("retry.policies.simple.backoff.type", "none");
+
+    private final RetryTemplateRegistry registry = new RetryTemplateRegistry(
+            new RetryTemplateFactory(new RetryBudget(1.0, 100, Duration.ofSeconds(10)), name -> {
+                throw new IllegalArgumentException("找不到監聽器 " + name);
+            }),
+            environment);
+
+    private final RetryPolicyManagement management = new RetryPolicyManagement(environment, registry);
+
+    @Test
+    void testSetProperty_AppliesOverride() {
+        RefreshableRetryTemplate template = registry.get("simple");
+
+        management.setProperty("retry.policies.simple.max-attempts", "2");
+
+        assertEquals(2, attemptsUntilFailure(template));
+        assertEquals("{retry.policies.simple.max-attempts=2}", management.getOverrides());
+    }
+
+    @Test
+    void testSetProperty_JavaBuiltTemplate() {
+        RefreshableRetryTemplate template = registry.register("network", properties -> new RetryComponents(
+                new SimpleRetryPolicy(properties.getNetwork().getMaxAttempts()), new NoBackOffPolicy()));
+        assertEquals(4, attemptsUntilFailure(template));
+
+        management.setProperty("retry.network.max-attempts", "2");
+
+        assertEquals(2, attemptsUntilFailure(template));
+        assertThrows(IllegalArgumentException.class, () -> management.setProperty("retry.database.max-attempts.deadlock", "2"),
+                "沒有註冊的前綴不應該被接受");
+    }
+
+    @Test
+    void testSetProperty_UnconvertibleValueIsRolledBack() {
+        RefreshableRetryTemplate template = registry.get("simple");
+
+        // 無法轉換成數字的值由 Binder 拋出 BindException，而不是驗證錯誤
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> management.setProperty("retry.policies.simple.max-attempts", "abc"));
+        assertTrue(exception.getMessage().contains("已恢復原本的設定"), exception.getMessage());
+        assertFalse(environment.getPropertySources().contains(RetryPolicyManagement.PROPERTY_SOURCE_NAME),
+                "錯誤的覆寫不應該留在環境中");
+        assertEquals("{}", management.getOverrides());
+        assertEquals(3, attemptsUntilFailure(template));
+
+        // 之後正確的覆寫仍然可以套用
+        management.setProperty("retry.policies.simple.max-attempts", "2");
+        assertEquals(2, attemptsUntilFailure(template));
+        assertDoesNotThrow(management::reload);
+    }
+
+    @Test
+    void testSetProperty_InvalidValueKeepsPreviousOverrides() {
+        RefreshableRetryTemplate template = registry.get("simple");
+        management.setProperty("retry.policies.simple.max-attempts", "2");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> management.setProperty("retry.policies.simple.max-attempts", "0"));
+
+        assertEquals("{retry.policies.simple.max-attempts=2}", management.getOverrides());
+        assertEquals(2, attemptsUntilFailure(template));
+    }
+
+    @Test
+    void testSetProperty_RejectsOtherPrefixes() {
+        assertThrows(IllegalArgumentException.class, () -> management.setProperty("retry.budget.ratio", "1.0"));
+    }
+
+    private static int attemptsUntilFailure(RefreshableRetryTemplate template) {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("失敗");
+        }));
+        return attempts.get();
+    }
+}
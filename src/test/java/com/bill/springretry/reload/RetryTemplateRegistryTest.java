@@ -0,0 +1,147 @@
+package com.bill.springretry.reload;
+
+import com.bill.springretry.budget.RetryBudget;
+import com.bill.springretry.configuration.RetryProperties;
+import com.bill.springretry.configuration.RetryTemplateFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTemplateRegistryTest {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("retry.policies.simple.max-attempts", "3")
+            .withProperty("retry.policies.simple.backoff.type", "none");
+
+    private final RetryTemplateRegistry registry = new RetryTemplateRegistry(
+            new RetryTemplateFactory(new RetryBudget(1.0, 100, Duration.ofSeconds(10)), name -> {
+                throw new IllegalArgumentException("找不到監聽器 " + name);
+            }),
+            environment);
+
+    @Test
+    void testReload_SwapsInPlace() {
+        RefreshableRetryTemplate template = registry.get("simple");
+        assertEquals(3, attemptsUntilFailure(template));
+
+        environment.setProperty("retry.policies.simple.max-attempts", "2");
+        assertEquals(List.of("simple"), registry.reload());
+
+        assertSame(template, registry.get("simple"), "已注入的模板應該原地替換");
+        assertEquals(2, attemptsUntilFailure(template));
+    }
+
+    @Test
+    void testReload_InvalidConfigurationKeepsOldTemplates() {
+        RefreshableRetryTemplate template = registry.get("simple");
+
+        environment.setProperty("retry.policies.simple.max-attempts", "0");
+        IllegalStateException exception = assertThrows(IllegalStateException.class, registry::reload);
+        assertTrue(exception.getMessage().contains("retry.policies.simple.max-attempts"));
+        assertEquals(3, attemptsUntilFailure(template), "設定錯誤時應該維持原本的模板");
+
+        environment.setProperty("retry.policies.simple.max-attempts", "3");
+        environment.setProperty("retry.policies.simple.listeners[0]", "missingListener");
+        assertThrows(IllegalStateException.class, registry::reload, "找不到監聽器時同樣保留原本的設定");
+    }
+
+    @Test
+    void testReload_RejectsUndeclaredTemplates() {
+        RefreshableRetryTemplate template = registry.get("simple");
+
+        // databaseRetryTemplate 在 Java 中組合，不是宣告式模板，覆寫它的設定不應該被默默忽略
+        environment.setProperty("retry.policies.simple.max-attempts", "2");
+        environment.setProperty("retry.policies.database.max-attempts", "2");
+        IllegalStateException exception = assertThrows(IllegalStateException.class, registry::reload);
+
+        assertTrue(exception.getMessage().contains("retry.policies.database"), exception.getMessage());
+        assertEquals(3, attemptsUntilFailure(template), "任何錯誤都應該保留所有原本的模板");
+        assertEquals(Set.of("simple"), registry.getNames());
+    }
+
+    @Test
+    void testReload_ValidatesTemplatesNotYetInjected() {
+        // 模板尚未被注入時同樣驗證，錯誤的設定不會等到第一次使用時才發現
+        environment.setProperty("retry.policies.simple.max-attempts", "0");
+        assertThrows(IllegalStateException.class, registry::reload);
+
+        environment.setProperty("retry.policies.simple.max-attempts", "2");
+        assertEquals(List.of("simple"), registry.reload());
+        assertEquals(2, attemptsUntilFailure(registry.get("simple")));
+    }
+
+    @Test
+    void testRegister_JavaBuiltTemplateIsRebuiltOnReload() {
+        environment.setProperty("retry.network.max-attempts", "3");
+        RefreshableRetryTemplate template = registry.register("network", RetryTemplateRegistryTest::networkRetry);
+        RetryComponents original = registry.getComponents("network");
+        assertEquals(3, attemptsUntilFailure(template));
+
+        environment.setProperty("retry.network.max-attempts", "2");
+        assertEquals(List.of("simple", "network"), registry.reload());
+
+        assertSame(template, registry.get("network"), "已注入的模板應該原地替換");
+        assertEquals(2, attemptsUntilFailure(template));
+        assertNotSame(original, registry.getComponents("network"), "響應式重試使用的策略應該一起替換");
+        assertEquals(Set.of("simple", "network"), registry.getNames());
+        assertEquals(List.of("retry.policies.", "retry.network."), registry.getPropertyPrefixes());
+    }
+
+    @Test
+    void testRegister_InvalidRebuildKeepsAllTemplates() {
+        RefreshableRetryTemplate simple = registry.get("simple");
+        RefreshableRetryTemplate network = registry.register("network", RetryTemplateRegistryTest::networkRetry);
+        RetryComponents original = registry.getComponents("network");
+
+        environment.setProperty("retry.policies.simple.max-attempts", "2");
+        environment.setProperty("retry.network.max-attempts", "0");
+        IllegalStateException exception = assertThrows(IllegalStateException.class, registry::reload);
+
+        assertTrue(exception.getMessage().contains("retry.network"), exception.getMessage());
+        assertEquals(3, attemptsUntilFailure(simple), "任何錯誤都應該保留所有原本的模板");
+        assertEquals(4, attemptsUntilFailure(network));
+        assertSame(original, registry.getComponents("network"));
+    }
+
+    @Test
+    void testRegister_RejectsDuplicateNames() {
+        registry.register("network", RetryTemplateRegistryTest::networkRetry);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.register("network", RetryTemplateRegistryTest::networkRetry));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.register("simple", RetryTemplateRegistryTest::networkRetry),
+                "不可與 retry.policies 宣告的名稱重複");
+        assertThrows(IllegalArgumentException.class, () -> registry.getComponents("simple"));
+    }
+
+    @Test
+    void testGet_UnknownName() {
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+    }
+
+    private static RetryComponents networkRetry(RetryProperties properties) {
+        int maxAttempts = properties.getNetwork().getMaxAttempts();
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("retry.network.max-attempts 必須至少為 1，目前為 " + maxAttempts);
+        }
+        return new RetryComponents(new SimpleRetryPolicy(maxAttempts), new NoBackOffPolicy());
+    }
+
+    private static int attemptsUntilFailure(RefreshableRetryTemplate template) {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("失敗");
+        }));
+        return attempts.get();
+    }
+}
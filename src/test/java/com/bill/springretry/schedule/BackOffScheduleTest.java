@@ -0,0 +1,92 @@
+package com.bill.springretry.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackOffScheduleTest {
+
+    @Test
+    void testWindowLookup_WeekdayPeakAndWeekend() {
+        BackOffSchedule schedule = BackOffSchedule.of(properties(
+                window("weekday-peak", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), "09:00", "18:00", 3000),
+                window("weekend", EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), "00:00", "00:00", 200)));
+
+        assertEquals("weekday-peak", schedule.windowAt(DayOfWeek.TUESDAY, LocalTime.of(9, 0)).getName());
+        assertEquals("weekday-peak", schedule.windowAt(DayOfWeek.FRIDAY, LocalTime.of(17, 59)).getName());
+        assertEquals("default", schedule.windowAt(DayOfWeek.FRIDAY, LocalTime.of(18, 0)).getName());
+        assertEquals("weekend", schedule.windowAt(DayOfWeek.SATURDAY, LocalTime.of(12, 0)).getName(),
+                "start 等於 end 應該涵蓋整天");
+        assertEquals("weekend", schedule.windowAt(DayOfWeek.SUNDAY, LocalTime.of(23, 59)).getName());
+    }
+
+    @Test
+    void testOvernightWindow_SpillsIntoNextDay() {
+        BackOffSchedule schedule = BackOffSchedule.of(properties(
+                window("sunday-night", EnumSet.of(DayOfWeek.SUNDAY), "22:00", "06:00", 500)));
+
+        assertEquals("sunday-night", schedule.windowAt(DayOfWeek.SUNDAY, LocalTime.of(23, 0)).getName());
+        assertEquals("sunday-night", schedule.windowAt(DayOfWeek.MONDAY, LocalTime.of(5, 59)).getName(),
+                "跨越午夜的時段應該延續到下週一早上");
+        assertEquals("default", schedule.windowAt(DayOfWeek.MONDAY, LocalTime.of(6, 0)).getName());
+        assertEquals("default", schedule.windowAt(DayOfWeek.SATURDAY, LocalTime.of(23, 0)).getName());
+    }
+
+    @Test
+    void testOverlappingWindows_FirstListedWins() {
+        BackOffSchedule schedule = BackOffSchedule.of(properties(
+                window("lunch", EnumSet.allOf(DayOfWeek.class), "12:00", "13:00", 5000),
+                window("daytime", EnumSet.allOf(DayOfWeek.class), "08:00", "20:00", 2000)));
+
+        assertEquals("lunch", schedule.windowAt(DayOfWeek.WEDNESDAY, LocalTime.of(12, 30)).getName());
+        assertEquals("daytime", schedule.windowAt(DayOfWeek.WEDNESDAY, LocalTime.of(13, 0)).getName());
+        assertEquals(3, schedule.getWindows().size(), "應該包含預設時段");
+    }
+
+    @Test
+    void testWindowDelay_GrowsWithMultiplierUpToMax() {
+        BackOffScheduleProperties.Window configured =
+                window("growing", EnumSet.allOf(DayOfWeek.class), "00:00", "00:00", 100);
+        configured.setMultiplier(2.0);
+        configured.setMaxInterval(350L);
+        BackOffWindow window = BackOffSchedule.of(properties(configured)).windowAt(0);
+
+        assertEquals(100, window.delay(0));
+        assertEquals(200, window.delay(1));
+        assertEquals(350, window.delay(2), "延遲不應超過時段的上限");
+    }
+
+    @Test
+    void testInvalidWindow_Rejected() {
+        BackOffScheduleProperties.Window configured =
+                window("broken", EnumSet.allOf(DayOfWeek.class), "00:00", "00:00", 100);
+        configured.setMultiplier(0);
+
+        assertThrows(IllegalArgumentException.class, () -> BackOffSchedule.of(properties(configured)));
+    }
+
+    private BackOffScheduleProperties properties(BackOffScheduleProperties.Window... windows) {
+        BackOffScheduleProperties properties = new BackOffScheduleProperties();
+        properties.setZone(ZoneId.of("UTC"));
+        properties.setDefaultInterval(1000);
+        properties.setWindows(List.of(windows));
+        return properties;
+    }
+
+    private BackOffScheduleProperties.Window window(String name, EnumSet<DayOfWeek> days,
+                                                    String start, String end, long baseInterval) {
+        BackOffScheduleProperties.Window window = new BackOffScheduleProperties.Window();
+        window.setName(name);
+        window.setDays(days);
+        window.setStart(LocalTime.parse(start));
+        window.setEnd(LocalTime.parse(end));
+        window.setBaseInterval(baseInterval);
+        return window;
+    }
+}
@@ -0,0 +1,144 @@
+package com.bill.springretry.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleBackOffPolicyTest {
+
+    private static final ZoneId TAIPEI = ZoneId.of("Asia/Taipei");
+
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void testBackOff_UsesActiveWindow() throws Exception {
+        // 2026-10-19 為星期一
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2026, 10, 19, 10, 0, 0, 0, TAIPEI).toInstant());
+        ScheduleBackOffPolicy policy = new ScheduleBackOffPolicy(schedule(), new CachedClock(clock))
+                .withSleeper(sleeps::add);
+        AtomicReference<Object> window = new AtomicReference<>();
+
+        retryTemplate(policy).execute(context -> {
+            if (context.getRetryCount() < 2) {
+                throw new RuntimeException("測試失敗");
+            }
+            window.set(context.getAttribute(ScheduleBackOffPolicy.WINDOW));
+            return "成功";
+        });
+
+        assertEquals(List.of(3000L, 6000L), sleeps, "高峰時段應該從 3 秒開始加倍");
+        assertEquals("peak", window.get());
+    }
+
+    @Test
+    void testBackOff_FollowsClockAcrossWindows() throws Exception {
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2026, 10, 19, 17, 59, 30, 0, TAIPEI).toInstant());
+        ScheduleBackOffPolicy policy = new ScheduleBackOffPolicy(schedule(), new CachedClock(clock))
+                .withSleeper(sleeps::add);
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        retryTemplate(policy).execute(context -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RuntimeException("高峰時段失敗");
+            }
+            if (attempts.get() == 2) {
+                clock.advanceMillis(30_000); // 進入 18:00，離開高峰時段
+                throw new RuntimeException("正常時段失敗");
+            }
+            return "成功";
+        });
+
+        assertEquals(List.of(3000L, 1000L), sleeps);
+    }
+
+    @Test
+    void testCachedClock_RecomputesOnlyAtMinuteBoundary() {
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2026, 10, 25, 23, 59, 0, 0, TAIPEI).toInstant());
+        CachedClock cachedClock = new CachedClock(clock);
+
+        int sundayLastMinute = BackOffSchedule.minuteOfWeek(DayOfWeek.SUNDAY, LocalTime.of(23, 59));
+        assertEquals(sundayLastMinute, cachedClock.minuteOfWeek());
+        clock.advanceMillis(59_999);
+        assertEquals(sundayLastMinute, cachedClock.minuteOfWeek());
+        clock.advanceMillis(1);
+        assertEquals(0, cachedClock.minuteOfWeek(), "跨過星期日午夜應該回到一週的第 0 分鐘");
+        assertEquals(LocalTime.MIDNIGHT, cachedClock.localTime());
+    }
+
+    @Test
+    void testClockZoneMismatch_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScheduleBackOffPolicy(schedule(), new CachedClock(Clock.system(ZoneId.of("UTC")))));
+    }
+
+    private BackOffSchedule schedule() {
+        BackOffScheduleProperties.Window peak = new BackOffScheduleProperties.Window();
+        peak.setName("peak");
+        peak.setStart(LocalTime.of(9, 0));
+        peak.setEnd(LocalTime.of(18, 0));
+        peak.setBaseInterval(3000);
+        peak.setMultiplier(2.0);
+
+        BackOffScheduleProperties properties = new BackOffScheduleProperties();
+        properties.setZone(TAIPEI);
+        properties.setDefaultInterval(1000);
+        properties.setWindows(List.of(peak));
+        return BackOffSchedule.of(properties);
+    }
+
+    private RetryTemplate retryTemplate(ScheduleBackOffPolicy policy) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(policy);
+        return template;
+    }
+
+    /**
+     * 可以手動前進的時鐘
+     */
+    private static class MutableClock extends Clock {
+
+        private long millis;
+
+        MutableClock(Instant instant) {
+            this.millis = instant.toEpochMilli();
+        }
+
+        void advanceMillis(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return TAIPEI;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+    }
+}
@@ -7,7 +7,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,6 +86,90 @@ class StatefulRetryServiceTest {
         }
     }
 
+    @Test
+    void testProcessTransactionDeferred_SucceedsAfterScheduledRetries() throws Exception {
+        // 前兩次嘗試失敗，之後每次失敗都應該以退避延遲排程到計時器上，由執行器執行下一次嘗試
+        AtomicInteger attempts = new AtomicInteger();
+        List<Long> scheduledDelays = new ArrayList<>();
+        AtomicInteger dispatched = new AtomicInteger();
+        StatefulRetryService service = new StatefulRetryService(
+                (task, delayMillis) -> {
+                    scheduledDelays.add(delayMillis);
+                    task.run();
+                },
+                task -> {
+                    dispatched.incrementAndGet();
+                    task.run();
+                },
+                () -> attempts.incrementAndGet() <= 2);
+        String transactionId = UUID.randomUUID().toString();
+        
+        String result = service.processTransactionDeferred(transactionId, "延遲重試資料").get(5, TimeUnit.SECONDS);
+        
+        assertEquals("交易 " + transactionId + " 處理成功", result);
+        assertEquals(3, attempts.get());
+        assertEquals(List.of(100L, 200L), scheduledDelays);
+        assertEquals(2, dispatched.get(), "每次到期都應該交給執行器，而不是在計時器上執行");
+        assertFalse(service.hasActiveRetryState(transactionId), "成功後不應該保留重試狀態");
+    }
+
+    @Test
+    void testProcessTransactionDeferred_RecoversWhenRetriesExhausted() throws Exception {
+        // 一直失敗時，重試次數在多次調用之間累積，第 3 次失敗後立即進入恢復流程
+        AtomicInteger attempts = new AtomicInteger();
+        List<Long> scheduledDelays = new ArrayList<>();
+        StatefulRetryService service = new StatefulRetryService(
+                (task, delayMillis) -> {
+                    scheduledDelays.add(delayMillis);
+                    task.run();
+                },
+                Runnable::run,
+                () -> {
+                    attempts.incrementAndGet();
+                    return true;
+                });
+        String transactionId = UUID.randomUUID().toString();
+        
+        ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(errContent));
+        
+        try {
+            String result = service.processTransactionDeferred(transactionId, "延遲重試資料")
+                    .get(5, TimeUnit.SECONDS);
+            
+            assertTrue(result.startsWith("交易 " + transactionId + " 恢復處理"), "實際結果：" + result);
+            assertEquals(3, attempts.get());
+            assertEquals(List.of(100L, 200L), scheduledDelays, "最後一次失敗後應該立即恢復，而不是再等待一次退避");
+            assertFalse(service.hasActiveRetryState(transactionId), "恢復後不應該保留重試狀態");
+        } finally {
+            System.setErr(originalErr);
+        }
+    }
+
+    @Test
+    void testProcessTransactionDeferred_ExecutorRejectionFailsResult() {
+        String transactionId = UUID.randomUUID().toString();
+        StatefulRetryService service = new StatefulRetryService(
+                (task, delayMillis) -> task.run(),
+                task -> {
+                    throw new RejectedExecutionException("執行器已關閉");
+                },
+                () -> true);
+        
+        ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(errContent));
+        
+        try {
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> service.processTransactionDeferred(transactionId, "延遲重試資料").get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        } finally {
+            System.setErr(originalErr);
+        }
+    }
+
     @Test
     void testClearRetryState() throws Exception {
         // 創建一個事務ID